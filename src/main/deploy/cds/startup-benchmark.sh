@@ -0,0 +1,46 @@
+#!/bin/sh
+# Compares how long the robot code takes to reach robotInit with and without the
+# class data sharing archive. Run on the roboRIO after deploying with -PcdsMode=use:
+#   ssh admin@roborio-4237-frc.local sh /home/lvuser/deploy/cds/startup-benchmark.sh [runs]
+# Every start appends "milliseconds,sharing" to robotInit-times.csv (see Startup.recordRobotInit).
+
+RUNS=${1:-5}
+CDS_DIRECTORY=/home/lvuser/cds
+TIMES=$CDS_DIRECTORY/robotInit-times.csv
+COMMAND=/home/lvuser/robotCommand
+
+. /etc/profile.d/natinst-path.sh
+
+if ! grep -q "SharedArchiveFile" $COMMAND; then
+	echo "robotCommand does not use the archive, deploy with -PcdsMode=use first"
+	exit 1
+fi
+
+cp $COMMAND $CDS_DIRECTORY/robotCommand.on
+sed -e 's/ -Xshare:auto//' -e 's/ -XX:SharedArchiveFile=[^ ]*//' $CDS_DIRECTORY/robotCommand.on > $CDS_DIRECTORY/robotCommand.off
+rm -f $TIMES
+
+for SHARING in off on; do
+	cp $CDS_DIRECTORY/robotCommand.$SHARING $COMMAND
+	RUN=1
+	while [ $RUN -le $RUNS ]; do
+		LINES=$(cat $TIMES 2>/dev/null | wc -l)
+		frcKillRobot.sh -t -r
+		WAITED=0
+		while [ $(cat $TIMES 2>/dev/null | wc -l) -le $LINES ] && [ $WAITED -lt 60 ]; do
+			sleep 1
+			WAITED=$((WAITED + 1))
+		done
+		RUN=$((RUN + 1))
+	done
+done
+
+cp $CDS_DIRECTORY/robotCommand.on $COMMAND
+frcKillRobot.sh -t -r
+
+echo "time to robotInit (ms):"
+for SHARING in off on; do
+	grep ",$SHARING\$" $TIMES | awk -F, -v sharing=$SHARING '
+		{ sum += $1; if (min == "" || $1 < min) min = $1; if ($1 > max) max = $1 }
+		END { if (NR > 0) printf "\tclass data sharing %-3s runs=%d mean=%.0f min=%d max=%d\n", sharing, NR, sum / NR, min, max }'
+done
@@ -6,6 +6,18 @@ import frc.robot.sensors.AMSColorSensor;
 import frc.robot.network.AutoSelect4237;
 import frc.robot.components.Elevator;
 import frc.robot.components.Gripper;
+import frc.robot.jfr.JfrRecording;
+import frc.robot.jfr.StageTransitionEvent;
+import frc.robot.loop.LoadGovernor;
+import frc.robot.loop.Tracer;
+import frc.robot.loop.WarmUp;
+import frc.robot.metrics.Counter;
+import frc.robot.metrics.Histogram;
+import frc.robot.metrics.MetricsRegistry;
+import frc.robot.util.Logger;
+import frc.robot.util.Startup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Timer;
@@ -17,6 +29,24 @@ import edu.wpi.first.wpilibj.Timer;
  */
 public class Autonomous
 {
+	private static final Logger.Message ENTERING = new Logger.Message("Entering: {}");
+	private static final Logger.Message SELECTED_POSITION = new Logger.Message("Selected position: {}");
+	private static final Logger.Message PLAN_A = new Logger.Message("Plan A: {}");
+	private static final Logger.Message PLAN_B = new Logger.Message("Plan B: {}");
+	private static final Logger.Message PLAN_C = new Logger.Message("Plan C: {}");
+	private static final Logger.Message ALLIANCE_COLOR = new Logger.Message("Alliance color: {}");
+	private static final Logger.Message NAVX_NOT_CALIBRATED = new Logger.Message("NavX not calibrated, running auto line instead of {}");
+	private static final Logger.Message GAME_SPECIFIC_MESSAGE = new Logger.Message("GameSpecificMessage: {}");
+	private static final Logger.Message TIMER = new Logger.Message("Timer: {}");
+	private static final long AUTO_STAGE_TRACK = Tracer.registerTrack("AutoStage");
+	private static final long AUTON_STAGE_TRACK = Tracer.registerTrack("AutonStage");
+	private static final int[] AUTO_STAGE_SPANS = registerStageSpans(Constants.AutoStage.values());
+	private static final int[] AUTON_STAGE_SPANS = registerStageSpans(Constants.AutonStage.values());
+	private static final Constants.AutoMode[] WARM_UP_AUTO_MODES = Constants.AutoMode.values();
+	private static final Constants.AutoStage[] WARM_UP_AUTO_STAGES = Constants.AutoStage.values();
+	private static final Constants.AutonStage[] WARM_UP_AUTON_STAGES = Constants.AutonStage.values();
+	private static final AMSColorSensor.Constants.Color[] WARM_UP_COLORS = AMSColorSensor.Constants.Color.values();
+
 	private Drivetrain drivetrain = Drivetrain.getInstance();
 
 	private DriverStation driverStation = DriverStation.getInstance();
@@ -24,9 +54,9 @@ public class Autonomous
 	private Gripper gripper = Gripper.getInstance();
 	private AutoSelect4237 autoSelect4237 = AutoSelect4237.getInstance();
 
-	private LightRing greenCameraLight = new LightRing(Constants.GREEN_CAMERA_PORT);
-	private LightRing whiteCameraLight = new LightRing(Constants.WHITE_CAMERA_PORT);
-	private LightRing whiteFloorLight = new LightRing(Constants.WHITE_FLOOR_PORT);
+	private LightRing greenCameraLight = Startup.time("Autonomous.greenCameraLight", () -> new LightRing(Constants.GREEN_CAMERA_PORT));
+	private LightRing whiteCameraLight = Startup.time("Autonomous.whiteCameraLight", () -> new LightRing(Constants.WHITE_CAMERA_PORT));
+	private LightRing whiteFloorLight = Startup.time("Autonomous.whiteFloorLight", () -> new LightRing(Constants.WHITE_FLOOR_PORT));
 
 	private String fieldColors = null;
 	private DriverStation.Alliance allianceColor;
@@ -52,6 +82,40 @@ public class Autonomous
 	private boolean doneShooting = false;
 
 	private Timer timer = new Timer();
+	private LoadGovernor governor = LoadGovernor.getInstance();
+
+	private int warmUpIteration = 0;
+	private Constants.AutoMode warmUpAutoMode = Constants.AutoMode.kNone;
+	private int warmUpRoutineIteration = 0;
+	private boolean isWarmingUp = false;
+	// the routine state is kept here while a routine is warmed up on scratch state
+	private Timer mutedTimer = new Timer();
+	private Constants.AutoMode savedAutoMode;
+	private Constants.AutoStage savedAutoStage;
+	private Constants.AutonStage savedAutonStage;
+	private String savedFieldColors;
+	private boolean isSavedFieldColorsSet;
+	private String savedSelectedPosition;
+	private int savedAngleSign;
+	private int savedSwitchAngleSign;
+	private AMSColorSensor.Constants.Color savedColor;
+	private boolean savedDoneMovingGripper;
+	private boolean savedDoneMovingElevator;
+	private boolean savedDoneDriving;
+	private boolean savedDoneShooting;
+
+	private MetricsRegistry metrics = MetricsRegistry.getInstance();
+	private Histogram stageTime = metrics.histogram("Autonomous.stageTime", "time spent in each stage, s", 0.1, 0.25, 0.5, 1.0, 2.0, 3.0, 5.0, 8.0, 15.0);
+	private Counter stageTransitions = metrics.counter("Autonomous.stageTransitions", "changes of AutoStage or AutonStage");
+	private Constants.AutoStage previousAutoStage = null;
+	private Constants.AutonStage previousAutonStage = null;
+	private long stageStartNanos = 0;
+	private long autoStageStartNanos = 0;
+	private long autonStageStartNanos = 0;
+	private final StageTransitionEvent stageTransitionEvent = new StageTransitionEvent();
+	// time in each stage since the robot code started, for the MatchReport
+	private AtomicLongArray autoStageNanos = new AtomicLongArray(Constants.AutoStage.values().length);
+	private AtomicLongArray autonStageNanos = new AtomicLongArray(Constants.AutonStage.values().length);
 
 	private static Autonomous instance = new Autonomous();
 
@@ -70,6 +134,10 @@ public class Autonomous
 	private Autonomous()
 	{
 		autoSelect4237.start();
+
+		metrics.gauge("Autonomous.autoMode", "AutoMode ordinal", () -> autoMode.ordinal());
+		metrics.gauge("Autonomous.autoStage", "AutoStage ordinal", () -> autoStage.ordinal());
+		metrics.gauge("Autonomous.autonStage", "AutonStage ordinal", () -> autonStage.ordinal());
 	}
 
 	/**
@@ -89,16 +157,16 @@ public class Autonomous
 		planB = autoSelect4237.getData().getPlanB();
 		planC = autoSelect4237.getData().getPlanC();
 
-		System.out.println("Selected position: " + selectedPosition);
-		System.out.println("Plan A: " + planA);
-		System.out.println("Plan B: " + planB);
-		System.out.println("Plan C: " + planC);
+		Logger.log(SELECTED_POSITION, selectedPosition);
+		Logger.log(PLAN_A, planA);
+		Logger.log(PLAN_B, planB);
+		Logger.log(PLAN_C, planC);
 		//		System.out.println("Selected position: " + selectedPosition);
 		//		System.out.println("Selected target: " + selectedTarget);
 		//		System.out.println("Selected backup plan: " + selectedBackupPlan);
 
 		allianceColor = driverStation.getAlliance();
-		System.out.println("Alliance color: " + allianceColor);
+		Logger.log(ALLIANCE_COLOR, allianceColor);
 
 		if(allianceColor == DriverStation.Alliance.Blue)
 		{
@@ -119,6 +187,11 @@ public class Autonomous
 		drivetrain.resetNavX();
 
 		autoStage = Constants.AutoStage.kDrive1;
+		previousAutoStage = autoStage;
+		previousAutonStage = autonStage;
+		stageStartNanos = System.nanoTime();
+		autoStageStartNanos = stageStartNanos;
+		autonStageStartNanos = stageStartNanos;
 
 		turnLightRingsOn();
 	}
@@ -128,9 +201,28 @@ public class Autonomous
 	 * The sequence to run is decided based on a three plan system.
 	 * Plan A is the primary sequence to run. If it cannot be run,
 	 * then it moves on to Plan B, and then as a last resort, Plan C.
+	 * If the NavX has not finished calibrating, or its calibration failed, only the auto line is run.
 	 */
 	public void setAutoMode()
 	{
+		autoMode = selectAutoMode(selectedPosition, planA, planB, planC, fieldColors);
+
+		//Without a calibrated NavX the robot cannot turn to a bearing, so it only crosses the auto line
+		if (autoMode != Constants.AutoMode.kNone && !drivetrain.getNavXCalibration().isGood())
+		{
+			Logger.log(NAVX_NOT_CALIBRATED, autoMode);
+			autoMode = Constants.AutoMode.kAutoLine;
+		}
+	}
+
+	/**
+	 * Method to find the autonomous sequence for the three plans and the field colors.
+	 * Does not change any state, so it can also be used to warm up.
+	 * @return The sequence to run, or the current one if no plan can be run.
+	 */
+	private Constants.AutoMode selectAutoMode(String selectedPosition, String planA, String planB, String planC, String fieldColors)
+	{
+		Constants.AutoMode autoMode = this.autoMode;
 		if(selectedPosition.equalsIgnoreCase("left"))
 		{
 			if(planA.equalsIgnoreCase("left scale") && fieldColors.charAt(1) == 'L')
@@ -264,6 +356,7 @@ public class Autonomous
 		{
 			autoMode = Constants.AutoMode.kNone;
 		}
+		return autoMode;
 	}
 
 	/**
@@ -277,7 +370,7 @@ public class Autonomous
 
 			if(fieldColors != null && !fieldColors.equals(""))
 			{
-				System.out.println("GameSpecificMessage: " + fieldColors);
+				Logger.log(GAME_SPECIFIC_MESSAGE, fieldColors);
 				isFieldColorsSet = true;
 				//				switchAngleSign = 1;
 				//				if(fieldColors.charAt(0) == 'L')
@@ -357,12 +450,276 @@ public class Autonomous
 			}
 		}
 
-		if(autoStage == Constants.AutoStage.kDone)
+		if (!isWarmingUp)
+		{
+			if(autoStage == Constants.AutoStage.kDone)
+			{
+				turnLightRingsOff();
+			}
+
+			updateStageMetrics();
+		}
+	}
+
+	/**
+	 * Method to print the stage a routine enters. Nothing is printed while warming up.
+	 * @param stage The AutoStage or AutonStage entered.
+	 */
+	private void logEntering(Enum<?> stage)
+	{
+		if (!isWarmingUp)
+		{
+			Logger.log(ENTERING, stage);
+		}
+	}
+
+	/**
+	 * Method to record how long the previous stage took, when the stage has changed.
+	 */
+	private void updateStageMetrics()
+	{
+		if (autoStage != previousAutoStage || autonStage != previousAutonStage)
+		{
+			long now = System.nanoTime();
+			stageTime.record((now - stageStartNanos) / 1.0e9);
+			stageTransitions.increment();
+			addStageTime(now);
+			endStages(now, false);
+			previousAutoStage = autoStage;
+			previousAutonStage = autonStage;
+			stageStartNanos = now;
+		}
+	}
+
+	/**
+	 * Method to add the time since the last stage change to the stages the routine was in.
+	 * @param now The current System.nanoTime().
+	 */
+	private void addStageTime(long now)
+	{
+		if (previousAutoStage != null)
+		{
+			autoStageNanos.addAndGet(previousAutoStage.ordinal(), now - stageStartNanos);
+		}
+		if (previousAutonStage != null)
+		{
+			autonStageNanos.addAndGet(previousAutonStage.ordinal(), now - stageStartNanos);
+		}
+	}
+
+	/**
+	 * Method to record the stages that have ended: as spans for the Tracer, one track for each kind of stage,
+	 * and as JFR events for the transitions while a recording is running.
+	 * @param now The current System.nanoTime().
+	 * @param isEnd True if autonomous is ending, which ends every stage.
+	 */
+	private void endStages(long now, boolean isEnd)
+	{
+		if (previousAutoStage != null && (isEnd || autoStage != previousAutoStage))
+		{
+			Tracer.record(AUTO_STAGE_SPANS[previousAutoStage.ordinal()], AUTO_STAGE_TRACK, autoStageStartNanos, now);
+			if (!isEnd && JfrRecording.isRecording())
+			{
+				stageTransitionEvent.commitTransition("AutoStage", previousAutoStage, autoStage, now - autoStageStartNanos);
+			}
+			autoStageStartNanos = now;
+		}
+		if (previousAutonStage != null && (isEnd || autonStage != previousAutonStage))
+		{
+			Tracer.record(AUTON_STAGE_SPANS[previousAutonStage.ordinal()], AUTON_STAGE_TRACK, autonStageStartNanos, now);
+			if (!isEnd && JfrRecording.isRecording())
+			{
+				stageTransitionEvent.commitTransition("AutonStage", previousAutonStage, autonStage, now - autonStageStartNanos);
+			}
+			autonStageStartNanos = now;
+		}
+	}
+
+	private static int[] registerStageSpans(Enum<?>[] stages)
+	{
+		int[] ids = new int[stages.length];
+		for (int i = 0; i < stages.length; i++)
+		{
+			ids[i] = Tracer.register("stage", stages[i].name());
+		}
+		return ids;
+	}
+
+	/**
+	 * Autonomous end method, called when autonomous ends.
+	 * Adds the time of the stage the routine was still in, so the stage times add up to the whole period.
+	 */
+	public void end()
+	{
+		if (previousAutoStage != null || previousAutonStage != null)
 		{
-			turnLightRingsOff();
+			long now = System.nanoTime();
+			addStageTime(now);
+			endStages(now, true);
+			previousAutoStage = null;
+			previousAutonStage = null;
+		}
+	}
+
+	/**
+	 * Gets the time spent in an AutoStage since the robot code started.
+	 * Can be called from any thread.
+	 * @param stage The stage.
+	 * @return The time in nanoseconds.
+	 */
+	public long getAutoStageNanos(Constants.AutoStage stage)
+	{
+		return autoStageNanos.get(stage.ordinal());
+	}
+
+	/**
+	 * Gets the time spent in an AutonStage since the robot code started.
+	 * Can be called from any thread.
+	 * @param stage The stage.
+	 * @return The time in nanoseconds.
+	 */
+	public long getAutonStageNanos(Constants.AutonStage stage)
+	{
+		return autonStageNanos.get(stage.ordinal());
+	}
+
+	/**
+	 * Method to register the rounds that warm up autonomous mode before the robot is enabled:
+	 * the selection of the autonomous sequence, periodic(), and every routine on its own,
+	 * so the warm-up report shows the time of each.
+	 * @param warmUp The warm-up to register the rounds with.
+	 * @param iterations How many times to run each round.
+	 */
+	public void registerWarmUp(WarmUp warmUp, int iterations)
+	{
+		warmUp.register("Autonomous.selectAutoMode", this::warmUpSelection, iterations);
+		registerWarmUpRoutine(warmUp, "Autonomous.periodic", this::periodic, iterations);
+		registerWarmUpRoutine(warmUp, "Autonomous.autoLine", this::autoLine, iterations);
+		registerWarmUpRoutine(warmUp, "Autonomous.switchOnSameSideOnEnd", this::switchOnSameSideOnEnd, iterations);
+		registerWarmUpRoutine(warmUp, "Autonomous.switchLeftFromMiddle", this::switchLeftFromMiddle, iterations);
+		registerWarmUpRoutine(warmUp, "Autonomous.switchRightFromMiddle", this::switchRightFromMiddle, iterations);
+		registerWarmUpRoutine(warmUp, "Autonomous.scaleOnSameSideOnAngleOneCube", this::scaleOnSameSideOnAngleOneCube, iterations);
+		registerWarmUpRoutine(warmUp, "Autonomous.scaleOnSameSideOnAngleTwoCubes", this::scaleOnSameSideOnAngleTwoCubes, iterations);
+		registerWarmUpRoutine(warmUp, "Autonomous.scaleOnSameSideOnAngleTwoCubesAndSwitch", this::scaleOnSameSideOnAngleTwoCubesAndSwitch, iterations);
+		registerWarmUpRoutine(warmUp, "Autonomous.scaleOnSameSideOnAngleTwoCubesAndScale", this::scaleOnSameSideOnAngleTwoCubesAndScale, iterations);
+		registerWarmUpRoutine(warmUp, "Autonomous.scaleOnOppositeSideNoColors", this::scaleOnOppositeSideNoColors, iterations);
+	}
+
+	private void registerWarmUpRoutine(WarmUp warmUp, String name, Runnable routine, int iterations)
+	{
+		warmUp.register(name, () -> warmUpRoutine(routine), iterations);
+	}
+
+	/**
+	 * Method to run one call of an autonomous routine without moving the robot.
+	 * The drivetrain, elevator and gripper are muted, and the routine runs on scratch state:
+	 * a different stage, sequence, field layout and done flags every call, so every branch gets compiled.
+	 * The real state is put back afterwards.
+	 * @param routine The routine to run.
+	 */
+	private void warmUpRoutine(Runnable routine)
+	{
+		saveRoutineState();
+		isWarmingUp = true;
+		drivetrain.setMuted(true);
+		elevator.setMuted(true);
+		gripper.setMuted(true);
+		try
+		{
+			int i = warmUpRoutineIteration++;
+			autoStage = WARM_UP_AUTO_STAGES[i % WARM_UP_AUTO_STAGES.length];
+			autonStage = WARM_UP_AUTON_STAGES[i % WARM_UP_AUTON_STAGES.length];
+			i /= WARM_UP_AUTON_STAGES.length;
+			doneDriving = (i & 1) != 0;
+			doneMovingGripper = (i & 2) != 0;
+			doneMovingElevator = (i & 4) != 0;
+			doneShooting = (i & 8) != 0;
+			i /= 16;
+			autoMode = WARM_UP_AUTO_MODES[i % WARM_UP_AUTO_MODES.length];
+			fieldColors = Constants.WARM_UP_FIELD_COLORS[i % Constants.WARM_UP_FIELD_COLORS.length];
+			isFieldColorsSet = true;
+			selectedPosition = Constants.WARM_UP_POSITIONS[i % Constants.WARM_UP_POSITIONS.length];
+			angleSign = ((i & 1) == 0) ? 1 : -1;
+			switchAngleSign = -angleSign;
+			color = WARM_UP_COLORS[i % WARM_UP_COLORS.length];
+
+			routine.run();
+		}
+		finally
+		{
+			gripper.setMuted(false);
+			elevator.setMuted(false);
+			drivetrain.setMuted(false);
+			isWarmingUp = false;
+			restoreRoutineState();
 		}
 	}
 
+	private void saveRoutineState()
+	{
+		Timer swapTimer = timer;
+		timer = mutedTimer;
+		mutedTimer = swapTimer;
+
+		savedAutoMode = autoMode;
+		savedAutoStage = autoStage;
+		savedAutonStage = autonStage;
+		savedFieldColors = fieldColors;
+		isSavedFieldColorsSet = isFieldColorsSet;
+		savedSelectedPosition = selectedPosition;
+		savedAngleSign = angleSign;
+		savedSwitchAngleSign = switchAngleSign;
+		savedColor = color;
+		savedDoneMovingGripper = doneMovingGripper;
+		savedDoneMovingElevator = doneMovingElevator;
+		savedDoneDriving = doneDriving;
+		savedDoneShooting = doneShooting;
+	}
+
+	private void restoreRoutineState()
+	{
+		Timer swapTimer = timer;
+		timer = mutedTimer;
+		mutedTimer = swapTimer;
+
+		autoMode = savedAutoMode;
+		autoStage = savedAutoStage;
+		autonStage = savedAutonStage;
+		fieldColors = savedFieldColors;
+		isFieldColorsSet = isSavedFieldColorsSet;
+		selectedPosition = savedSelectedPosition;
+		angleSign = savedAngleSign;
+		switchAngleSign = savedSwitchAngleSign;
+		color = savedColor;
+		doneMovingGripper = savedDoneMovingGripper;
+		doneMovingElevator = savedDoneMovingElevator;
+		doneDriving = savedDoneDriving;
+		doneShooting = savedDoneShooting;
+	}
+
+	/**
+	 * Method to warm up the selection of the autonomous sequence.
+	 * Runs it for one combination of starting position, plans and field colors.
+	 * Does not change the selected sequence.
+	 */
+	private void warmUpSelection()
+	{
+		String[] positions = Constants.WARM_UP_POSITIONS;
+		String[] plans = Constants.WARM_UP_PLANS;
+		String[] fieldColors = Constants.WARM_UP_FIELD_COLORS;
+
+		int i = warmUpIteration++;
+		String position = positions[i % positions.length];
+		i /= positions.length;
+		String planA = plans[i % plans.length];
+		i /= plans.length;
+		String planB = plans[i % plans.length];
+		String planC = plans[(i / plans.length) % plans.length];
+		String colors = fieldColors[warmUpIteration % fieldColors.length];
+
+		warmUpAutoMode = selectAutoMode(position, planA, planB, planC, colors);
+	}
+
 	/**
 	 * Method to turn on the robot's light rings.
 	 */
@@ -390,7 +747,10 @@ public class Autonomous
 	{
 		if(autoStage == Constants.AutoStage.kDrive1)
 		{
-			System.out.println("Timer: " + timer.get());
+			if (!isWarmingUp && governor.isDiagnosticsAllowed())
+			{
+				Logger.log(TIMER, timer.get());
+			}
 			if(!drivetrain.driveDistance(90, 0.5, 0, 48) && timer.get() <= 4.0)
 			{
 
@@ -439,7 +799,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kShoot1;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneMovingGripper = false;
 				doneDriving = false;
 			}
@@ -470,7 +830,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kSpin1;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -497,7 +857,7 @@ public class Autonomous
 			{
 				drivetrain.resetEncoder();
 				autonStage = Constants.AutonStage.kDrive2;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -523,7 +883,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kSpin2;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 				doneMovingElevator = false;
 				doneMovingGripper = false;
@@ -539,7 +899,7 @@ public class Autonomous
 			{
 				drivetrain.resetEncoder();
 				autonStage = Constants.AutonStage.kDrive3;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -552,7 +912,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kShoot1;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -565,7 +925,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kDrive4;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneShooting = false;
 			}
 		}
@@ -586,7 +946,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kSpin3;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -613,7 +973,7 @@ public class Autonomous
 			{
 				drivetrain.resetEncoder();
 				autonStage = Constants.AutonStage.kDrive5;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 				doneMovingElevator = false;
 				doneMovingGripper = false;
@@ -631,7 +991,7 @@ public class Autonomous
 				drivetrain.resetEncoder();
 				gripper.intakeOff();
 				autonStage = Constants.AutonStage.kDrive6;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -654,7 +1014,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kSpin4;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -681,7 +1041,7 @@ public class Autonomous
 			{
 				drivetrain.resetEncoder();
 				autonStage = Constants.AutonStage.kDrive7;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 				doneMovingElevator = false;
 				doneMovingGripper = false;
@@ -696,7 +1056,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kShoot2;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -710,7 +1070,7 @@ public class Autonomous
 			{
 				drivetrain.resetEncoder();
 				autonStage = Constants.AutonStage.kDrive8;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneShooting = false;
 			}
 		}
@@ -728,7 +1088,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kSpin5;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -755,7 +1115,7 @@ public class Autonomous
 			{
 				drivetrain.resetEncoder();
 				autonStage = Constants.AutonStage.kDrive9;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 				doneMovingElevator = false;
 				doneMovingGripper = false;
@@ -773,7 +1133,7 @@ public class Autonomous
 				drivetrain.resetEncoder();
 				gripper.intakeOff();
 				autonStage = Constants.AutonStage.kDrive10;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -796,7 +1156,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kSpin6;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -823,7 +1183,7 @@ public class Autonomous
 			{
 				drivetrain.resetEncoder();
 				autonStage = Constants.AutonStage.kDrive11;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 				doneMovingElevator = false;
 				doneMovingGripper = false;
@@ -838,7 +1198,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kShoot3;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneDriving = false;
 			}
 		}
@@ -851,7 +1211,7 @@ public class Autonomous
 			else
 			{
 				autonStage = Constants.AutonStage.kDone;
-				System.out.println("Entering: " + autonStage);
+				logEntering(autonStage);
 				doneShooting = false;
 			}
 		}
@@ -884,7 +1244,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2Distance1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				drivetrain.resetEncoder();
 				doneDriving = false;
 			}
@@ -911,7 +1271,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2Distance2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				drivetrain.resetEncoder();
 				doneDriving = false;
 				doneMovingElevator = false;
@@ -924,7 +1284,7 @@ public class Autonomous
 			{
 				gripper.ejectDrop();
 				autoStage = Constants.AutoStage.kDrive2Distance3;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				restartTimer();
 			}
 		}
@@ -953,7 +1313,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2ToLine1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneMovingElevator = false;
 				doneDriving = false;
 				doneMovingGripper = false;
@@ -973,7 +1333,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2ToLine2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				drivetrain.resetEncoder();
 				restartTimer();
@@ -1005,7 +1365,7 @@ public class Autonomous
 			{
 				gripper.intakeOff();
 				autoStage = Constants.AutoStage.kDrive3ToLine;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 			}
 		}
@@ -1033,7 +1393,7 @@ public class Autonomous
 			{
 				gripper.autoDrop();
 				autoStage = Constants.AutoStage.kDone;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				gripper.pivotOff();
 				elevator.stopMoving();
@@ -1069,7 +1429,7 @@ public class Autonomous
 			{
 				doneDriving = false;
 				autoStage = Constants.AutoStage.kDrive11;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 			}
 		}
 		else if(autoStage == Constants.AutoStage.kDrive11)
@@ -1100,7 +1460,7 @@ public class Autonomous
 					doneMovingElevator = false;
 					doneMovingGripper = false;
 					autoStage = Constants.AutoStage.kDrive12;
-					System.out.println("Entering: " + autoStage);
+					logEntering(autoStage);
 					restartTimer();
 					drivetrain.resetEncoder();
 				}
@@ -1132,7 +1492,7 @@ public class Autonomous
 			{
 				doneDriving = false;
 				autoStage = Constants.AutoStage.kDrive13;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 			}
 		}
 		else if(autoStage == Constants.AutoStage.kDrive13)
@@ -1158,7 +1518,7 @@ public class Autonomous
 			{
 				gripper.autoDrop();
 				autoStage = Constants.AutoStage.kDone;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 			}
 		}
 	}
@@ -1190,7 +1550,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2Distance1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				drivetrain.resetEncoder();
 				doneDriving = false;
 			}
@@ -1217,7 +1577,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2Distance2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				drivetrain.resetEncoder();
 				doneDriving = false;
 				doneMovingElevator = false;
@@ -1238,7 +1598,7 @@ public class Autonomous
 			{
 				gripper.intakeOff();
 				autoStage = Constants.AutoStage.kDrive2Distance3;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				restartTimer();
 			}
@@ -1268,7 +1628,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2ToLine1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneMovingElevator = false;
 				doneDriving = false;
 				doneMovingGripper = false;
@@ -1288,7 +1648,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2ToLine2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				drivetrain.resetEncoder();
 				restartTimer();
@@ -1320,7 +1680,7 @@ public class Autonomous
 			{
 				gripper.intakeOff();
 				autoStage = Constants.AutoStage.kDrive3ToLine;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 			}
 		}
@@ -1348,7 +1708,7 @@ public class Autonomous
 			{
 				gripper.autoDrop();
 				autoStage = Constants.AutoStage.kDrive10;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				gripper.pivotOff();
 				elevator.stopMoving();
@@ -1384,7 +1744,7 @@ public class Autonomous
 			{
 				doneDriving = false;
 				autoStage = Constants.AutoStage.kDrive11;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 			}
 		}
 		else if(autoStage == Constants.AutoStage.kDrive11)
@@ -1415,7 +1775,7 @@ public class Autonomous
 					doneMovingElevator = false;
 					doneMovingGripper = false;
 					autoStage = Constants.AutoStage.kDrive12;
-					System.out.println("Entering: " + autoStage);
+					logEntering(autoStage);
 					restartTimer();
 					drivetrain.resetEncoder();
 				}
@@ -1447,7 +1807,7 @@ public class Autonomous
 			{
 				doneDriving = false;
 				autoStage = Constants.AutoStage.kDrive13;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 			}
 		}
 		else if(autoStage == Constants.AutoStage.kDrive13)
@@ -1473,7 +1833,7 @@ public class Autonomous
 			{
 				gripper.autoDrop();
 				autoStage = Constants.AutoStage.kDone;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 			}
 		}
 	}
@@ -1505,7 +1865,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kSpin1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				drivetrain.resetEncoder();
 				doneDriving = false;
 				doneMovingElevator = false;
@@ -1517,7 +1877,7 @@ public class Autonomous
 			if(drivetrain.spinToBearing(-90 * angleSign, 0.35))
 			{
 				autoStage = Constants.AutoStage.kDrive2Distance1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				drivetrain.resetEncoder();
 				gripper.pivotOff();
 				restartTimer();
@@ -1530,7 +1890,7 @@ public class Autonomous
 				if(timer.get() >= 3)
 				{
 					autoStage = Constants.AutoStage.kDrive10;
-					System.out.println("Entering: " + autoStage);
+					logEntering(autoStage);
 					gripper.intakeOff();
 				}
 				gripper.resetIntakeEncoder();
@@ -1548,7 +1908,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kSpin2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 			}
 		}
@@ -1561,7 +1921,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDone;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 			}
 		}
@@ -1599,7 +1959,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2ToLine1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				doneMovingGripper = false;
 			}
@@ -1621,7 +1981,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kSpin1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 			}
 		}
@@ -1643,7 +2003,7 @@ public class Autonomous
 			{
 				gripper.ejectShoot();
 				autoStage = Constants.AutoStage.kDrive2Distance1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				doneMovingElevator = false;
 			}
@@ -1654,7 +2014,7 @@ public class Autonomous
 			{
 				gripper.intakeOff();
 				autoStage = Constants.AutoStage.kDone;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 			}
 		}
 		//TODO move elevator back down if enough time
@@ -1686,7 +2046,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2ToLine1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				doneMovingGripper = false;
 			}
@@ -1708,7 +2068,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kSpin1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 			}
 		}
@@ -1730,7 +2090,7 @@ public class Autonomous
 			{
 				gripper.ejectShoot();
 				autoStage = Constants.AutoStage.kSpin2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				doneMovingElevator = false;
 			}
@@ -1757,7 +2117,7 @@ public class Autonomous
 			{
 				gripper.intakeOff();
 				autoStage = Constants.AutoStage.kDrive2Distance1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				drivetrain.resetEncoder();
 				restartTimer();
@@ -1787,7 +2147,7 @@ public class Autonomous
 			{
 				gripper.intakeOff();
 				autoStage = Constants.AutoStage.kDone;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneMovingGripper = false;
 				doneDriving = false;
 				doneMovingElevator = false;
@@ -1821,7 +2181,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2ToLine1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				doneMovingGripper = false;
 			}
@@ -1843,7 +2203,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kSpin1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 			}
 		}
@@ -1865,7 +2225,7 @@ public class Autonomous
 			{
 				gripper.ejectShoot();
 				autoStage = Constants.AutoStage.kSpin2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				doneMovingElevator = false;
 			}
@@ -1892,7 +2252,7 @@ public class Autonomous
 			{
 				gripper.intakeOff();
 				autoStage = Constants.AutoStage.kDrive2Distance1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				drivetrain.resetEncoder();
 				restartTimer();
@@ -1921,7 +2281,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2Distance2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneMovingGripper = false;
 				doneDriving = false;
 				doneMovingElevator = false;
@@ -1947,7 +2307,7 @@ public class Autonomous
 			{
 				gripper.ejectDrop();
 				autoStage = Constants.AutoStage.kDrive3ToLine;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneMovingGripper = false;
 				doneMovingElevator = false;
 				doneDriving = false;
@@ -1967,7 +2327,7 @@ public class Autonomous
 			{
 				gripper.ejectDrop();
 				autoStage = Constants.AutoStage.kDone;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 			}
 		}
@@ -2005,7 +2365,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2ToLine1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				doneMovingGripper = false;
 			}
@@ -2027,7 +2387,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kSpin1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 			}
 		}
@@ -2049,7 +2409,7 @@ public class Autonomous
 			{
 				gripper.ejectShoot();
 				autoStage = Constants.AutoStage.kSpin2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				doneMovingElevator = false;
 			}
@@ -2076,7 +2436,7 @@ public class Autonomous
 			{
 				gripper.intakeOff();
 				autoStage = Constants.AutoStage.kDrive2Distance1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 				drivetrain.resetEncoder();
 				restartTimer();
@@ -2106,7 +2466,7 @@ public class Autonomous
 				{
 					gripper.intakeOff();
 					autoStage = Constants.AutoStage.kDrive2Distance2;
-					System.out.println("Entering: " + autoStage);
+					logEntering(autoStage);
 					doneMovingGripper = false;
 					doneDriving = false;
 					doneMovingElevator = false;
@@ -2118,7 +2478,7 @@ public class Autonomous
 			{
 				gripper.intakeOff();
 				autoStage = Constants.AutoStage.kDrive2Distance2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneMovingGripper = false;
 				doneDriving = false;
 				doneMovingElevator = false;
@@ -2151,7 +2511,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive2Distance3;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneMovingGripper = false;
 				doneDriving = false;
 			}
@@ -2174,7 +2534,7 @@ public class Autonomous
 			{
 				gripper.ejectShoot();
 				autoStage = Constants.AutoStage.kDone;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneMovingElevator = false;
 				doneMovingGripper = false;
 				doneDriving = false;
@@ -2189,7 +2549,7 @@ public class Autonomous
 			if(drivetrain.driveDistance(199, 0.8, 0 * angleSign, 55))
 			{
 				autoStage = Constants.AutoStage.kSpin1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 			}
 
 			if(timer.get() >= 3.5)
@@ -2203,7 +2563,7 @@ public class Autonomous
 			if(drivetrain.spinToBearing(-90 * angleSign, 0.35))
 			{
 				autoStage = Constants.AutoStage.kDrive2Distance1;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				drivetrain.resetEncoder();
 			}
 		}
@@ -2238,7 +2598,7 @@ public class Autonomous
 				{
 					autoStage = Constants.AutoStage.kDone;
 				}
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				drivetrain.resetEncoder();
 				doneMovingGripper = false;
 				doneDriving = false;
@@ -2261,7 +2621,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kSpin2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				doneDriving = false;
 			}
 		}
@@ -2282,7 +2642,7 @@ public class Autonomous
 			else
 			{
 				autoStage = Constants.AutoStage.kDrive3ToLine;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				drivetrain.resetEncoder();
 				doneMovingElevator = false;
 				doneDriving = false;
@@ -2293,7 +2653,7 @@ public class Autonomous
 			if(drivetrain.driveToColor(AMSColorSensor.Constants.Color.kWhite, 0.2, 0 * angleSign))
 			{
 				autoStage = Constants.AutoStage.kDrive2ToLine2;
-				System.out.println("Entering: " + autoStage);
+				logEntering(autoStage);
 				gripper.ejectDrop();
 				doneDriving = false;
 			}
@@ -2308,6 +2668,43 @@ public class Autonomous
 		}
 	}
 
+	/**
+	 * Gets the autonomous routine chosen by setAutoMode().
+	 * @return The name of the AutoMode, such as "kScaleOnSameSide".
+	 */
+	public String getAutoModeName()
+	{
+		return autoMode.name();
+	}
+
+	public String getSelectedPosition()
+	{
+		return selectedPosition;
+	}
+
+	public String getFieldColors()
+	{
+		return fieldColors;
+	}
+
+	/**
+	 * Gets the stage of the autonomous routines that use AutoStage.
+	 * @return The current AutoStage.
+	 */
+	public Constants.AutoStage getAutoStage()
+	{
+		return autoStage;
+	}
+
+	/**
+	 * Gets the stage of the autonomous routines that use AutonStage.
+	 * @return The current AutonStage.
+	 */
+	public Constants.AutonStage getAutonStage()
+	{
+		return autonStage;
+	}
+
 	public void restartTimer()
 	{
 		timer.stop();
@@ -2318,7 +2715,7 @@ public class Autonomous
 	public static class Constants
 	{
 		enum AutoMode {kScaleOnOppositeSide, kScaleOnSameSide, kSwitchLeftFromMiddle, kSwitchRightFromMiddle, kSwitchOnSameSide, kAutoLine, kNone}
-		enum AutoStage {
+		public enum AutoStage {
 			kDone,                                  //Done
 
 			kDrive1,                              //Drive forward
@@ -2354,7 +2751,7 @@ public class Autonomous
 			kDrive14		//Used if we need more stages
 		}
 
-		enum AutonStage {
+		public enum AutonStage {
 			kDone, 																									//done
 
 			kDrive1, kDrive2, kDrive3, kDrive4, kDrive5, kDrive6, kDrive7, kDrive8, kDrive9, kDrive10, kDrive11,	//Drive a certain distance in a certain direction
@@ -2364,6 +2761,11 @@ public class Autonomous
 			kShoot1, kShoot2, kShoot3																				//Shoot Cube
 		}
 
+		// every starting position, plan and field layout AutoSelect4237 and the FMS can send
+		static final String[] WARM_UP_POSITIONS = {"left", "center", "right"};
+		static final String[] WARM_UP_PLANS = {"left scale", "right scale", "left switch", "right switch", "auto line"};
+		static final String[] WARM_UP_FIELD_COLORS = {"LLL", "LRL", "RLR", "RRR"};
+
 		public static final int GREEN_CAMERA_PORT = 10;
 		public static final int WHITE_CAMERA_PORT = 11;
 		public static final int WHITE_FLOOR_PORT = 12;
@@ -0,0 +1,509 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import frc.robot.loop.LatencyHistogram;
+import frc.robot.loop.LoopStatistics;
+import frc.robot.metrics.Counter;
+import frc.robot.metrics.Gauge;
+import frc.robot.metrics.Metric;
+import frc.robot.metrics.MetricsRegistry;
+import frc.robot.telemetry.TelemetryRecorder;
+import frc.robot.util.Logger;
+import frc.robot.util.ThreadPriorities;
+
+/**
+ * Class to write a one-page summary of every match, for the pit crew to read between matches:
+ * the autonomous routine and the time spent in each of its stages, the time lost in blocking
+ * calls such as Drivetrain.resetEncoder(), the peak and average motor currents, the loop period
+ * and execution time percentiles, and the color sensor failures.
+ *
+ * <p>Everything comes from statistics the robot keeps in memory anyway: counters, the stage times
+ * of the Autonomous and the histograms of the LoopStatistics, which are never cleared. A report
+ * thread at background priority copies them every BASELINE_PERIOD while the robot is disabled,
+ * so the copy is already there when the robot is enabled, copies them again when the match is
+ * over, and writes the difference as match-NNNN.txt next to the match logs. The control
+ * thread only tells it the mode in setMode(), which does not lock or allocate. While the robot
+ * is enabled the report thread also reads the current gauges every SAMPLE_PERIOD.
+ *
+ * <p>A match is over when the robot is disabled after teleop, or when it stays disabled for
+ * AUTONOMOUS_GAP after autonomous, so a match is not split in two by the pause between
+ * autonomous and teleop.
+ */
+public class MatchReport
+{
+	private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+	private final MetricsRegistry registry = MetricsRegistry.getInstance();
+	private volatile Robot.Constants.Mode mode = Robot.Constants.Mode.kNone;
+	private Autonomous autonomous = null;
+	private Supplier<LoopStatistics> loopStatistics = null;
+	private Thread reporter = null;
+
+	// used by the report thread only
+	private Snapshot start = null;
+	private Snapshot end = null;
+	private boolean isInMatch = false;
+	private Robot.Constants.Mode lastMode = Robot.Constants.Mode.kNone;
+	private Robot.Constants.Mode lastEnabledMode = Robot.Constants.Mode.kNone;
+	private long lastNanos = 0;
+	private long disabledNanos = 0;
+	private long autonomousNanos = 0;
+	private long teleopNanos = 0;
+	private final Gauge[] currents = new Gauge[Constants.CURRENT_GAUGES.length];
+	private final double[] peakCurrents = new double[Constants.CURRENT_GAUGES.length];
+	private final double[] sumCurrents = new double[Constants.CURRENT_GAUGES.length];
+	private long currentSamples = 0;
+	private volatile int reportCount = 0;
+	private volatile String lastReportName = null;
+
+	private static MatchReport instance = new MatchReport();
+
+	/**
+	 * Returns the singleton instance of MatchReport.
+	 * @return The singleton instance of MatchReport.
+	 */
+	public static MatchReport getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Private constructor for MatchReport.
+	 * The report thread is started by start(), once the components exist.
+	 */
+	private MatchReport()
+	{
+	}
+
+	/**
+	 * Starts the report thread. Call it once, from robotInit, after the components have registered their metrics.
+	 * @param autonomous The autonomous, for the routine and its stage times.
+	 * @param loopStatistics Gets the statistics of the loop that runs the robot's modes.
+	 */
+	public synchronized void start(Autonomous autonomous, Supplier<LoopStatistics> loopStatistics)
+	{
+		if (reporter != null || !Constants.ENABLED)
+		{
+			return;
+		}
+		this.autonomous = autonomous;
+		this.loopStatistics = loopStatistics;
+		reporter = new Thread(this::report, "MatchReport");
+		reporter.setDaemon(true);
+		reporter.start();
+	}
+
+	/**
+	 * Tells the report thread the robot has changed modes.
+	 * Called by the control thread when it enters a mode. Does not lock or allocate.
+	 * @param mode The new mode.
+	 */
+	public void setMode(Robot.Constants.Mode mode)
+	{
+		this.mode = mode;
+		Thread reporter = this.reporter;
+		if (reporter != null)
+		{
+			LockSupport.unpark(reporter);
+		}
+	}
+
+	/**
+	 * Runs on the report thread: follows the mode, samples the currents while enabled,
+	 * and writes the report when the match is over.
+	 */
+	private void report()
+	{
+		ThreadPriorities.setBackgroundPriority("match report");
+		for (int i = 0; i < currents.length; i++)
+		{
+			Metric metric = registry.get(Constants.CURRENT_GAUGES[i]);
+			currents[i] = (metric instanceof Gauge) ? (Gauge) metric : null;
+		}
+
+		start = new Snapshot();
+		end = new Snapshot();
+
+		while (true)
+		{
+			Robot.Constants.Mode mode = this.mode;
+			long now = System.nanoTime();
+			if (isInMatch)
+			{
+				addModeTime(lastMode, now - lastNanos);
+			}
+			lastNanos = now;
+
+			if (isEnabled(mode))
+			{
+				if (!isInMatch)
+				{
+					beginMatch();
+				}
+				lastEnabledMode = mode;
+				sampleCurrents();
+				lastMode = mode;
+				LockSupport.parkNanos(this, (long) (Constants.SAMPLE_PERIOD * 1.0e9));
+			}
+			else if (isInMatch)
+			{
+				if (isEnabled(lastMode))
+				{
+					disabledNanos = now;
+				}
+				lastMode = mode;
+
+				long waitNanos = disabledNanos + (long) (Constants.AUTONOMOUS_GAP * 1.0e9) - now;
+				if (lastEnabledMode != Robot.Constants.Mode.kAutonomous || waitNanos <= 0)
+				{
+					endMatch();
+				}
+				else
+				{
+					// teleop may still follow
+					LockSupport.parkNanos(this, waitNanos);
+				}
+			}
+			else
+			{
+				// the baseline of the next match, at most BASELINE_PERIOD old when the robot is enabled
+				start.take();
+				lastMode = mode;
+				LockSupport.parkNanos(this, (long) (Constants.BASELINE_PERIOD * 1.0e9));
+			}
+		}
+	}
+
+	private static boolean isEnabled(Robot.Constants.Mode mode)
+	{
+		return mode == Robot.Constants.Mode.kAutonomous || mode == Robot.Constants.Mode.kTeleop;
+	}
+
+	private void addModeTime(Robot.Constants.Mode mode, long nanos)
+	{
+		if (mode == Robot.Constants.Mode.kAutonomous)
+		{
+			autonomousNanos += nanos;
+		}
+		else if (mode == Robot.Constants.Mode.kTeleop)
+		{
+			teleopNanos += nanos;
+		}
+	}
+
+	private void beginMatch()
+	{
+		isInMatch = true;
+		autonomousNanos = 0;
+		teleopNanos = 0;
+		currentSamples = 0;
+		for (int i = 0; i < currents.length; i++)
+		{
+			peakCurrents[i] = 0.0;
+			sumCurrents[i] = 0.0;
+		}
+	}
+
+	private void sampleCurrents()
+	{
+		for (int i = 0; i < currents.length; i++)
+		{
+			if (currents[i] != null)
+			{
+				double current = Math.abs(currents[i].get());
+				peakCurrents[i] = Math.max(peakCurrents[i], current);
+				sumCurrents[i] += current;
+			}
+		}
+		currentSamples++;
+	}
+
+	private void endMatch()
+	{
+		end.take();
+		try
+		{
+			write(start, end);
+		}
+		catch (IOException e)
+		{
+			Logger.println("[MatchReport] could not write the report: " + e);
+		}
+		start.take();
+		isInMatch = false;
+		lastEnabledMode = Robot.Constants.Mode.kNone;
+	}
+
+	/**
+	 * Writes the difference between two snapshots to a new report file.
+	 */
+	private void write(Snapshot start, Snapshot end) throws IOException
+	{
+		StringWriter text = new StringWriter();
+		PrintWriter printer = new PrintWriter(text);
+
+		printer.printf("Match report, %s%n", DATE_FORMAT.format(new Date(end.millis)));
+		printer.printf("Enabled %.1f s: autonomous %.1f s, teleop %.1f s%n", (autonomousNanos + teleopNanos) / 1.0e9, autonomousNanos / 1.0e9, teleopNanos / 1.0e9);
+
+		printer.println();
+		if (autonomousNanos > 0)
+		{
+			printer.printf("Autonomous routine %s, position %s, field colors %s%n",
+					autonomous.getAutoModeName(), autonomous.getSelectedPosition(), autonomous.getFieldColors());
+			printStages(printer, "AutoStage", Autonomous.Constants.AutoStage.values(), start.autoStageNanos, end.autoStageNanos);
+			printStages(printer, "AutonStage", Autonomous.Constants.AutonStage.values(), start.autonStageNanos, end.autonStageNanos);
+		}
+		else
+		{
+			printer.println("No autonomous");
+		}
+
+		printer.println();
+		printer.println("Blocking calls                      calls   time (s)");
+		for (String call : Constants.BLOCKING_CALLS)
+		{
+			long calls = end.getCounter(call + "Calls") - start.getCounter(call + "Calls");
+			long nanos = end.getCounter(call + "Nanos") - start.getCounter(call + "Nanos");
+			printer.printf("  %-32s %6d %10.3f%n", call, calls, nanos / 1.0e9);
+		}
+
+		printer.println();
+		printer.printf("Motor currents (A)                   peak    average  (%d samples)%n", currentSamples);
+		for (int i = 0; i < currents.length; i++)
+		{
+			if (currents[i] != null)
+			{
+				printer.printf("  %-32s %6.1f %10.1f%n", Constants.CURRENT_GAUGES[i], peakCurrents[i],
+						(currentSamples > 0) ? sumCurrents[i] / currentSamples : 0.0);
+			}
+		}
+
+		printer.println();
+		printer.println("Loop (ms)            ticks     p50     p90     p99   p99.9     max");
+		printPercentiles(printer, "period", start.periodCounts, end.periodCounts);
+		printPercentiles(printer, "execution", start.executionCounts, end.executionCounts);
+		printer.printf("  overruns %d, of which %d during a garbage collection%n",
+				end.getCounter("GcMonitor.overruns") - start.getCounter("GcMonitor.overruns"),
+				end.getCounter("GcMonitor.overrunsDuringGc") - start.getCounter("GcMonitor.overrunsDuringGc"));
+
+		printer.println();
+		printer.println("Color sensor");
+		for (String name : Constants.COLOR_SENSOR_COUNTERS)
+		{
+			printer.printf("  %-32s %6d%n", name, end.getCounter(name) - start.getCounter(name));
+		}
+
+		printer.println();
+		printer.println("Other counters that changed");
+		for (Map.Entry<String, Long> counter : end.counters.entrySet())
+		{
+			String name = counter.getKey();
+			long change = counter.getValue() - start.getCounter(name);
+			if (change != 0 && !isShown(name))
+			{
+				printer.printf("  %-32s %6d%n", name, change);
+			}
+		}
+		printer.flush();
+
+		File directory = TelemetryRecorder.getDirectory();
+		if (!directory.isDirectory() && !directory.mkdirs())
+		{
+			throw new IOException("cannot create " + directory);
+		}
+		TelemetryRecorder.deleteOldFiles(directory, Constants.FILE_PREFIX, Constants.FILE_EXTENSION, Constants.MAX_REPORTS);
+		String name = String.format("%s%04d%s", Constants.FILE_PREFIX,
+				TelemetryRecorder.getNextFileNumber(directory, Constants.FILE_PREFIX, Constants.FILE_EXTENSION), Constants.FILE_EXTENSION);
+		File file = new File(directory, name);
+		Files.write(file.toPath(), text.toString().getBytes(StandardCharsets.UTF_8));
+
+		reportCount++;
+		lastReportName = file.getPath();
+		Logger.println("[MatchReport] wrote " + file);
+	}
+
+	/**
+	 * Prints the time spent in each stage, if the routine went through more than one stage of this kind.
+	 */
+	private static void printStages(PrintWriter printer, String kind, Enum<?>[] stages, long[] start, long[] end)
+	{
+		int stagesUsed = 0;
+		for (int i = 0; i < stages.length; i++)
+		{
+			if (end[i] > start[i])
+			{
+				stagesUsed++;
+			}
+		}
+		if (stagesUsed <= 1)
+		{
+			return;
+		}
+
+		StringBuilder line = new StringBuilder("  " + kind + " (s):");
+		for (int i = 0; i < stages.length; i++)
+		{
+			if (end[i] > start[i])
+			{
+				line.append(String.format(" %s %.2f", stages[i].name(), (end[i] - start[i]) / 1.0e9));
+			}
+		}
+		printer.println(line);
+	}
+
+	/**
+	 * Prints the percentiles of the ticks recorded between two copies of a LatencyHistogram's buckets.
+	 */
+	private static void printPercentiles(PrintWriter printer, String name, long[] start, long[] end)
+	{
+		long[] counts = new long[end.length];
+		long total = 0;
+		int highest = 0;
+		for (int i = 0; i < counts.length; i++)
+		{
+			counts[i] = Math.max(end[i] - start[i], 0);
+			total += counts[i];
+			if (counts[i] > 0)
+			{
+				highest = i;
+			}
+		}
+
+		printer.printf("  %-14s %9d %7.2f %7.2f %7.2f %7.2f %7.2f%n", name, total,
+				getValueAtPercentile(counts, total, 50.0) / 1.0e6, getValueAtPercentile(counts, total, 90.0) / 1.0e6,
+				getValueAtPercentile(counts, total, 99.0) / 1.0e6, getValueAtPercentile(counts, total, 99.9) / 1.0e6,
+				(total > 0) ? LatencyHistogram.highestValueIn(highest) / 1.0e6 : 0.0);
+	}
+
+	private static long getValueAtPercentile(long[] counts, long total, double percentile)
+	{
+		long target = Math.max((long) Math.ceil(total * percentile / 100.0), 1);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++)
+		{
+			seen += counts[i];
+			if (seen >= target)
+			{
+				return LatencyHistogram.highestValueIn(i);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Checks if a counter already has a line of its own in the report.
+	 */
+	private static boolean isShown(String name)
+	{
+		for (String call : Constants.BLOCKING_CALLS)
+		{
+			if (name.equals(call + "Calls") || name.equals(call + "Nanos"))
+			{
+				return true;
+			}
+		}
+		for (String shown : Constants.COLOR_SENSOR_COUNTERS)
+		{
+			if (name.equals(shown))
+			{
+				return true;
+			}
+		}
+		return name.equals("GcMonitor.overruns") || name.equals("GcMonitor.overrunsDuringGc");
+	}
+
+	public int getReportCount()
+	{
+		return reportCount;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("[MatchReport] %d reports, last report %s", reportCount, (lastReportName == null) ? "none" : lastReportName);
+	}
+
+	/**
+	 * Class for a copy of the statistics the report is worked out from.
+	 * Taken by the report thread, while the control thread keeps updating them.
+	 */
+	private class Snapshot
+	{
+		private long millis = 0;
+		private final Map<String, Long> counters = new LinkedHashMap<>();
+		private final long[] periodCounts = new long[LatencyHistogram.getBucketCount()];
+		private final long[] executionCounts = new long[LatencyHistogram.getBucketCount()];
+		private final long[] autoStageNanos = new long[Autonomous.Constants.AutoStage.values().length];
+		private final long[] autonStageNanos = new long[Autonomous.Constants.AutonStage.values().length];
+
+		/**
+		 * Copies the statistics as they are now, over the previous copy.
+		 */
+		private void take()
+		{
+			millis = System.currentTimeMillis();
+			for (Metric metric : registry.getMetrics())
+			{
+				if (metric instanceof Counter)
+				{
+					counters.put(metric.getName(), ((Counter) metric).get());
+				}
+			}
+
+			LoopStatistics statistics = loopStatistics.get();
+			for (int i = 0; i < periodCounts.length; i++)
+			{
+				periodCounts[i] = statistics.getPeriodHistogram().getCountAt(i);
+				executionCounts[i] = statistics.getExecutionHistogram().getCountAt(i);
+			}
+
+			Autonomous.Constants.AutoStage[] autoStages = Autonomous.Constants.AutoStage.values();
+			for (int i = 0; i < autoStages.length; i++)
+			{
+				autoStageNanos[i] = autonomous.getAutoStageNanos(autoStages[i]);
+			}
+			Autonomous.Constants.AutonStage[] autonStages = Autonomous.Constants.AutonStage.values();
+			for (int i = 0; i < autonStages.length; i++)
+			{
+				autonStageNanos[i] = autonomous.getAutonStageNanos(autonStages[i]);
+			}
+		}
+
+		private long getCounter(String name)
+		{
+			return counters.getOrDefault(name, 0L);
+		}
+	}
+
+	/**
+	 * Class for constant variables related to MatchReport.
+	 */
+	public static class Constants
+	{
+		public static final boolean ENABLED = true;
+		public static final double SAMPLE_PERIOD = 0.05;			// seconds between current samples while enabled
+		public static final double BASELINE_PERIOD = 1.0;			// seconds between copies of the statistics while disabled
+		public static final double AUTONOMOUS_GAP = 5.0;			// seconds disabled after autonomous before the match counts as over
+		public static final String FILE_PREFIX = "match-";
+		public static final String FILE_EXTENSION = ".txt";
+		public static final int MAX_REPORTS = 50;					// oldest reports are deleted
+		public static final String[] CURRENT_GAUGES = {"Drivetrain.frontLeftCurrent", "Drivetrain.frontRightCurrent",
+				"Drivetrain.rearLeftCurrent", "Drivetrain.rearRightCurrent", "Elevator.current", "Gripper.pivotCurrent"};
+		// each call counts "<call>Calls" and "<call>Nanos"
+		public static final String[] BLOCKING_CALLS = {"Drivetrain.resetEncoder"};
+		public static final String[] COLOR_SENSOR_COUNTERS = {"AMSColorSensor.readings", "AMSColorSensor.retries",
+				"AMSColorSensor.failedReads", "AMSColorSensor.readFailed", "AMSColorSensor.writeFailed"};
+	}
+}
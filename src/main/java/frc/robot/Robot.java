@@ -1,46 +1,182 @@
 package frc.robot;
 
+import java.util.concurrent.Future;
+
 import frc.robot.components.Drivetrain;
 import frc.robot.components.Elevator;
 import frc.robot.components.Gripper;
+import frc.robot.jfr.JfrRecording;
+import frc.robot.loop.ControlLoop;
+import frc.robot.loop.GcMonitor;
+import frc.robot.loop.LoadGovernor;
+import frc.robot.loop.LoopStatistics;
+import frc.robot.loop.PhaseProfiler;
+import frc.robot.loop.Scheduler;
+import frc.robot.loop.Tracer;
+import frc.robot.loop.WarmUp;
+import frc.robot.metrics.MetricsPublisher;
+import frc.robot.metrics.MetricsRegistry;
+import frc.robot.metrics.MetricsServer;
+import frc.robot.network.AutoSelect4237;
+import frc.robot.telemetry.Channel;
+import frc.robot.telemetry.FlightRecorder;
+import frc.robot.telemetry.TelemetryFrame;
+import frc.robot.telemetry.TelemetryRecorder;
+import frc.robot.telemetry.TelemetryUplink;
+import frc.robot.util.Colors;
+import frc.robot.util.Logger;
+import frc.robot.util.Startup;
+import frc.robot.util.ThreadPriorities;
 
 import edu.wpi.first.wpilibj.IterativeRobot;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
 
 /**
  * Main robot class
  * Controls main loops for autonomous and teleoperated mode.
+ * The loops either run from the IterativeRobot callbacks (one tick per driver station packet)
+ * or, in fixed-rate mode, from a ControlLoop that also handles mode changes. In dedicated-thread
+ * mode the ControlLoop has its own real-time priority thread, so it is not preempted by the
+ * network and sensor threads.
+ * Each tick runs a Scheduler, so every component runs at its own period and priority.
+ * While disabled, the control code is warmed up so the JIT has compiled it before autonomous.
+ * Every enabled tick is recorded to a binary match log by the TelemetryRecorder, and kept
+ * in memory by the FlightRecorder, which writes the last seconds to a file when something goes wrong.
+ * The TelemetryUplink sends the ticks to the driver station, instead of printing the sensor values.
+ * After every match the MatchReport writes a one-page summary of it.
  */
 public class Robot extends IterativeRobot
 {
-	private Autonomous autonomous = Autonomous.getInstance();
+	private static final Logger.Message SENSOR_VALUES = new Logger.Message(
+			"Encoder: {}\tNavX: {}\tColors: [ColorSensor] CRGB {} {} {} {}\tElevator pot: {}\tPivot pot: {}\tIntake encoder left: {}\tIntake encoder right: {}");
+	private static final Logger.Message SENSOR_VALUES_NO_COLORS = new Logger.Message(
+			"Encoder: {}\tNavX: {}\tColors: [ColorSensor] NOT working\tElevator pot: {}\tPivot pot: {}\tIntake encoder left: {}\tIntake encoder right: {}");
+	private static final int TELEOP_PERIODIC = Tracer.register("robot", "Robot.teleopPeriodic");
+	private static final int AUTONOMOUS_PERIODIC = Tracer.register("robot", "Robot.autonomousPeriodic");
+
+	private Autonomous autonomous;
+
+	private Drivetrain drivetrain;
+	private Gripper gripper;
+	private Elevator elevator;
+
+	private LoopStatistics iterativeLoopStatistics = new LoopStatistics(Constants.ITERATIVE_LOOP_PERIOD);
+	private ControlLoop controlLoop = null;
+	private Constants.Mode currentMode = Constants.Mode.kNone;
 
-	private Drivetrain drivetrain = Drivetrain.getInstance();
-	private Gripper gripper = Gripper.getInstance();
-	private Elevator elevator = Elevator.getInstance();
+	private Scheduler teleopScheduler;
+	private Scheduler autonomousScheduler;
 
-	private double previousNanoTime;
-	private double currentNanoTime;
+	private LoadGovernor governor = LoadGovernor.getInstance();
+	private WarmUp warmUp = new WarmUp();
+	private PhaseProfiler printSensorValuesProfiler = new PhaseProfiler("Robot.printSensorValues");
+	private Colors colors = new Colors();
+	private TelemetryRecorder telemetryRecorder = TelemetryRecorder.getInstance();
+	private FlightRecorder flightRecorder = FlightRecorder.getInstance();
+	private GcMonitor gcMonitor = GcMonitor.getInstance();
+	private TelemetryUplink telemetryUplink = TelemetryUplink.getInstance();
+	private MatchReport matchReport = MatchReport.getInstance();
+	private MetricsRegistry metrics = MetricsRegistry.getInstance();
+	private MetricsPublisher metricsPublisher = MetricsPublisher.getInstance();
+	private boolean wasBrownedOut = false;
+	private TelemetryFrame telemetryFrame = new TelemetryFrame();
+	private Colors telemetryColors = new Colors();
+	private double[] motorOutputs = new double[4];
 
     /**
      * Constructor for robot class
      */
 	public Robot()
 	{
-		previousNanoTime = System.nanoTime();
-		currentNanoTime = System.nanoTime();
 	}
 
     /**
-     * Method to initialize components on robot
+     * Method to initialize components on robot.
+     * The independent components are constructed at the same time on startup threads.
      */
 	@Override
 	public void robotInit()
 	{
-		drivetrain.resetNavX();
-		drivetrain.calibrateNavX();
-		drivetrain.calibrateColorSensor();
+		Startup.recordRobotInit();
+
+		Future<Drivetrain> drivetrainFuture = Startup.start("Drivetrain", Drivetrain::getInstance);
+		Future<Elevator> elevatorFuture = Startup.start("Elevator", Elevator::getInstance);
+		Future<Gripper> gripperFuture = Startup.start("Gripper", Gripper::getInstance);
+		Future<AutoSelect4237> autoSelect4237Future = Startup.start("AutoSelect4237", AutoSelect4237::getInstance);
+
+		drivetrain = Startup.await(drivetrainFuture);
+		elevator = Startup.await(elevatorFuture);
+		gripper = Startup.await(gripperFuture);
+		AutoSelect4237 autoSelect4237 = Startup.await(autoSelect4237Future);
+
+		// Autonomous uses all of the above, so it is constructed last
+		autonomous = Startup.time("Autonomous", Autonomous::getInstance);
+
+		drivetrain.registerMetrics(metrics);
+		elevator.registerMetrics(metrics);
+		gripper.registerMetrics(metrics);
+		if (MetricsServer.Constants.ENABLED)
+		{
+			MetricsServer.getInstance().start(MetricsServer.Constants.PORT);
+		}
+		if (TelemetryUplink.Constants.ENABLED)
+		{
+			telemetryUplink.start(autoSelect4237::getDashboardAddress);
+		}
+
+		matchReport.start(autonomous, this::getLoopStatistics);
+		JfrRecording.getInstance().start();
+
+		// the calibrations finish in the background, robotInit does not wait for them
+		drivetrain.startCalibrations();
+
+		double loopPeriod = (Constants.LOOP_MODE == Constants.LoopMode.kIterative) ? Constants.ITERATIVE_LOOP_PERIOD : Constants.FIXED_RATE_LOOP_PERIOD;
+		governor.setBudget(loopPeriod);
+
+		teleopScheduler = new Scheduler("Teleop", loopPeriod);
+		drivetrain.registerTeleopTasks(teleopScheduler);
+		elevator.registerTeleopTasks(teleopScheduler);
+		gripper.registerTeleopTasks(teleopScheduler);
+		teleopScheduler.register("Robot.recordTelemetry", () -> recordTelemetry(Constants.Mode.kTeleop), loopPeriod, Scheduler.Constants.PRIORITY_RECORDING);
+		if (!TelemetryUplink.Constants.ENABLED)
+		{
+			teleopScheduler.register("Robot.printSensorValues", this::printSensorValues, Constants.PRINT_SENSOR_VALUES_PERIOD, Scheduler.Constants.PRIORITY_DIAGNOSTIC);
+		}
+		teleopScheduler.register("MetricsPublisher.capture", metricsPublisher::capture, MetricsPublisher.Constants.CAPTURE_PERIOD, Scheduler.Constants.PRIORITY_DIAGNOSTIC);
+
+		autonomousScheduler = new Scheduler("Autonomous", loopPeriod);
+		autonomousScheduler.register("Autonomous.periodic", autonomous::periodic, loopPeriod, Scheduler.Constants.PRIORITY_CONTROL);
+		autonomousScheduler.register("Robot.recordTelemetry", () -> recordTelemetry(Constants.Mode.kAutonomous), loopPeriod, Scheduler.Constants.PRIORITY_RECORDING);
+		if (!TelemetryUplink.Constants.ENABLED)
+		{
+			autonomousScheduler.register("Robot.printSensorValues", this::printSensorValues, Constants.PRINT_SENSOR_VALUES_PERIOD, Scheduler.Constants.PRIORITY_DIAGNOSTIC);
+		}
+		autonomousScheduler.register("MetricsPublisher.capture", metricsPublisher::capture, MetricsPublisher.Constants.CAPTURE_PERIOD, Scheduler.Constants.PRIORITY_DIAGNOSTIC);
+
+		if (Constants.WARM_UP)
+		{
+			autonomous.registerWarmUp(warmUp, WarmUp.Constants.DEFAULT_ITERATIONS);
+			warmUp.register("Drivetrain.warmUp", drivetrain::warmUp, WarmUp.Constants.DEFAULT_ITERATIONS);
+			warmUp.register("Elevator.warmUp", elevator::warmUp, WarmUp.Constants.DEFAULT_ITERATIONS);
+			warmUp.register("Gripper.warmUp", gripper::warmUp, WarmUp.Constants.DEFAULT_ITERATIONS);
+		}
 
-		System.out.println("Starting robot!");
+		if (Constants.LOOP_MODE == Constants.LoopMode.kFixedRate)
+		{
+			controlLoop = new ControlLoop(this::fixedRateLoop, Constants.FIXED_RATE_LOOP_PERIOD);
+			controlLoop.start();
+		}
+		else if (Constants.LOOP_MODE == Constants.LoopMode.kDedicatedThread)
+		{
+			controlLoop = new ControlLoop(this::fixedRateLoop, Constants.FIXED_RATE_LOOP_PERIOD, Constants.REAL_TIME_PRIORITY);
+			controlLoop.start();
+		}
+
+		Startup.finish();
+		Startup.printReport();
+		ThreadPriorities.printReport();
+		Logger.println("Starting robot!");
 	}
 
     /**
@@ -49,7 +185,10 @@ public class Robot extends IterativeRobot
 	@Override
 	public void disabledInit()
 	{
-		System.out.println("Robot is disabled");
+		if (controlLoop == null)
+		{
+			startDisabled();
+		}
 	}
 
     /**
@@ -58,7 +197,10 @@ public class Robot extends IterativeRobot
 	@Override
 	public void disabledPeriodic()
 	{
-		//printSensorValues();
+		if (controlLoop == null)
+		{
+			runDisabled();
+		}
 	}
 
     /**
@@ -67,10 +209,10 @@ public class Robot extends IterativeRobot
 	@Override
 	public void teleopInit()
 	{
-		System.out.println("Entering teleop");
-		gripper.setTeleopLimits();
-		autonomous.turnLightRingsOff();
-		drivetrain.omniWheelUp();
+		if (controlLoop == null)
+		{
+			startTeleop();
+		}
 	}
 
     /**
@@ -81,10 +223,13 @@ public class Robot extends IterativeRobot
 	@Override
 	public void teleopPeriodic()
 	{
-		drivetrain.teleop();
-		elevator.teleop();
-		gripper.teleop();
-		printSensorValues();
+		if (controlLoop == null)
+		{
+			iterativeLoopStatistics.startTick(System.nanoTime());
+			runTeleop();
+			iterativeLoopStatistics.endTick(System.nanoTime());
+			governor.update(iterativeLoopStatistics.getLastExecutionNanos());
+		}
 	}
 
     /**
@@ -93,9 +238,10 @@ public class Robot extends IterativeRobot
 	@Override
 	public void autonomousInit()
 	{
-		System.out.println("Entering autonomous");
-		gripper.setAutoLimits();
-		autonomous.init();
+		if (controlLoop == null)
+		{
+			startAutonomous();
+		}
 	}
 
     /**
@@ -105,8 +251,217 @@ public class Robot extends IterativeRobot
 	@Override
 	public void autonomousPeriodic()
 	{
-		printSensorValues();
-		autonomous.periodic();
+		if (controlLoop == null)
+		{
+			iterativeLoopStatistics.startTick(System.nanoTime());
+			runAutonomous();
+			iterativeLoopStatistics.endTick(System.nanoTime());
+			governor.update(iterativeLoopStatistics.getLastExecutionNanos());
+		}
+	}
+
+    /**
+     * Method that runs every tick of the fixed-rate control loop.
+     * Calls the init method of a mode the first time the robot is seen in it,
+     * then calls the periodic method of the current mode.
+     */
+	private void fixedRateLoop()
+	{
+		Constants.Mode mode;
+		if (isDisabled())
+		{
+			mode = Constants.Mode.kDisabled;
+		}
+		else if (isAutonomous())
+		{
+			mode = Constants.Mode.kAutonomous;
+		}
+		else if (isOperatorControl())
+		{
+			mode = Constants.Mode.kTeleop;
+		}
+		else
+		{
+			mode = Constants.Mode.kTest;
+		}
+
+		if (mode != currentMode)
+		{
+			currentMode = mode;
+			if (mode == Constants.Mode.kDisabled)
+			{
+				startDisabled();
+			}
+			else if (mode == Constants.Mode.kAutonomous)
+			{
+				startAutonomous();
+			}
+			else if (mode == Constants.Mode.kTeleop)
+			{
+				startTeleop();
+			}
+		}
+
+		if (mode == Constants.Mode.kDisabled)
+		{
+			runDisabled();
+		}
+		else if (mode == Constants.Mode.kAutonomous)
+		{
+			runAutonomous();
+		}
+		else if (mode == Constants.Mode.kTeleop)
+		{
+			runTeleop();
+		}
+	}
+
+    /**
+     * Method that runs once when robot is first disabled.
+     * Prints the loop timing of the mode the robot just left.
+     */
+	private void startDisabled()
+	{
+		Logger.println("Robot is disabled");
+		Tracer.startSection(null);
+		autonomous.end();
+		matchReport.setMode(Constants.Mode.kDisabled);
+		telemetryRecorder.flush();
+		Logger.println(telemetryRecorder.toString());
+		Logger.println(flightRecorder.toString());
+		telemetryUplink.flush();
+		Logger.println(telemetryUplink.toString());
+		Logger.println(metrics.toString());
+		Logger.println(drivetrain.getNavXCalibration().toString());
+		Logger.println(drivetrain.getColorSensorCalibration().toString());
+		Logger.println(getLoopStatistics().toString());
+		Logger.println(getLoopStatistics().getAllocationMonitor().toString());
+		Logger.println(gcMonitor.toString());
+		Logger.println(matchReport.toString());
+		Logger.println(Tracer.getStatus());
+		Logger.println(JfrRecording.getInstance().toString());
+		Logger.println(governor.toString());
+		Logger.println(Logger.getStatus());
+		autonomousScheduler.printReport();
+		teleopScheduler.printReport();
+		PhaseProfiler.printReport();
+	}
+
+    /**
+     * Method that runs periodically when robot is disabled.
+     * Warms up the control code until it has been compiled. Never moves a motor.
+     */
+	private void runDisabled()
+	{
+		if (Constants.WARM_UP && !warmUp.isDone())
+		{
+			if (warmUp.run())
+			{
+				warmUp.printReport();
+			}
+		}
+		//printSensorValues();
+		metricsPublisher.capture();
+	}
+
+    /**
+     * Method that runs once when robot first enters teleoperated mode.
+     */
+	private void startTeleop()
+	{
+		Logger.println("Entering teleop");
+		autonomous.end();
+		Tracer.startSection("teleop");
+		matchReport.setMode(Constants.Mode.kTeleop);
+		printCalibrationsNotReady();
+		resetLoopStatistics();
+		teleopScheduler.reset();
+		PhaseProfiler.resetAll();
+		gripper.setTeleopLimits();
+		autonomous.turnLightRingsOff();
+		drivetrain.omniWheelUp();
+	}
+
+    /**
+     * Method that runs periodically when robot is in teleoperated mode.
+     * The scheduler calls all the methods required for driving the robot,
+     * as well as printing sensor values, each at its own rate.
+     */
+	private void runTeleop()
+	{
+		long start = Tracer.start();
+		teleopScheduler.run();
+		Tracer.end(TELEOP_PERIODIC, start);
+	}
+
+    /**
+     * Method that runs once when robot first enters autonomous mode.
+     */
+	private void startAutonomous()
+	{
+		Logger.println("Entering autonomous");
+		Tracer.startSection("autonomous");
+		printCalibrationsNotReady();
+		resetLoopStatistics();
+		autonomousScheduler.reset();
+		PhaseProfiler.resetAll();
+		gripper.setAutoLimits();
+		autonomous.init();
+		matchReport.setMode(Constants.Mode.kAutonomous);
+	}
+
+    /**
+     * Method that runs periodically when robot is in autonomous mode.
+     * This method calls all the methods required for controlling the robot in autonomous mode.
+     */
+	private void runAutonomous()
+	{
+		long start = Tracer.start();
+		autonomousScheduler.run();
+		Tracer.end(AUTONOMOUS_PERIODIC, start);
+	}
+
+    /**
+     * Warns about calibrations that have not finished, or failed, when the robot is enabled,
+     * since the components fall back to working without them.
+     */
+	private void printCalibrationsNotReady()
+	{
+		if (!drivetrain.getNavXCalibration().isGood())
+		{
+			Logger.println(drivetrain.getNavXCalibration() + ": no heading hold, autonomous only crosses the auto line");
+		}
+		if (!drivetrain.getColorSensorCalibration().isGood())
+		{
+			Logger.println(drivetrain.getColorSensorCalibration() + ": using the default color thresholds");
+		}
+	}
+
+    /**
+     * Checks if the control code has been warmed up while disabled.
+     * @return True if the warm-up has finished, or is turned off.
+     */
+	public boolean isWarmedUp()
+	{
+		return !Constants.WARM_UP || warmUp.isDone();
+	}
+
+    /**
+     * Gets the live timing statistics of the loop that runs the robot's modes.
+     * @return Period, jitter and overrun statistics of the active loop.
+     */
+	public LoopStatistics getLoopStatistics()
+	{
+		return controlLoop != null ? controlLoop.getStatistics() : iterativeLoopStatistics;
+	}
+
+    /**
+     * Clears the loop statistics when entering a new mode.
+     * Runs on the thread that runs the loop.
+     */
+	private void resetLoopStatistics()
+	{
+		getLoopStatistics().reset();
 	}
 
     /**
@@ -121,12 +476,107 @@ public class Robot extends IterativeRobot
      */
 	public void printSensorValues()
 	{
-		System.out.print("Encoder: " + Drivetrain.getInstance().getEncoderDistance() +
-				"\tNavX: " + Drivetrain.getInstance().getNavXYaw() + 
-				"\tColors: "); Drivetrain.getInstance().printColors();
-				System.out.print("\tElevator pot: " + Elevator.getInstance().getPosition() +
-						"\tPivot pot: " + Gripper.getInstance().getPivotPotentiometer() +
-						"\tIntake encoder left: " + Gripper.getInstance().getLeftIntakeEncoder() + 
-						"\tIntake encoder right: " + Gripper.getInstance().getRightIntakeEncoder() + '\n');
+		printSensorValuesProfiler.startSense();
+		double encoder = drivetrain.getEncoderDistance();
+		double navX = drivetrain.getNavXYaw();
+		drivetrain.getColors(colors);
+		boolean isColorSensorWorking = drivetrain.isColorSensorWorking();
+		double elevatorPot = elevator.getPosition();
+		int pivotPot = gripper.getPivotPotentiometer();
+		int leftIntakeEncoder = gripper.getLeftIntakeEncoder();
+		int rightIntakeEncoder = gripper.getRightIntakeEncoder();
+
+		// the values are copied into the log record, the logger thread formats and prints them
+		printSensorValuesProfiler.startActuate();
+		if (isColorSensorWorking)
+		{
+			Logger.begin(SENSOR_VALUES).add(encoder).add(navX)
+					.add(colors.C).add(colors.R).add(colors.G).add(colors.B)
+					.add(elevatorPot).add(pivotPot).add(leftIntakeEncoder).add(rightIntakeEncoder).commit();
+		}
+		else
+		{
+			Logger.begin(SENSOR_VALUES_NO_COLORS).add(encoder).add(navX)
+					.add(elevatorPot).add(pivotPot).add(leftIntakeEncoder).add(rightIntakeEncoder).commit();
+		}
+		printSensorValuesProfiler.end();
+	}
+
+    /**
+     * Method to record the sensor values and motor outputs of this tick to the match log,
+     * the flight recorder, which is dumped when the roboRIO starts browning out, and the uplink.
+     * Runs every tick in autonomous and teleop, after the components have set their outputs.
+     * @param mode The mode the robot is in.
+     */
+	private void recordTelemetry(Constants.Mode mode)
+	{
+		LoopStatistics loopStatistics = getLoopStatistics();
+		drivetrain.getColors(telemetryColors);
+		drivetrain.getMotorOutputs(motorOutputs);
+
+		telemetryFrame.set(Channel.kTime, Timer.getFPGATimestamp());
+		telemetryFrame.set(Channel.kMode, mode);
+		telemetryFrame.set(Channel.kLoopPeriod, loopStatistics.getLastPeriodNanos() / 1.0e9);
+		telemetryFrame.set(Channel.kLoopExecution, loopStatistics.getLastExecutionNanos() / 1.0e9);
+		telemetryFrame.set(Channel.kEncoderDistance, drivetrain.getEncoderDistance());
+		telemetryFrame.set(Channel.kNavXYaw, drivetrain.getNavXYaw());
+		telemetryFrame.set(Channel.kColorC, telemetryColors.C);
+		telemetryFrame.set(Channel.kColorR, telemetryColors.R);
+		telemetryFrame.set(Channel.kColorG, telemetryColors.G);
+		telemetryFrame.set(Channel.kColorB, telemetryColors.B);
+		telemetryFrame.set(Channel.kElevatorPosition, elevator.getPosition());
+		telemetryFrame.set(Channel.kPivotPotentiometer, gripper.getPivotPotentiometer());
+		telemetryFrame.set(Channel.kLeftIntakeEncoder, gripper.getLeftIntakeEncoder());
+		telemetryFrame.set(Channel.kRightIntakeEncoder, gripper.getRightIntakeEncoder());
+		telemetryFrame.set(Channel.kFrontLeftOutput, motorOutputs[0]);
+		telemetryFrame.set(Channel.kFrontRightOutput, motorOutputs[1]);
+		telemetryFrame.set(Channel.kRearLeftOutput, motorOutputs[2]);
+		telemetryFrame.set(Channel.kRearRightOutput, motorOutputs[3]);
+		telemetryFrame.set(Channel.kElevatorOutput, elevator.getMotorOutput());
+		telemetryFrame.set(Channel.kPivotOutput, gripper.getPivotOutput());
+		telemetryFrame.set(Channel.kLeftIntakeOutput, gripper.getLeftIntakeOutput());
+		telemetryFrame.set(Channel.kRightIntakeOutput, gripper.getRightIntakeOutput());
+		telemetryFrame.set(Channel.kAutoStage, autonomous.getAutoStage());
+		telemetryFrame.set(Channel.kAutonStage, autonomous.getAutonStage());
+		double batteryVoltage = RobotController.getBatteryVoltage();
+		boolean isBrownedOut = RobotController.isBrownedOut();
+		telemetryFrame.set(Channel.kBatteryVoltage, batteryVoltage);
+		telemetryFrame.set(Channel.kBrownedOut, isBrownedOut ? 1.0 : 0.0);
+		telemetryFrame.set(Channel.kGcPauseTime, gcMonitor.getTotalPauseNanos() / 1.0e9);
+
+		telemetryRecorder.record(telemetryFrame);
+		flightRecorder.record(telemetryFrame);
+		telemetryUplink.record(telemetryFrame);
+		if (isBrownedOut && !wasBrownedOut)
+		{
+			flightRecorder.trigger(FlightRecorder.Trigger.kBrownout, String.format("battery at %.2f V", batteryVoltage), null);
+		}
+		wasBrownedOut = isBrownedOut;
+	}
+
+    /**
+     * Class for constant variables related to Robot.
+     */
+	public static class Constants
+	{
+		public enum LoopMode
+		{
+			kIterative,		// run once per driver station packet
+			kFixedRate,		// run from a Notifier at FIXED_RATE_LOOP_PERIOD
+			kDedicatedThread	// run from a real-time priority thread at FIXED_RATE_LOOP_PERIOD
+		}
+
+		public enum Mode {kNone, kDisabled, kAutonomous, kTeleop, kTest}
+
+		public static final LoopMode LOOP_MODE = LoopMode.kIterative;
+
+		public static final double ITERATIVE_LOOP_PERIOD = 0.02;	// driver station packets arrive every 20 ms
+		public static final double FIXED_RATE_LOOP_PERIOD = 0.01;	// 100 Hz, use 0.005 for 200 Hz
+
+		public static final int REAL_TIME_PRIORITY = 15;	// above the WPILib/CAN threads' defaults, well below the kernel's
+
+		public static final double PRINT_SENSOR_VALUES_PERIOD = 0.2;	// 5 Hz is plenty for the console
+
+		public static final boolean WARM_UP = true;	// warm up the JIT while disabled
 	}
 }
@@ -1,9 +1,33 @@
 package frc.robot.components;
 
+import frc.robot.loop.Scheduler;
+import frc.robot.metrics.MetricsRegistry;
+
 /**
  * Interface for all major robot components.
  */
 public interface Component
 {
 	public void printTestInfo();
+
+	/**
+	 * Registers the component's teleoperated loop with the scheduler,
+	 * at the component's own period and priority.
+	 * @param scheduler The scheduler that runs teleoperated mode.
+	 */
+	public void registerTeleopTasks(Scheduler scheduler);
+
+	/**
+	 * Registers the gauges that read the component's state, such as sensor values and motor outputs.
+	 * Counters and histograms that the component updates itself are registered when it is constructed.
+	 * @param registry The registry of the robot's metrics.
+	 */
+	public void registerMetrics(MetricsRegistry registry);
+
+	/**
+	 * Runs one round of the component's control logic without moving any motors,
+	 * so the JIT compiles it before the robot is enabled.
+	 * Must leave the component in the same state it was in before.
+	 */
+	public void warmUp();
 }
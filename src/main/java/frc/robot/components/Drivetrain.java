@@ -2,18 +2,28 @@ package frc.robot.components;
 
 import frc.robot.control.DriverXbox;
 import frc.robot.control.Xbox;
+import frc.robot.hal.Devices;
+import frc.robot.hal.Gyro;
+import frc.robot.hal.MotorController;
+import frc.robot.hal.QuadratureEncoder;
+import frc.robot.hal.Servo;
+import frc.robot.jfr.BlockingCallEvent;
+import frc.robot.loop.LoadGovernor;
+import frc.robot.loop.PhaseProfiler;
+import frc.robot.loop.Scheduler;
+import frc.robot.loop.Tracer;
+import frc.robot.metrics.Counter;
+import frc.robot.metrics.MetricsRegistry;
 import frc.robot.sensors.AMSColorSensor;
+import frc.robot.telemetry.FlightRecorder;
+import frc.robot.util.Calibration;
 import frc.robot.util.Colors;
-
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
-import com.kauailabs.navx.frc.AHRS;
+import frc.robot.util.Logger;
+import frc.robot.util.Startup;
 
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.Encoder;
 import edu.wpi.first.wpilibj.I2C;
-import edu.wpi.first.wpilibj.Servo;
 import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.CounterBase.EncodingType;
 import edu.wpi.first.wpilibj.PWM.PeriodMultiplier;
 import edu.wpi.first.wpilibj.drive.MecanumDrive;
 
@@ -24,6 +34,22 @@ import edu.wpi.first.wpilibj.drive.MecanumDrive;
  */
 public class Drivetrain extends MecanumDrive implements Component
 {
+	private static final Logger.Message TALON_CURRENTS = new Logger.Message(
+			"Talon 0: {}\nTalon 1: {}\nTalon 2: {}\nTalon 3: {}\nTalon 12: {}\nTalon 13: {}\nTalon 14: {}\nTalon 15: {}\n\n");
+	private static final Logger.Message NAVX_REPEATED_VALUES = new Logger.Message("[Drivetrain] NAVX REPEATED VALUES.", Constants.FAULT_MESSAGE_INTERVAL);
+	private static final Logger.Message NAVX_DISCONNECTED = new Logger.Message("[Drivetrain] NAVX DISCONNECTED.", Constants.FAULT_MESSAGE_INTERVAL);
+	private static final Logger.Message RED_COLOR_FOUND = new Logger.Message("RED COLOR FOUND: {}");
+	private static final Logger.Message BLUE_COLOR_FOUND = new Logger.Message("BLUE COLOR FOUND: {}");
+	private static final Logger.Message WHITE_COLOR_FOUND = new Logger.Message("WHITE COLOR FOUND: {}");
+	private static final Logger.Message HEADING = new Logger.Message("Heading: {}");
+	private static final Logger.Message TELEOP_FAILED = new Logger.Message("[Drivetrain] teleop failed: {}", Constants.FAULT_MESSAGE_INTERVAL);
+	private static final int READ_ENCODER = Tracer.register("CAN", "Drivetrain.getEncoderDistance");
+	private static final int READ_NAVX = Tracer.register("SPI", "Drivetrain.getNavXYaw");
+	private static final int RESET_ENCODER = Tracer.register("blocking", "Drivetrain.resetEncoder");
+	private static final Logger.Message ENCODER = new Logger.Message("Encoder: {}");
+	private static final AMSColorSensor.Constants.Color[] WARM_UP_COLORS = AMSColorSensor.Constants.Color.values();
+	private static final Logger.Message TEST_INFO = new Logger.Message("[Drivetrain] Encoder position: {} NavX: {} colors: {}");
+
 	private DriverXbox xbox = DriverXbox.getInstance();
 
 	private double previousNavXValue = 999.999;
@@ -39,23 +65,45 @@ public class Drivetrain extends MecanumDrive implements Component
 	private double leftXAxis = 0.0;
 	private double leftYAxis = 0.0;
 
-	private static WPI_TalonSRX frontLeftMasterMotor = new WPI_TalonSRX(Constants.FRONT_LEFT_MASTER_MOTOR_PORT);
-	private static WPI_TalonSRX frontLeftFollowerMotor = new WPI_TalonSRX(Constants.FRONT_LEFT_FOLLOWER_MOTOR_PORT);
-
-	private static WPI_TalonSRX frontRightMasterMotor = new WPI_TalonSRX(Constants.FRONT_RIGHT_MASTER_MOTOR_PORT);
-	private static WPI_TalonSRX frontRightFollowerMotor = new WPI_TalonSRX(Constants.FRONT_RIGHT_FOLLOWER_MOTOR_PORT);
-
-	private static WPI_TalonSRX rearLeftMasterMotor = new WPI_TalonSRX(Constants.REAR_LEFT_MASTER_MOTOR_PORT);
-	private static WPI_TalonSRX rearLeftFollowerMotor = new WPI_TalonSRX(Constants.REAR_LEFT_FOLOWER_MOTOR_PORT);
-
-	private static WPI_TalonSRX rearRightMasterMotor = new WPI_TalonSRX(Constants.REAR_RIGHT_MASTER_MOTOR_PORT);
-	private static WPI_TalonSRX rearRightFollowerMotor = new WPI_TalonSRX(Constants.REAR_RIGHT_FOLLOWER_MOTOR_PORT);
-
-	private static Servo servo = new Servo(Constants.SERVO_PORT);
+	private PhaseProfiler teleopProfiler = new PhaseProfiler("Drivetrain.teleop");
+	private final double[] wheelSpeeds = new double[4];	// reused by driveCartesian()
+	private boolean isMuted = false;
+	private int warmUpIteration = 0;
+	// swapped in while muted
+	private Timer mutedT = new Timer();
+	private Timer mutedTimer = new Timer();
+	private boolean mutedDoRestartSpinTimer = true;
+	private boolean mutedDoResetTimer = true;
+	private boolean isMutedTimerDone = false;
+	private double mutedPreviousNavXValue = 999.999;
+	private LoadGovernor governor = LoadGovernor.getInstance();
+	private FlightRecorder flightRecorder = FlightRecorder.getInstance();
+
+	private Counter teleopExceptions = MetricsRegistry.getInstance().counter("Drivetrain.teleopExceptions", "exceptions caught in teleop");
+	private Counter autonomousAborts = MetricsRegistry.getInstance().counter("Drivetrain.autonomousAborts", "times autonomous was aborted");
+	private Counter navXRepeatedValues = MetricsRegistry.getInstance().counter("Drivetrain.navXRepeatedValues", "spinToBearing ticks with a stuck navX");
+	private Counter navXDisconnected = MetricsRegistry.getInstance().counter("Drivetrain.navXDisconnected", "spinToBearing ticks with the navX disconnected");
+	private Counter resetEncoderCalls = MetricsRegistry.getInstance().counter("Drivetrain.resetEncoderCalls", "calls to resetEncoder");
+	private Counter resetEncoderNanos = MetricsRegistry.getInstance().counter("Drivetrain.resetEncoderNanos", "time blocked in resetEncoder, ns");
+	private final BlockingCallEvent resetEncoderEvent = new BlockingCallEvent("Drivetrain.resetEncoder");
+
+	private static MotorController frontLeftMasterMotor = Startup.time("Drivetrain.frontLeftMasterMotor", () -> Devices.getInstance().motor(Constants.FRONT_LEFT_MASTER_MOTOR_PORT));
+	private static MotorController frontLeftFollowerMotor = Startup.time("Drivetrain.frontLeftFollowerMotor", () -> Devices.getInstance().motor(Constants.FRONT_LEFT_FOLLOWER_MOTOR_PORT));
+
+	private static MotorController frontRightMasterMotor = Startup.time("Drivetrain.frontRightMasterMotor", () -> Devices.getInstance().motor(Constants.FRONT_RIGHT_MASTER_MOTOR_PORT));
+	private static MotorController frontRightFollowerMotor = Startup.time("Drivetrain.frontRightFollowerMotor", () -> Devices.getInstance().motor(Constants.FRONT_RIGHT_FOLLOWER_MOTOR_PORT));
+
+	private static MotorController rearLeftMasterMotor = Startup.time("Drivetrain.rearLeftMasterMotor", () -> Devices.getInstance().motor(Constants.REAR_LEFT_MASTER_MOTOR_PORT));
+	private static MotorController rearLeftFollowerMotor = Startup.time("Drivetrain.rearLeftFollowerMotor", () -> Devices.getInstance().motor(Constants.REAR_LEFT_FOLOWER_MOTOR_PORT));
+
+	private static MotorController rearRightMasterMotor = Startup.time("Drivetrain.rearRightMasterMotor", () -> Devices.getInstance().motor(Constants.REAR_RIGHT_MASTER_MOTOR_PORT));
+	private static MotorController rearRightFollowerMotor = Startup.time("Drivetrain.rearRightFollowerMotor", () -> Devices.getInstance().motor(Constants.REAR_RIGHT_FOLLOWER_MOTOR_PORT));
+
+	private static Servo servo = Startup.time("Drivetrain.servo", () -> Devices.getInstance().servo(Constants.SERVO_PORT));
 	private double servoPosition = 0.5;
 
-	private Encoder dropDownEncoder = new Encoder(0, 1, false, EncodingType.k4X);
-	private AHRS navX = new AHRS(I2C.Port.kMXP);
+	private QuadratureEncoder dropDownEncoder = Startup.time("Drivetrain.dropDownEncoder", () -> Devices.getInstance().encoder(0, 1, false));
+	private Gyro navX = Startup.time("Drivetrain.navX", () -> Devices.getInstance().gyro(I2C.Port.kMXP));
 
 	private Timer startUpTimer = new Timer();
 	private Timer t = new Timer();
@@ -66,14 +114,17 @@ public class Drivetrain extends MecanumDrive implements Component
 	private boolean isTimerDone = false;
 
 	//Color sensor
-	private AMSColorSensor colorSensor = new AMSColorSensor(AMSColorSensor.Constants.PORT, AMSColorSensor.Constants.ADDRESS);
+	private AMSColorSensor colorSensor = Startup.time("Drivetrain.colorSensor", () -> new AMSColorSensor(AMSColorSensor.Constants.PORT, AMSColorSensor.Constants.ADDRESS));
 	private Colors crgb = new Colors();
 	private Colors crgbPrevious = new Colors();
-	private Colors crgbUpperThreshold = new Colors();
-	private Colors crgbLowerThreshold = new Colors();
+	private volatile Colors crgbUpperThreshold = newThreshold(Constants.DEFAULT_UPPER_THRESHOLD_C, Constants.DEFAULT_UPPER_THRESHOLD_R, Constants.DEFAULT_UPPER_THRESHOLD_G, Constants.DEFAULT_UPPER_THRESHOLD_B);
+	private volatile Colors crgbLowerThreshold = newThreshold(0, 0, 0, 0);
 	private int upperThresholdFactor;
 	private int lowerThresholdFactor;
 
+	private Calibration navXCalibration = new Calibration("Drivetrain.calibrateNavX");
+	private Calibration colorSensorCalibration = new Calibration("Drivetrain.calibrateColorSensor");
+
 	private static Drivetrain instance = new Drivetrain();
 
 	/**
@@ -90,15 +141,18 @@ public class Drivetrain extends MecanumDrive implements Component
      */
 	public void debugPrintCurrent()
 	{
-		System.out.println("Talon 0: " + rearRightMasterMotor.getOutputCurrent());
-		System.out.println("Talon 1: " + rearRightFollowerMotor.getOutputCurrent());
-		System.out.println("Talon 2: " + rearLeftMasterMotor.getOutputCurrent());
-		System.out.println("Talon 3: " + rearLeftFollowerMotor.getOutputCurrent());
-
-		System.out.println("Talon 12: " + frontLeftFollowerMotor.getOutputCurrent());
-		System.out.println("Talon 13: " + frontLeftMasterMotor.getOutputCurrent());
-		System.out.println("Talon 14: " + frontRightFollowerMotor.getOutputCurrent());
-		System.out.println("Talon 15: " + frontRightMasterMotor.getOutputCurrent() + "\n\n");
+		// read before the record is begun, so a failing read cannot leave it uncommitted
+		double rearRightMaster = rearRightMasterMotor.getOutputCurrent();
+		double rearRightFollower = rearRightFollowerMotor.getOutputCurrent();
+		double rearLeftMaster = rearLeftMasterMotor.getOutputCurrent();
+		double rearLeftFollower = rearLeftFollowerMotor.getOutputCurrent();
+		double frontLeftFollower = frontLeftFollowerMotor.getOutputCurrent();
+		double frontLeftMaster = frontLeftMasterMotor.getOutputCurrent();
+		double frontRightFollower = frontRightFollowerMotor.getOutputCurrent();
+		double frontRightMaster = frontRightMasterMotor.getOutputCurrent();
+		Logger.begin(TALON_CURRENTS)
+				.add(rearRightMaster).add(rearRightFollower).add(rearLeftMaster).add(rearLeftFollower)
+				.add(frontLeftFollower).add(frontLeftMaster).add(frontRightFollower).add(frontRightMaster).commit();
 	}
 
     /**
@@ -159,8 +213,6 @@ public class Drivetrain extends MecanumDrive implements Component
 		servo.setBounds(2.4, 0, 0, 0, 0.6);		// Current bounds are 8.5 turns, (2.5, 0, 0, 0, 0.5) for 9 turns
 
 		//this.calibrateNavX();
-
-		this.calibrateColorSensor();
 	}
 
     /**
@@ -169,7 +221,10 @@ public class Drivetrain extends MecanumDrive implements Component
      */
 	public double getEncoderDistance()
 	{
-		return frontRightMasterMotor.getSelectedSensorPosition(0) / 135.0;
+		long start = Tracer.start();
+		double distance = frontRightMasterMotor.getSelectedSensorPosition(0) / 135.0;
+		Tracer.end(READ_ENCODER, start);
+		return distance;
 	}
 
     /**
@@ -183,42 +238,97 @@ public class Drivetrain extends MecanumDrive implements Component
 
 			//System.out.println(DriverStation.getInstance().isOperatorControl() + " " + DriverStation.getInstance().isEnabled());
 
+			teleopProfiler.startSense();
+
             //Make sure robot is actually in teleop mode
 			if (DriverStation.getInstance().isOperatorControl() && DriverStation.getInstance().isEnabled())
 			{
-				if (Math.abs(xbox.getRawAxis(1)) > 0.2)
+				//Sense: read the controller, and the NavX only when holding heading
+				double rawLeftYAxis = xbox.getRawAxis(Xbox.Constants.LEFT_STICK_Y_AXIS);
+				double rawLeftXAxis = xbox.getRawAxis(Xbox.Constants.LEFT_STICK_X_AXIS);
+				double rawRightXAxis = xbox.getRawAxis(Xbox.Constants.RIGHT_STICK_X_AXIS);
+				//Heading hold needs a calibrated NavX, otherwise the right stick keeps control of rotation
+				boolean isHoldingHeading = xbox.getRawButton(Xbox.Constants.RIGHT_BUMPER) && navXCalibration.isGood();
+				double yaw = isHoldingHeading ? this.getNavXYaw() : 0.0;
+
+				//Compute: apply deadbands and pick the rotation
+				teleopProfiler.startCompute();
+				if (Math.abs(rawLeftYAxis) > 0.2)
 				{
-					leftYAxis = -xbox.getRawAxis(Xbox.Constants.LEFT_STICK_Y_AXIS);
+					leftYAxis = -rawLeftYAxis;
 				}
 				else leftYAxis = 0;
 
-				if (Math.abs(xbox.getRawAxis(0)) > 0.2)
+				if (Math.abs(rawLeftXAxis) > 0.2)
 				{
-					leftXAxis = xbox.getRawAxis(Xbox.Constants.LEFT_STICK_X_AXIS) * 0.8;
+					leftXAxis = rawLeftXAxis * 0.8;
 				}
 				else leftXAxis = 0;
 
-				if (Math.abs(xbox.getRawAxis(4)) > 0.2)
+				if (Math.abs(rawRightXAxis) > 0.2)
 				{
-					rightXAxis = xbox.getRawAxis(Xbox.Constants.RIGHT_STICK_X_AXIS);
+					rightXAxis = rawRightXAxis;
 				}
 				else rightXAxis = 0;
 
+				double rotation = isHoldingHeading ? yaw / 50 : rightXAxis;
 
-				if(xbox.getRawButton(Xbox.Constants.RIGHT_BUMPER))
-				{
-					this.driveCartesian(leftXAxis, leftYAxis, (this.getNavXYaw()) / 50);
-				}
-				else
-				{
-					this.driveCartesian(leftXAxis, leftYAxis, rightXAxis);
-				}
+				//Actuate
+				teleopProfiler.startActuate();
+				this.driveCartesian(leftXAxis, leftYAxis, rotation);
 			}
+			teleopProfiler.end();
 			//drivetrain.debugPrintCurrent();
 		}
 		catch(Exception e)
 		{
-			e.printStackTrace();
+			Logger.log(TELEOP_FAILED, e);
+			teleopExceptions.increment();
+			flightRecorder.trigger(e);
+		}
+	}
+
+    /**
+     * Gets the sense/compute/actuate timing of the teleop method.
+     * @return The profiler for teleop().
+     */
+	public PhaseProfiler getTeleopProfiler()
+	{
+		return teleopProfiler;
+	}
+
+    /**
+     * Drives the robot, or while warming up, runs the same drive code without setting the motors.
+     * The same math as MecanumDrive.driveCartesian(), which allocates a Vector2d and an array
+     * on every call, with the wheel speeds kept in one array instead.
+     */
+	@Override
+	public void driveCartesian(double ySpeed, double xSpeed, double zRotation, double gyroAngle)
+	{
+		ySpeed = applyDeadband(limit(ySpeed), m_deadband);
+		xSpeed = applyDeadband(limit(xSpeed), m_deadband);
+
+		//Rotate the joystick input by the gyro angle, for field-oriented driving
+		double radians = -gyroAngle * (Math.PI / 180.0);
+		double cos = Math.cos(radians);
+		double sin = Math.sin(radians);
+		double x = ySpeed * cos - xSpeed * sin;
+		double y = ySpeed * sin + xSpeed * cos;
+
+		wheelSpeeds[MotorType.kFrontLeft.value] = x + y + zRotation;
+		wheelSpeeds[MotorType.kFrontRight.value] = -x + y - zRotation;
+		wheelSpeeds[MotorType.kRearLeft.value] = -x + y + zRotation;
+		wheelSpeeds[MotorType.kRearRight.value] = x + y - zRotation;
+		normalize(wheelSpeeds);
+
+		if (!isMuted)
+		{
+			double rightSideMultiplier = isRightSideInverted() ? -1.0 : 1.0;
+			frontLeftMasterMotor.set(wheelSpeeds[MotorType.kFrontLeft.value] * m_maxOutput);
+			frontRightMasterMotor.set(wheelSpeeds[MotorType.kFrontRight.value] * m_maxOutput * rightSideMultiplier);
+			rearLeftMasterMotor.set(wheelSpeeds[MotorType.kRearLeft.value] * m_maxOutput);
+			rearRightMasterMotor.set(wheelSpeeds[MotorType.kRearRight.value] * m_maxOutput * rightSideMultiplier);
+			feed();
 		}
 	}
 
@@ -376,6 +486,21 @@ public class Drivetrain extends MecanumDrive implements Component
 		return abortAutonomous;
 	}
 
+    /**
+     * Method to abort autonomous. The first time, the flight recorder is dumped so the
+     * ticks that led to the abort can be looked at after the match.
+     * @param reason Why autonomous is aborted.
+     */
+	private void setAbortAutonomous(String reason)
+	{
+		if (!abortAutonomous)
+		{
+			abortAutonomous = true;
+			autonomousAborts.increment();
+			flightRecorder.trigger(FlightRecorder.Trigger.kAbortAutonomous, reason, null);
+		}
+	}
+
     /**
      * Restart the timer.
      */
@@ -443,15 +568,23 @@ public class Drivetrain extends MecanumDrive implements Component
 			}
 			else
 			{
-				abortAutonomous = true;
-				System.out.println("\nNAVX REPEATED VALUES.\n");
+				if (!isMuted)
+				{
+					setAbortAutonomous("navX repeated values in spinToBearing");
+					navXRepeatedValues.increment();
+					Logger.log(NAVX_REPEATED_VALUES);
+				}
 				driveCartesian(0, 0, 0);
 			}
 		}
 		else
 		{
-			abortAutonomous = true;
-			System.out.println("\nNAVX DISCONNECTED.\n");
+			if (!isMuted)
+			{
+				setAbortAutonomous("navX disconnected in spinToBearing");
+				navXDisconnected.increment();
+				Logger.log(NAVX_DISCONNECTED);
+			}
 			driveCartesian(0, 0, 0);
 		}
 
@@ -476,17 +609,26 @@ public class Drivetrain extends MecanumDrive implements Component
 		if(color == AMSColorSensor.Constants.Color.kRed)
 		{
 			foundTape = crgb.R > crgbUpperThreshold.R;
-		System.out.println("RED COLOR FOUND: " + foundTape);
+			if (!isMuted && governor.isDiagnosticsAllowed())
+			{
+				Logger.log(RED_COLOR_FOUND, foundTape);
+			}
 		}
 		else if(color == AMSColorSensor.Constants.Color.kBlue)
 		{
 			foundTape = crgb.B > crgbUpperThreshold.B;
-		System.out.println("BLUE COLOR FOUND: " + foundTape);
+			if (!isMuted && governor.isDiagnosticsAllowed())
+			{
+				Logger.log(BLUE_COLOR_FOUND, foundTape);
+			}
 		}
 		else if(color == AMSColorSensor.Constants.Color.kWhite)
 		{
 			foundTape = crgb.C > crgbUpperThreshold.C;
-		System.out.println("WHITE COLOR FOUND: " + foundTape);
+			if (!isMuted && governor.isDiagnosticsAllowed())
+			{
+				Logger.log(WHITE_COLOR_FOUND, foundTape);
+			}
 		}
 		if(!foundTape)
 		{
@@ -507,7 +649,24 @@ public class Drivetrain extends MecanumDrive implements Component
      */
 	public double getNavXYaw()
 	{
-		return navX.getYaw();
+		long start = Tracer.start();
+		double yaw = navX.getYaw();
+		Tracer.end(READ_NAVX, start);
+		return yaw;
+	}
+
+    /**
+     * Gets the outputs of the drive motors without allocating.
+     * @param outputs Array of at least four elements to store the front left, front right, rear left and rear right outputs in.
+     * @return The array that was passed in.
+     */
+	public double[] getMotorOutputs(double[] outputs)
+	{
+		outputs[0] = frontLeftMasterMotor.get();
+		outputs[1] = frontRightMasterMotor.get();
+		outputs[2] = rearLeftMasterMotor.get();
+		outputs[3] = rearRightMasterMotor.get();
+		return outputs;
 	}
 
     /**
@@ -520,11 +679,42 @@ public class Drivetrain extends MecanumDrive implements Component
 
     /**
      * Reset the drop-down wheel encoder.
+     * Blocks for 60 ms, so the calls and the time blocked are counted, for the MatchReport.
+     * Does nothing while muted.
      */
 	public void resetEncoder()
 	{
+		if (isMuted)
+		{
+			return;
+		}
+		resetEncoderEvent.startCall();
+		long startNanos = System.nanoTime();
 		frontRightMasterMotor.setSelectedSensorPosition(0, 0, 0);
 		Timer.delay(0.06);
+		long endNanos = System.nanoTime();
+		resetEncoderEvent.endCall();
+		resetEncoderCalls.increment();
+		resetEncoderNanos.add(endNanos - startNanos);
+		Tracer.record(RESET_ENCODER, startNanos, endNanos);
+	}
+
+    /**
+     * Gets the current colors detected by the color sensor.
+     * @param colors Object to copy the colors into.
+     */
+	public void getColors(Colors colors)
+	{
+		colorSensor.get(colors);
+	}
+
+    /**
+     * Checks if the color sensor was found and set up.
+     * @return If the color sensor is working.
+     */
+	public boolean isColorSensorWorking()
+	{
+		return colorSensor.isWorking();
 	}
 
     /**
@@ -532,7 +722,7 @@ public class Drivetrain extends MecanumDrive implements Component
      */
 	public void printColors()
 	{
-		System.out.print(colorSensor);
+		Logger.println(colorSensor.toString());
 	}
 
     /**
@@ -540,7 +730,7 @@ public class Drivetrain extends MecanumDrive implements Component
      */
 	public void printHeading()
 	{
-		System.out.print("Heading: " + navX.getYaw());
+		Logger.log(HEADING, navX.getYaw());
 	}
 
     /**
@@ -548,7 +738,7 @@ public class Drivetrain extends MecanumDrive implements Component
      */
 	public void printEncoder()
 	{
-		System.out.println("Encoder: " + dropDownEncoder.getRaw());
+		Logger.log(ENCODER, dropDownEncoder.getRaw());
 	}
 
     /**
@@ -565,11 +755,12 @@ public class Drivetrain extends MecanumDrive implements Component
      * The NavX is allowed a maximum of five seconds to calibrate
      * before an error message displayed and the calibration is
      * marked as bad.
+     * @return If the NavX calibrated in time.
      */
-	public void calibrateNavX()
+	public boolean calibrateNavX()
 	{	
 		boolean goodCalibration = true;
-		System.out.println("Calibrating NavX...");
+		Logger.println("Calibrating NavX...");
 
 		startUpTimer.start();
 		while(navX.isCalibrating() && startUpTimer.get() < 5.0)
@@ -578,45 +769,43 @@ public class Drivetrain extends MecanumDrive implements Component
 		}
 		if (startUpTimer.get() >= 5.0)
 		{
-			System.out.println("ERROR! [Drivetrain] Error while calibrating NavX!");
+			Logger.println("ERROR! [Drivetrain] Error while calibrating NavX!");
 			goodCalibration = false;
 		}
-		System.out.println("Calibration done... "  + "Did NavX calibrate? " + goodCalibration);
+		Logger.println("Calibration done... "  + "Did NavX calibrate? " + goodCalibration);
+		return goodCalibration;
 	}
 
     /**
      * Calibrates the color sensor based on the current color of the floor.
+     * Runs in the background at startup: the thresholds are worked out on the side and only
+     * replace the default thresholds when they are done.
+     * @return If the color sensor is working.
      */
-	public void calibrateColorSensor()
+	public boolean calibrateColorSensor()
 	{
+		Colors sample = new Colors();
+		Colors upperThreshold = newThreshold(0, 0, 0, 0);
+		Colors lowerThreshold = newThreshold(0, 0, 0, 0);
 
 		Timer.delay(0.25); // wait for thread to start
-		colorSensor.get(crgb); // get initial data to assure there is something for any other robot methods the first time through since robotPeriodic runs after others
+		colorSensor.get(sample); // get initial data to assure there is something for any other robot methods the first time through since robotPeriodic runs after others
 
 		// establish floor color and lighting conditions
 		// loop to get average where the robot is parked at the start
-		crgbUpperThreshold.C = 0;
-		crgbUpperThreshold.R = 0;
-		crgbUpperThreshold.G = 0;
-		crgbUpperThreshold.B = 0;
-
-		crgbLowerThreshold.C = 0;
-		crgbLowerThreshold.R = 0;
-		crgbLowerThreshold.G = 0;
-		crgbLowerThreshold.B = 0;
 		int numSamples = 60;
 		for (int i = 1; i <= numSamples; i++)
 		{
-			colorSensor.get(crgb);
-			crgbUpperThreshold.C += crgb.C;
-			crgbUpperThreshold.R += crgb.R;
-			crgbUpperThreshold.G += crgb.G;
-			crgbUpperThreshold.B += crgb.B;
-
-			crgbLowerThreshold.C += crgb.C;
-			crgbLowerThreshold.R += crgb.R;
-			crgbLowerThreshold.G += crgb.G;
-			crgbLowerThreshold.B += crgb.B;
+			colorSensor.get(sample);
+			upperThreshold.C += sample.C;
+			upperThreshold.R += sample.R;
+			upperThreshold.G += sample.G;
+			upperThreshold.B += sample.B;
+
+			lowerThreshold.C += sample.C;
+			lowerThreshold.R += sample.R;
+			lowerThreshold.G += sample.G;
+			lowerThreshold.B += sample.B;
 			Timer.delay(0.018);
 		}
 
@@ -624,28 +813,72 @@ public class Drivetrain extends MecanumDrive implements Component
 		upperThresholdFactor = 3; //  must be exceeded to determine tape found
 		lowerThresholdFactor = 2; // must be below to reset tape found
 
-		crgbUpperThreshold.C = crgbUpperThreshold.C* upperThresholdFactor /numSamples; // compute the average and include the tape threshold factor
-		crgbUpperThreshold.R = crgbUpperThreshold.R* upperThresholdFactor /numSamples;
-		crgbUpperThreshold.G = crgbUpperThreshold.G* upperThresholdFactor /numSamples;
-		crgbUpperThreshold.B = crgbUpperThreshold.B* upperThresholdFactor /numSamples;
+		upperThreshold.C = upperThreshold.C* upperThresholdFactor /numSamples; // compute the average and include the tape threshold factor
+		upperThreshold.R = upperThreshold.R* upperThresholdFactor /numSamples;
+		upperThreshold.G = upperThreshold.G* upperThresholdFactor /numSamples;
+		upperThreshold.B = upperThreshold.B* upperThresholdFactor /numSamples;
 
-		crgbLowerThreshold.C = crgbLowerThreshold.C* lowerThresholdFactor /numSamples; // compute the average and include the tape threshold factor
-		crgbLowerThreshold.R = crgbLowerThreshold.R* lowerThresholdFactor /numSamples;
-		crgbLowerThreshold.G = crgbLowerThreshold.G* lowerThresholdFactor /numSamples;
-		crgbLowerThreshold.B = crgbLowerThreshold.B* lowerThresholdFactor /numSamples;
+		lowerThreshold.C = lowerThreshold.C* lowerThresholdFactor /numSamples; // compute the average and include the tape threshold factor
+		lowerThreshold.R = lowerThreshold.R* lowerThresholdFactor /numSamples;
+		lowerThreshold.G = lowerThreshold.G* lowerThresholdFactor /numSamples;
+		lowerThreshold.B = lowerThreshold.B* lowerThresholdFactor /numSamples;
 
-		crgbUpperThreshold.C = 3000;
-		crgbUpperThreshold.R = 1000;
-		crgbUpperThreshold.G = 0;
-		crgbUpperThreshold.B = 800;
+		//System.out.println("measured upperThreshold " + upperThreshold + "; lowerThreshold " + lowerThreshold);
 
-		crgbLowerThreshold.C = 0;
-		crgbLowerThreshold.R = 0;
-		crgbLowerThreshold.G = 0;
-		crgbLowerThreshold.B = 0;
+		// the measured thresholds are not used yet, the tuned defaults are
+		crgbUpperThreshold = newThreshold(Constants.DEFAULT_UPPER_THRESHOLD_C, Constants.DEFAULT_UPPER_THRESHOLD_R, Constants.DEFAULT_UPPER_THRESHOLD_G, Constants.DEFAULT_UPPER_THRESHOLD_B);
+		crgbLowerThreshold = newThreshold(0, 0, 0, 0);
 
 		//System.out.println("robotInit " + mAMSColorSensor);
 		//System.out.println("crgbUpperThreshold " + crgbUpperThreshold + "; crgbLowerThreshold " + crgbLowerThreshold);
+		return colorSensor.isWorking();
+	}
+
+    /**
+     * Creates a color threshold.
+     * @return New threshold with the given values.
+     */
+	private static Colors newThreshold(int c, int r, int g, int b)
+	{
+		Colors threshold = new Colors();
+		threshold.C = c;
+		threshold.R = r;
+		threshold.G = g;
+		threshold.B = b;
+		return threshold;
+	}
+
+    /**
+     * Starts calibrating the NavX and the color sensor in the background.
+     * Until the NavX is ready, teleop does not hold heading and autonomous only crosses the auto line.
+     * Until the color sensor is ready, the default color thresholds are used.
+     */
+	public void startCalibrations()
+	{
+		navXCalibration.start(() ->
+		{
+			resetNavX();
+			return calibrateNavX();
+		});
+		colorSensorCalibration.start(this::calibrateColorSensor);
+	}
+
+    /**
+     * Gets the NavX calibration, to check if it is ready.
+     * @return The NavX calibration.
+     */
+	public Calibration getNavXCalibration()
+	{
+		return navXCalibration;
+	}
+
+    /**
+     * Gets the color sensor calibration, to check if it is ready.
+     * @return The color sensor calibration.
+     */
+	public Calibration getColorSensorCalibration()
+	{
+		return colorSensorCalibration;
 	}
 
     /**
@@ -688,10 +921,102 @@ public class Drivetrain extends MecanumDrive implements Component
 		servo.set(servoPosition);
 	}
 
+	@Override
+	public void registerTeleopTasks(Scheduler scheduler)
+	{
+		scheduler.register("Drivetrain.teleop", this::teleop, Constants.TELEOP_PERIOD, Constants.TELEOP_PRIORITY);
+	}
+
+	@Override
+	public void registerMetrics(MetricsRegistry registry)
+	{
+		registry.gauge("Drivetrain.encoderDistance", "drop-down encoder distance, in", this::getEncoderDistance);
+		registry.gauge("Drivetrain.navXYaw", "navX yaw, deg", this::getNavXYaw);
+		registry.gauge("Drivetrain.navXConnected", "1 if the navX is connected", () -> navX.isConnected() ? 1.0 : 0.0);
+		registry.gauge("Drivetrain.frontLeftOutput", "motor output, -1 to 1", frontLeftMasterMotor::get);
+		registry.gauge("Drivetrain.frontRightOutput", "motor output, -1 to 1", frontRightMasterMotor::get);
+		registry.gauge("Drivetrain.rearLeftOutput", "motor output, -1 to 1", rearLeftMasterMotor::get);
+		registry.gauge("Drivetrain.rearRightOutput", "motor output, -1 to 1", rearRightMasterMotor::get);
+		registry.gauge("Drivetrain.frontLeftCurrent", "master motor current, A", frontLeftMasterMotor::getOutputCurrent);
+		registry.gauge("Drivetrain.frontRightCurrent", "master motor current, A", frontRightMasterMotor::getOutputCurrent);
+		registry.gauge("Drivetrain.rearLeftCurrent", "master motor current, A", rearLeftMasterMotor::getOutputCurrent);
+		registry.gauge("Drivetrain.rearRightCurrent", "master motor current, A", rearRightMasterMotor::getOutputCurrent);
+	}
+
+    /**
+     * Mutes the drivetrain, so the autonomous routines can be warmed up without moving the robot.
+     * While muted the drive code works out the wheel speeds but does not set the motors,
+     * the encoder is not reset, and a stuck or disconnected navX neither aborts autonomous nor
+     * is reported. The drive methods use scratch timers and timer state instead of the real ones,
+     * which are put back when unmuted.
+     * @param isMuted True to mute, false to unmute.
+     */
+	public void setMuted(boolean isMuted)
+	{
+		if (isMuted != this.isMuted)
+		{
+			this.isMuted = isMuted;
+
+			Timer swapTimer = t;
+			t = mutedT;
+			mutedT = swapTimer;
+
+			swapTimer = timer;
+			timer = mutedTimer;
+			mutedTimer = swapTimer;
+
+			boolean state = doRestartSpinTimer;
+			doRestartSpinTimer = mutedDoRestartSpinTimer;
+			mutedDoRestartSpinTimer = state;
+
+			state = doResetTimer;
+			doResetTimer = mutedDoResetTimer;
+			mutedDoResetTimer = state;
+
+			state = isTimerDone;
+			isTimerDone = isMutedTimerDone;
+			isMutedTimerDone = state;
+
+			double navXValue = previousNavXValue;
+			previousNavXValue = mutedPreviousNavXValue;
+			mutedPreviousNavXValue = navXValue;
+		}
+	}
+
+    /**
+     * Runs the autonomous drive methods with the drivetrain muted.
+     */
+	@Override
+	public void warmUp()
+	{
+		warmUpIteration++;
+		double speed = ((warmUpIteration % 20) - 10) / 10.0;
+		int bearing = (warmUpIteration % 360) - 180;
+
+		setMuted(true);
+		try
+		{
+			driveDistance(90, speed, 0, 48);
+			strafeDistanceAtAngle(60, speed, 0.5, 0);
+			driveCartesian(speed, -speed, speed / 2);
+			driveSeconds(speed, 1, bearing);
+			strafeSeconds(1, speed, bearing);
+			spinToBearing(bearing, speed);
+			driveToColor(WARM_UP_COLORS[warmUpIteration % WARM_UP_COLORS.length], speed, bearing);
+		}
+		finally
+		{
+			setMuted(false);
+		}
+	}
+
 	@Override
 	public void printTestInfo()
 	{
-		System.out.println("[Drivetrain] Encoder position: " + getEncoderDistance() + " NavX: " + navX.getYaw() + " colors: " + colorSensor.toString());
+		double encoder = getEncoderDistance();
+		double yaw = navX.getYaw();
+		String colors = colorSensor.toString();
+		Logger.begin(TEST_INFO).add(encoder).add(yaw).add(colors).commit();
 	}
 
 	/**
@@ -724,7 +1049,17 @@ public class Drivetrain extends MecanumDrive implements Component
 
 		public static final double DRIVE_RAMP_TIME = 0.25;
 
+		public static final double FAULT_MESSAGE_INTERVAL = 1.0;	// seconds, navX faults repeat every tick once tripped
+
 		public static final int SERVO_PORT = 0;
+
+		public static final int DEFAULT_UPPER_THRESHOLD_C = 3000;	// tuned on the field, used until calibration is done
+		public static final int DEFAULT_UPPER_THRESHOLD_R = 1000;
+		public static final int DEFAULT_UPPER_THRESHOLD_G = 0;
+		public static final int DEFAULT_UPPER_THRESHOLD_B = 800;
+
+		public static final double TELEOP_PERIOD = 0.01;	// heading hold needs the highest rate
+		public static final int TELEOP_PRIORITY = Scheduler.Constants.PRIORITY_CONTROL;
 	}
 
 
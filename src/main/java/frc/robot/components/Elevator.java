@@ -5,12 +5,19 @@ import java.util.HashMap;
 import frc.robot.control.DriverXbox;
 import frc.robot.control.OperatorXbox;
 import frc.robot.control.Xbox;
+import frc.robot.hal.Devices;
+import frc.robot.hal.MotorController;
+import frc.robot.hal.Potentiometer;
+import frc.robot.loop.PhaseProfiler;
+import frc.robot.loop.Scheduler;
+import frc.robot.loop.Tracer;
+import frc.robot.metrics.MetricsRegistry;
+import frc.robot.util.Startup;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.LimitSwitchNormal;
 import com.ctre.phoenix.motorcontrol.LimitSwitchSource;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
 
 /**
  * This class represents the robot's elevator component.
@@ -20,13 +27,16 @@ import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
  */
 public class Elevator implements Component
 {
+	private static final int READ_POSITION = Tracer.register("CAN", "Elevator.getPosition");
+
 	private OperatorXbox operatorXbox = OperatorXbox.getInstance();
 	private DriverXbox driverXbox = DriverXbox.getInstance();
 	
-	private WPI_TalonSRX masterTalonSRX = new WPI_TalonSRX(Constants.MASTER_MOTOR_PORT); 
-	private WPI_TalonSRX slaveTalonSRX = new WPI_TalonSRX(Constants.SLAVE_MOTOR_PORT);
+	private MotorController masterTalonSRX = Startup.time("Elevator.masterTalonSRX", () -> Devices.getInstance().motor(Constants.MASTER_MOTOR_PORT));
+	private MotorController slaveTalonSRX = Startup.time("Elevator.slaveTalonSRX", () -> Devices.getInstance().motor(Constants.SLAVE_MOTOR_PORT));
+	private Potentiometer potentiometer = Devices.getInstance().potentiometer(masterTalonSRX, Constants.MASTER_MOTOR_PORT);
 
-	private HashMap<Integer, WPI_TalonSRX> talonSRXHashMap = new HashMap<Integer, WPI_TalonSRX>();
+	private HashMap<Integer, MotorController> talonSRXHashMap = new HashMap<Integer, MotorController>();
 
 	private double currentValue;
 	private double[] targetRange = Constants.Range.floorRange.range;
@@ -52,6 +62,15 @@ public class Elevator implements Component
 
 	private double leftYAxis;
 
+	private PhaseProfiler teleopProfiler = new PhaseProfiler("Elevator.teleop");
+	private int warmUpIteration = 0;
+	private Constants.TeleopCommand warmUpCommand = Constants.TeleopCommand.kStop;
+	// swapped in while muted
+	private boolean isMuted = false;
+	private MotorController mutedTalonSRX = new MutedMotorController(masterTalonSRX);
+	private Constants.Direction mutedDirection = Constants.Direction.None;
+	private boolean isMutedMoving = false;
+
 	private static Elevator instance = new Elevator();
 
     /**
@@ -120,6 +139,8 @@ public class Elevator implements Component
 	 */
 	public void teleop()
 	{
+		teleopProfiler.startSense();
+
 		leftStickButton = operatorXbox.getRawButton(Xbox.Constants.LEFT_STICK_BUTTON);
 
 		aButton = operatorXbox.getRawButton(Xbox.Constants.A_BUTTON);
@@ -128,52 +149,99 @@ public class Elevator implements Component
 
 		updateCurrentRange();
 
+		teleopProfiler.startCompute();
+
+		Constants.TeleopCommand command = getTeleopCommand(leftYAxis, leftStickButton, aButton, isFloorTarget, currentValue);
+		isFloorTarget = (command == Constants.TeleopCommand.kLower);
+
+		teleopProfiler.startActuate();
+
+		if (command == Constants.TeleopCommand.kOverride)
+		{
+			if (limitsEnabled) //If the talon limits are enabled
+			{
+				limitsEnabled = false; //Set limits to disabled
+
+				masterTalonSRX.configForwardSoftLimitEnable(limitsEnabled, 0); //Actually disable limits
+				masterTalonSRX.configReverseSoftLimitEnable(limitsEnabled, 0);
+			}
+			masterTalonSRX.set(-leftYAxis * Constants.OVERRIDE_SPEED_SCALE); //Set elevator motor to value of joystick * scaling constant
+		}
+		else if (command == Constants.TeleopCommand.kEnableLimits)
+		{
+			limitsEnabled = true; //Set limits to enabled
+			masterTalonSRX.configForwardSoftLimitEnable(limitsEnabled, 0); //Actually enable limits
+			masterTalonSRX.configReverseSoftLimitEnable(limitsEnabled, 0); 
+		}
+		else if (command == Constants.TeleopCommand.kManual)
+		{
+			masterTalonSRX.set(-leftYAxis); //Set elevator motor to value of joystick
+		}
+		else if (command == Constants.TeleopCommand.kLower)
+		{
+			lower();
+		}
+		else
+		{
+			stopMoving();
+		}
+
+		teleopProfiler.end();
+	}
+
+    /**
+     * Decides what the elevator should do in teleoperated mode, without moving it.
+     * @param leftYAxis Operator's left stick Y axis.
+     * @param leftStickButton If the operator's left stick button is pressed.
+     * @param aButton If the operator's A button is pressed.
+     * @param isFloorTarget If the elevator is already lowering to the floor.
+     * @param currentValue Current position of the elevator.
+     * @return The command to actuate.
+     */
+	private Constants.TeleopCommand getTeleopCommand(double leftYAxis, boolean leftStickButton, boolean aButton, boolean isFloorTarget, double currentValue)
+	{
 		if(Math.abs(leftYAxis) > 0.2)	
 		{
 			if (leftStickButton) //If left stick button is pressed
 			{
-				if (limitsEnabled) //and if the talon limits are enabled
-				{
-					limitsEnabled = false; //Set limits to disabled
-
-					masterTalonSRX.configForwardSoftLimitEnable(limitsEnabled, 0); //Actually disable limits
-					masterTalonSRX.configReverseSoftLimitEnable(limitsEnabled, 0);
-				}
-				masterTalonSRX.set(-leftYAxis * Constants.OVERRIDE_SPEED_SCALE); //Set elevator motor to value of joystick * scaling constant
+				return Constants.TeleopCommand.kOverride;
 			}
 			else if (!leftStickButton && !limitsEnabled) //otherwise, if the left stick button is not pressed and the limits are not enabled
 			{
-				limitsEnabled = true; //Set limits to enabled
-				masterTalonSRX.configForwardSoftLimitEnable(limitsEnabled, 0); //Actually enable limits
-				masterTalonSRX.configReverseSoftLimitEnable(limitsEnabled, 0); 
+				return Constants.TeleopCommand.kEnableLimits;
 			}
 			else //if left stick button is not pressed AND limits are not enabled
 			{
-				masterTalonSRX.set(-leftYAxis); //Set elevator motor to value of joystick
+				return Constants.TeleopCommand.kManual;
 			}
-
-			isFloorTarget = false;
 		}
 		else if(aButton || isFloorTarget)
 		{
-			isFloorTarget = true;
 			if(currentValue > Constants.FLOOR + Constants.THRESHOLD)
 			{
-				lower();
+				return Constants.TeleopCommand.kLower;
 			}
 			else
 			{
-				isFloorTarget = false;
-				stopMoving();
+				return Constants.TeleopCommand.kStop;
 			}
 		}
 		else
 		{
-			stopMoving();
+			return Constants.TeleopCommand.kStop;
 			//xbox.setRumble(GenericHID.RumbleType.kLeftRumble, 0);
 		}
 	}
 
+    /**
+     * Gets the sense/compute/actuate timing of the teleop method.
+     * @return The profiler for teleop().
+     */
+	public PhaseProfiler getTeleopProfiler()
+	{
+		return teleopProfiler;
+	}
+
     /**
      * Main loop method for autonomous mode.
 	 * Does not directly control the elevator. It updates the current position of the elevator.
@@ -292,7 +360,19 @@ public class Elevator implements Component
 	 */
 	public double getPosition()
 	{
-		return masterTalonSRX.getSelectedSensorPosition(0);
+		long start = Tracer.start();
+		double position = potentiometer.getPosition();
+		Tracer.end(READ_POSITION, start);
+		return position;
+	}
+
+	/**
+	 * Gets the output of the elevator motor.
+	 * @return The motor output, from -1.0 to 1.0.
+	 */
+	public double getMotorOutput()
+	{
+		return masterTalonSRX.get();
 	}
 
 	/**
@@ -349,6 +429,61 @@ public class Elevator implements Component
 		targetRange = Constants.Range.floorRange.range;
 	}
 
+	@Override
+	public void registerTeleopTasks(Scheduler scheduler)
+	{
+		scheduler.register("Elevator.teleop", this::teleop, Constants.TELEOP_PERIOD, Constants.TELEOP_PRIORITY);
+	}
+
+	@Override
+	public void registerMetrics(MetricsRegistry registry)
+	{
+		registry.gauge("Elevator.position", "string potentiometer position", this::getPosition);
+		registry.gauge("Elevator.output", "motor output, -1 to 1", this::getMotorOutput);
+		registry.gauge("Elevator.current", "master motor current, A", masterTalonSRX::getOutputCurrent);
+	}
+
+	/**
+	 * Runs the teleop sensing and decisions with made-up controller inputs.
+	 * The command is kept but never actuated.
+	 */
+	@Override
+	public void warmUp()
+	{
+		warmUpIteration++;
+		double axis = ((warmUpIteration % 20) - 10) / 10.0;
+		boolean isButtonPressed = (warmUpIteration & 1) == 0;
+
+		updateCurrentRange();
+		warmUpCommand = getTeleopCommand(axis, isButtonPressed, !isButtonPressed, (warmUpIteration & 2) == 0, currentValue);
+	}
+
+	/**
+	 * Mutes the elevator, so the autonomous routines can be warmed up without moving it.
+	 * While muted the motor is never set, and the auto methods change a scratch direction and
+	 * moving state instead of the real ones, which are put back when unmuted.
+	 * @param isMuted True to mute, false to unmute.
+	 */
+	public void setMuted(boolean isMuted)
+	{
+		if (isMuted != this.isMuted)
+		{
+			this.isMuted = isMuted;
+
+			MotorController motor = masterTalonSRX;
+			masterTalonSRX = mutedTalonSRX;
+			mutedTalonSRX = motor;
+
+			Constants.Direction direction = currentDirection;
+			currentDirection = mutedDirection;
+			mutedDirection = direction;
+
+			boolean moving = this.isMoving;
+			this.isMoving = isMutedMoving;
+			isMutedMoving = moving;
+		}
+	}
+
 	/**
 	 * Prints important data about the operation of the elevator.
 	 */
@@ -538,6 +673,16 @@ public class Elevator implements Component
 			None
 		}
 
+		//What teleop decided to do with the elevator this tick
+		enum TeleopCommand
+		{
+			kOverride,		//Drive with the joystick with soft limits disabled
+			kEnableLimits,	//Re-enable the soft limits after an override
+			kManual,		//Drive with the joystick
+			kLower,			//Lower toward the floor
+			kStop
+		}
+
 		public static final int ACCEPTABLE_TICK_RANGE = 5;
 
 		public static final int MASTER_MOTOR_PORT = 10;
@@ -560,6 +705,9 @@ public class Elevator implements Component
 
 		public static final double OVERRIDE_SPEED_SCALE = 0.7;
 
+		public static final double TELEOP_PERIOD = 0.02;
+		public static final int TELEOP_PRIORITY = Scheduler.Constants.PRIORITY_MECHANISM;
+
 	}
 }
 
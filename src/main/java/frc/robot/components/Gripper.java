@@ -2,12 +2,19 @@ package frc.robot.components;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
 
 import java.util.HashMap;
 
 import frc.robot.control.OperatorXbox;
 import frc.robot.control.Xbox;
+import frc.robot.hal.Devices;
+import frc.robot.hal.MotorController;
+import frc.robot.hal.Potentiometer;
+import frc.robot.loop.PhaseProfiler;
+import frc.robot.loop.Scheduler;
+import frc.robot.loop.Tracer;
+import frc.robot.metrics.MetricsRegistry;
+import frc.robot.util.Startup;
 
 import edu.wpi.first.wpilibj.Timer;
 
@@ -17,15 +24,21 @@ import edu.wpi.first.wpilibj.Timer;
  */
 public class Gripper implements Component
 {
+	private static final int READ_LEFT_INTAKE_ENCODER = Tracer.register("CAN", "Gripper.getLeftIntakeEncoder");
+	private static final int READ_RIGHT_INTAKE_ENCODER = Tracer.register("CAN", "Gripper.getRightIntakeEncoder");
+	private static final int READ_VELOCITIES = Tracer.register("CAN", "Gripper.getVelocities");
+	private static final int READ_PIVOT_POTENTIOMETER = Tracer.register("CAN", "Gripper.getPivotPotentiometer");
+
 	private OperatorXbox xbox = OperatorXbox.getInstance();
 
-	private WPI_TalonSRX leftIntakeTalon = new WPI_TalonSRX(Constants.LEFT_INTAKE_MOTOR_PORT);
-	private WPI_TalonSRX rightIntakeTalon = new WPI_TalonSRX(Constants.RIGHT_INTAKE_MOTOR_PORT);
-	private WPI_TalonSRX pivotTalon = new WPI_TalonSRX(Constants.PIVOTER_MOTOR_PORT);
+	private MotorController leftIntakeTalon = Startup.time("Gripper.leftIntakeTalon", () -> Devices.getInstance().motor(Constants.LEFT_INTAKE_MOTOR_PORT));
+	private MotorController rightIntakeTalon = Startup.time("Gripper.rightIntakeTalon", () -> Devices.getInstance().motor(Constants.RIGHT_INTAKE_MOTOR_PORT));
+	private MotorController pivotTalon = Startup.time("Gripper.pivotTalon", () -> Devices.getInstance().motor(Constants.PIVOTER_MOTOR_PORT));
+	private Potentiometer pivotPotentiometer = Devices.getInstance().potentiometer(pivotTalon, Constants.PIVOTER_MOTOR_PORT);
 
 	private Timer pulsateTimer = new Timer();
 
-	private HashMap<Integer, WPI_TalonSRX> talonSRXHashMap = new HashMap<Integer, WPI_TalonSRX>();
+	private HashMap<Integer, MotorController> talonSRXHashMap = new HashMap<Integer, MotorController>();
 
 	private boolean isAutoEjecting = false;
 	private boolean isAutoIntaking = false;
@@ -58,6 +71,20 @@ public class Gripper implements Component
 
 	private boolean isPulsateTimerReset = false;
 
+	private PhaseProfiler teleopProfiler = new PhaseProfiler("Gripper.teleop");
+	private int warmUpIteration = 0;
+	private Constants.PivotCommand warmUpPivotCommand = Constants.PivotCommand.kOff;
+	private Constants.IntakeCommand warmUpIntakeCommand = Constants.IntakeCommand.kOff;
+	// swapped in while muted
+	private boolean isMuted = false;
+	private MotorController mutedLeftIntakeTalon = new MutedMotorController(leftIntakeTalon);
+	private MotorController mutedRightIntakeTalon = new MutedMotorController(rightIntakeTalon);
+	private MotorController mutedPivotTalon = new MutedMotorController(pivotTalon);
+	private Constants.Direction mutedDirection = Constants.Direction.None;
+	private boolean isMutedPivoting = false;
+	private boolean isMutedAutoEjecting = false;
+	private boolean isMutedAutoIntaking = false;
+
 	private static Gripper instance = new Gripper();
 	public static Gripper getInstance()
 	{
@@ -299,7 +326,10 @@ public class Gripper implements Component
 	 */
 	public int getLeftIntakeEncoder()
 	{
-		return leftIntakeTalon.getSelectedSensorPosition(0);
+		long start = Tracer.start();
+		int position = leftIntakeTalon.getSelectedSensorPosition(0);
+		Tracer.end(READ_LEFT_INTAKE_ENCODER, start);
+		return position;
 	}
 
 	/*
@@ -308,7 +338,37 @@ public class Gripper implements Component
 	 */
 	public int getRightIntakeEncoder()
 	{
-		return rightIntakeTalon.getSelectedSensorPosition(0);
+		long start = Tracer.start();
+		int position = rightIntakeTalon.getSelectedSensorPosition(0);
+		Tracer.end(READ_RIGHT_INTAKE_ENCODER, start);
+		return position;
+	}
+
+	/**
+	 * Method to get the output of the pivot motor.
+	 * @return The motor output, from -1.0 to 1.0.
+	 */
+	public double getPivotOutput()
+	{
+		return pivotTalon.get();
+	}
+
+	/**
+	 * Method to get the output of the left intake motor.
+	 * @return The motor output, from -1.0 to 1.0.
+	 */
+	public double getLeftIntakeOutput()
+	{
+		return leftIntakeTalon.get();
+	}
+
+	/**
+	 * Method to get the output of the right intake motor.
+	 * @return The motor output, from -1.0 to 1.0.
+	 */
+	public double getRightIntakeOutput()
+	{
+		return rightIntakeTalon.get();
 	}
 
 	/**
@@ -333,6 +393,7 @@ public class Gripper implements Component
 	 */
 	public void teleop()
 	{
+		teleopProfiler.startSense();
 
 		//Pivot down one level
 		boolean aButton = xbox.getRawButton(Xbox.Constants.A_BUTTON);
@@ -357,80 +418,158 @@ public class Gripper implements Component
 
 		updateCurrentRange();
 
-		if (Math.abs(rightYAxis) > 0.2)
+		teleopProfiler.startCompute();
+
+		Constants.PivotCommand pivotCommand = getPivotCommand(rightYAxis, aButton, isFloorTarget, currentValue);
+		isFloorTarget = (pivotCommand == Constants.PivotCommand.kLower);
+
+		Constants.IntakeCommand intakeCommand = getIntakeCommand(rightTrigger, leftTrigger, bButton, xButton, yButton);
+		if (intakeCommand == Constants.IntakeCommand.kPulsate)
+		{
+			//Pulse the intake for 0.1 s every 0.35 s while Y is held
+			if(!isPulsateTimerReset)
+			{
+				pulsateTimer.stop();
+				pulsateTimer.reset();
+				pulsateTimer.start();
+
+				isPulsateTimerReset = true;
+			}
+			double pulsateTime = pulsateTimer.get();
+			if(pulsateTime >= 0.1)
+			{
+				intakeCommand = Constants.IntakeCommand.kOff;
+
+				if(pulsateTime > 0.35)
+				{
+					isPulsateTimerReset = false;
+				}
+			}
+		}
+		else if (intakeCommand == Constants.IntakeCommand.kOff)
+		{
+			isPulsateTimerReset = false;
+		}
+
+		teleopProfiler.startActuate();
+
+		if (pivotCommand == Constants.PivotCommand.kManual)
 		{
 			pivot(-rightYAxis);
-			isFloorTarget = false;
+		}
+		else if (pivotCommand == Constants.PivotCommand.kLower)
+		{
+			lower();
+		}
+		else
+		{
+			pivotOff();
+		}
+
+		if (intakeCommand == Constants.IntakeCommand.kEjectShoot)
+		{
+			ejectShoot();
+		}
+		else if (intakeCommand == Constants.IntakeCommand.kRotateCubeRight)
+		{
+			intakeRotateCubeRight();
+		}
+		else if (intakeCommand == Constants.IntakeCommand.kIntake)
+		{
+			intake();
+		}
+		else if (intakeCommand == Constants.IntakeCommand.kEjectDrop)
+		{
+			ejectDrop();
+		}
+		else if (intakeCommand == Constants.IntakeCommand.kPulsate)
+		{
+			pulsateIntake();
+		}
+		else
+		{
+			intakeOff();
+		}
+
+		teleopProfiler.end();
+	}
+
+    /**
+     * Decides what the pivoting arm should do in teleoperated mode, without moving it.
+     * @param rightYAxis Operator's right stick Y axis.
+     * @param aButton If the operator's A button is pressed.
+     * @param isFloorTarget If the arm is already lowering to the floor.
+     * @param currentValue Current position of the arm.
+     * @return The command to actuate.
+     */
+	private Constants.PivotCommand getPivotCommand(double rightYAxis, boolean aButton, boolean isFloorTarget, int currentValue)
+	{
+		if (Math.abs(rightYAxis) > 0.2)
+		{
+			return Constants.PivotCommand.kManual;
 		}
 		else if (aButton || isFloorTarget)
 		{
-			isFloorTarget = true;
 			if(currentValue > Constants.FLOOR + Constants.THRESHOLD)
 			{
-				lower();
+				return Constants.PivotCommand.kLower;
 			}
 			else
 			{
-				pivotOff();
-				isFloorTarget = false;
+				return Constants.PivotCommand.kOff;
 			}
 		}
 		else
 		{
-			pivotOff();
+			return Constants.PivotCommand.kOff;
 		}
+	}
 
-		//Intake
+    /**
+     * Decides what the intake should do in teleoperated mode, without moving it.
+     * Holding Y returns kPulsate; teleop() turns that into short pulses.
+     * @return The command to actuate.
+     */
+	private Constants.IntakeCommand getIntakeCommand(double rightTrigger, double leftTrigger, boolean bButton, boolean xButton, boolean yButton)
+	{
 		if (Math.abs(rightTrigger) > 0.3)
 		{
-			ejectShoot();
+			return Constants.IntakeCommand.kEjectShoot;
 		}
 		else if (Math.abs(leftTrigger) > 0.3)
 		{
 			if (bButton)
 			{
-				intakeRotateCubeRight();
+				return Constants.IntakeCommand.kRotateCubeRight;
 			}
 			else
 			{
-				intake();
+				return Constants.IntakeCommand.kIntake;
 			}
 		}
 		else if (xButton)
 		{
-			ejectDrop();
+			return Constants.IntakeCommand.kEjectDrop;
 		}
 		else if (yButton)
 		{
-			if(!isPulsateTimerReset)
-			{
-				pulsateTimer.stop();
-				pulsateTimer.reset();
-				pulsateTimer.start();
-
-				isPulsateTimerReset = true;
-			}
-			if(pulsateTimer.get() < 0.1 )
-			{
-				pulsateIntake();
-			}
-			else
-			{
-				intakeOff();
-
-				if(pulsateTimer.get() > 0.35)
-				{
-					isPulsateTimerReset = false;
-				}
-			}
+			return Constants.IntakeCommand.kPulsate;
 		}
 		else
 		{
-			intakeOff();
-			isPulsateTimerReset = false;
+			return Constants.IntakeCommand.kOff;
 		}
 	}
 
+    /**
+     * Gets the sense/compute/actuate timing of the teleop method.
+     * @return The profiler for teleop().
+     */
+	public PhaseProfiler getTeleopProfiler()
+	{
+		return teleopProfiler;
+	}
+
 	public void test()
 	{
 		leftBumper = xbox.getRawButtonPressed(Xbox.Constants.LEFT_BUMPER);
@@ -544,11 +683,26 @@ public class Gripper implements Component
 
     /**
      * Method to get the velocities of the intake motors.
+     * Allocates a new array, use getVelocities(int[]) in loops.
      * @return An array containing the velocities of the two intake motors.
      */
 	public int[] getVelocityArray()
 	{
-		return new int[] {leftIntakeTalon.getSelectedSensorVelocity(0), rightIntakeTalon.getSelectedSensorVelocity(0)};
+		return getVelocities(new int[2]);
+	}
+
+    /**
+     * Method to get the velocities of the intake motors without allocating.
+     * @param velocities Array of at least two elements to store the left and right velocities in.
+     * @return The array that was passed in.
+     */
+	public int[] getVelocities(int[] velocities)
+	{
+		long start = Tracer.start();
+		velocities[0] = leftIntakeTalon.getSelectedSensorVelocity(0);
+		velocities[1] = rightIntakeTalon.getSelectedSensorVelocity(0);
+		Tracer.end(READ_VELOCITIES, start);
+		return velocities;
 	}
 
     /**
@@ -557,7 +711,10 @@ public class Gripper implements Component
      */
 	public int getPivotPotentiometer()
 	{
-		return pivotTalon.getSelectedSensorPosition(0);
+		long start = Tracer.start();
+		int position = pivotPotentiometer.getPosition();
+		Tracer.end(READ_PIVOT_POTENTIOMETER, start);
+		return position;
 	}
 
     /**
@@ -629,6 +786,83 @@ public class Gripper implements Component
 		return this.currentRange;
 	}
 
+	@Override
+	public void registerTeleopTasks(Scheduler scheduler)
+	{
+		scheduler.register("Gripper.teleop", this::teleop, Constants.TELEOP_PERIOD, Constants.TELEOP_PRIORITY);
+	}
+
+	@Override
+	public void registerMetrics(MetricsRegistry registry)
+	{
+		registry.gauge("Gripper.pivotPotentiometer", "pivot potentiometer position", this::getPivotPotentiometer);
+		registry.gauge("Gripper.leftIntakeEncoder", "left intake encoder position", this::getLeftIntakeEncoder);
+		registry.gauge("Gripper.rightIntakeEncoder", "right intake encoder position", this::getRightIntakeEncoder);
+		registry.gauge("Gripper.pivotOutput", "motor output, -1 to 1", this::getPivotOutput);
+		registry.gauge("Gripper.leftIntakeOutput", "motor output, -1 to 1", this::getLeftIntakeOutput);
+		registry.gauge("Gripper.rightIntakeOutput", "motor output, -1 to 1", this::getRightIntakeOutput);
+		registry.gauge("Gripper.pivotCurrent", "motor current, A", pivotTalon::getOutputCurrent);
+	}
+
+	/**
+	 * Runs the teleop sensing and decisions with made-up controller inputs.
+	 * The commands are kept but never actuated.
+	 */
+	@Override
+	public void warmUp()
+	{
+		warmUpIteration++;
+		double axis = ((warmUpIteration % 20) - 10) / 10.0;
+		boolean isButtonPressed = (warmUpIteration & 1) == 0;
+
+		updateCurrentRange();
+		warmUpPivotCommand = getPivotCommand(axis, isButtonPressed, (warmUpIteration & 2) == 0, currentValue);
+		warmUpIntakeCommand = getIntakeCommand(axis, -axis, isButtonPressed, !isButtonPressed, (warmUpIteration & 4) == 0);
+	}
+
+	/**
+	 * Mutes the gripper, so the autonomous routines can be warmed up without moving it.
+	 * While muted the motors are never set and the intake encoder is never reset, and the auto
+	 * methods change a scratch direction, pivoting and intake state instead of the real ones,
+	 * which are put back when unmuted.
+	 * @param isMuted True to mute, false to unmute.
+	 */
+	public void setMuted(boolean isMuted)
+	{
+		if (isMuted != this.isMuted)
+		{
+			this.isMuted = isMuted;
+
+			MotorController motor = leftIntakeTalon;
+			leftIntakeTalon = mutedLeftIntakeTalon;
+			mutedLeftIntakeTalon = motor;
+
+			motor = rightIntakeTalon;
+			rightIntakeTalon = mutedRightIntakeTalon;
+			mutedRightIntakeTalon = motor;
+
+			motor = pivotTalon;
+			pivotTalon = mutedPivotTalon;
+			mutedPivotTalon = motor;
+
+			Constants.Direction direction = currentDirection;
+			currentDirection = mutedDirection;
+			mutedDirection = direction;
+
+			boolean state = this.isPivoting;
+			this.isPivoting = isMutedPivoting;
+			isMutedPivoting = state;
+
+			state = this.isAutoEjecting;
+			this.isAutoEjecting = isMutedAutoEjecting;
+			isMutedAutoEjecting = state;
+
+			state = this.isAutoIntaking;
+			this.isAutoIntaking = isMutedAutoIntaking;
+			isMutedAutoIntaking = state;
+		}
+	}
+
 	public void printTestInfo()
 	{
 		System.out.printf("Pivot = %5d		Left Intake = %5d		Right Intake = %5d", getPivotPotentiometer(), getLeftIntakeEncoder(), getRightIntakeEncoder());
@@ -715,6 +949,12 @@ public class Gripper implements Component
 			None
 		}
 
+		//What teleop decided to do with the pivot arm this tick
+		enum PivotCommand {kManual, kLower, kOff}
+
+		//What teleop decided to do with the intake this tick
+		enum IntakeCommand {kEjectShoot, kRotateCubeRight, kIntake, kEjectDrop, kPulsate, kOff}
+
 		private enum InitRange
 		{	
 			floorRange(Constants.FLOOR, Constants.FLOOR + Constants.THRESHOLD),
@@ -828,5 +1068,8 @@ public class Gripper implements Component
 		public static final int MIDDLE  = 435;
 		public static final int TELEOP_MAX = 465;
 		public static final int RAISED = 465;
+
+		public static final double TELEOP_PERIOD = 0.02;
+		public static final int TELEOP_PRIORITY = Scheduler.Constants.PRIORITY_MECHANISM;
 	}
 }
\ No newline at end of file
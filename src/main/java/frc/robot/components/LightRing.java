@@ -1,19 +1,40 @@
 package frc.robot.components;
 
-import edu.wpi.first.wpilibj.DigitalOutput;
+import frc.robot.hal.Devices;
+import frc.robot.hal.DigitalOutput;
 
 /**
  * Class to represent a Light Ring on the robot.
  * Used for illuminating either the floor or a vision target.
  */
-public class LightRing extends DigitalOutput
+public class LightRing
 {
+	private final DigitalOutput output;
+
 	/**
 	 * Constructor for the LightRing class
-	 * @param port The port in which the light ring is connected.
+	 * @param port The DIO port in which the light ring is connected.
 	 */
 	public LightRing(int port)
 	{
-		super(port);
+		output = Devices.getInstance().digitalOutput(port);
+	}
+
+	/**
+	 * Turns the light ring on or off.
+	 * @param isOn True to turn it on.
+	 */
+	public void set(boolean isOn)
+	{
+		output.set(isOn);
+	}
+
+	/**
+	 * Checks if the light ring is on.
+	 * @return True if it is on.
+	 */
+	public boolean get()
+	{
+		return output.get();
 	}
 }
@@ -0,0 +1,158 @@
+package frc.robot.components;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.LimitSwitchNormal;
+import com.ctre.phoenix.motorcontrol.LimitSwitchSource;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+
+import frc.robot.hal.MotorController;
+
+/**
+ * Motor controller that reads the sensor of another one, but never sets it.
+ * Outputs, sensor resets and configuration are dropped; get() and the sensor reads are passed on.
+ * Used to run autonomous code without moving the robot, for example while warming up the JIT.
+ */
+public class MutedMotorController implements MotorController
+{
+	private final MotorController motor;
+
+	/**
+	 * Constructor for MutedMotorController.
+	 * @param motor The motor controller whose sensor is read.
+	 */
+	public MutedMotorController(MotorController motor)
+	{
+		this.motor = motor;
+	}
+
+	@Override
+	public void set(double speed)
+	{
+	}
+
+	@Override
+	public double get()
+	{
+		return motor.get();
+	}
+
+	@Override
+	public void setInverted(boolean isInverted)
+	{
+	}
+
+	@Override
+	public boolean getInverted()
+	{
+		return motor.getInverted();
+	}
+
+	@Override
+	public void disable()
+	{
+	}
+
+	@Override
+	public void stopMotor()
+	{
+	}
+
+	@Override
+	public void pidWrite(double output)
+	{
+	}
+
+	@Override
+	public void set(ControlMode mode, double value)
+	{
+	}
+
+	@Override
+	public void follow(MotorController master)
+	{
+	}
+
+	@Override
+	public void configContinuousCurrentLimit(int amps, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configPeakCurrentLimit(int amps, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configOpenloopRamp(double secondsFromNeutralToFull, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configSelectedFeedbackSensor(FeedbackDevice device, int pidIdx, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void setSensorPhase(boolean phase)
+	{
+	}
+
+	@Override
+	public void setNeutralMode(NeutralMode mode)
+	{
+	}
+
+	@Override
+	public void configForwardLimitSwitchSource(LimitSwitchSource source, LimitSwitchNormal normal, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configReverseLimitSwitchSource(LimitSwitchSource source, LimitSwitchNormal normal, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configForwardSoftLimitThreshold(int threshold, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configReverseSoftLimitThreshold(int threshold, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configForwardSoftLimitEnable(boolean enable, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configReverseSoftLimitEnable(boolean enable, int timeoutMs)
+	{
+	}
+
+	@Override
+	public int getSelectedSensorPosition(int pidIdx)
+	{
+		return motor.getSelectedSensorPosition(pidIdx);
+	}
+
+	@Override
+	public int getSelectedSensorVelocity(int pidIdx)
+	{
+		return motor.getSelectedSensorVelocity(pidIdx);
+	}
+
+	@Override
+	public void setSelectedSensorPosition(int position, int pidIdx, int timeoutMs)
+	{
+	}
+
+	@Override
+	public double getOutputCurrent()
+	{
+		return motor.getOutputCurrent();
+	}
+}
@@ -0,0 +1,242 @@
+package frc.robot.hal;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import frc.robot.util.Logger;
+
+import edu.wpi.first.wpilibj.I2C;
+
+/**
+ * Class to construct the robot's devices, so the components never construct hardware themselves.
+ * On the robot it gives the real devices. Started with -Drobot.simulated=true it gives devices that
+ * only live in memory, so the control code can be run, benchmarked and profiled on a laptop; the
+ * simulated devices can then be looked up by port to set what their sensors read, or to read back
+ * what the code set.
+ *
+ * <p>What is not a device, such as Timer, MecanumDrive and the driver station, still goes through
+ * WPILib. Off the robot that runs on WPILib's simulated HAL, which has to be initialized first
+ * with HAL.initialize(); the unit tests do that.
+ *
+ * <p>Can be called from the startup threads, which construct the components in parallel.
+ */
+public class Devices
+{
+	private final ConcurrentHashMap<Integer, SimulatedMotorController> simulatedMotors = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, SimulatedPotentiometer> simulatedPotentiometers = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, SimulatedQuadratureEncoder> simulatedEncoders = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, SimulatedColorSensor> simulatedColorSensors = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, SimulatedServo> simulatedServos = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, SimulatedDigitalOutput> simulatedDigitalOutputs = new ConcurrentHashMap<>();
+	private volatile SimulatedGyro simulatedGyro = null;
+
+	private static Devices instance = new Devices();
+
+	/**
+	 * Returns the singleton instance of Devices.
+	 * @return The singleton instance of Devices.
+	 */
+	public static Devices getInstance()
+	{
+		return instance;
+	}
+
+	private Devices()
+	{
+		if (Constants.SIMULATED)
+		{
+			Logger.println("[Devices] using simulated devices");
+		}
+	}
+
+	/**
+	 * Checks if the devices only live in memory.
+	 * @return True if started with -Drobot.simulated=true.
+	 */
+	public boolean isSimulated()
+	{
+		return Constants.SIMULATED;
+	}
+
+	/**
+	 * Constructs a Talon SRX.
+	 * @param port The CAN id of the Talon SRX.
+	 * @return The motor controller.
+	 */
+	public MotorController motor(int port)
+	{
+		if (Constants.SIMULATED)
+		{
+			return simulatedMotors.computeIfAbsent(port, SimulatedMotorController::new);
+		}
+		return new TalonSRXMotorController(port);
+	}
+
+	/**
+	 * Gets the potentiometer wired to a Talon SRX. The Talon SRX must have FeedbackDevice.Analog selected.
+	 * @param talon The motor controller, from motor().
+	 * @param port The CAN id of the Talon SRX.
+	 * @return The potentiometer.
+	 */
+	public Potentiometer potentiometer(MotorController talon, int port)
+	{
+		if (Constants.SIMULATED)
+		{
+			return simulatedPotentiometers.computeIfAbsent(port, key -> new SimulatedPotentiometer());
+		}
+		return new TalonPotentiometer(talon);
+	}
+
+	/**
+	 * Constructs a quadrature encoder on two DIO channels.
+	 * @param channelA The DIO channel of the A signal.
+	 * @param channelB The DIO channel of the B signal.
+	 * @param isReversed True to count the other way.
+	 * @return The encoder.
+	 */
+	public QuadratureEncoder encoder(int channelA, int channelB, boolean isReversed)
+	{
+		if (Constants.SIMULATED)
+		{
+			return simulatedEncoders.computeIfAbsent(channelA, key -> new SimulatedQuadratureEncoder());
+		}
+		return new DioQuadratureEncoder(channelA, channelB, isReversed);
+	}
+
+	/**
+	 * Constructs the navX.
+	 * @param port The I2C port the navX is on.
+	 * @return The gyro.
+	 */
+	public synchronized Gyro gyro(I2C.Port port)
+	{
+		if (Constants.SIMULATED)
+		{
+			if (simulatedGyro == null)
+			{
+				simulatedGyro = new SimulatedGyro();
+			}
+			return simulatedGyro;
+		}
+		return new NavXGyro(port);
+	}
+
+	/**
+	 * Constructs the connection to a color sensor.
+	 * @param port The I2C port the color sensor is on.
+	 * @param address The 7 bit address of the color sensor.
+	 * @return The I2C device.
+	 */
+	public I2CDevice colorSensor(I2C.Port port, int address)
+	{
+		if (Constants.SIMULATED)
+		{
+			return simulatedColorSensors.computeIfAbsent(address, key -> new SimulatedColorSensor());
+		}
+		return new RoboRioI2CDevice(port, address);
+	}
+
+	/**
+	 * Constructs a servo.
+	 * @param channel The PWM channel the servo is on.
+	 * @return The servo.
+	 */
+	public Servo servo(int channel)
+	{
+		if (Constants.SIMULATED)
+		{
+			return simulatedServos.computeIfAbsent(channel, key -> new SimulatedServo());
+		}
+		return new PwmServo(channel);
+	}
+
+	/**
+	 * Constructs an output on a DIO channel, such as a light ring.
+	 * @param channel The DIO channel of the output.
+	 * @return The output.
+	 */
+	public DigitalOutput digitalOutput(int channel)
+	{
+		if (Constants.SIMULATED)
+		{
+			return simulatedDigitalOutputs.computeIfAbsent(channel, key -> new SimulatedDigitalOutput());
+		}
+		return new DioDigitalOutput(channel);
+	}
+
+	/**
+	 * Gets a simulated Talon SRX, to set what its sensor reads.
+	 * @param port The CAN id of the Talon SRX.
+	 * @return The motor controller, or null if it was not constructed or the devices are real.
+	 */
+	public SimulatedMotorController getSimulatedMotor(int port)
+	{
+		return simulatedMotors.get(port);
+	}
+
+	/**
+	 * Gets the simulated potentiometer wired to a Talon SRX.
+	 * @param port The CAN id of the Talon SRX.
+	 * @return The potentiometer, or null if it was not constructed or the devices are real.
+	 */
+	public SimulatedPotentiometer getSimulatedPotentiometer(int port)
+	{
+		return simulatedPotentiometers.get(port);
+	}
+
+	/**
+	 * Gets a simulated quadrature encoder.
+	 * @param channelA The DIO channel of the A signal.
+	 * @return The encoder, or null if it was not constructed or the devices are real.
+	 */
+	public SimulatedQuadratureEncoder getSimulatedEncoder(int channelA)
+	{
+		return simulatedEncoders.get(channelA);
+	}
+
+	/**
+	 * Gets the simulated navX.
+	 * @return The gyro, or null if it was not constructed or the devices are real.
+	 */
+	public SimulatedGyro getSimulatedGyro()
+	{
+		return simulatedGyro;
+	}
+
+	/**
+	 * Gets a simulated color sensor.
+	 * @param address The 7 bit address of the color sensor.
+	 * @return The color sensor, or null if it was not constructed or the devices are real.
+	 */
+	public SimulatedColorSensor getSimulatedColorSensor(int address)
+	{
+		return simulatedColorSensors.get(address);
+	}
+
+	/**
+	 * Gets a simulated servo, to read the position it was set to.
+	 * @param channel The PWM channel the servo is on.
+	 * @return The servo, or null if it was not constructed or the devices are real.
+	 */
+	public SimulatedServo getSimulatedServo(int channel)
+	{
+		return simulatedServos.get(channel);
+	}
+
+	/**
+	 * Gets a simulated output on a DIO channel, to read what it was set to.
+	 * @param channel The DIO channel of the output.
+	 * @return The output, or null if it was not constructed or the devices are real.
+	 */
+	public SimulatedDigitalOutput getSimulatedDigitalOutput(int channel)
+	{
+		return simulatedDigitalOutputs.get(channel);
+	}
+
+	/**
+	 * Class for constant variables related to Devices.
+	 */
+	public static class Constants
+	{
+		public static final boolean SIMULATED = Boolean.getBoolean("robot.simulated");	// -Drobot.simulated=true on the java command line
+	}
+}
@@ -0,0 +1,21 @@
+package frc.robot.hal;
+
+/**
+ * Interface for an output on a DIO channel of the roboRIO, such as a light ring.
+ * Get one from Devices.digitalOutput(), which gives a DioDigitalOutput on the robot and a
+ * SimulatedDigitalOutput off it.
+ */
+public interface DigitalOutput
+{
+	/**
+	 * Sets the output.
+	 * @param value True to turn it on.
+	 */
+	void set(boolean value);
+
+	/**
+	 * Gets the output last set.
+	 * @return True if it is on.
+	 */
+	boolean get();
+}
@@ -0,0 +1,30 @@
+package frc.robot.hal;
+
+/**
+ * Output on one of the roboRIO's DIO channels. Every call goes straight to the DigitalOutput object.
+ */
+public class DioDigitalOutput implements DigitalOutput
+{
+	private final edu.wpi.first.wpilibj.DigitalOutput output;
+
+	/**
+	 * Constructs the output.
+	 * @param channel The DIO channel of the output.
+	 */
+	public DioDigitalOutput(int channel)
+	{
+		output = new edu.wpi.first.wpilibj.DigitalOutput(channel);
+	}
+
+	@Override
+	public void set(boolean value)
+	{
+		output.set(value);
+	}
+
+	@Override
+	public boolean get()
+	{
+		return output.get();
+	}
+}
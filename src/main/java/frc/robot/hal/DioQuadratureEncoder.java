@@ -0,0 +1,35 @@
+package frc.robot.hal;
+
+import edu.wpi.first.wpilibj.CounterBase.EncodingType;
+import edu.wpi.first.wpilibj.Encoder;
+
+/**
+ * Quadrature encoder counted by the roboRIO's FPGA, decoding every edge (4X).
+ */
+public class DioQuadratureEncoder implements QuadratureEncoder
+{
+	private final Encoder encoder;
+
+	/**
+	 * Constructs the encoder.
+	 * @param channelA The DIO channel of the A signal.
+	 * @param channelB The DIO channel of the B signal.
+	 * @param isReversed True to count the other way.
+	 */
+	public DioQuadratureEncoder(int channelA, int channelB, boolean isReversed)
+	{
+		encoder = new Encoder(channelA, channelB, isReversed, EncodingType.k4X);
+	}
+
+	@Override
+	public int getRaw()
+	{
+		return encoder.getRaw();
+	}
+
+	@Override
+	public void reset()
+	{
+		encoder.reset();
+	}
+}
@@ -0,0 +1,23 @@
+package frc.robot.hal;
+
+/**
+ * Interface for the gyro the robot steers with.
+ * Get one from Devices.gyro(), which gives a NavXGyro on the robot and a SimulatedGyro off it.
+ */
+public interface Gyro
+{
+	/**
+	 * Gets the heading.
+	 * @return The yaw in degrees, -180 to 180.
+	 */
+	float getYaw();
+
+	boolean isConnected();
+
+	boolean isCalibrating();
+
+	/**
+	 * Sets the current heading to zero.
+	 */
+	void reset();
+}
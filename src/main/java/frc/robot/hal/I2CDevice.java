@@ -0,0 +1,37 @@
+package frc.robot.hal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interface for a device on an I2C bus, the calls of edu.wpi.first.wpilibj.I2C the sensors use.
+ * Like I2C, every call returns true if the transfer was aborted.
+ * Get the color sensor's from Devices.colorSensor(), which gives a RoboRioI2CDevice on the robot
+ * and a SimulatedColorSensor off it.
+ */
+public interface I2CDevice
+{
+	/**
+	 * Writes bytes to the device.
+	 * @param data The bytes to write.
+	 * @return True if the transfer was aborted.
+	 */
+	boolean writeBulk(byte[] data);
+
+	/**
+	 * Writes bytes to the device, then reads bytes back without releasing the bus.
+	 * @param dataToSend Direct buffer with the bytes to write.
+	 * @param sendSize How many bytes to write.
+	 * @param dataReceived Direct buffer for the bytes read, filled from index 0.
+	 * @param receiveSize How many bytes to read.
+	 * @return True if the transfer was aborted.
+	 */
+	boolean transaction(ByteBuffer dataToSend, int sendSize, ByteBuffer dataReceived, int receiveSize);
+
+	/**
+	 * Reads bytes from the device without writing first.
+	 * @param buffer Array for the bytes read.
+	 * @param count How many bytes to read.
+	 * @return True if the transfer was aborted.
+	 */
+	boolean readOnly(byte[] buffer, int count);
+}
@@ -0,0 +1,72 @@
+package frc.robot.hal;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.LimitSwitchNormal;
+import com.ctre.phoenix.motorcontrol.LimitSwitchSource;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+
+import edu.wpi.first.wpilibj.SpeedController;
+
+/**
+ * Interface for a motor controller with a sensor attached, the part of a Talon SRX the components use.
+ * It is a SpeedController, so it can be given to a MecanumDrive.
+ * Get one from Devices.motor(), which gives a TalonSRXMotorController on the robot and a
+ * SimulatedMotorController off it.
+ */
+public interface MotorController extends SpeedController
+{
+	void set(ControlMode mode, double value);
+
+	/**
+	 * Makes this motor controller copy the output of another one.
+	 * @param master The motor controller to follow, from the same Devices.
+	 */
+	void follow(MotorController master);
+
+	void configContinuousCurrentLimit(int amps, int timeoutMs);
+
+	void configPeakCurrentLimit(int amps, int timeoutMs);
+
+	void configOpenloopRamp(double secondsFromNeutralToFull, int timeoutMs);
+
+	void configSelectedFeedbackSensor(FeedbackDevice device, int pidIdx, int timeoutMs);
+
+	void setSensorPhase(boolean phase);
+
+	void setNeutralMode(NeutralMode mode);
+
+	void configForwardLimitSwitchSource(LimitSwitchSource source, LimitSwitchNormal normal, int timeoutMs);
+
+	void configReverseLimitSwitchSource(LimitSwitchSource source, LimitSwitchNormal normal, int timeoutMs);
+
+	void configForwardSoftLimitThreshold(int threshold, int timeoutMs);
+
+	void configReverseSoftLimitThreshold(int threshold, int timeoutMs);
+
+	void configForwardSoftLimitEnable(boolean enable, int timeoutMs);
+
+	void configReverseSoftLimitEnable(boolean enable, int timeoutMs);
+
+	/**
+	 * Gets the position of the selected sensor, an encoder or a potentiometer.
+	 * @param pidIdx 0 for the primary sensor.
+	 * @return The position in raw sensor units.
+	 */
+	int getSelectedSensorPosition(int pidIdx);
+
+	/**
+	 * Gets the velocity of the selected sensor.
+	 * @param pidIdx 0 for the primary sensor.
+	 * @return The velocity in raw sensor units per 100 ms.
+	 */
+	int getSelectedSensorVelocity(int pidIdx);
+
+	void setSelectedSensorPosition(int position, int pidIdx, int timeoutMs);
+
+	/**
+	 * Gets the current through the motor.
+	 * @return The current in amps.
+	 */
+	double getOutputCurrent();
+}
@@ -0,0 +1,46 @@
+package frc.robot.hal;
+
+import com.kauailabs.navx.frc.AHRS;
+
+import edu.wpi.first.wpilibj.I2C;
+
+/**
+ * Gyro for the navX. Every call goes straight to the AHRS.
+ */
+public class NavXGyro implements Gyro
+{
+	private final AHRS navX;
+
+	/**
+	 * Constructs the navX, which starts its own thread reading the bus.
+	 * @param port The I2C port the navX is on.
+	 */
+	public NavXGyro(I2C.Port port)
+	{
+		navX = new AHRS(port);
+	}
+
+	@Override
+	public float getYaw()
+	{
+		return navX.getYaw();
+	}
+
+	@Override
+	public boolean isConnected()
+	{
+		return navX.isConnected();
+	}
+
+	@Override
+	public boolean isCalibrating()
+	{
+		return navX.isCalibrating();
+	}
+
+	@Override
+	public void reset()
+	{
+		navX.reset();
+	}
+}
@@ -0,0 +1,15 @@
+package frc.robot.hal;
+
+/**
+ * Interface for an analog potentiometer measuring the position of a mechanism, like the elevator or the gripper's pivot.
+ * Get one from Devices.potentiometer(), which gives a TalonPotentiometer on the robot and a
+ * SimulatedPotentiometer off it.
+ */
+public interface Potentiometer
+{
+	/**
+	 * Gets the position.
+	 * @return The position in raw analog units, 0 to 1023.
+	 */
+	int getPosition();
+}
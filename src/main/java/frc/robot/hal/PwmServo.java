@@ -0,0 +1,44 @@
+package frc.robot.hal;
+
+import edu.wpi.first.wpilibj.PWM.PeriodMultiplier;
+
+/**
+ * Servo driven by one of the roboRIO's PWM channels. Every call goes straight to the Servo object.
+ */
+public class PwmServo implements Servo
+{
+	private final edu.wpi.first.wpilibj.Servo servo;
+
+	/**
+	 * Constructs the servo.
+	 * @param channel The PWM channel the servo is on.
+	 */
+	public PwmServo(int channel)
+	{
+		servo = new edu.wpi.first.wpilibj.Servo(channel);
+	}
+
+	@Override
+	public void set(double value)
+	{
+		servo.set(value);
+	}
+
+	@Override
+	public double get()
+	{
+		return servo.get();
+	}
+
+	@Override
+	public void setBounds(double max, double deadbandMax, double center, double deadbandMin, double min)
+	{
+		servo.setBounds(max, deadbandMax, center, deadbandMin, min);
+	}
+
+	@Override
+	public void setPeriodMultiplier(PeriodMultiplier multiplier)
+	{
+		servo.setPeriodMultiplier(multiplier);
+	}
+}
@@ -0,0 +1,20 @@
+package frc.robot.hal;
+
+/**
+ * Interface for a quadrature encoder on two DIO channels of the roboRIO.
+ * Get one from Devices.encoder(), which gives a DioQuadratureEncoder on the robot and a
+ * SimulatedQuadratureEncoder off it.
+ */
+public interface QuadratureEncoder
+{
+	/**
+	 * Gets the count.
+	 * @return The count in raw ticks, four per cycle.
+	 */
+	int getRaw();
+
+	/**
+	 * Sets the count to zero.
+	 */
+	void reset();
+}
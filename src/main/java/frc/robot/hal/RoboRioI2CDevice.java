@@ -0,0 +1,41 @@
+package frc.robot.hal;
+
+import java.nio.ByteBuffer;
+
+import edu.wpi.first.wpilibj.I2C;
+
+/**
+ * Device on one of the roboRIO's I2C buses. Every call goes straight to the I2C object and blocks until the transfer is done.
+ */
+public class RoboRioI2CDevice implements I2CDevice
+{
+	private final I2C i2c;
+
+	/**
+	 * Constructs the device.
+	 * @param port The I2C port the device is on.
+	 * @param address The 7 bit address of the device.
+	 */
+	public RoboRioI2CDevice(I2C.Port port, int address)
+	{
+		i2c = new I2C(port, address);
+	}
+
+	@Override
+	public boolean writeBulk(byte[] data)
+	{
+		return i2c.writeBulk(data);
+	}
+
+	@Override
+	public boolean transaction(ByteBuffer dataToSend, int sendSize, ByteBuffer dataReceived, int receiveSize)
+	{
+		return i2c.transaction(dataToSend, sendSize, dataReceived, receiveSize);
+	}
+
+	@Override
+	public boolean readOnly(byte[] buffer, int count)
+	{
+		return i2c.readOnly(buffer, count);
+	}
+}
@@ -0,0 +1,29 @@
+package frc.robot.hal;
+
+import edu.wpi.first.wpilibj.PWM.PeriodMultiplier;
+
+/**
+ * Interface for a servo on a PWM channel of the roboRIO.
+ * Get one from Devices.servo(), which gives a PwmServo on the robot and a SimulatedServo off it.
+ */
+public interface Servo
+{
+	/**
+	 * Sets the position.
+	 * @param value The position, from 0.0 to 1.0.
+	 */
+	void set(double value);
+
+	/**
+	 * Gets the position last set.
+	 * @return The position, from 0.0 to 1.0.
+	 */
+	double get();
+
+	/**
+	 * Sets the pulse widths, in ms, that the positions map to.
+	 */
+	void setBounds(double max, double deadbandMax, double center, double deadbandMin, double min);
+
+	void setPeriodMultiplier(PeriodMultiplier multiplier);
+}
@@ -0,0 +1,148 @@
+package frc.robot.hal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * I2C device that only lives in memory and answers like an AMS TCS3472 color sensor.
+ * It keeps the sensor's 32 registers: the first byte of every write is the command byte selecting
+ * a register, the next bytes are written from there on, and reads go on from the selected register.
+ * It reads the device id 0x60, and reports a completed RGBC cycle whenever RGBC is enabled,
+ * with the color last given to setColor().
+ * Can be read and set from any thread.
+ */
+public class SimulatedColorSensor implements I2CDevice
+{
+	private final byte[] registers = new byte[Constants.REGISTER_COUNT];
+	private int selectedRegister = 0;
+	private volatile boolean isAborting = false;
+
+	/**
+	 * Constructs the color sensor, powered off, reading no light.
+	 */
+	public SimulatedColorSensor()
+	{
+		registers[Constants.DEVICE_ID] = Constants.DEVICE_ID_VALUE;
+	}
+
+	/**
+	 * Sets the color the sensor reads.
+	 * @param c The clear value, 0 to 65535.
+	 * @param r The red value.
+	 * @param g The green value.
+	 * @param b The blue value.
+	 */
+	public synchronized void setColor(int c, int r, int g, int b)
+	{
+		setWord(Constants.CLEAR_DATA, c);
+		setWord(Constants.CLEAR_DATA + 2, r);
+		setWord(Constants.CLEAR_DATA + 4, g);
+		setWord(Constants.CLEAR_DATA + 6, b);
+	}
+
+	private void setWord(int register, int value)
+	{
+		registers[register] = (byte) value;
+		registers[register + 1] = (byte) (value >> 8);
+	}
+
+	/**
+	 * Makes every transfer abort, like a sensor that fell off the bus.
+	 * @param isAborting True to abort every transfer.
+	 */
+	public void setAborting(boolean isAborting)
+	{
+		this.isAborting = isAborting;
+	}
+
+	@Override
+	public synchronized boolean writeBulk(byte[] data)
+	{
+		if (isAborting)
+		{
+			return true;
+		}
+		for (int i = 0; i < data.length; i++)
+		{
+			write(i, data[i]);
+		}
+		return false;
+	}
+
+	@Override
+	public synchronized boolean transaction(ByteBuffer dataToSend, int sendSize, ByteBuffer dataReceived, int receiveSize)
+	{
+		if (isAborting)
+		{
+			return true;
+		}
+		for (int i = 0; i < sendSize; i++)
+		{
+			write(i, dataToSend.get(i));
+		}
+		for (int i = 0; i < receiveSize; i++)
+		{
+			dataReceived.put(i, read());
+		}
+		return false;
+	}
+
+	@Override
+	public synchronized boolean readOnly(byte[] buffer, int count)
+	{
+		if (isAborting)
+		{
+			return true;
+		}
+		for (int i = 0; i < count; i++)
+		{
+			buffer[i] = read();
+		}
+		return false;
+	}
+
+	/**
+	 * Writes one byte of a transfer: the first selects the register, the others are written to it.
+	 */
+	private void write(int index, byte value)
+	{
+		if (index == 0)
+		{
+			selectedRegister = value & Constants.ADDRESS_MASK;
+		}
+		else
+		{
+			registers[selectedRegister] = value;
+			updateStatus();
+			selectedRegister = (selectedRegister + 1) % registers.length;
+		}
+	}
+
+	private byte read()
+	{
+		byte value = registers[selectedRegister];
+		selectedRegister = (selectedRegister + 1) % registers.length;
+		return value;
+	}
+
+	private void updateStatus()
+	{
+		registers[Constants.DEVICE_ID] = Constants.DEVICE_ID_VALUE;
+		registers[Constants.STATUS] = ((registers[Constants.ENABLE] & Constants.ENABLE_AEN) != 0) ? Constants.STATUS_AVALID : 0;
+	}
+
+	/**
+	 * Class for constant variables related to SimulatedColorSensor.
+	 */
+	public static class Constants
+	{
+		public static final int REGISTER_COUNT = 0x20;
+		public static final int ADDRESS_MASK = 0x1F;		// low bits of the command byte
+		public static final int ENABLE = 0x00;
+		public static final int DEVICE_ID = 0x12;
+		public static final int STATUS = 0x13;
+		public static final int CLEAR_DATA = 0x14;			// clear, red, green and blue, low byte first
+		public static final byte DEVICE_ID_VALUE = 0x60;
+		public static final int ENABLE_AEN = 0x02;
+		public static final byte STATUS_AVALID = 0x01;
+	}
+}
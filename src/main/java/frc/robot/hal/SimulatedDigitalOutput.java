@@ -0,0 +1,22 @@
+package frc.robot.hal;
+
+/**
+ * Output that only lives in memory. It remembers what it was set to.
+ * Can be read from any thread.
+ */
+public class SimulatedDigitalOutput implements DigitalOutput
+{
+	private volatile boolean value = false;
+
+	@Override
+	public void set(boolean value)
+	{
+		this.value = value;
+	}
+
+	@Override
+	public boolean get()
+	{
+		return value;
+	}
+}
@@ -0,0 +1,53 @@
+package frc.robot.hal;
+
+/**
+ * Gyro that only lives in memory. It is connected and calibrated, and reads whatever yaw it is set to.
+ * Can be read and set from any thread.
+ */
+public class SimulatedGyro implements Gyro
+{
+	private volatile float yaw = 0.0f;
+	private volatile boolean isConnected = true;
+
+	@Override
+	public float getYaw()
+	{
+		return yaw;
+	}
+
+	/**
+	 * Sets the heading getYaw() returns.
+	 * @param yaw The yaw in degrees.
+	 */
+	public void setYaw(float yaw)
+	{
+		this.yaw = yaw;
+	}
+
+	@Override
+	public boolean isConnected()
+	{
+		return isConnected;
+	}
+
+	/**
+	 * Connects or disconnects the gyro, to run the code that handles a lost navX.
+	 * @param isConnected True if the gyro is connected.
+	 */
+	public void setConnected(boolean isConnected)
+	{
+		this.isConnected = isConnected;
+	}
+
+	@Override
+	public boolean isCalibrating()
+	{
+		return false;
+	}
+
+	@Override
+	public void reset()
+	{
+		yaw = 0.0f;
+	}
+}
@@ -0,0 +1,220 @@
+package frc.robot.hal;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.LimitSwitchNormal;
+import com.ctre.phoenix.motorcontrol.LimitSwitchSource;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+
+/**
+ * Motor controller that only lives in memory, for running the control code off the robot.
+ * It remembers the last output it was set to; the sensor position, velocity and current are
+ * whatever the benchmark or test driving it sets. The configuration calls are accepted and ignored.
+ * Can be read and set from any thread.
+ */
+public class SimulatedMotorController implements MotorController
+{
+	private final int port;
+
+	private volatile double output = 0.0;
+	private volatile ControlMode mode = ControlMode.PercentOutput;
+	private volatile MotorController master = null;
+	private volatile boolean isInverted = false;
+	private volatile int sensorPosition = 0;
+	private volatile int sensorVelocity = 0;
+	private volatile double outputCurrent = 0.0;
+
+	/**
+	 * Constructs the motor controller.
+	 * @param port The CAN id of the Talon SRX it stands in for.
+	 */
+	public SimulatedMotorController(int port)
+	{
+		this.port = port;
+	}
+
+	public int getPort()
+	{
+		return port;
+	}
+
+	@Override
+	public void set(double speed)
+	{
+		set(ControlMode.PercentOutput, speed);
+	}
+
+	/**
+	 * Gets the output, or the output of the master while following one.
+	 * @return The last value set.
+	 */
+	@Override
+	public double get()
+	{
+		MotorController currentMaster = master;
+		return (currentMaster != null) ? currentMaster.get() : output;
+	}
+
+	@Override
+	public void setInverted(boolean isInverted)
+	{
+		this.isInverted = isInverted;
+	}
+
+	@Override
+	public boolean getInverted()
+	{
+		return isInverted;
+	}
+
+	@Override
+	public void disable()
+	{
+		set(0.0);
+	}
+
+	@Override
+	public void stopMotor()
+	{
+		set(0.0);
+	}
+
+	@Override
+	public void pidWrite(double output)
+	{
+		set(output);
+	}
+
+	/**
+	 * Sets the output and stops following, like a Talon SRX does.
+	 */
+	@Override
+	public void set(ControlMode mode, double value)
+	{
+		this.mode = mode;
+		output = value;
+		master = null;
+	}
+
+	public ControlMode getControlMode()
+	{
+		return mode;
+	}
+
+	@Override
+	public void follow(MotorController master)
+	{
+		this.master = master;
+	}
+
+	@Override
+	public void configContinuousCurrentLimit(int amps, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configPeakCurrentLimit(int amps, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configOpenloopRamp(double secondsFromNeutralToFull, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configSelectedFeedbackSensor(FeedbackDevice device, int pidIdx, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void setSensorPhase(boolean phase)
+	{
+	}
+
+	@Override
+	public void setNeutralMode(NeutralMode mode)
+	{
+	}
+
+	@Override
+	public void configForwardLimitSwitchSource(LimitSwitchSource source, LimitSwitchNormal normal, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configReverseLimitSwitchSource(LimitSwitchSource source, LimitSwitchNormal normal, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configForwardSoftLimitThreshold(int threshold, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configReverseSoftLimitThreshold(int threshold, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configForwardSoftLimitEnable(boolean enable, int timeoutMs)
+	{
+	}
+
+	@Override
+	public void configReverseSoftLimitEnable(boolean enable, int timeoutMs)
+	{
+	}
+
+	@Override
+	public int getSelectedSensorPosition(int pidIdx)
+	{
+		return sensorPosition;
+	}
+
+	@Override
+	public int getSelectedSensorVelocity(int pidIdx)
+	{
+		return sensorVelocity;
+	}
+
+	@Override
+	public void setSelectedSensorPosition(int position, int pidIdx, int timeoutMs)
+	{
+		sensorPosition = position;
+	}
+
+	/**
+	 * Sets what the sensor reads, such as a potentiometer position.
+	 * @param position The position in raw sensor units.
+	 */
+	public void setSensorPosition(int position)
+	{
+		sensorPosition = position;
+	}
+
+	/**
+	 * Sets the velocity the sensor reads.
+	 * @param velocity The velocity in raw sensor units per 100 ms.
+	 */
+	public void setSensorVelocity(int velocity)
+	{
+		sensorVelocity = velocity;
+	}
+
+	@Override
+	public double getOutputCurrent()
+	{
+		return outputCurrent;
+	}
+
+	/**
+	 * Sets the current getOutputCurrent() returns.
+	 * @param current The current in amps.
+	 */
+	public void setOutputCurrent(double current)
+	{
+		outputCurrent = current;
+	}
+}
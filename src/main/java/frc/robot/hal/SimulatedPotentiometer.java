@@ -0,0 +1,25 @@
+package frc.robot.hal;
+
+/**
+ * Potentiometer that only lives in memory, reading whatever position it is set to.
+ * Can be read and set from any thread.
+ */
+public class SimulatedPotentiometer implements Potentiometer
+{
+	private volatile int position = 0;
+
+	@Override
+	public int getPosition()
+	{
+		return position;
+	}
+
+	/**
+	 * Sets the position getPosition() returns.
+	 * @param position The position in raw analog units.
+	 */
+	public void setPosition(int position)
+	{
+		this.position = position;
+	}
+}
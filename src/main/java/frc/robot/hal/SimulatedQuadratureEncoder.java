@@ -0,0 +1,31 @@
+package frc.robot.hal;
+
+/**
+ * Quadrature encoder that only lives in memory, reading whatever count it is set to.
+ * Can be read and set from any thread.
+ */
+public class SimulatedQuadratureEncoder implements QuadratureEncoder
+{
+	private volatile int count = 0;
+
+	@Override
+	public int getRaw()
+	{
+		return count;
+	}
+
+	/**
+	 * Sets the count getRaw() returns.
+	 * @param count The count in raw ticks.
+	 */
+	public void setRaw(int count)
+	{
+		this.count = count;
+	}
+
+	@Override
+	public void reset()
+	{
+		count = 0;
+	}
+}
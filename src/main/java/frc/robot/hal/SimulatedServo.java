@@ -0,0 +1,34 @@
+package frc.robot.hal;
+
+import edu.wpi.first.wpilibj.PWM.PeriodMultiplier;
+
+/**
+ * Servo that only lives in memory. It remembers the position it was set to, limited to 0.0 to 1.0.
+ * Can be read from any thread.
+ */
+public class SimulatedServo implements Servo
+{
+	private volatile double position = 0.0;
+
+	@Override
+	public void set(double value)
+	{
+		position = Math.max(0.0, Math.min(value, 1.0));
+	}
+
+	@Override
+	public double get()
+	{
+		return position;
+	}
+
+	@Override
+	public void setBounds(double max, double deadbandMax, double center, double deadbandMin, double min)
+	{
+	}
+
+	@Override
+	public void setPeriodMultiplier(PeriodMultiplier multiplier)
+	{
+	}
+}
@@ -0,0 +1,25 @@
+package frc.robot.hal;
+
+/**
+ * Potentiometer wired to the analog input of a Talon SRX, which must have FeedbackDevice.Analog selected.
+ * The Talon SRX sends the position over CAN, so reading it does not block.
+ */
+public class TalonPotentiometer implements Potentiometer
+{
+	private final MotorController talon;
+
+	/**
+	 * Constructs the potentiometer.
+	 * @param talon The motor controller the potentiometer is wired to.
+	 */
+	public TalonPotentiometer(MotorController talon)
+	{
+		this.talon = talon;
+	}
+
+	@Override
+	public int getPosition()
+	{
+		return talon.getSelectedSensorPosition(0);
+	}
+}
@@ -0,0 +1,193 @@
+package frc.robot.hal;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.LimitSwitchNormal;
+import com.ctre.phoenix.motorcontrol.LimitSwitchSource;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
+
+/**
+ * Motor controller for a Talon SRX on the CAN bus. Every call goes straight to the WPI_TalonSRX.
+ */
+public class TalonSRXMotorController implements MotorController
+{
+	private final WPI_TalonSRX talon;
+
+	/**
+	 * Constructs the Talon SRX.
+	 * @param port The CAN id of the Talon SRX.
+	 */
+	public TalonSRXMotorController(int port)
+	{
+		talon = new WPI_TalonSRX(port);
+	}
+
+	/**
+	 * Gets the Talon SRX, for the calls MotorController does not have.
+	 * @return The Talon SRX.
+	 */
+	public WPI_TalonSRX getTalon()
+	{
+		return talon;
+	}
+
+	@Override
+	public void set(double speed)
+	{
+		talon.set(speed);
+	}
+
+	@Override
+	public double get()
+	{
+		return talon.get();
+	}
+
+	@Override
+	public void setInverted(boolean isInverted)
+	{
+		talon.setInverted(isInverted);
+	}
+
+	@Override
+	public boolean getInverted()
+	{
+		return talon.getInverted();
+	}
+
+	@Override
+	public void disable()
+	{
+		talon.disable();
+	}
+
+	@Override
+	public void stopMotor()
+	{
+		talon.stopMotor();
+	}
+
+	@Override
+	public void pidWrite(double output)
+	{
+		talon.pidWrite(output);
+	}
+
+	@Override
+	public void set(ControlMode mode, double value)
+	{
+		talon.set(mode, value);
+	}
+
+	/**
+	 * Makes this Talon SRX copy the output of another one.
+	 * @param master The Talon SRX to follow.
+	 * @throws IllegalArgumentException If the master is not a Talon SRX.
+	 */
+	@Override
+	public void follow(MotorController master)
+	{
+		if (!(master instanceof TalonSRXMotorController))
+		{
+			throw new IllegalArgumentException("[TalonSRXMotorController] can only follow another Talon SRX");
+		}
+		talon.follow(((TalonSRXMotorController) master).talon);
+	}
+
+	@Override
+	public void configContinuousCurrentLimit(int amps, int timeoutMs)
+	{
+		talon.configContinuousCurrentLimit(amps, timeoutMs);
+	}
+
+	@Override
+	public void configPeakCurrentLimit(int amps, int timeoutMs)
+	{
+		talon.configPeakCurrentLimit(amps, timeoutMs);
+	}
+
+	@Override
+	public void configOpenloopRamp(double secondsFromNeutralToFull, int timeoutMs)
+	{
+		talon.configOpenloopRamp(secondsFromNeutralToFull, timeoutMs);
+	}
+
+	@Override
+	public void configSelectedFeedbackSensor(FeedbackDevice device, int pidIdx, int timeoutMs)
+	{
+		talon.configSelectedFeedbackSensor(device, pidIdx, timeoutMs);
+	}
+
+	@Override
+	public void setSensorPhase(boolean phase)
+	{
+		talon.setSensorPhase(phase);
+	}
+
+	@Override
+	public void setNeutralMode(NeutralMode mode)
+	{
+		talon.setNeutralMode(mode);
+	}
+
+	@Override
+	public void configForwardLimitSwitchSource(LimitSwitchSource source, LimitSwitchNormal normal, int timeoutMs)
+	{
+		talon.configForwardLimitSwitchSource(source, normal, timeoutMs);
+	}
+
+	@Override
+	public void configReverseLimitSwitchSource(LimitSwitchSource source, LimitSwitchNormal normal, int timeoutMs)
+	{
+		talon.configReverseLimitSwitchSource(source, normal, timeoutMs);
+	}
+
+	@Override
+	public void configForwardSoftLimitThreshold(int threshold, int timeoutMs)
+	{
+		talon.configForwardSoftLimitThreshold(threshold, timeoutMs);
+	}
+
+	@Override
+	public void configReverseSoftLimitThreshold(int threshold, int timeoutMs)
+	{
+		talon.configReverseSoftLimitThreshold(threshold, timeoutMs);
+	}
+
+	@Override
+	public void configForwardSoftLimitEnable(boolean enable, int timeoutMs)
+	{
+		talon.configForwardSoftLimitEnable(enable, timeoutMs);
+	}
+
+	@Override
+	public void configReverseSoftLimitEnable(boolean enable, int timeoutMs)
+	{
+		talon.configReverseSoftLimitEnable(enable, timeoutMs);
+	}
+
+	@Override
+	public int getSelectedSensorPosition(int pidIdx)
+	{
+		return talon.getSelectedSensorPosition(pidIdx);
+	}
+
+	@Override
+	public int getSelectedSensorVelocity(int pidIdx)
+	{
+		return talon.getSelectedSensorVelocity(pidIdx);
+	}
+
+	@Override
+	public void setSelectedSensorPosition(int position, int pidIdx, int timeoutMs)
+	{
+		talon.setSelectedSensorPosition(position, pidIdx, timeoutMs);
+	}
+
+	@Override
+	public double getOutputCurrent()
+	{
+		return talon.getOutputCurrent();
+	}
+}
@@ -0,0 +1,65 @@
+package frc.robot.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Class for the JFR event of a call that blocks its thread on a device, such as
+ * Drivetrain.resetEncoder() or an I2C transaction of the color sensor.
+ * Each call site creates its event once and reuses it for every call, so recording does not allocate:
+ * <pre>
+ * private final BlockingCallEvent resetEncoderEvent = new BlockingCallEvent("Drivetrain.resetEncoder");
+ * ...
+ * resetEncoderEvent.startCall();
+ * ...the call...
+ * resetEncoderEvent.endCall();
+ * </pre>
+ * An instance must only be used by one thread at a time.
+ */
+@Name("frc.robot.BlockingCall")
+@Label("Blocking Sensor Call")
+@Category({"Robot", "Sensors"})
+@Description("A call that waits for a sensor or motor controller")
+public class BlockingCallEvent extends jdk.jfr.Event
+{
+	@Label("Call")
+	String call;
+
+	private transient boolean isStarted = false;
+
+	/**
+	 * Constructor for the event of a call site.
+	 * @param call The name of the call, such as "Drivetrain.resetEncoder".
+	 */
+	public BlockingCallEvent(String call)
+	{
+		this.call = call;
+	}
+
+	/**
+	 * Begins the event of a call, if a recording is running.
+	 */
+	public void startCall()
+	{
+		isStarted = JfrRecording.isRecording();
+		if (isStarted)
+		{
+			begin();
+		}
+	}
+
+	/**
+	 * Commits the event of a call that has returned, if it was begun.
+	 */
+	public void endCall()
+	{
+		if (isStarted)
+		{
+			end();
+			commit();
+			isStarted = false;
+		}
+	}
+}
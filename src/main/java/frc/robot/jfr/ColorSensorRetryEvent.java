@@ -0,0 +1,41 @@
+package frc.robot.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Class for the JFR event of a color sensor read that found no completed RGBC cycle and is retried.
+ * The polling thread reuses one instance for every retry, so recording does not allocate.
+ */
+@Name("frc.robot.ColorSensorRetry")
+@Label("Color Sensor Retry")
+@Category({"Robot", "Sensors"})
+@Description("AMSColorSensor.calculate read the sensor before its RGBC cycle completed")
+@StackTrace(false)
+public class ColorSensorRetryEvent extends jdk.jfr.Event
+{
+	@Label("Attempt")
+	@Description("Which of the reads of the poll failed, from 1")
+	int attempt;
+
+	@Label("Status")
+	@Description("The status register that was read")
+	int status;
+
+	/**
+	 * Commits a retry. Only call it while JfrRecording.isRecording(), from one thread at a time.
+	 * @param attempt Which of the reads of the poll failed, from 1.
+	 * @param status The status register.
+	 */
+	public void commitRetry(int attempt, int status)
+	{
+		begin();
+		end();
+		this.attempt = attempt;
+		this.status = status & 0xFF;
+		commit();
+	}
+}
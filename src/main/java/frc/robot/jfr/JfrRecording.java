@@ -0,0 +1,189 @@
+package frc.robot.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import frc.robot.telemetry.TelemetryRecorder;
+import frc.robot.util.Logger;
+
+/**
+ * Class to keep a rolling Java Flight Recorder recording, so the robot's own events can be lined
+ * up with what the JVM was doing at the time: safepoints, garbage collections, and threads waiting
+ * for a lock, such as a thread blocked on AutoSelect4237.getData() while the receiver holds it.
+ *
+ * <p>The recording keeps the last MAX_AGE (at most MAX_SIZE bytes) with the JVM's low-overhead
+ * "default" settings, plus the SETTINGS below. dump() writes it to jfr-NNNN.jfr next to the match
+ * logs, for JDK Mission Control; the MetricsServer calls it for GET /jfr/dump.
+ *
+ * <p>The robot's events (LoopTickEvent, StageTransitionEvent, BlockingCallEvent, PacketReceivedEvent
+ * and ColorSensorRetryEvent) are created once by the code that commits them and reused, so recording
+ * does not allocate. They are only begun and committed while isRecording() is true, so without a
+ * recording they cost one volatile read. A recording started some other way, such as with jcmd, counts too.
+ * On a JVM without the Flight Recorder nothing is recorded.
+ */
+public class JfrRecording
+{
+	private static volatile boolean isRecording = false;
+
+	private Recording recording = null;
+	private int dumpCount = 0;
+	private String lastDumpName = null;
+
+	private static JfrRecording instance = new JfrRecording();
+
+	/**
+	 * Returns the singleton instance of JfrRecording.
+	 * @return The singleton instance of JfrRecording.
+	 */
+	public static JfrRecording getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Private constructor for JfrRecording.
+	 * The recording is started by start().
+	 */
+	private JfrRecording()
+	{
+	}
+
+	/**
+	 * Starts the rolling recording, if ENABLED. Call it once, from robotInit.
+	 */
+	public synchronized void start()
+	{
+		if (recording != null || !Constants.ENABLED)
+		{
+			return;
+		}
+
+		try
+		{
+			if (!FlightRecorder.isAvailable())
+			{
+				Logger.println("[JfrRecording] this JVM has no Flight Recorder");
+				return;
+			}
+			FlightRecorder.addListener(new FlightRecorderListener()
+			{
+				@Override
+				public void recordingStateChanged(Recording changed)
+				{
+					updateIsRecording();
+				}
+			});
+
+			Map<String, String> settings = new HashMap<>(Configuration.getConfiguration(Constants.CONFIGURATION).getSettings());
+			for (int i = 0; i < Constants.SETTINGS.length; i += 2)
+			{
+				settings.put(Constants.SETTINGS[i], Constants.SETTINGS[i + 1]);
+			}
+
+			Recording newRecording = new Recording(settings);
+			newRecording.setName("robot");
+			newRecording.setToDisk(true);
+			newRecording.setMaxAge(Duration.ofMillis((long) (Constants.MAX_AGE * 1000.0)));
+			newRecording.setMaxSize(Constants.MAX_SIZE);
+			newRecording.start();
+			recording = newRecording;
+			updateIsRecording();
+			Logger.println(String.format("[JfrRecording] recording the last %.0f s", Constants.MAX_AGE));
+		}
+		catch (IOException | ParseException | IllegalStateException | SecurityException | LinkageError e)
+		{
+			Logger.println("[JfrRecording] cannot start the recording: " + e);
+		}
+	}
+
+	/**
+	 * Checks if any recording is running, after a recording has started or stopped.
+	 */
+	private static void updateIsRecording()
+	{
+		boolean isAnyRunning = false;
+		for (Recording running : FlightRecorder.getFlightRecorder().getRecordings())
+		{
+			if (running.getState() == RecordingState.RUNNING)
+			{
+				isAnyRunning = true;
+			}
+		}
+		isRecording = isAnyRunning;
+	}
+
+	/**
+	 * Checks if the robot's events should be committed. Can be called from any thread, and only reads a volatile.
+	 * @return True if a recording is running.
+	 */
+	public static boolean isRecording()
+	{
+		return isRecording;
+	}
+
+	/**
+	 * Writes what the rolling recording holds to a new file. The recording goes on.
+	 * Runs on the calling thread and can take a second, so do not call it from the control loop.
+	 * @return The file written.
+	 * @throws IOException If there is no recording or the file cannot be written.
+	 */
+	public synchronized File dump() throws IOException
+	{
+		if (recording == null)
+		{
+			throw new IOException("no recording, set JfrRecording.Constants.ENABLED");
+		}
+
+		File directory = TelemetryRecorder.getDirectory();
+		if (!directory.isDirectory() && !directory.mkdirs())
+		{
+			throw new IOException("cannot create " + directory);
+		}
+		TelemetryRecorder.deleteOldFiles(directory, Constants.FILE_PREFIX, Constants.FILE_EXTENSION, Constants.MAX_DUMPS);
+		File file = new File(directory, String.format("%s%04d%s", Constants.FILE_PREFIX,
+				TelemetryRecorder.getNextFileNumber(directory, Constants.FILE_PREFIX, Constants.FILE_EXTENSION), Constants.FILE_EXTENSION));
+		recording.dump(file.toPath());
+
+		dumpCount++;
+		lastDumpName = file.getPath();
+		Logger.println("[JfrRecording] dumped the recording to " + file);
+		return file;
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		return String.format("[JfrRecording] %s, %d dumps, last dump %s", (recording != null) ? "recording" : "not recording",
+				dumpCount, (lastDumpName == null) ? "none" : lastDumpName);
+	}
+
+	/**
+	 * Class for constant variables related to JfrRecording.
+	 */
+	public static class Constants
+	{
+		public static final boolean ENABLED = false;			// turn on to keep a rolling recording
+		public static final String CONFIGURATION = "default";	// the JVM's continuous settings, about 1% overhead
+		public static final double MAX_AGE = 120.0;			// seconds kept, a whole match
+		public static final long MAX_SIZE = 20000000L;			// bytes kept
+		public static final String FILE_PREFIX = "jfr-";
+		public static final String FILE_EXTENSION = ".jfr";
+		public static final int MAX_DUMPS = 10;				// oldest dumps are deleted
+		// pairs of setting and value, on top of the configuration
+		public static final String[] SETTINGS = {
+				"jdk.JavaMonitorEnter#threshold", "1 ms",		// lock contention far below the default 20 ms
+				"jdk.SafepointBegin#enabled", "true",
+				"jdk.SafepointBegin#threshold", "1 ms",
+				"jdk.ThreadPark#threshold", "10 ms"};
+	}
+}
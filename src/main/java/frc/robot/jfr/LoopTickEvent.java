@@ -0,0 +1,47 @@
+package frc.robot.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Class for the JFR event of one control loop tick. Its duration is the tick's execution time.
+ * Begun and committed by the loop's LoopStatistics, which reuses one instance for every tick,
+ * so recording the ticks does not allocate.
+ */
+@Name("frc.robot.LoopTick")
+@Label("Loop Tick")
+@Category({"Robot", "Loop"})
+@Description("One tick of the control loop; the duration is the execution time")
+@StackTrace(false)
+public class LoopTickEvent extends jdk.jfr.Event
+{
+	@Label("Period")
+	@Description("Time since the start of the previous tick")
+	@Timespan(Timespan.NANOSECONDS)
+	long period;
+
+	@Label("Overrun")
+	@Description("The execution time exceeded the expected period")
+	boolean overrun;
+
+	@Label("Collections")
+	@Description("Garbage collections that finished during the tick")
+	long collections;
+
+	/**
+	 * Sets the fields of the tick, after end() and before it is committed.
+	 * @param periodNanos Time since the start of the previous tick, or 0 for the first tick.
+	 * @param isOverrun True if the tick overran the expected period.
+	 * @param collectionCount Garbage collections that finished during the tick.
+	 */
+	public void set(long periodNanos, boolean isOverrun, long collectionCount)
+	{
+		period = periodNanos;
+		overrun = isOverrun;
+		collections = collectionCount;
+	}
+}
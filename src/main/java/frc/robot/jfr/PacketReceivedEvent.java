@@ -0,0 +1,62 @@
+package frc.robot.jfr;
+
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Class for the JFR event of a UDP packet received from the dashboard or the Raspberry Pi.
+ * Each receiver reuses one instance for every packet, and the sender's address is only
+ * turned into text when it changes, so recording does not allocate.
+ */
+@Name("frc.robot.PacketReceived")
+@Label("UDP Packet Received")
+@Category({"Robot", "Network"})
+@Description("A packet received by AutoSelect4237 or RaspberryPiReceiver")
+@StackTrace(false)
+public class PacketReceivedEvent extends jdk.jfr.Event
+{
+	@Label("Receiver")
+	String receiver;
+
+	@Label("Address")
+	String address;
+
+	@Label("Length")
+	@Description("Bytes in the packet")
+	int length;
+
+	private transient InetAddress lastAddress = null;
+
+	/**
+	 * Constructor for the event of a receiver.
+	 * @param receiver The class that receives the packets, such as "AutoSelect4237".
+	 */
+	public PacketReceivedEvent(String receiver)
+	{
+		this.receiver = receiver;
+	}
+
+	/**
+	 * Commits a received packet. Only call it while JfrRecording.isRecording(), from the receiving thread.
+	 * @param packet The packet.
+	 */
+	public void commitPacket(DatagramPacket packet)
+	{
+		begin();
+		end();
+		InetAddress packetAddress = packet.getAddress();
+		if (packetAddress == null || !packetAddress.equals(lastAddress))
+		{
+			lastAddress = packetAddress;
+			address = (packetAddress == null) ? null : packetAddress.getHostAddress();
+		}
+		length = packet.getLength();
+		commit();
+	}
+}
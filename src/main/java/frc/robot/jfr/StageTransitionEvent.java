@@ -0,0 +1,53 @@
+package frc.robot.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Class for the JFR event of the autonomous moving from one stage to the next.
+ */
+@Name("frc.robot.StageTransition")
+@Label("Autonomous Stage Transition")
+@Category({"Robot", "Autonomous"})
+@Description("The autonomous routine moved to its next AutoStage or AutonStage")
+@StackTrace(false)
+public class StageTransitionEvent extends jdk.jfr.Event
+{
+	@Label("Kind")
+	@Description("AutoStage or AutonStage")
+	String kind;
+
+	@Label("From")
+	String from;
+
+	@Label("To")
+	String to;
+
+	@Label("Stage Time")
+	@Description("Time spent in the stage that ended")
+	@Timespan(Timespan.NANOSECONDS)
+	long stageTime;
+
+	/**
+	 * Commits a transition. Only call it while JfrRecording.isRecording(), from one thread at a time.
+	 * Reusing one instance does not allocate: the stage names are the enums' constant names.
+	 * @param kind "AutoStage" or "AutonStage".
+	 * @param from The stage that ended.
+	 * @param to The stage that started.
+	 * @param stageNanos Time spent in the stage that ended.
+	 */
+	public void commitTransition(String kind, Enum<?> from, Enum<?> to, long stageNanos)
+	{
+		begin();
+		end();
+		this.kind = kind;
+		this.from = from.name();
+		this.to = to.name();
+		stageTime = stageNanos;
+		commit();
+	}
+}
@@ -0,0 +1,199 @@
+package frc.robot.loop;
+
+import java.lang.management.ManagementFactory;
+
+import frc.robot.util.Logger;
+
+/**
+ * Class to check that the loop does not allocate memory.
+ * Every allocation brings the next garbage collection closer, and a collection pause on the
+ * roboRIO shows up as the drivetrain stuttering. The monitor reads how many bytes the loop
+ * thread has allocated at the start and end of every tick. Once the loop has settled after a
+ * reset, any tick that allocated is counted as a failure and reported.
+ *
+ * <p>Reading the allocated bytes allocates a few bytes itself on Java 11; that overhead is
+ * measured when the monitor is created and subtracted.
+ */
+public class AllocationMonitor
+{
+	private static final Logger.Message ALLOCATED = new Logger.Message("[AllocationMonitor] FAIL: tick {} allocated {} bytes");
+
+	private final com.sun.management.ThreadMXBean threadBean;
+	private final boolean isSupported;
+	private final long overheadBytes;
+
+	private long tickStartBytes = 0;
+	private long settleTicks = 0;
+
+	private volatile long tickCount = 0;
+	private volatile long allocatingTickCount = 0;
+	private volatile long totalBytes = 0;
+	private volatile long lastTickBytes = 0;
+	private volatile long maxTickBytes = 0;
+
+	/**
+	 * Constructor for AllocationMonitor.
+	 * Checks if the JVM can count the bytes each thread allocates.
+	 */
+	public AllocationMonitor()
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+		{
+			threadBean = (com.sun.management.ThreadMXBean) bean;
+			threadBean.setThreadAllocatedMemoryEnabled(true);
+			isSupported = Constants.ENABLED;
+		}
+		else
+		{
+			threadBean = null;
+			isSupported = false;
+		}
+
+		// two readings in a row only differ by what the reading itself allocates
+		long overhead = 0;
+		if (isSupported)
+		{
+			for (int i = 0; i < Constants.OVERHEAD_SAMPLES; i++)
+			{
+				long first = getAllocatedBytes();
+				long second = getAllocatedBytes();
+				overhead = (i == 0) ? second - first : Math.min(overhead, second - first);
+			}
+		}
+		overheadBytes = overhead;
+	}
+
+	/**
+	 * Marks the start of a tick. Must be called by the loop thread.
+	 */
+	public void startTick()
+	{
+		if (isSupported)
+		{
+			tickStartBytes = getAllocatedBytes();
+		}
+	}
+
+	/**
+	 * Marks the end of a tick. Must be called by the loop thread.
+	 * @return True if the loop has settled and the tick allocated.
+	 */
+	public boolean endTick()
+	{
+		if (!isSupported)
+		{
+			return false;
+		}
+
+		long bytes = Math.max(getAllocatedBytes() - tickStartBytes - overheadBytes, 0);
+		lastTickBytes = bytes;
+		tickCount++;
+		if (settleTicks < Constants.SETTLE_TICKS)
+		{
+			// the first ticks after a reset initialize the mode and are allowed to allocate
+			settleTicks++;
+			return false;
+		}
+
+		if (bytes > 0)
+		{
+			totalBytes += bytes;
+			if (bytes > maxTickBytes)
+			{
+				maxTickBytes = bytes;
+			}
+			allocatingTickCount++;
+			if (allocatingTickCount <= Constants.REPORTED_FAILURES)
+			{
+				Logger.begin(ALLOCATED).add(tickCount).add(bytes).commit();
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Clears the statistics, for example when changing modes.
+	 * Must be called by the loop thread.
+	 */
+	public void reset()
+	{
+		settleTicks = 0;
+		tickCount = 0;
+		allocatingTickCount = 0;
+		totalBytes = 0;
+		lastTickBytes = 0;
+		maxTickBytes = 0;
+	}
+
+	private long getAllocatedBytes()
+	{
+		return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	public boolean isSupported()
+	{
+		return isSupported;
+	}
+
+	/**
+	 * Checks if no tick has allocated since the loop settled.
+	 * @return True if the loop is allocation free.
+	 */
+	public boolean isPassing()
+	{
+		return allocatingTickCount == 0;
+	}
+
+	public long getTickCount()
+	{
+		return tickCount;
+	}
+
+	/**
+	 * Gets the number of ticks that allocated after the loop settled.
+	 * @return Number of allocating ticks.
+	 */
+	public long getAllocatingTickCount()
+	{
+		return allocatingTickCount;
+	}
+
+	public long getTotalBytes()
+	{
+		return totalBytes;
+	}
+
+	public long getLastTickBytes()
+	{
+		return lastTickBytes;
+	}
+
+	public long getMaxTickBytes()
+	{
+		return maxTickBytes;
+	}
+
+	@Override
+	public String toString()
+	{
+		if (!isSupported)
+		{
+			return "[AllocationMonitor] not supported by this JVM or disabled";
+		}
+		return String.format("[AllocationMonitor] %s ticks=%d allocating ticks=%d bytes total=%d max per tick=%d",
+				isPassing() ? "PASS" : "FAIL", getTickCount(), getAllocatingTickCount(), getTotalBytes(), getMaxTickBytes());
+	}
+
+	/**
+	 * Class for constant variables related to AllocationMonitor.
+	 */
+	public static class Constants
+	{
+		public static final boolean ENABLED = true;
+		public static final int SETTLE_TICKS = 50;			// ticks after a reset that may allocate
+		public static final int REPORTED_FAILURES = 10;		// allocating ticks printed as they happen
+		public static final int OVERHEAD_SAMPLES = 8;
+	}
+}
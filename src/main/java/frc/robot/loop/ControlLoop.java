@@ -0,0 +1,187 @@
+package frc.robot.loop;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+import frc.robot.telemetry.FlightRecorder;
+import frc.robot.util.Logger;
+import frc.robot.util.ThreadPriorities;
+
+import edu.wpi.first.wpilibj.Notifier;
+
+/**
+ * Class to run the robot's control code at a fixed rate.
+ * Unlike IterativeRobot, which only runs when a driver station packet arrives,
+ * the loop does not depend on radio latency. It runs either from a Notifier,
+ * or from a dedicated thread raised to a real-time priority so that the network
+ * and sensor threads cannot preempt it.
+ * Every tick is measured with a LoopStatistics and reported to the LoadGovernor.
+ */
+public class ControlLoop
+{
+	private static final Logger.Message START_INTERRUPTED = new Logger.Message("[ControlLoop] interrupted while starting: {}");
+	private static final Logger.Message TICK_FAILED = new Logger.Message("[ControlLoop] tick failed: {}", 1.0);	// a broken body fails every tick
+
+	private final Runnable body;
+	private final double period;
+	private final long periodNanos;
+	private final int realTimePriority;
+	private final LoopStatistics statistics;
+	private final LoadGovernor governor = LoadGovernor.getInstance();
+
+	private Notifier notifier = null;
+	private Thread thread = null;
+	private volatile boolean isRunning = false;
+
+	/**
+	 * Constructor for a ControlLoop driven by a Notifier.
+	 * @param body The code to run every tick.
+	 * @param period The period of the loop in seconds, for example 0.01 for 100 Hz.
+	 */
+	public ControlLoop(Runnable body, double period)
+	{
+		this(body, period, 0);
+	}
+
+	/**
+	 * Constructor for a ControlLoop.
+	 * @param body The code to run every tick.
+	 * @param period The period of the loop in seconds, for example 0.01 for 100 Hz.
+	 * @param realTimePriority If above 0, the loop runs on a dedicated thread with this real-time priority (1 to 99).
+	 * If 0, the loop runs from a Notifier.
+	 */
+	public ControlLoop(Runnable body, double period, int realTimePriority)
+	{
+		this.body = body;
+		this.period = period;
+		this.periodNanos = (long) (period * 1.0e9);
+		this.realTimePriority = realTimePriority;
+		this.statistics = new LoopStatistics(period);
+	}
+
+	/**
+	 * Starts running the loop. Does nothing if it is already running.
+	 * With a dedicated thread, waits until the thread has set its priority.
+	 */
+	public synchronized void start()
+	{
+		if (isRunning)
+		{
+			return;
+		}
+		isRunning = true;
+
+		if (realTimePriority > 0)
+		{
+			CountDownLatch started = new CountDownLatch(1);
+			thread = new Thread(() -> runThread(started), "ControlLoop");
+			thread.start();
+			try
+			{
+				started.await();
+			}
+			catch (InterruptedException e)
+			{
+				Logger.log(START_INTERRUPTED, e);
+			}
+			Logger.println(String.format("[ControlLoop] Running every %.1f milliseconds on a dedicated thread at real-time priority %d", period * 1000.0, realTimePriority));
+		}
+		else
+		{
+			if (notifier == null)
+			{
+				notifier = new Notifier(this::tick);
+			}
+			notifier.startPeriodic(period);
+			Logger.println(String.format("[ControlLoop] Running every %.1f milliseconds", period * 1000.0));
+		}
+	}
+
+	/**
+	 * Stops running the loop.
+	 */
+	public synchronized void stop()
+	{
+		if (isRunning)
+		{
+			isRunning = false;
+			if (notifier != null)
+			{
+				notifier.stop();
+			}
+			if (thread != null)
+			{
+				thread.interrupt();
+				thread = null;
+			}
+		}
+	}
+
+	public boolean isRunning()
+	{
+		return isRunning;
+	}
+
+	public double getPeriod()
+	{
+		return period;
+	}
+
+	/**
+	 * Gets the live timing statistics of the loop.
+	 * @return The statistics of the loop.
+	 */
+	public LoopStatistics getStatistics()
+	{
+		return statistics;
+	}
+
+	/**
+	 * Body of the dedicated thread. Sleeps until each tick's deadline, so the period
+	 * does not drift with the execution time of the tick.
+	 */
+	private void runThread(CountDownLatch started)
+	{
+		ThreadPriorities.setRealTimePriority("control loop", realTimePriority);
+		started.countDown();
+
+		long nextTickNanos = System.nanoTime();
+		while (isRunning && !Thread.currentThread().isInterrupted())
+		{
+			tick();
+
+			nextTickNanos += periodNanos;
+			long sleepNanos = nextTickNanos - System.nanoTime();
+			if (sleepNanos > 0)
+			{
+				// parkNanos can return early, on a spurious wakeup or an unpark, so park again until the deadline
+				while (sleepNanos > 0 && isRunning && !Thread.currentThread().isInterrupted())
+				{
+					LockSupport.parkNanos(sleepNanos);
+					sleepNanos = nextTickNanos - System.nanoTime();
+				}
+			}
+			else if (-sleepNanos > periodNanos)
+			{
+				// more than a whole tick behind, so start over instead of running ticks back to back
+				nextTickNanos = System.nanoTime();
+			}
+		}
+	}
+
+	private void tick()
+	{
+		statistics.startTick(System.nanoTime());
+		try
+		{
+			body.run();
+		}
+		catch (Exception e)
+		{
+			Logger.log(TICK_FAILED, e);
+			FlightRecorder.getInstance().trigger(e);
+		}
+		statistics.endTick(System.nanoTime());
+		governor.update(statistics.getLastExecutionNanos());
+	}
+}
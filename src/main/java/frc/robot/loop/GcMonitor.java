@@ -0,0 +1,296 @@
+package frc.robot.loop;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import frc.robot.metrics.Counter;
+import frc.robot.metrics.Histogram;
+import frc.robot.metrics.MetricsRegistry;
+import frc.robot.util.ThreadPriorities;
+
+/**
+ * Class to watch the garbage collector and how fast the robot's threads allocate, so a loop
+ * overrun can be blamed on a collection pause or cleared of it.
+ *
+ * <p>A LoopStatistics reads the number of collections at the start and end of every tick.
+ * The JVM updates the number when a collection finishes, and the loop thread is stopped
+ * during the pause, so a number that changed during an overrun tick means the tick was
+ * paused. The JVM also notifies the monitor after every collection, on its own thread,
+ * with how long the pause was, for the pause time histogram.
+ *
+ * <p>A sampler thread reads the bytes each watched thread has allocated once a second and
+ * publishes the rates as gauges. Threads are watched by calling watchCurrentThread() from them;
+ * the loop thread is watched by its LoopStatistics.
+ */
+public class GcMonitor
+{
+	private final GarbageCollectorMXBean[] collectors;
+	private final com.sun.management.ThreadMXBean threadBean;
+
+	private volatile long pauseCount = 0;		// written by the notification thread only
+	private volatile long totalPauseNanos = 0;
+	private volatile long maxPauseNanos = 0;
+	private volatile String lastCollector = "none";
+
+	private volatile Watched[] watched = new Watched[0];
+
+	private final Counter pauses;
+	private final Histogram pauseTime;
+	private final Counter overruns;
+	private final Counter overrunsDuringGc;
+
+	private static GcMonitor instance = new GcMonitor();
+
+	/**
+	 * Returns the singleton instance of GcMonitor.
+	 * @return The singleton instance of GcMonitor.
+	 */
+	public static GcMonitor getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Private constructor for GcMonitor.
+	 * Listens to every garbage collector and starts the allocation sampler thread.
+	 */
+	private GcMonitor()
+	{
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		pauses = registry.counter("GcMonitor.pauses", "garbage collections");
+		pauseTime = registry.histogram("GcMonitor.pauseTime", "garbage collection pause, ms", 0.5, 1.0, 2.0, 5.0, 10.0, 20.0, 50.0, 100.0, 200.0);
+		overruns = registry.counter("GcMonitor.overruns", "loop overruns");
+		overrunsDuringGc = registry.counter("GcMonitor.overrunsDuringGc", "loop overruns during which a collection finished");
+		registry.gauge("GcMonitor.totalPauseTime", "time in garbage collection pauses, s", () -> totalPauseNanos / 1.0e9);
+
+		collectors = ManagementFactory.getGarbageCollectorMXBeans().toArray(new GarbageCollectorMXBean[0]);
+		if (Constants.ENABLED)
+		{
+			for (GarbageCollectorMXBean collector : collectors)
+			{
+				if (collector instanceof NotificationEmitter)
+				{
+					((NotificationEmitter) collector).addNotificationListener(this::handleNotification,
+							notification -> GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()), null);
+				}
+			}
+		}
+
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (Constants.ENABLED && bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+		{
+			threadBean = (com.sun.management.ThreadMXBean) bean;
+			threadBean.setThreadAllocatedMemoryEnabled(true);
+			Thread sampler = new Thread(this::sample, "GcMonitor");
+			sampler.setDaemon(true);
+			sampler.start();
+		}
+		else
+		{
+			threadBean = null;
+		}
+	}
+
+	/**
+	 * Runs on the JVM's notification thread after every collection.
+	 */
+	private void handleNotification(Notification notification, Object handback)
+	{
+		GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+		long duration = info.getGcInfo().getDuration();
+		pauseCount++;
+		totalPauseNanos += duration * 1000000L;
+		if (duration * 1000000L > maxPauseNanos)
+		{
+			maxPauseNanos = duration * 1000000L;
+		}
+		lastCollector = info.getGcName() + " (" + info.getGcCause() + ")";
+		pauses.increment();
+		pauseTime.record(duration);
+	}
+
+	/**
+	 * Gets the number of collections so far, of every collector.
+	 * Can be called from any thread and does not allocate.
+	 * @return The number of collections.
+	 */
+	public long getCollectionCount()
+	{
+		long count = 0;
+		for (GarbageCollectorMXBean collector : collectors)
+		{
+			count += Math.max(collector.getCollectionCount(), 0);
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the time spent in collections so far, of every collector.
+	 * Can be called from any thread and does not allocate.
+	 * @return The time in milliseconds.
+	 */
+	public long getCollectionMillis()
+	{
+		long millis = 0;
+		for (GarbageCollectorMXBean collector : collectors)
+		{
+			millis += Math.max(collector.getCollectionTime(), 0);
+		}
+		return millis;
+	}
+
+	/**
+	 * Counts a loop overrun.
+	 * @param isDuringGc True if a collection finished during the overrun tick.
+	 */
+	void countOverrun(boolean isDuringGc)
+	{
+		overruns.increment();
+		if (isDuringGc)
+		{
+			overrunsDuringGc.increment();
+		}
+	}
+
+	/**
+	 * Adds the calling thread to the threads whose allocation rate is measured.
+	 * The rate is published as the gauge "GcMonitor.allocationRate.name".
+	 * A thread watched under the same name before, such as the loop thread of another loop mode, is replaced.
+	 * @param name A short name for the thread, such as "AutoSelect4237".
+	 */
+	public void watchCurrentThread(String name)
+	{
+		if (threadBean == null)
+		{
+			return;
+		}
+
+		Thread thread = Thread.currentThread();
+		synchronized (this)
+		{
+			Watched newWatch = new Watched(name, thread, threadBean.getThreadAllocatedBytes(thread.getId()));
+			for (int i = 0; i < watched.length; i++)
+			{
+				if (watched[i].name.equals(name))
+				{
+					Watched[] newWatched = watched.clone();
+					newWatched[i] = newWatch;
+					watched = newWatched;
+					return;
+				}
+			}
+			Watched[] newWatched = Arrays.copyOf(watched, watched.length + 1);
+			newWatched[watched.length] = newWatch;
+			watched = newWatched;
+		}
+		MetricsRegistry.getInstance().gauge("GcMonitor.allocationRate." + name, "bytes allocated per second", () -> getAllocationRate(name));
+	}
+
+	/**
+	 * Gets the allocation rate of a watched thread, as of the last sample.
+	 * @param name The name the thread is watched under.
+	 * @return The rate in bytes per second, or NaN if no thread is watched under the name.
+	 */
+	public double getAllocationRate(String name)
+	{
+		for (Watched w : watched)
+		{
+			if (w.name.equals(name))
+			{
+				return w.bytesPerSecond;
+			}
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Runs on the sampler thread: measures the allocation rate of every watched thread once a second.
+	 */
+	private void sample()
+	{
+		ThreadPriorities.setBackgroundPriority("GC monitor");
+		long lastNanos = System.nanoTime();
+
+		while (true)
+		{
+			LockSupport.parkNanos((long) (Constants.SAMPLE_PERIOD * 1.0e9));
+			long now = System.nanoTime();
+			double seconds = (now - lastNanos) / 1.0e9;
+			lastNanos = now;
+
+			for (Watched w : watched)
+			{
+				// -1 once the thread has ended
+				long bytes = threadBean.getThreadAllocatedBytes(w.thread.getId());
+				w.bytesPerSecond = (bytes < 0) ? 0.0 : (bytes - w.lastBytes) / seconds;
+				w.lastBytes = bytes;
+			}
+		}
+	}
+
+	public long getPauseCount()
+	{
+		return pauseCount;
+	}
+
+	/**
+	 * Gets the total time spent in collection pauses since the robot code started.
+	 * @return The total pause time in nanoseconds.
+	 */
+	public long getTotalPauseNanos()
+	{
+		return totalPauseNanos;
+	}
+
+	public long getMaxPauseNanos()
+	{
+		return maxPauseNanos;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder text = new StringBuilder(String.format("[GcMonitor] %d pauses, total %.1f ms, max %.1f ms, last %s; %d of %d overruns during a pause; allocation (kB/s)",
+				getPauseCount(), getTotalPauseNanos() / 1.0e6, getMaxPauseNanos() / 1.0e6, lastCollector, overrunsDuringGc.get(), overruns.get()));
+		for (Watched w : watched)
+		{
+			text.append(String.format(" %s=%.1f", w.name, w.bytesPerSecond / 1000.0));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Class for a thread whose allocation rate is measured.
+	 */
+	private static class Watched
+	{
+		private final String name;
+		private final Thread thread;
+		private long lastBytes;						// used by the sampler thread only
+		private volatile double bytesPerSecond = 0.0;
+
+		private Watched(String name, Thread thread, long lastBytes)
+		{
+			this.name = name;
+			this.thread = thread;
+			this.lastBytes = lastBytes;
+		}
+	}
+
+	/**
+	 * Class for constant variables related to GcMonitor.
+	 */
+	public static class Constants
+	{
+		public static final boolean ENABLED = true;
+		public static final double SAMPLE_PERIOD = 1.0;		// seconds
+	}
+}
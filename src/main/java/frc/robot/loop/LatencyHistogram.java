@@ -0,0 +1,189 @@
+package frc.robot.loop;
+
+/**
+ * Class to keep a histogram of latencies, in nanoseconds, in a preallocated array.
+ * Buckets are laid out like an HDR histogram: values below 32 ns get their own bucket,
+ * larger values are split into 16 linear sub-buckets per power of two,
+ * so every recorded value is kept to within about 6% of its real value.
+ * Recording a value is a handful of integer operations and never allocates.
+ *
+ * <p>Only one thread may record into a histogram. Other threads may read it at any time,
+ * in which case the result can be off by the samples recorded during the read.
+ */
+public class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;			// 16 linear buckets per power of two
+	private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;				// values below 32 are exact
+	private static final int MAX_VALUE_BITS = 40;								// about 18 minutes, far beyond any tick
+	private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+	private static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_VALUE_BITS - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT;
+
+	private final long[] counts = new long[BUCKET_COUNT];
+
+	private volatile long totalCount = 0;
+	private volatile long minValue = Long.MAX_VALUE;
+	private volatile long maxValue = 0;
+	private double sum = 0.0;
+
+	/**
+	 * Records one latency.
+	 * @param valueNanos The latency in nanoseconds. Negative values are recorded as 0.
+	 */
+	public void record(long valueNanos)
+	{
+		long value = valueNanos < 0 ? 0 : (valueNanos > MAX_VALUE ? MAX_VALUE : valueNanos);
+
+		counts[indexOf(value)]++;
+		sum += value;
+		if (value < minValue)
+		{
+			minValue = value;
+		}
+		if (value > maxValue)
+		{
+			maxValue = value;
+		}
+		totalCount++;
+	}
+
+	/**
+	 * Clears the histogram. Must be called by the recording thread.
+	 */
+	public void reset()
+	{
+		for (int i = 0; i < counts.length; i++)
+		{
+			counts[i] = 0;
+		}
+		sum = 0.0;
+		minValue = Long.MAX_VALUE;
+		maxValue = 0;
+		totalCount = 0;
+	}
+
+	public long getTotalCount()
+	{
+		return totalCount;
+	}
+
+	public long getMin()
+	{
+		return totalCount == 0 ? 0 : minValue;
+	}
+
+	public long getMax()
+	{
+		return maxValue;
+	}
+
+	public double getMean()
+	{
+		long count = totalCount;
+		return count == 0 ? 0.0 : sum / count;
+	}
+
+	/**
+	 * Gets the latency below which the given percentage of samples fall.
+	 * @param percentile Percentile from 0 to 100, for example 99.0.
+	 * @return The upper bound of the bucket holding that percentile, in nanoseconds.
+	 */
+	public long getValueAtPercentile(double percentile)
+	{
+		long count = totalCount;
+		if (count == 0)
+		{
+			return 0;
+		}
+
+		long target = (long) Math.ceil(count * Math.min(percentile, 100.0) / 100.0);
+		if (target < 1)
+		{
+			target = 1;
+		}
+
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++)
+		{
+			seen += counts[i];
+			if (seen >= target)
+			{
+				return Math.min(highestValueIn(i), maxValue);
+			}
+		}
+		return maxValue;
+	}
+
+	/**
+	 * Adds every sample of another histogram to this one. Must be called by the recording thread.
+	 * @param other The histogram to add.
+	 */
+	public void add(LatencyHistogram other)
+	{
+		for (int i = 0; i < counts.length; i++)
+		{
+			counts[i] += other.counts[i];
+		}
+		sum += other.sum;
+		if (other.getTotalCount() > 0)
+		{
+			minValue = Math.min(minValue, other.minValue);
+			maxValue = Math.max(maxValue, other.maxValue);
+		}
+		totalCount += other.totalCount;
+	}
+
+	/**
+	 * Gets the number of buckets, for code that walks the raw counts.
+	 * @return Number of buckets.
+	 */
+	public static int getBucketCount()
+	{
+		return BUCKET_COUNT;
+	}
+
+	/**
+	 * Gets the number of samples in one bucket.
+	 * @param index Index of the bucket.
+	 * @return Number of samples.
+	 */
+	public long getCountAt(int index)
+	{
+		return counts[index];
+	}
+
+	/**
+	 * Gets the largest value that falls in a bucket.
+	 * @param index Index of the bucket.
+	 * @return Largest value of the bucket, in nanoseconds.
+	 */
+	public static long highestValueIn(int index)
+	{
+		if (index < LINEAR_LIMIT)
+		{
+			return index;
+		}
+		int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+		long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	private static int indexOf(long value)
+	{
+		if (value < LINEAR_LIMIT)
+		{
+			return (int) value;
+		}
+		int highestBit = 63 - Long.numberOfLeadingZeros(value);
+		int shift = highestBit - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+		return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("n=%d p50=%.1fus p99=%.1fus max=%.1fus",
+				getTotalCount(), getValueAtPercentile(50.0) / 1000.0, getValueAtPercentile(99.0) / 1000.0, getMax() / 1000.0);
+	}
+}
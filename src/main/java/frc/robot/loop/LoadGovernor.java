@@ -0,0 +1,137 @@
+package frc.robot.loop;
+
+/**
+ * Class to keep the control loop inside its time budget.
+ * The loop reports how long every tick took. When a tick overruns the budget, or the
+ * smoothed tick time gets close to it, the governor starts shedding: schedulers stop running
+ * diagnostic tasks and diagnostic printing is skipped. Once the smoothed tick time has stayed
+ * well under the budget for a while, diagnostics are allowed again.
+ *
+ * <p>Critical control work is never shed. Work is diagnostic if it is registered with a
+ * Scheduler at PRIORITY_DIAGNOSTIC or lower, or if it checks isDiagnosticsAllowed() first.
+ */
+public class LoadGovernor
+{
+	private long budgetNanos = (long) (Constants.DEFAULT_BUDGET * 1.0e9);
+	private double smoothedTickNanos = 0.0;
+	private int headroomTicks = 0;
+	private long shedStartNanos = 0;
+
+	private volatile boolean isShedding = false;
+	private volatile long shedEpisodeCount = 0;
+	private volatile long totalShedNanos = 0;
+
+	private static LoadGovernor instance = new LoadGovernor();
+
+	/**
+	 * Returns the singleton instance of LoadGovernor.
+	 * @return The singleton instance of LoadGovernor.
+	 */
+	public static LoadGovernor getInstance()
+	{
+		return instance;
+	}
+
+	private LoadGovernor()
+	{
+	}
+
+	/**
+	 * Sets the time budget of one tick, normally the loop period.
+	 * @param budget The budget in seconds.
+	 */
+	public void setBudget(double budget)
+	{
+		budgetNanos = (long) (budget * 1.0e9);
+	}
+
+	/**
+	 * Reports the execution time of a tick. Must be called by the loop thread at the end of every tick.
+	 * @param tickNanos How long the tick took, in nanoseconds.
+	 */
+	public void update(long tickNanos)
+	{
+		smoothedTickNanos += Constants.SMOOTHING * (tickNanos - smoothedTickNanos);
+
+		if (!isShedding)
+		{
+			if (tickNanos > budgetNanos || smoothedTickNanos > Constants.SHED_FRACTION * budgetNanos)
+			{
+				isShedding = true;
+				shedStartNanos = System.nanoTime();
+				shedEpisodeCount++;
+				headroomTicks = 0;
+			}
+		}
+		else if (smoothedTickNanos < Constants.RESTORE_FRACTION * budgetNanos)
+		{
+			headroomTicks++;
+			if (headroomTicks >= Constants.RESTORE_TICKS)
+			{
+				isShedding = false;
+				totalShedNanos += System.nanoTime() - shedStartNanos;
+			}
+		}
+		else
+		{
+			headroomTicks = 0;
+		}
+	}
+
+	/**
+	 * Checks if non-critical work such as debug printing may run this tick.
+	 * @return False while the governor is shedding load.
+	 */
+	public boolean isDiagnosticsAllowed()
+	{
+		return !isShedding;
+	}
+
+	public boolean isShedding()
+	{
+		return isShedding;
+	}
+
+	/**
+	 * Gets the number of times the governor started shedding.
+	 * @return Number of shedding episodes.
+	 */
+	public long getShedEpisodeCount()
+	{
+		return shedEpisodeCount;
+	}
+
+	/**
+	 * Gets the total time spent shedding, including the current episode.
+	 * @return Time spent shedding in nanoseconds.
+	 */
+	public long getTotalShedNanos()
+	{
+		return isShedding ? totalShedNanos + (System.nanoTime() - shedStartNanos) : totalShedNanos;
+	}
+
+	public double getSmoothedTickNanos()
+	{
+		return smoothedTickNanos;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("[LoadGovernor] budget=%.1fms smoothed tick=%.3fms shedding=%b episodes=%d time shed=%.1fms",
+				budgetNanos / 1.0e6, smoothedTickNanos / 1.0e6, isShedding(), getShedEpisodeCount(), getTotalShedNanos() / 1.0e6);
+	}
+
+	/**
+	 * Class for constant variables related to LoadGovernor.
+	 */
+	public static class Constants
+	{
+		public static final double DEFAULT_BUDGET = 0.02;
+
+		public static final double SMOOTHING = 0.1;			// weight of the newest tick in the smoothed tick time
+		public static final double SHED_FRACTION = 0.8;		// start shedding above 80% of the budget
+		public static final double RESTORE_FRACTION = 0.5;	// allow diagnostics again below 50% of the budget...
+		public static final int RESTORE_TICKS = 50;		// ...for this many ticks in a row
+	}
+}
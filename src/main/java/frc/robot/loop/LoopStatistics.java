@@ -0,0 +1,298 @@
+package frc.robot.loop;
+
+import frc.robot.jfr.JfrRecording;
+import frc.robot.jfr.LoopTickEvent;
+import frc.robot.util.Logger;
+
+/**
+ * Class to measure the timing of a periodic loop.
+ * Every tick records its actual period (start to start), its jitter
+ * (actual period minus expected period) and its execution time.
+ * A tick whose execution time exceeds the expected period is counted as an overrun.
+ * Every tick is also checked for memory allocation by an AllocationMonitor, and an overrun
+ * during which a garbage collection finished is counted separately, as paused by the GC.
+ * The periods and execution times are also kept in histograms that reset() does not clear,
+ * so the percentiles of a whole match can be worked out afterwards, such as by the MatchReport.
+ * While a JFR recording is running, every tick is also committed as a LoopTickEvent;
+ * the one event is reused for every tick, so recording does not allocate.
+ *
+ * <p>The loop thread is the only writer. The published values are volatile
+ * so they can be read live from any other thread without locking.
+ */
+public class LoopStatistics
+{
+	private static final Logger.Message OVERRUN_DURING_GC = new Logger.Message("[Loop] overrun tick of {} ms was paused by {} garbage collections taking {} ms");
+
+	private final long expectedPeriodNanos;
+	private final AllocationMonitor allocationMonitor = new AllocationMonitor();
+	private final GcMonitor gcMonitor = GcMonitor.getInstance();
+	private Thread loopThread = null;
+	private long tickStartCollections = 0;
+	private long tickStartCollectionMillis = 0;
+	private final LoopTickEvent tickEvent = new LoopTickEvent();
+	private boolean isTickEventStarted = false;
+
+	private long tickStartNanos = 0;
+	private long previousStartNanos = 0;
+	private long periodCount = 0;
+	private double sumPeriodNanos = 0.0;
+	private double sumAbsoluteJitterNanos = 0.0;
+	private final LatencyHistogram periodHistogram = new LatencyHistogram();
+	private final LatencyHistogram executionHistogram = new LatencyHistogram();
+
+	private volatile long tickCount = 0;
+	private volatile long overrunCount = 0;
+	private volatile long gcOverrunCount = 0;
+	private volatile long lastPeriodNanos = 0;
+	private volatile long lastJitterNanos = 0;
+	private volatile long lastExecutionNanos = 0;
+	private volatile long minPeriodNanos = Long.MAX_VALUE;
+	private volatile long maxPeriodNanos = 0;
+	private volatile long maxAbsoluteJitterNanos = 0;
+	private volatile long maxExecutionNanos = 0;
+	private volatile double meanPeriodNanos = 0.0;
+	private volatile double meanAbsoluteJitterNanos = 0.0;
+
+	/**
+	 * Constructor for LoopStatistics.
+	 * @param expectedPeriod The period the loop is supposed to run at, in seconds.
+	 */
+	public LoopStatistics(double expectedPeriod)
+	{
+		this.expectedPeriodNanos = (long) (expectedPeriod * 1.0e9);
+	}
+
+	/**
+	 * Marks the start of a tick. Must be called by the loop thread.
+	 * @param nowNanos The current value of System.nanoTime().
+	 */
+	public void startTick(long nowNanos)
+	{
+		if (Thread.currentThread() != loopThread)
+		{
+			// the loop can move to another thread when the loop mode changes
+			loopThread = Thread.currentThread();
+			gcMonitor.watchCurrentThread("control");
+		}
+		allocationMonitor.startTick();
+		tickStartNanos = nowNanos;
+		tickStartCollections = gcMonitor.getCollectionCount();
+		tickStartCollectionMillis = gcMonitor.getCollectionMillis();
+
+		if (previousStartNanos != 0)
+		{
+			long period = nowNanos - previousStartNanos;
+			long jitter = period - expectedPeriodNanos;
+			long absoluteJitter = Math.abs(jitter);
+
+			periodCount++;			// not tickCount: the first tick, and a tick interrupted by reset(), have no period
+			sumPeriodNanos += period;
+			periodHistogram.record(period);
+			sumAbsoluteJitterNanos += absoluteJitter;
+
+			lastPeriodNanos = period;
+			lastJitterNanos = jitter;
+			if (period < minPeriodNanos)
+			{
+				minPeriodNanos = period;
+			}
+			if (period > maxPeriodNanos)
+			{
+				maxPeriodNanos = period;
+			}
+			if (absoluteJitter > maxAbsoluteJitterNanos)
+			{
+				maxAbsoluteJitterNanos = absoluteJitter;
+			}
+			meanPeriodNanos = sumPeriodNanos / periodCount;
+			meanAbsoluteJitterNanos = sumAbsoluteJitterNanos / periodCount;
+		}
+		previousStartNanos = nowNanos;
+
+		if (JfrRecording.isRecording())
+		{
+			tickEvent.begin();
+			isTickEventStarted = true;
+		}
+	}
+
+	/**
+	 * Marks the end of a tick. Must be called by the loop thread.
+	 * @param nowNanos The current value of System.nanoTime().
+	 * @return True if this tick overran the expected period.
+	 */
+	public boolean endTick(long nowNanos)
+	{
+		allocationMonitor.endTick();
+		long execution = nowNanos - tickStartNanos;
+		boolean isOverrun = execution > expectedPeriodNanos;
+
+		lastExecutionNanos = execution;
+		executionHistogram.record(execution);
+		if (execution > maxExecutionNanos)
+		{
+			maxExecutionNanos = execution;
+		}
+		if (isOverrun)
+		{
+			overrunCount++;
+			long collections = gcMonitor.getCollectionCount() - tickStartCollections;
+			gcMonitor.countOverrun(collections > 0);
+			if (collections > 0)
+			{
+				gcOverrunCount++;
+				long collectionMillis = gcMonitor.getCollectionMillis() - tickStartCollectionMillis;
+				Logger.begin(OVERRUN_DURING_GC).add(execution / 1.0e6).add(collections).add(collectionMillis).commit();
+			}
+		}
+		tickCount++;
+
+		if (isTickEventStarted)
+		{
+			tickEvent.end();
+			tickEvent.set(lastPeriodNanos, isOverrun, gcMonitor.getCollectionCount() - tickStartCollections);
+			tickEvent.commit();
+			isTickEventStarted = false;
+		}
+
+		return isOverrun;
+	}
+
+	/**
+	 * Clears all measurements but the histograms, for example when switching robot modes.
+	 * Must be called by the loop thread.
+	 */
+	public void reset()
+	{
+		allocationMonitor.reset();
+		previousStartNanos = 0;
+		periodCount = 0;
+		sumPeriodNanos = 0.0;
+		sumAbsoluteJitterNanos = 0.0;
+
+		tickCount = 0;
+		overrunCount = 0;
+		gcOverrunCount = 0;
+		lastPeriodNanos = 0;
+		lastJitterNanos = 0;
+		lastExecutionNanos = 0;
+		minPeriodNanos = Long.MAX_VALUE;
+		maxPeriodNanos = 0;
+		maxAbsoluteJitterNanos = 0;
+		maxExecutionNanos = 0;
+		meanPeriodNanos = 0.0;
+		meanAbsoluteJitterNanos = 0.0;
+	}
+
+	public long getExpectedPeriodNanos()
+	{
+		return expectedPeriodNanos;
+	}
+
+	public long getTickCount()
+	{
+		return tickCount;
+	}
+
+	public long getOverrunCount()
+	{
+		return overrunCount;
+	}
+
+	/**
+	 * Gets the number of overruns during which a garbage collection finished.
+	 * @return Number of overruns paused by the GC.
+	 */
+	public long getGcOverrunCount()
+	{
+		return gcOverrunCount;
+	}
+
+	public long getLastPeriodNanos()
+	{
+		return lastPeriodNanos;
+	}
+
+	/**
+	 * Gets how late (positive) or early (negative) the last tick started.
+	 * @return Jitter of the last tick in nanoseconds.
+	 */
+	public long getLastJitterNanos()
+	{
+		return lastJitterNanos;
+	}
+
+	public long getLastExecutionNanos()
+	{
+		return lastExecutionNanos;
+	}
+
+	public long getMinPeriodNanos()
+	{
+		return minPeriodNanos == Long.MAX_VALUE ? 0 : minPeriodNanos;
+	}
+
+	public long getMaxPeriodNanos()
+	{
+		return maxPeriodNanos;
+	}
+
+	public long getMaxAbsoluteJitterNanos()
+	{
+		return maxAbsoluteJitterNanos;
+	}
+
+	public long getMaxExecutionNanos()
+	{
+		return maxExecutionNanos;
+	}
+
+	public double getMeanPeriodNanos()
+	{
+		return meanPeriodNanos;
+	}
+
+	public double getMeanAbsoluteJitterNanos()
+	{
+		return meanAbsoluteJitterNanos;
+	}
+
+	/**
+	 * Gets the periods of every tick since the loop started. Not cleared by reset().
+	 * Can be read from any thread, off by the ticks recorded during the read.
+	 * @return The histogram of periods.
+	 */
+	public LatencyHistogram getPeriodHistogram()
+	{
+		return periodHistogram;
+	}
+
+	/**
+	 * Gets the execution times of every tick since the loop started. Not cleared by reset().
+	 * Can be read from any thread, off by the ticks recorded during the read.
+	 * @return The histogram of execution times.
+	 */
+	public LatencyHistogram getExecutionHistogram()
+	{
+		return executionHistogram;
+	}
+
+	/**
+	 * Gets the allocation check of the loop's ticks.
+	 * @return The allocation monitor.
+	 */
+	public AllocationMonitor getAllocationMonitor()
+	{
+		return allocationMonitor;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("[Loop] ticks=%d overruns=%d (%d during GC) period(ms) expected=%.2f mean=%.3f min=%.3f max=%.3f jitter(ms) last=%.3f mean=%.3f max=%.3f execution(ms) last=%.3f max=%.3f",
+				getTickCount(), getOverrunCount(), getGcOverrunCount(),
+				getExpectedPeriodNanos() / 1.0e6, getMeanPeriodNanos() / 1.0e6, getMinPeriodNanos() / 1.0e6, getMaxPeriodNanos() / 1.0e6,
+				getLastJitterNanos() / 1.0e6, getMeanAbsoluteJitterNanos() / 1.0e6, getMaxAbsoluteJitterNanos() / 1.0e6,
+				getLastExecutionNanos() / 1.0e6, getMaxExecutionNanos() / 1.0e6);
+	}
+}
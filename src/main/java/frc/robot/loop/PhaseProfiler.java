@@ -0,0 +1,202 @@
+package frc.robot.loop;
+
+import frc.robot.util.Logger;
+
+/**
+ * Class to time the phases of a component's periodic method.
+ * Each call is split into a sense phase (reading controllers and sensors),
+ * a compute phase (deciding what to do) and an actuate phase (commanding motors),
+ * and the time spent in each phase goes into its own LatencyHistogram.
+ *
+ * <p>Usage from the periodic method:
+ * <pre>
+ * profiler.startSense();
+ * ...read inputs...
+ * profiler.startCompute();
+ * ...decide...
+ * profiler.startActuate();
+ * ...set outputs...
+ * profiler.end();
+ * </pre>
+ * A phase that is skipped (for example, no compute phase) simply records 0.
+ * Each mark costs one System.nanoTime() call and one histogram update.
+ * The phases are also recorded as spans by the Tracer, from the same times.
+ */
+public class PhaseProfiler
+{
+	private static final PhaseProfiler[] profilers = new PhaseProfiler[Constants.MAX_PROFILERS];
+	private static int profilerCount = 0;
+
+	private final String name;
+	private final LatencyHistogram sense = new LatencyHistogram();
+	private final LatencyHistogram compute = new LatencyHistogram();
+	private final LatencyHistogram actuate = new LatencyHistogram();
+	private final LatencyHistogram total = new LatencyHistogram();
+	private final int senseTraceId;
+	private final int computeTraceId;
+	private final int actuateTraceId;
+
+	private long startNanos;
+	private long computeNanos;
+	private long actuateNanos;
+
+	/**
+	 * Constructor for PhaseProfiler.
+	 * The profiler is added to the list printed by printReport().
+	 * @param name Name of the profiled method, for example "Drivetrain.teleop".
+	 */
+	public PhaseProfiler(String name)
+	{
+		this.name = name;
+		senseTraceId = Tracer.register("phase", name + ".sense");
+		computeTraceId = Tracer.register("phase", name + ".compute");
+		actuateTraceId = Tracer.register("phase", name + ".actuate");
+
+		synchronized (profilers)
+		{
+			if (profilerCount < profilers.length)
+			{
+				profilers[profilerCount++] = this;
+			}
+		}
+	}
+
+	/**
+	 * Marks the start of the sense phase, which is the start of the call.
+	 */
+	public void startSense()
+	{
+		startNanos = System.nanoTime();
+		computeNanos = 0;
+		actuateNanos = 0;
+	}
+
+	/**
+	 * Marks the end of the sense phase and the start of the compute phase.
+	 */
+	public void startCompute()
+	{
+		computeNanos = System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of the compute phase and the start of the actuate phase.
+	 */
+	public void startActuate()
+	{
+		actuateNanos = System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of the call and records the time of every phase.
+	 */
+	public void end()
+	{
+		if (!Constants.ENABLED)
+		{
+			return;
+		}
+
+		long endNanos = System.nanoTime();
+		long computeStart = computeNanos != 0 ? computeNanos : (actuateNanos != 0 ? actuateNanos : endNanos);
+		long actuateStart = actuateNanos != 0 ? actuateNanos : endNanos;
+
+		sense.record(computeStart - startNanos);
+		compute.record(actuateStart - computeStart);
+		actuate.record(endNanos - actuateStart);
+		total.record(endNanos - startNanos);
+
+		if (computeStart > startNanos)
+		{
+			Tracer.record(senseTraceId, startNanos, computeStart);
+		}
+		if (actuateStart > computeStart)
+		{
+			Tracer.record(computeTraceId, computeStart, actuateStart);
+		}
+		if (endNanos > actuateStart)
+		{
+			Tracer.record(actuateTraceId, actuateStart, endNanos);
+		}
+	}
+
+	/**
+	 * Clears all histograms. Must be called by the thread that runs the profiled method.
+	 */
+	public void reset()
+	{
+		sense.reset();
+		compute.reset();
+		actuate.reset();
+		total.reset();
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public LatencyHistogram getSense()
+	{
+		return sense;
+	}
+
+	public LatencyHistogram getCompute()
+	{
+		return compute;
+	}
+
+	public LatencyHistogram getActuate()
+	{
+		return actuate;
+	}
+
+	public LatencyHistogram getTotal()
+	{
+		return total;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "[PhaseProfiler] " + name + "\n\tsense:   " + sense + "\n\tcompute: " + compute + "\n\tactuate: " + actuate + "\n\ttotal:   " + total;
+	}
+
+	/**
+	 * Prints the histograms of every profiler that has been created.
+	 */
+	public static void printReport()
+	{
+		synchronized (profilers)
+		{
+			for (int i = 0; i < profilerCount; i++)
+			{
+				Logger.println(profilers[i].toString());
+			}
+		}
+	}
+
+	/**
+	 * Resets every profiler that has been created.
+	 * Must be called by the thread that runs the profiled methods.
+	 */
+	public static void resetAll()
+	{
+		synchronized (profilers)
+		{
+			for (int i = 0; i < profilerCount; i++)
+			{
+				profilers[i].reset();
+			}
+		}
+	}
+
+	/**
+	 * Class for constant variables related to PhaseProfiler.
+	 */
+	public static class Constants
+	{
+		public static final boolean ENABLED = true;
+		public static final int MAX_PROFILERS = 16;
+	}
+}
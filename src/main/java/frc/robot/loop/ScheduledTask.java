@@ -0,0 +1,187 @@
+package frc.robot.loop;
+
+/**
+ * Class to represent one piece of periodic work registered with a Scheduler.
+ * Holds the task's period and priority along with the statistics the scheduler
+ * keeps about it. The statistics are only written by the loop thread.
+ */
+public class ScheduledTask
+{
+	private final String name;
+	private final Runnable action;
+	private final long periodNanos;
+	private final int priority;
+	private final int registrationOrder;
+	private final int traceId;
+
+	long nextDueNanos = 0;
+
+	private volatile long runCount = 0;
+	private volatile long lateCount = 0;
+	private volatile long skippedCount = 0;
+	private volatile long maxLatenessNanos = 0;
+	private volatile long lastExecutionNanos = 0;
+	private volatile long maxExecutionNanos = 0;
+	private volatile long shedCount = 0;
+
+	ScheduledTask(String name, Runnable action, long periodNanos, int priority, int registrationOrder)
+	{
+		this.name = name;
+		this.action = action;
+		this.periodNanos = periodNanos;
+		this.priority = priority;
+		this.registrationOrder = registrationOrder;
+		this.traceId = Tracer.register("task", name);
+	}
+
+	/**
+	 * Runs the task and records how long it took, and the span for the Tracer.
+	 * @param startNanos The current value of System.nanoTime().
+	 */
+	void run(long startNanos)
+	{
+		action.run();
+
+		long endNanos = System.nanoTime();
+		long execution = endNanos - startNanos;
+		Tracer.record(traceId, startNanos, endNanos);
+		lastExecutionNanos = execution;
+		if (execution > maxExecutionNanos)
+		{
+			maxExecutionNanos = execution;
+		}
+		runCount++;
+	}
+
+	/**
+	 * Records how late the task started compared to when it was due.
+	 * @param latenessNanos Time between the due time and the actual start.
+	 * @param skipped Number of whole periods that were missed.
+	 * @param isLate If the lateness was over the tolerance.
+	 */
+	void recordLateness(long latenessNanos, long skipped, boolean isLate)
+	{
+		if (latenessNanos > maxLatenessNanos)
+		{
+			maxLatenessNanos = latenessNanos;
+		}
+		if (isLate)
+		{
+			lateCount++;
+		}
+		skippedCount += skipped;
+	}
+
+	/**
+	 * Records that the task was due but was not run because the loop was shedding load.
+	 */
+	void recordShed()
+	{
+		shedCount++;
+	}
+
+	void resetStatistics()
+	{
+		nextDueNanos = 0;
+		runCount = 0;
+		lateCount = 0;
+		skippedCount = 0;
+		maxLatenessNanos = 0;
+		lastExecutionNanos = 0;
+		maxExecutionNanos = 0;
+		shedCount = 0;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public long getPeriodNanos()
+	{
+		return periodNanos;
+	}
+
+	public int getPriority()
+	{
+		return priority;
+	}
+
+	/**
+	 * Checks if the task is diagnostic work that may be shed when the loop runs out of time.
+	 * @return True if the task was registered at PRIORITY_DIAGNOSTIC or lower.
+	 */
+	public boolean isDiagnostic()
+	{
+		return priority <= Scheduler.Constants.PRIORITY_DIAGNOSTIC;
+	}
+
+	int getRegistrationOrder()
+	{
+		return registrationOrder;
+	}
+
+	public long getRunCount()
+	{
+		return runCount;
+	}
+
+	/**
+	 * Gets the number of times the task started more than half a period after it was due.
+	 * @return Number of late executions.
+	 */
+	public long getLateCount()
+	{
+		return lateCount;
+	}
+
+	/**
+	 * Gets the number of periods in which the task was due but never ran.
+	 * @return Number of skipped executions.
+	 */
+	public long getSkippedCount()
+	{
+		return skippedCount;
+	}
+
+	public long getMaxLatenessNanos()
+	{
+		return maxLatenessNanos;
+	}
+
+	public long getLastExecutionNanos()
+	{
+		return lastExecutionNanos;
+	}
+
+	public long getMaxExecutionNanos()
+	{
+		return maxExecutionNanos;
+	}
+
+	/**
+	 * Gets the number of times the task was dropped by the LoadGovernor.
+	 * @return Number of shed executions.
+	 */
+	public long getShedCount()
+	{
+		return shedCount;
+	}
+
+	/**
+	 * Gets how long the task has been shed for, counted in whole periods.
+	 * @return Time shed in nanoseconds.
+	 */
+	public long getShedNanos()
+	{
+		return shedCount * periodNanos;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%-24s period=%6.1fms priority=%2d runs=%6d late=%4d skipped=%4d shed=%4d (%.0fms) maxLateness=%6.2fms execution(ms) last=%.3f max=%.3f",
+				name, periodNanos / 1.0e6, priority, getRunCount(), getLateCount(), getSkippedCount(), getShedCount(), getShedNanos() / 1.0e6,
+				getMaxLatenessNanos() / 1.0e6, getLastExecutionNanos() / 1.0e6, getMaxExecutionNanos() / 1.0e6);
+	}
+}
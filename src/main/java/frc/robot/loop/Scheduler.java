@@ -0,0 +1,160 @@
+package frc.robot.loop;
+
+import frc.robot.util.Logger;
+
+/**
+ * Class to run periodic tasks at different rates from a single loop.
+ * The scheduler is called once per loop tick. Every registered task has its own period
+ * and priority; the tasks that are due run in priority order (highest first), with
+ * tasks of equal priority running in the order they were registered.
+ * A task whose period is shorter than the loop period runs every tick.
+ *
+ * <p>The scheduler keeps track of late executions (a task starting more than half of
+ * its period after it was due) and skipped executions (whole periods in which a task
+ * was due but the loop did not get to it).
+ *
+ * <p>Tasks registered at PRIORITY_DIAGNOSTIC or lower are diagnostics: while the LoadGovernor
+ * is shedding load they are dropped instead of run, and counted as shed.
+ */
+public class Scheduler
+{
+	private final String name;
+	private final long basePeriodNanos;
+	private final ScheduledTask[] tasks = new ScheduledTask[Constants.MAX_TASKS];
+	private int taskCount = 0;
+
+	private LoadGovernor governor = LoadGovernor.getInstance();
+
+	/**
+	 * Constructor for Scheduler.
+	 * @param name Name of the scheduler, used when printing the report.
+	 * @param basePeriod Period at which run() will be called, in seconds.
+	 */
+	public Scheduler(String name, double basePeriod)
+	{
+		this.name = name;
+		this.basePeriodNanos = (long) (basePeriod * 1.0e9);
+	}
+
+	/**
+	 * Registers a task with the scheduler. Must be called before the loop starts calling run().
+	 * @param taskName Name of the task.
+	 * @param action The code to run.
+	 * @param period How often the task should run, in seconds.
+	 * @param priority Priority of the task. Higher priority tasks run first.
+	 * @return The registered task, which can be used to read its statistics.
+	 */
+	public synchronized ScheduledTask register(String taskName, Runnable action, double period, int priority)
+	{
+		if (taskCount >= tasks.length)
+		{
+			throw new IllegalStateException("[Scheduler] Too many tasks registered with " + name);
+		}
+
+		long periodNanos = Math.max((long) (period * 1.0e9), basePeriodNanos);
+		ScheduledTask task = new ScheduledTask(taskName, action, periodNanos, priority, taskCount);
+
+		// insertion sort keeps tasks ordered by priority, then by registration
+		int i = taskCount;
+		while (i > 0 && tasks[i - 1].getPriority() < priority)
+		{
+			tasks[i] = tasks[i - 1];
+			i--;
+		}
+		tasks[i] = task;
+		taskCount++;
+
+		return task;
+	}
+
+	/**
+	 * Runs every task that is due. Called once per loop tick.
+	 */
+	public void run()
+	{
+		long halfBasePeriod = basePeriodNanos / 2;
+		boolean isShedding = governor.isShedding();
+
+		for (int i = 0; i < taskCount; i++)
+		{
+			ScheduledTask task = tasks[i];
+			long now = System.nanoTime();
+
+			if (task.nextDueNanos == 0)
+			{
+				// first run since reset: start the schedule from now
+				task.nextDueNanos = now;
+			}
+
+			if (now + halfBasePeriod >= task.nextDueNanos)
+			{
+				long period = task.getPeriodNanos();
+				long lateness = Math.max(now - task.nextDueNanos, 0);
+				long skipped = lateness / period;
+
+				task.nextDueNanos += (skipped + 1) * period;
+				if (isShedding && task.isDiagnostic())
+				{
+					task.recordShed();
+				}
+				else
+				{
+					task.recordLateness(lateness, skipped, lateness > period / 2);
+					task.run(now);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restarts the schedule and clears the statistics of every task, for example when changing modes.
+	 */
+	public void reset()
+	{
+		for (int i = 0; i < taskCount; i++)
+		{
+			tasks[i].resetStatistics();
+		}
+	}
+
+	public int getTaskCount()
+	{
+		return taskCount;
+	}
+
+	/**
+	 * Gets a registered task in the order the scheduler runs them.
+	 * @param index Index of the task.
+	 * @return The task.
+	 */
+	public ScheduledTask getTask(int index)
+	{
+		return tasks[index];
+	}
+
+	/**
+	 * Prints the statistics of every registered task.
+	 */
+	public void printReport()
+	{
+		StringBuilder report = new StringBuilder("[Scheduler] " + name + " tasks:");
+		for (int i = 0; i < taskCount; i++)
+		{
+			report.append("\n\t").append(tasks[i]);
+		}
+		Logger.println(report.toString());
+	}
+
+	/**
+	 * Class for constant variables related to Scheduler.
+	 */
+	public static class Constants
+	{
+		public static final int MAX_TASKS = 16;
+
+		public static final int PRIORITY_CONTROL = 10;		// closed-loop control, e.g. drivetrain heading
+		public static final int PRIORITY_MECHANISM = 5;		// operator-driven mechanisms
+		public static final int PRIORITY_RECORDING = 2;		// match recording, after the mechanisms have set their outputs
+		public static final int PRIORITY_DIAGNOSTIC = 0;	// console output and debugging
+	}
+}
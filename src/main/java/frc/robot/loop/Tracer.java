@@ -0,0 +1,360 @@
+package frc.robot.loop;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import frc.robot.telemetry.TelemetryRecorder;
+import frc.robot.util.Logger;
+import frc.robot.util.ThreadPriorities;
+
+/**
+ * Class to record spans of the control loop, such as each scheduled task, each phase of a
+ * component's periodic method, each CAN and I2C read and each autonomous stage, and to write
+ * them as Chrome trace-event JSON, which chrome://tracing and ui.perfetto.dev open as a timeline.
+ * The histograms tell that a tick was slow; the timeline shows where its time went.
+ *
+ * <p>Span names are registered once, as constants, and a span is recorded when it ends:
+ * <pre>
+ * private static final int READ_ENCODER = Tracer.register("CAN", "Drivetrain.getEncoderDistance");
+ * ...
+ * long start = Tracer.start();
+ * ...read the encoder...
+ * Tracer.end(READ_ENCODER, start);
+ * </pre>
+ * Code that already has its start and end times, like the Scheduler, calls record() instead.
+ *
+ * <p>Spans go into a preallocated ring of CAPACITY spans that any thread can write to without
+ * locking or allocating; when it is full the oldest spans are overwritten. Nothing is recorded
+ * unless ENABLED is true and a section is open: startSection("autonomous") opens one, and the
+ * next startSection() hands it to a writer thread, which writes trace-NNNN.json next to the
+ * match logs. Without a section, start() does not even read the clock.
+ */
+public class Tracer
+{
+	private static final int MASK = Constants.CAPACITY - 1;
+	private static final int SIZE = Constants.ENABLED ? Constants.CAPACITY : 0;
+
+	private static final String[] names = new String[Constants.MAX_NAMES];
+	private static final String[] categories = new String[Constants.MAX_NAMES];
+	private static int nameCount = 0;
+	private static final String[] trackNames = new String[Constants.MAX_TRACKS];
+	private static int trackCount = 0;
+
+	// one span per slot; a slot's sequence is its span's index once the span is complete, -1 while it is written
+	private static final long[] spanStarts = new long[SIZE];
+	private static final long[] spanDurations = new long[SIZE];
+	private static final long[] spanTracks = new long[SIZE];
+	private static final int[] spanNames = new int[SIZE];
+	private static final AtomicLongArray sequences = new AtomicLongArray(SIZE);
+	private static final AtomicLong head = new AtomicLong();
+
+	private static volatile boolean isRecording = false;
+	private static String sectionLabel = null;			// used by the thread that calls startSection() only
+	private static long sectionStart = 0;
+	private static final AtomicReference<Section> pendingSection = new AtomicReference<>();
+	private static Thread writer = null;
+	private static volatile int traceCount = 0;
+	private static volatile String lastTraceName = null;
+
+	static
+	{
+		for (int i = 0; i < SIZE; i++)
+		{
+			sequences.set(i, -1);
+		}
+	}
+
+	private Tracer()
+	{
+	}
+
+	/**
+	 * Registers the name of a span. Call it once per name, from a static initializer.
+	 * @param category The kind of span, such as "task", "CAN" or "I2C". Viewers can filter on it.
+	 * @param name The name of the span, such as "Drivetrain.getEncoderDistance".
+	 * @return The id to record the span with.
+	 */
+	public static synchronized int register(String category, String name)
+	{
+		for (int i = 0; i < nameCount; i++)
+		{
+			if (names[i].equals(name) && categories[i].equals(category))
+			{
+				return i;
+			}
+		}
+		if (nameCount == names.length)
+		{
+			Logger.println("[Tracer] too many span names, not tracing " + name);
+			return -1;
+		}
+		names[nameCount] = name;
+		categories[nameCount] = category;
+		return nameCount++;
+	}
+
+	/**
+	 * Registers a row of the timeline that is not a thread, for spans that overlap the thread's
+	 * own spans, like the autonomous stages.
+	 * @param name The name of the row, such as "AutoStage".
+	 * @return The track to record the spans on.
+	 */
+	public static synchronized long registerTrack(String name)
+	{
+		if (trackCount == trackNames.length)
+		{
+			Logger.println("[Tracer] too many tracks, " + name + " shares the last one");
+			return Constants.FIRST_TRACK + trackCount - 1;
+		}
+		trackNames[trackCount] = name;
+		return Constants.FIRST_TRACK + trackCount++;
+	}
+
+	/**
+	 * Gets the start time of a span, if spans are being recorded.
+	 * @return The current System.nanoTime(), or 0 if nothing is recorded.
+	 */
+	public static long start()
+	{
+		return isRecording ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records a span of the calling thread that ends now.
+	 * @param id The id from register().
+	 * @param startNanos The time from start().
+	 */
+	public static void end(int id, long startNanos)
+	{
+		if (startNanos != 0)
+		{
+			record(id, Thread.currentThread().getId(), startNanos, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Records a span of the calling thread whose times are already known.
+	 * @param id The id from register().
+	 * @param startNanos The System.nanoTime() the span started at.
+	 * @param endNanos The System.nanoTime() the span ended at.
+	 */
+	public static void record(int id, long startNanos, long endNanos)
+	{
+		if (isRecording)
+		{
+			record(id, Thread.currentThread().getId(), startNanos, endNanos);
+		}
+	}
+
+	/**
+	 * Records a span on a track from registerTrack(), or on a thread.
+	 * Can be called from any thread. Does not lock or allocate.
+	 * @param id The id from register().
+	 * @param track The track from registerTrack(), or a thread id.
+	 * @param startNanos The System.nanoTime() the span started at.
+	 * @param endNanos The System.nanoTime() the span ended at.
+	 */
+	public static void record(int id, long track, long startNanos, long endNanos)
+	{
+		if (!isRecording || id < 0)
+		{
+			return;
+		}
+
+		long index = head.getAndIncrement();
+		int slot = (int) (index & MASK);
+		// the writer thread may be reading the span this one overwrites, so it is marked as changing first
+		sequences.set(slot, -1);
+		VarHandle.storeStoreFence();
+		spanStarts[slot] = startNanos;
+		spanDurations[slot] = endNanos - startNanos;
+		spanTracks[slot] = track;
+		spanNames[slot] = id;
+		sequences.lazySet(slot, index);
+	}
+
+	/**
+	 * Closes the current section, which is written to a file if it was recorded, and opens a new one.
+	 * Called by the control thread when the robot changes modes.
+	 * @param label What the new section is, such as "autonomous", or null to stop recording.
+	 */
+	public static void startSection(String label)
+	{
+		if (!Constants.ENABLED)
+		{
+			return;
+		}
+
+		long end = head.get();
+		if (sectionLabel != null && end > sectionStart)
+		{
+			if (pendingSection.getAndSet(new Section(sectionLabel, sectionStart, end)) != null)
+			{
+				Logger.println("[Tracer] the previous section was not written yet, it was dropped");
+			}
+			startWriter();
+			LockSupport.unpark(writer);
+		}
+		sectionLabel = label;
+		sectionStart = end;
+		isRecording = (label != null);
+	}
+
+	private static synchronized void startWriter()
+	{
+		if (writer == null)
+		{
+			writer = new Thread(Tracer::write, "Tracer");
+			writer.setDaemon(true);
+			writer.start();
+		}
+	}
+
+	/**
+	 * Runs on the writer thread: writes every section that is handed to it.
+	 */
+	private static void write()
+	{
+		ThreadPriorities.setBackgroundPriority("trace writer");
+
+		while (true)
+		{
+			Section section = pendingSection.getAndSet(null);
+			if (section == null)
+			{
+				LockSupport.park();
+				continue;
+			}
+
+			try
+			{
+				write(section);
+			}
+			catch (IOException e)
+			{
+				Logger.println("[Tracer] could not write the trace: " + e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the spans of a section that are still in the ring as trace-event JSON.
+	 */
+	private static void write(Section section) throws IOException
+	{
+		File directory = TelemetryRecorder.getDirectory();
+		if (!directory.isDirectory() && !directory.mkdirs())
+		{
+			throw new IOException("cannot create " + directory);
+		}
+		TelemetryRecorder.deleteOldFiles(directory, Constants.FILE_PREFIX, Constants.FILE_EXTENSION, Constants.MAX_TRACES);
+		File file = new File(directory, String.format("%s%04d%s", Constants.FILE_PREFIX,
+				TelemetryRecorder.getNextFileNumber(directory, Constants.FILE_PREFIX, Constants.FILE_EXTENSION), Constants.FILE_EXTENSION));
+
+		// the ring only holds the newest CAPACITY spans, and the next section is already overwriting the oldest
+		long first = Math.max(section.start, section.end - Constants.CAPACITY);
+		long spanCount = 0;
+		TreeSet<Long> usedTracks = new TreeSet<>();
+
+		try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))
+		{
+			out.write("{\"displayTimeUnit\":\"ms\",\"otherData\":{\"section\":\"" + section.label + "\"},\"traceEvents\":[\n");
+			out.write("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"args\":{\"name\":\"robot " + section.label + "\"}}");
+			for (long index = first; index < section.end; index++)
+			{
+				int slot = (int) (index & MASK);
+				if (sequences.get(slot) != index)
+				{
+					continue;
+				}
+				long start = spanStarts[slot];
+				long duration = spanDurations[slot];
+				long track = spanTracks[slot];
+				int id = spanNames[slot];
+				VarHandle.loadLoadFence();
+				if (sequences.get(slot) != index)
+				{
+					continue;
+				}
+
+				out.write(String.format(",%n{\"name\":\"%s\",\"cat\":\"%s\",\"ph\":\"X\",\"pid\":1,\"tid\":%d,\"ts\":%.3f,\"dur\":%.3f}",
+						names[id], categories[id], track, start / 1000.0, duration / 1000.0));
+				usedTracks.add(track);
+				spanCount++;
+			}
+
+			Map<Long, String> threadNames = new HashMap<>();
+			for (Thread thread : Thread.getAllStackTraces().keySet())
+			{
+				threadNames.put(thread.getId(), thread.getName());
+			}
+			for (long track : usedTracks)
+			{
+				String name = (track >= Constants.FIRST_TRACK) ? trackNames[(int) (track - Constants.FIRST_TRACK)]
+						: threadNames.getOrDefault(track, "thread " + track);
+				out.write(String.format(",%n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":%d,\"args\":{\"name\":\"%s\"}}", track, name));
+				// the tracks after the threads, in the order they were registered
+				long sortIndex = (track >= Constants.FIRST_TRACK) ? track : 0;
+				out.write(String.format(",%n{\"name\":\"thread_sort_index\",\"ph\":\"M\",\"pid\":1,\"tid\":%d,\"args\":{\"sort_index\":%d}}", track, sortIndex));
+			}
+			out.write("\n]}\n");
+		}
+
+		traceCount++;
+		lastTraceName = file.getPath();
+		Logger.println(String.format("[Tracer] wrote %d spans of %s to %s (%d overwritten)", spanCount, section.label, file, section.end - section.start - spanCount));
+	}
+
+	/**
+	 * Gets a summary of the tracer, for printing.
+	 * @return The number of traces written and the newest one.
+	 */
+	public static String getStatus()
+	{
+		return String.format("[Tracer] %s, %d traces written, last trace %s", Constants.ENABLED ? "enabled" : "disabled",
+				traceCount, (lastTraceName == null) ? "none" : lastTraceName);
+	}
+
+	/**
+	 * Class for a section of spans waiting for the writer thread.
+	 */
+	private static class Section
+	{
+		private final String label;
+		private final long start;
+		private final long end;
+
+		private Section(String label, long start, long end)
+		{
+			this.label = label;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	/**
+	 * Class for constant variables related to Tracer.
+	 */
+	public static class Constants
+	{
+		public static final boolean ENABLED = false;			// turn on to trace each autonomous and teleop
+		public static final int CAPACITY = 65536;				// spans, must be a power of 2; about 50 s of 20 ms ticks
+		public static final int MAX_NAMES = 256;
+		public static final int MAX_TRACKS = 16;
+		public static final long FIRST_TRACK = 1000000;		// above any thread id
+		public static final String FILE_PREFIX = "trace-";
+		public static final String FILE_EXTENSION = ".json";
+		public static final int MAX_TRACES = 20;				// oldest traces are deleted
+	}
+}
@@ -0,0 +1,143 @@
+package frc.robot.loop;
+
+import frc.robot.util.Logger;
+
+/**
+ * Class to warm up the JIT compiler before the robot is enabled.
+ * The first calls to any method run in the interpreter, which would make the first seconds of
+ * autonomous the slowest. While the robot is disabled, run() is called every tick and calls each
+ * registered warm-up round a limited number of times, until every round has been called enough
+ * times to be compiled. The rounds must never move a motor.
+ *
+ * <p>The time of the first (interpreted) call of each round is kept, along with the mean time of
+ * the last calls, so the report shows how much faster the compiled code is.
+ */
+public class WarmUp
+{
+	private final Entry[] entries = new Entry[Constants.MAX_ROUNDS];
+	private int entryCount = 0;
+	private boolean isDone = false;
+
+	/**
+	 * Registers a warm-up round.
+	 * @param name Name of the round, used when printing the report.
+	 * @param round The code to run. Must not move any motors.
+	 * @param iterations How many times to run the round.
+	 */
+	public synchronized void register(String name, Runnable round, int iterations)
+	{
+		if (entryCount >= entries.length)
+		{
+			throw new IllegalStateException("[WarmUp] Too many warm-up rounds registered");
+		}
+		entries[entryCount] = new Entry(name, round, iterations);
+		entryCount++;
+		isDone = false;
+	}
+
+	/**
+	 * Runs warm-up rounds for at most TICK_BUDGET seconds. Called once per disabled tick.
+	 * @return True if every round has run all of its iterations.
+	 */
+	public boolean run()
+	{
+		if (isDone)
+		{
+			return true;
+		}
+
+		long deadline = System.nanoTime() + (long) (Constants.TICK_BUDGET * 1.0e9);
+		boolean isAllDone = true;
+		for (int i = 0; i < entryCount; i++)
+		{
+			Entry entry = entries[i];
+			while (entry.completedIterations < entry.iterations && System.nanoTime() < deadline)
+			{
+				entry.runOnce();
+			}
+			if (entry.completedIterations < entry.iterations)
+			{
+				isAllDone = false;
+			}
+		}
+
+		isDone = isAllDone;
+		return isDone;
+	}
+
+	public boolean isDone()
+	{
+		return isDone;
+	}
+
+	/**
+	 * Prints how many times each round ran, and its first and final call times.
+	 */
+	public void printReport()
+	{
+		StringBuilder report = new StringBuilder("[WarmUp] Warm-up rounds:");
+		for (int i = 0; i < entryCount; i++)
+		{
+			report.append("\n\t").append(entries[i]);
+		}
+		Logger.println(report.toString());
+	}
+
+	private static class Entry
+	{
+		private final String name;
+		private final Runnable round;
+		private final int iterations;
+
+		private int completedIterations = 0;
+		private long firstNanos = 0;
+		private long finalNanos = 0;
+		private int finalCount = 0;
+
+		private Entry(String name, Runnable round, int iterations)
+		{
+			this.name = name;
+			this.round = round;
+			this.iterations = iterations;
+		}
+
+		private void runOnce()
+		{
+			long start = System.nanoTime();
+			round.run();
+			long elapsed = System.nanoTime() - start;
+
+			if (completedIterations == 0)
+			{
+				firstNanos = elapsed;
+			}
+			if (completedIterations >= iterations - Constants.FINAL_ITERATIONS)
+			{
+				finalNanos += elapsed;
+				finalCount++;
+			}
+			completedIterations++;
+		}
+
+		@Override
+		public String toString()
+		{
+			double finalMeanNanos = (finalCount == 0) ? 0.0 : (double) finalNanos / finalCount;
+			return String.format("%-52s iterations=%6d first call=%9.1fus final calls=%7.1fus (%.0fx faster)",
+					name, completedIterations, firstNanos / 1.0e3, finalMeanNanos / 1.0e3, (finalMeanNanos == 0.0) ? 0.0 : firstNanos / finalMeanNanos);
+		}
+	}
+
+	/**
+	 * Class for constant variables related to WarmUp.
+	 */
+	public static class Constants
+	{
+		public static final int MAX_ROUNDS = 16;
+
+		public static final double TICK_BUDGET = 0.005;	// leave most of every disabled tick free
+		public static final int FINAL_ITERATIONS = 100;	// the final calls are averaged for the report
+
+		public static final int DEFAULT_ITERATIONS = 20000;	// well past the JIT's compile thresholds
+	}
+}
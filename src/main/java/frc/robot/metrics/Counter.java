@@ -0,0 +1,51 @@
+package frc.robot.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class for a count that only goes up, such as packets received or failed reads.
+ * Any number of threads may update it at the same time, without locks and without allocating.
+ */
+public class Counter extends Metric
+{
+	private final AtomicLong count = new AtomicLong();
+
+	Counter(String name, String description)
+	{
+		super(name, description);
+	}
+
+	/**
+	 * Adds one to the count.
+	 */
+	public void increment()
+	{
+		count.incrementAndGet();
+	}
+
+	/**
+	 * Adds to the count.
+	 * @param amount The amount to add.
+	 */
+	public void add(long amount)
+	{
+		count.addAndGet(amount);
+	}
+
+	public long get()
+	{
+		return count.get();
+	}
+
+	@Override
+	public Type getType()
+	{
+		return Type.kCounter;
+	}
+
+	@Override
+	public String toString()
+	{
+		return getName() + " " + get();
+	}
+}
@@ -0,0 +1,47 @@
+package frc.robot.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Class for a value that is read when the metric is read, such as a sensor value or a motor output.
+ * The supplier runs on the thread that reads the registry, so it must be safe to call from any
+ * thread: read a volatile field, or a device value the device library already caches.
+ */
+public class Gauge extends Metric
+{
+	private final DoubleSupplier supplier;
+
+	Gauge(String name, String description, DoubleSupplier supplier)
+	{
+		super(name, description);
+		this.supplier = supplier;
+	}
+
+	/**
+	 * Gets the current value.
+	 * @return The value, or NaN if the supplier failed.
+	 */
+	public double get()
+	{
+		try
+		{
+			return supplier.getAsDouble();
+		}
+		catch (RuntimeException e)
+		{
+			return Double.NaN;
+		}
+	}
+
+	@Override
+	public Type getType()
+	{
+		return Type.kGauge;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%s %.3f", getName(), get());
+	}
+}
@@ -0,0 +1,152 @@
+package frc.robot.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class for the distribution of a value, such as the duration of an autonomous stage,
+ * in buckets whose upper bounds are fixed when the histogram is registered.
+ * Unlike the LatencyHistogram, which only the control thread records into, any number
+ * of threads may record at the same time, without locks and without allocating.
+ * A reader may see a value in the count before it is in the sum, which only matters
+ * for the mean while values are being recorded.
+ */
+public class Histogram extends Metric
+{
+	private final double[] upperBounds;
+	private final AtomicLongArray counts;		// one more than the bounds: the last bucket is for larger values
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong sumBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+	private final AtomicLong maxBits = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+	Histogram(String name, String description, double[] upperBounds)
+	{
+		super(name, description);
+		for (int i = 1; i < upperBounds.length; i++)
+		{
+			if (upperBounds[i] <= upperBounds[i - 1])
+			{
+				throw new IllegalArgumentException(name + ": the bucket bounds must increase");
+			}
+		}
+		this.upperBounds = upperBounds.clone();
+		this.counts = new AtomicLongArray(upperBounds.length + 1);
+	}
+
+	/**
+	 * Records one value.
+	 * @param value The value.
+	 */
+	public void record(double value)
+	{
+		int bucket = 0;
+		while (bucket < upperBounds.length && value > upperBounds[bucket])
+		{
+			bucket++;
+		}
+		counts.incrementAndGet(bucket);
+		totalCount.incrementAndGet();
+
+		long bits;
+		do
+		{
+			bits = sumBits.get();
+		}
+		while (!sumBits.compareAndSet(bits, Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + value)));
+
+		do
+		{
+			bits = maxBits.get();
+		}
+		while (value > Double.longBitsToDouble(bits) && !maxBits.compareAndSet(bits, Double.doubleToRawLongBits(value)));
+	}
+
+	public long getTotalCount()
+	{
+		return totalCount.get();
+	}
+
+	public double getSum()
+	{
+		return Double.longBitsToDouble(sumBits.get());
+	}
+
+	public double getMean()
+	{
+		long count = totalCount.get();
+		return count == 0 ? 0.0 : getSum() / count;
+	}
+
+	public double getMax()
+	{
+		return totalCount.get() == 0 ? 0.0 : Double.longBitsToDouble(maxBits.get());
+	}
+
+	/**
+	 * Gets the number of buckets, including the last one for values above every bound.
+	 * @return Number of buckets.
+	 */
+	public int getBucketCount()
+	{
+		return counts.length();
+	}
+
+	/**
+	 * Gets the largest value that falls in a bucket.
+	 * @param index Index of the bucket.
+	 * @return The upper bound, or positive infinity for the last bucket.
+	 */
+	public double getUpperBound(int index)
+	{
+		return index < upperBounds.length ? upperBounds[index] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Gets the number of values in one bucket.
+	 * @param index Index of the bucket.
+	 * @return Number of values.
+	 */
+	public long getCountAt(int index)
+	{
+		return counts.get(index);
+	}
+
+	/**
+	 * Gets the value below which the given percentage of values fall.
+	 * @param percentile Percentile from 0 to 100, for example 99.0.
+	 * @return The upper bound of the bucket holding that percentile, or the maximum for the last bucket.
+	 */
+	public double getValueAtPercentile(double percentile)
+	{
+		long count = totalCount.get();
+		if (count == 0)
+		{
+			return 0.0;
+		}
+
+		long target = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100.0) / 100.0));
+		long seen = 0;
+		for (int i = 0; i < upperBounds.length; i++)
+		{
+			seen += counts.get(i);
+			if (seen >= target)
+			{
+				return Math.min(upperBounds[i], getMax());
+			}
+		}
+		return getMax();
+	}
+
+	@Override
+	public Type getType()
+	{
+		return Type.kHistogram;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%s n=%d mean=%.3f p50=%.3f p99=%.3f max=%.3f",
+				getName(), getTotalCount(), getMean(), getValueAtPercentile(50.0), getValueAtPercentile(99.0), getMax());
+	}
+}
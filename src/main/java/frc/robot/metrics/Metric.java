@@ -0,0 +1,45 @@
+package frc.robot.metrics;
+
+/**
+ * Class for a named value that can be read by any thread, kept in the MetricsRegistry.
+ */
+public abstract class Metric
+{
+	/**
+	 * The kinds of metric.
+	 */
+	public enum Type
+	{
+		kCounter, kGauge, kHistogram
+	}
+
+	private final String name;
+	private final String description;
+
+	/**
+	 * Constructor for Metric.
+	 * @param name Name of the metric, for example "Drivetrain.navXDisconnected".
+	 * @param description What the metric measures, with its unit.
+	 */
+	protected Metric(String name, String description)
+	{
+		this.name = name;
+		this.description = description;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public String getDescription()
+	{
+		return description;
+	}
+
+	/**
+	 * Gets the kind of the metric, for code that reads every metric of the registry.
+	 * @return The type.
+	 */
+	public abstract Type getType();
+}
@@ -0,0 +1,127 @@
+package frc.robot.metrics;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class to hand snapshots of every metric from the control thread to a background thread.
+ * The control thread reads the metrics into a preallocated snapshot, so gauges read their
+ * devices on the thread that owns them, and the background thread (the MetricsServer's
+ * encoder) turns the newest snapshot into text.
+ *
+ * <p>There are three snapshots: the one the control thread is filling, the one the reader
+ * is using, and the newest complete one in between. Each side swaps its own snapshot with
+ * the one in between, so neither side ever waits for the other or allocates.
+ */
+public class MetricsPublisher
+{
+	private final MetricsRegistry registry = MetricsRegistry.getInstance();
+
+	private Snapshot back = new Snapshot();		// filled by the control thread
+	private final AtomicReference<Snapshot> latest = new AtomicReference<>(new Snapshot());
+	private Snapshot front = new Snapshot();	// used by the reader thread
+	private long sequence = 0;
+	private long lastCaptureNanos = 0;
+
+	private static MetricsPublisher instance = new MetricsPublisher();
+
+	/**
+	 * Returns the singleton instance of MetricsPublisher.
+	 * @return The singleton instance of MetricsPublisher.
+	 */
+	public static MetricsPublisher getInstance()
+	{
+		return instance;
+	}
+
+	private MetricsPublisher()
+	{
+	}
+
+	/**
+	 * Reads every metric into a snapshot and publishes it. Must be called by the control thread.
+	 * Does nothing if the last snapshot is less than CAPTURE_PERIOD old, so it can be called every tick.
+	 */
+	public void capture()
+	{
+		long now = System.nanoTime();
+		if (lastCaptureNanos != 0 && now - lastCaptureNanos < (long) (Constants.CAPTURE_PERIOD * 1.0e9))
+		{
+			return;
+		}
+		lastCaptureNanos = now;
+
+		back.capture(registry.getMetrics(), ++sequence);
+		back = latest.getAndSet(back);
+	}
+
+	/**
+	 * Gets the newest snapshot. Must only be called by one reader thread.
+	 * The snapshot stays the same until the next call.
+	 * @return The snapshot, whose sequence is 0 if nothing has been captured yet.
+	 */
+	Snapshot takeLatest()
+	{
+		if (latest.get().sequence > front.sequence)
+		{
+			front = latest.getAndSet(front);
+		}
+		return front;
+	}
+
+	/**
+	 * Class for the values of every metric at one time.
+	 * Each metric has VALUES_PER_METRIC values: a counter or gauge has its value first,
+	 * a histogram has its count, mean, 50th and 99th percentile, and maximum.
+	 */
+	static class Snapshot
+	{
+		Metric[] metrics = new Metric[0];
+		double[] values = new double[0];
+		long sequence = 0;
+		long timeMillis = 0;
+
+		private void capture(Metric[] metrics, long sequence)
+		{
+			if (values.length < metrics.length * Constants.VALUES_PER_METRIC)
+			{
+				// only while metrics are still being registered
+				values = new double[metrics.length * Constants.VALUES_PER_METRIC];
+			}
+
+			for (int i = 0; i < metrics.length; i++)
+			{
+				int offset = i * Constants.VALUES_PER_METRIC;
+				Metric metric = metrics[i];
+				if (metric instanceof Counter)
+				{
+					values[offset] = ((Counter) metric).get();
+				}
+				else if (metric instanceof Gauge)
+				{
+					values[offset] = ((Gauge) metric).get();
+				}
+				else if (metric instanceof Histogram)
+				{
+					Histogram histogram = (Histogram) metric;
+					values[offset] = histogram.getTotalCount();
+					values[offset + 1] = histogram.getMean();
+					values[offset + 2] = histogram.getValueAtPercentile(50.0);
+					values[offset + 3] = histogram.getValueAtPercentile(99.0);
+					values[offset + 4] = histogram.getMax();
+				}
+			}
+			this.metrics = metrics;
+			this.sequence = sequence;
+			this.timeMillis = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Class for constant variables related to MetricsPublisher.
+	 */
+	public static class Constants
+	{
+		public static final double CAPTURE_PERIOD = 0.1;		// seconds, the fastest the metrics are published
+		public static final int VALUES_PER_METRIC = 5;
+	}
+}
@@ -0,0 +1,128 @@
+package frc.robot.metrics;
+
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Class to keep every metric of the robot under a unique name, so they can all be
+ * printed or sent to the driver station the same way.
+ * Components register their metrics once, usually in their constructor or from
+ * Component.registerMetrics(), and keep the returned metric in a field to update it.
+ *
+ * <p>Registering takes a lock, because the components are constructed on several startup
+ * threads at once. Updating and reading metrics never does: the list of metrics is an
+ * array that is replaced, not changed, when a metric is added.
+ */
+public class MetricsRegistry
+{
+	private volatile Metric[] metrics = new Metric[0];
+
+	private static MetricsRegistry instance = new MetricsRegistry();
+
+	/**
+	 * Returns the singleton instance of MetricsRegistry.
+	 * @return The singleton instance of MetricsRegistry.
+	 */
+	public static MetricsRegistry getInstance()
+	{
+		return instance;
+	}
+
+	private MetricsRegistry()
+	{
+	}
+
+	/**
+	 * Gets or registers a counter.
+	 * @param name Unique name, for example "AMSColorSensor.failedReads".
+	 * @param description What is counted.
+	 * @return The counter. Registering the same name twice gives the same counter.
+	 */
+	public Counter counter(String name, String description)
+	{
+		return register(new Counter(name, description));
+	}
+
+	/**
+	 * Gets or registers a gauge.
+	 * @param name Unique name, for example "Elevator.position".
+	 * @param description What is measured, with its unit.
+	 * @param supplier Reads the value. Called by the thread that reads the metric.
+	 * @return The gauge. Registering the same name twice keeps the first supplier.
+	 */
+	public Gauge gauge(String name, String description, DoubleSupplier supplier)
+	{
+		return register(new Gauge(name, description, supplier));
+	}
+
+	/**
+	 * Gets or registers a histogram.
+	 * @param name Unique name, for example "Autonomous.stageTime".
+	 * @param description What is recorded, with its unit.
+	 * @param upperBounds The largest value of each bucket, in increasing order.
+	 * @return The histogram. Registering the same name twice keeps the first buckets.
+	 */
+	public Histogram histogram(String name, String description, double... upperBounds)
+	{
+		return register(new Histogram(name, description, upperBounds));
+	}
+
+	@SuppressWarnings("unchecked")
+	private synchronized <T extends Metric> T register(T metric)
+	{
+		for (Metric existing : metrics)
+		{
+			if (existing.getName().equals(metric.getName()))
+			{
+				if (existing.getType() != metric.getType())
+				{
+					throw new IllegalArgumentException(metric.getName() + " is already registered as a " + existing.getType());
+				}
+				return (T) existing;
+			}
+		}
+
+		Metric[] newMetrics = Arrays.copyOf(metrics, metrics.length + 1);
+		newMetrics[metrics.length] = metric;
+		metrics = newMetrics;
+		return metric;
+	}
+
+	/**
+	 * Gets every registered metric, in the order they were registered.
+	 * The array is shared and must not be changed.
+	 * @return The metrics.
+	 */
+	public Metric[] getMetrics()
+	{
+		return metrics;
+	}
+
+	/**
+	 * Gets a metric by its name.
+	 * @param name The name.
+	 * @return The metric, or null if none has that name.
+	 */
+	public Metric get(String name)
+	{
+		for (Metric metric : metrics)
+		{
+			if (metric.getName().equals(name))
+			{
+				return metric;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder report = new StringBuilder("[MetricsRegistry] ").append(metrics.length).append(" metrics");
+		for (Metric metric : metrics)
+		{
+			report.append("\n\t").append(metric);
+		}
+		return report.toString();
+	}
+}
@@ -0,0 +1,348 @@
+package frc.robot.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import frc.robot.jfr.JfrRecording;
+import frc.robot.util.Logger;
+import frc.robot.util.ThreadPriorities;
+
+/**
+ * Class to serve the metrics over HTTP, with the JDK's built-in server, so they can be
+ * watched live from a laptop on the robot's network:
+ * <ul>
+ * <li>/ lists every metric with its type and description, as text.
+ * <li>/metrics gives the newest snapshot as JSON.
+ * <li>/metrics/stream sends every new snapshot as a server-sent event, for example
+ * {@code curl -N http://10.42.37.2:5800/metrics/stream?period=0.5}. The period is in
+ * seconds and is limited to MIN_STREAM_PERIOD.
+ * <li>/jfr/dump writes the rolling JFR recording of the JfrRecording to a file on the robot.
+ * </ul>
+ * The control thread only captures snapshots with the MetricsPublisher. An encoder thread
+ * turns the newest snapshot into JSON once, and the server threads send the same bytes to
+ * every client. All the server threads run at background priority.
+ */
+public class MetricsServer
+{
+	private final MetricsPublisher publisher = MetricsPublisher.getInstance();
+	private final AtomicInteger streamCount = new AtomicInteger();
+	private final AtomicInteger threadCount = new AtomicInteger();
+	private final StringBuilder json = new StringBuilder(4096);	// used by the encoder thread only
+
+	private volatile Encoded encoded = null;
+	private HttpServer server = null;
+
+	private static MetricsServer instance = new MetricsServer();
+
+	/**
+	 * Returns the singleton instance of MetricsServer.
+	 * @return The singleton instance of MetricsServer.
+	 */
+	public static MetricsServer getInstance()
+	{
+		return instance;
+	}
+
+	private MetricsServer()
+	{
+	}
+
+	/**
+	 * Starts the server and the encoder thread. Does nothing if the server is already running.
+	 * @param port The TCP port, usually Constants.PORT.
+	 */
+	public synchronized void start(int port)
+	{
+		if (server != null)
+		{
+			return;
+		}
+
+		try
+		{
+			server = HttpServer.create(new InetSocketAddress(port), 0);
+		}
+		catch (IOException e)
+		{
+			Logger.println("[MetricsServer] cannot listen on port " + port + ": " + e);
+			return;
+		}
+
+		// one thread per stream, and one more so snapshots can be served while every stream is open
+		ExecutorService executor = Executors.newFixedThreadPool(Constants.MAX_STREAMS + 1, this::newThread);
+		server.setExecutor(executor);
+		server.createContext("/metrics/stream", this::handleStream);
+		server.createContext("/metrics", this::handleSnapshot);
+		server.createContext("/jfr/dump", this::handleJfrDump);
+		server.createContext("/", this::handleIndex);
+		server.start();
+
+		Thread encoder = new Thread(this::encode, "MetricsEncoder");
+		encoder.setDaemon(true);
+		encoder.start();
+
+		Logger.println("[MetricsServer] serving metrics on port " + port);
+	}
+
+	private Thread newThread(Runnable task)
+	{
+		Thread thread = new Thread(() ->
+		{
+			ThreadPriorities.setBackgroundPriority("metrics server");
+			task.run();
+		}, "MetricsServer-" + threadCount.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * Runs on the encoder thread: turns each new snapshot into JSON.
+	 */
+	private void encode()
+	{
+		ThreadPriorities.setBackgroundPriority("metrics encoder");
+		long lastSequence = 0;
+		while (true)
+		{
+			MetricsPublisher.Snapshot snapshot = publisher.takeLatest();
+			if (snapshot.sequence != lastSequence)
+			{
+				lastSequence = snapshot.sequence;
+				encoded = new Encoded(snapshot.sequence, toJson(snapshot).getBytes(StandardCharsets.UTF_8));
+			}
+			LockSupport.parkNanos((long) (Constants.ENCODER_PERIOD * 1.0e9));
+		}
+	}
+
+	private String toJson(MetricsPublisher.Snapshot snapshot)
+	{
+		json.setLength(0);
+		json.append("{\"sequence\":").append(snapshot.sequence).append(",\"time\":").append(snapshot.timeMillis).append(",\"metrics\":{");
+		for (int i = 0; i < snapshot.metrics.length; i++)
+		{
+			Metric metric = snapshot.metrics[i];
+			int offset = i * MetricsPublisher.Constants.VALUES_PER_METRIC;
+			if (i > 0)
+			{
+				json.append(',');
+			}
+			appendString(metric.getName());
+			json.append(':');
+			if (metric.getType() == Metric.Type.kHistogram)
+			{
+				json.append("{\"count\":");
+				appendNumber(snapshot.values[offset]);
+				json.append(",\"mean\":");
+				appendNumber(snapshot.values[offset + 1]);
+				json.append(",\"p50\":");
+				appendNumber(snapshot.values[offset + 2]);
+				json.append(",\"p99\":");
+				appendNumber(snapshot.values[offset + 3]);
+				json.append(",\"max\":");
+				appendNumber(snapshot.values[offset + 4]);
+				json.append('}');
+			}
+			else
+			{
+				appendNumber(snapshot.values[offset]);
+			}
+		}
+		return json.append("}}").toString();
+	}
+
+	private void appendString(String text)
+	{
+		json.append('"');
+		for (int i = 0; i < text.length(); i++)
+		{
+			char c = text.charAt(i);
+			if (c == '"' || c == '\\')
+			{
+				json.append('\\');
+			}
+			json.append(c);
+		}
+		json.append('"');
+	}
+
+	/**
+	 * Appends a number, or null for NaN and infinity, which JSON does not have.
+	 */
+	private void appendNumber(double value)
+	{
+		if (Double.isNaN(value) || Double.isInfinite(value))
+		{
+			json.append("null");
+		}
+		else if (value == Math.rint(value) && Math.abs(value) < 1.0e15)
+		{
+			json.append((long) value);
+		}
+		else
+		{
+			json.append(value);
+		}
+	}
+
+	private void handleIndex(HttpExchange exchange) throws IOException
+	{
+		StringBuilder index = new StringBuilder("/metrics\tnewest snapshot, JSON\n/metrics/stream?period=<s>\tserver-sent events\n"
+				+ "/jfr/dump\twrite the rolling JFR recording to a file on the robot\n\n");
+		for (Metric metric : MetricsRegistry.getInstance().getMetrics())
+		{
+			index.append(metric.getName()).append('\t').append(metric.getType()).append('\t').append(metric.getDescription()).append('\n');
+		}
+		send(exchange, 200, "text/plain; charset=utf-8", index.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void handleSnapshot(HttpExchange exchange) throws IOException
+	{
+		Encoded current = encoded;
+		if (current == null)
+		{
+			send(exchange, 503, "text/plain", "no snapshot yet\n".getBytes(StandardCharsets.UTF_8));
+			return;
+		}
+		send(exchange, 200, "application/json", current.bytes);
+	}
+
+	/**
+	 * Writes the rolling JFR recording to a file on the robot and replies with its name. Runs on a server thread.
+	 */
+	private void handleJfrDump(HttpExchange exchange) throws IOException
+	{
+		try
+		{
+			File file = JfrRecording.getInstance().dump();
+			send(exchange, 200, "text/plain", (file + "\n").getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException e)
+		{
+			send(exchange, 503, "text/plain", (e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Sends new snapshots to one client until it disconnects. Runs on a server thread.
+	 */
+	private void handleStream(HttpExchange exchange) throws IOException
+	{
+		if (streamCount.incrementAndGet() > Constants.MAX_STREAMS)
+		{
+			streamCount.decrementAndGet();
+			send(exchange, 503, "text/plain", "too many streams\n".getBytes(StandardCharsets.UTF_8));
+			return;
+		}
+
+		long periodNanos = (long) (getPeriod(exchange.getRequestURI().getQuery()) * 1.0e9);
+		try (OutputStream out = exchange.getResponseBody())
+		{
+			exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+			exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+			exchange.sendResponseHeaders(200, 0);
+
+			long lastSequence = 0;
+			while (true)
+			{
+				Encoded current = encoded;
+				if (current != null && current.sequence != lastSequence)
+				{
+					lastSequence = current.sequence;
+					out.write(Constants.EVENT_START);
+					out.write(current.bytes);
+					out.write(Constants.EVENT_END);
+					out.flush();
+				}
+				LockSupport.parkNanos(periodNanos);
+			}
+		}
+		catch (IOException e)
+		{
+			// the client went away
+		}
+		finally
+		{
+			streamCount.decrementAndGet();
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Gets the stream period from a query such as "period=0.5".
+	 * @return The period in seconds, from MIN_STREAM_PERIOD to MAX_STREAM_PERIOD.
+	 */
+	private static double getPeriod(String query)
+	{
+		double period = Constants.DEFAULT_STREAM_PERIOD;
+		if (query != null)
+		{
+			for (String parameter : query.split("&"))
+			{
+				if (parameter.startsWith("period="))
+				{
+					try
+					{
+						period = Double.parseDouble(parameter.substring("period=".length()));
+					}
+					catch (NumberFormatException e)
+					{
+						// keep the default
+					}
+				}
+			}
+		}
+		return Math.max(Constants.MIN_STREAM_PERIOD, Math.min(Constants.MAX_STREAM_PERIOD, period));
+	}
+
+	private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException
+	{
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody())
+		{
+			out.write(body);
+		}
+	}
+
+	/**
+	 * Class for a snapshot encoded as JSON, shared by every client.
+	 */
+	private static class Encoded
+	{
+		private final long sequence;
+		private final byte[] bytes;
+
+		private Encoded(long sequence, byte[] bytes)
+		{
+			this.sequence = sequence;
+			this.bytes = bytes;
+		}
+	}
+
+	/**
+	 * Class for constant variables related to MetricsServer.
+	 */
+	public static class Constants
+	{
+		public static final boolean ENABLED = true;
+		public static final int PORT = 5800;						// 5800-5810 are open on the field network
+		public static final int MAX_STREAMS = 3;
+		public static final double DEFAULT_STREAM_PERIOD = 0.2;		// seconds
+		public static final double MIN_STREAM_PERIOD = MetricsPublisher.Constants.CAPTURE_PERIOD;
+		public static final double MAX_STREAM_PERIOD = 10.0;
+		public static final double ENCODER_PERIOD = 0.05;			// how often the encoder looks for a new snapshot
+
+		private static final byte[] EVENT_START = "data: ".getBytes(StandardCharsets.UTF_8);
+		private static final byte[] EVENT_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,80 @@
+package frc.robot.metrics;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Command line tool to run the MetricsServer on a laptop, without a roboRIO.
+ * A simulated control thread updates made-up drivetrain, sensor and network metrics
+ * every 20 ms and captures them like the robot does, so the endpoints can be tried with
+ * a browser or curl:
+ * <pre>
+ * ./gradlew simulateMetrics
+ * curl http://localhost:5800/metrics
+ * curl -N http://localhost:5800/metrics/stream?period=0.5
+ * </pre>
+ * An optional argument is how many seconds to run, otherwise it runs until stopped.
+ */
+public class MetricsSimulation
+{
+	private volatile double yaw = 0.0;
+	private volatile double distance = 0.0;
+	private volatile double output = 0.0;
+
+	public static void main(String[] args)
+	{
+		double seconds = (args.length > 0) ? Double.parseDouble(args[0]) : Double.POSITIVE_INFINITY;
+		new MetricsSimulation().run(seconds);
+	}
+
+	private void run(double seconds)
+	{
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		MetricsPublisher publisher = MetricsPublisher.getInstance();
+		registry.gauge("Drivetrain.navXYaw", "navX yaw, deg", () -> yaw);
+		registry.gauge("Drivetrain.encoderDistance", "drop-down encoder distance, in", () -> distance);
+		registry.gauge("Drivetrain.frontLeftOutput", "motor output, -1 to 1", () -> output);
+		Counter readings = registry.counter("AMSColorSensor.readings", "polls of the color sensor");
+		Counter failedReads = registry.counter("AMSColorSensor.failedReads", "polls where every read failed");
+		Histogram readTime = registry.histogram("AMSColorSensor.readTime", "time to poll the color sensor, ms", 0.5, 1.0, 2.0, 4.0, 8.0, 16.0, 32.0);
+		Counter packetsReceived = registry.counter("AutoSelect4237.packetsReceived", "packets from the dashboard");
+
+		MetricsServer.getInstance().start(MetricsServer.Constants.PORT);
+		System.out.println("[MetricsSimulation] try http://localhost:" + MetricsServer.Constants.PORT + "/metrics");
+
+		Random random = new Random();
+		long startNanos = System.nanoTime();
+		long nextTickNanos = startNanos;
+		for (int tick = 0; (System.nanoTime() - startNanos) / 1.0e9 < seconds; tick++)
+		{
+			output = Math.sin(tick * 0.01);
+			distance += output * 0.5;
+			yaw = (yaw + output * 2.0 + 360.0) % 360.0;
+			if (tick % 3 == 0)
+			{
+				readings.increment();
+				readTime.record(0.4 + random.nextDouble() * (random.nextInt(50) == 0 ? 20.0 : 1.0));
+				if (random.nextInt(100) == 0)
+				{
+					failedReads.increment();
+				}
+			}
+			if (tick % 5 == 0)
+			{
+				packetsReceived.increment();
+			}
+			publisher.capture();
+
+			nextTickNanos += Constants.TICK_NANOS;
+			LockSupport.parkNanos(nextTickNanos - System.nanoTime());
+		}
+	}
+
+	/**
+	 * Class for constant variables related to MetricsSimulation.
+	 */
+	public static class Constants
+	{
+		public static final long TICK_NANOS = 20000000L;
+	}
+}
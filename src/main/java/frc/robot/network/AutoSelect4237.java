@@ -3,19 +3,43 @@ package frc.robot.network;
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
+import java.net.InetAddress;
 import java.net.SocketTimeoutException;
 
 import com.esotericsoftware.jsonbeans.Json;
 
+import frc.robot.jfr.JfrRecording;
+import frc.robot.jfr.PacketReceivedEvent;
+import frc.robot.loop.GcMonitor;
+import frc.robot.metrics.Counter;
+import frc.robot.metrics.MetricsRegistry;
+import frc.robot.telemetry.FlightRecorder;
+import frc.robot.util.Logger;
+import frc.robot.util.ThreadPriorities;
+
 import edu.wpi.first.wpilibj.Timer;
 
 public class AutoSelect4237 extends Thread
 {
+	private static final Logger.Message RECEIVE_FAILED = new Logger.Message("[AutoSelect4237] receive failed: {}", Constants.MESSAGE_INTERVAL);
+	private static final Logger.Message START_FAILED = new Logger.Message("[AutoSelect4237] could not open the socket: {}");
+	private static final Logger.Message RUN_FAILED = new Logger.Message("[AutoSelect4237] failed: {}", Constants.MESSAGE_INTERVAL);
+	private static final Logger.Message SELECTIONS = new Logger.Message("[AutoSelect4237] {}");	// only logged when the selection changes, so every one is printed
+
 	AutoSelect4237Data data = new AutoSelect4237Data();
 	
 	private DatagramSocket rxsocket = new DatagramSocket(Constants.PORT);
 	private DatagramPacket packet = null;
 	private Json json = new Json();
+	private byte[] previousData = new byte[Constants.PACKETSIZE];
+	private int previousDataLength = -1;
+
+	private Counter packetsReceived = MetricsRegistry.getInstance().counter("AutoSelect4237.packetsReceived", "packets from the dashboard");
+	private Counter selectionsChanged = MetricsRegistry.getInstance().counter("AutoSelect4237.selectionsChanged", "packets that changed the selections");
+	private Counter receiveErrors = MetricsRegistry.getInstance().counter("AutoSelect4237.receiveErrors", "packets that could not be received or parsed");
+	private volatile long lastPacketNanos = 0;
+	private final PacketReceivedEvent packetEvent = new PacketReceivedEvent("AutoSelect4237");	// reused for every packet
+	private volatile InetAddress dashboardAddress = null;
 	
 	private static AutoSelect4237 instance;
 	
@@ -27,7 +51,7 @@ public class AutoSelect4237 extends Thread
 		}
 		catch(IOException e)
 		{
-			e.printStackTrace();
+			Logger.log(START_FAILED, e);
 		}
 	}
 	
@@ -38,22 +62,41 @@ public class AutoSelect4237 extends Thread
 	
 	private AutoSelect4237() throws IOException
 	{
+		super("AutoSelect4237");
 		this.rxsocket.setSoTimeout(50);
+		MetricsRegistry.getInstance().gauge("AutoSelect4237.packetAge", "time since the last packet, s",
+				() -> (lastPacketNanos == 0) ? Double.POSITIVE_INFINITY : (System.nanoTime() - lastPacketNanos) / 1.0e9);
 	}
 	
 	@Override
 	public void run()
 	{
+		ThreadPriorities.setBackgroundPriority("auto select receiver");
+		GcMonitor.getInstance().watchCurrentThread("AutoSelect4237");
+
+		// one buffer and packet for every receive, so listening does not allocate
+		byte[] buffer = new byte[Constants.PACKETSIZE];
+		this.packet = new DatagramPacket(buffer, buffer.length);
 		while (!this.interrupted())
 		{
 			try
 			{
-				byte[] buffer = new byte[Constants.PACKETSIZE];
-				this.packet = new DatagramPacket(buffer, buffer.length);
+				packet.setLength(buffer.length);
 				try
 				{
 					this.rxsocket.receive(packet);
-					setData(new String(packet.getData(), 0, packet.getLength()));
+					packetsReceived.increment();
+					if (JfrRecording.isRecording())
+					{
+						packetEvent.commitPacket(packet);
+					}
+					lastPacketNanos = System.nanoTime();
+					dashboardAddress = packet.getAddress();
+					if (isNewData(packet.getData(), packet.getLength()))
+					{
+						selectionsChanged.increment();
+						setData(new String(packet.getData(), 0, packet.getLength()));
+					}
 				}
 				catch (SocketTimeoutException e)
 				{
@@ -61,23 +104,54 @@ public class AutoSelect4237 extends Thread
 				}
 				catch (Exception e)
 				{
-					e.printStackTrace();
+					receiveErrors.increment();
+					Logger.log(RECEIVE_FAILED, e);
 				}
 			}
 			catch(Exception e)
 			{
-				e.printStackTrace();
+				Logger.log(RUN_FAILED, e);
+				FlightRecorder.getInstance().trigger(e);
 			}
 			Timer.delay(0.005);
 		}
 	}
+
+	/**
+	 * Checks if a packet is different from the last one that was parsed.
+	 * The dashboard sends the same selections over and over, so only changes are parsed.
+	 * @return True if the packet is new, in which case it is remembered.
+	 */
+	private boolean isNewData(byte[] data, int length)
+	{
+		boolean isNew = (length != previousDataLength);
+		for (int i = 0; !isNew && i < length; i++)
+		{
+			isNew = (data[i] != previousData[i]);
+		}
+		if (isNew)
+		{
+			System.arraycopy(data, 0, previousData, 0, length);
+			previousDataLength = length;
+		}
+		return isNew;
+	}
 	
 	private synchronized void setData(String data)
 	{
-		System.out.println(data);
+		Logger.log(SELECTIONS, data);
 		this.data = json.fromJson(AutoSelect4237Data.class, data);
 	}
 	
+	/**
+	 * Gets the address of the computer the dashboard runs on, which is the driver station.
+	 * @return The address the last packet came from, or null if none has been received.
+	 */
+	public InetAddress getDashboardAddress()
+	{
+		return dashboardAddress;
+	}
+
 	public synchronized AutoSelect4237Data getData()
 	{
 		return this.data;
@@ -87,5 +161,6 @@ public class AutoSelect4237 extends Thread
 	{
 		private static final int PACKETSIZE = 256;
 		private static final int PORT = 5804;
+		private static final double MESSAGE_INTERVAL = 1.0;	// seconds, a failing socket fails every receive
 	}
 }
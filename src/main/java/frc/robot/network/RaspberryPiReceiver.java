@@ -4,6 +4,14 @@ import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 
+import frc.robot.jfr.JfrRecording;
+import frc.robot.jfr.PacketReceivedEvent;
+import frc.robot.loop.GcMonitor;
+import frc.robot.metrics.Counter;
+import frc.robot.metrics.MetricsRegistry;
+import frc.robot.telemetry.FlightRecorder;
+import frc.robot.util.Logger;
+import frc.robot.util.ThreadPriorities;
 import frc.robot.vision.VisionData;
 
 import com.esotericsoftware.jsonbeans.Json;
@@ -17,11 +25,20 @@ import edu.wpi.first.wpilibj.Timer;
  */
 public class RaspberryPiReceiver extends Thread	
 {
+	private static final Logger.Message RECEIVE_FAILED = new Logger.Message("[RaspberryPiReceiver] receive failed: {}");
+	private static final Logger.Message START_FAILED = new Logger.Message("[RaspberryPiReceiver] could not open the socket: {}");
+	private static final Logger.Message RUN_FAILED = new Logger.Message("[RaspberryPiReceiver] failed: {}");
+
 	private DatagramSocket rxsocket = new DatagramSocket(Constants.PORT);
 	private DatagramPacket packet = null;
 	private String data = "{}";
 	private Json json = new Json();
 
+	private Counter packetsReceived = MetricsRegistry.getInstance().counter("RaspberryPiReceiver.packetsReceived", "vision packets from the Raspberry Pi");
+	private Counter receiveErrors = MetricsRegistry.getInstance().counter("RaspberryPiReceiver.receiveErrors", "vision packets that could not be received");
+	private volatile long lastPacketNanos = 0;
+	private final PacketReceivedEvent packetEvent = new PacketReceivedEvent("RaspberryPiReceiver");	// reused for every packet
+
 	private static RaspberryPiReceiver instance;
 
 	static //Static block to get around the constructor throwing IOException
@@ -32,7 +49,7 @@ public class RaspberryPiReceiver extends Thread
 		}
 		catch(IOException e)
 		{
-			e.printStackTrace();
+			Logger.log(START_FAILED, e);
 		}
 	}
 	/**
@@ -46,7 +63,9 @@ public class RaspberryPiReceiver extends Thread
 
 	private RaspberryPiReceiver() throws IOException
 	{
-		
+		super("RaspberryPiReceiver");
+		MetricsRegistry.getInstance().gauge("RaspberryPiReceiver.packetAge", "time since the last packet, s",
+				() -> (lastPacketNanos == 0) ? Double.POSITIVE_INFINITY : (System.nanoTime() - lastPacketNanos) / 1.0e9);
 	}
 
 	/**
@@ -54,26 +73,39 @@ public class RaspberryPiReceiver extends Thread
 	 */
 	public void run()
 	{
+		ThreadPriorities.setBackgroundPriority("vision receiver");
+		GcMonitor.getInstance().watchCurrentThread("RaspberryPiReceiver");
+
+		// one buffer and packet for every receive, so listening does not allocate
+		byte[] buffer = new byte[Constants.PACKETSIZE];
+		this.packet = new DatagramPacket(buffer, buffer.length);
 		while (!this.interrupted())
 		{
 			try
 			{
-				byte[] buffer = new byte[Constants.PACKETSIZE];
-				this.packet = new DatagramPacket(buffer, buffer.length);
+				packet.setLength(buffer.length);
 				try
 				{
 					this.rxsocket.receive(packet);
+					packetsReceived.increment();
+					if (JfrRecording.isRecording())
+					{
+						packetEvent.commitPacket(packet);
+					}
+					lastPacketNanos = System.nanoTime();
 					setRawData(new String(packet.getData(), 0, packet.getLength()));
 					
 				}
 				catch(Exception e)
 				{
-					e.printStackTrace();
+					receiveErrors.increment();
+					Logger.log(RECEIVE_FAILED, e);
 				}
 			}
 			catch(Exception e)
 			{
-				e.printStackTrace();
+				Logger.log(RUN_FAILED, e);
+				FlightRecorder.getInstance().trigger(e);
 			}
 		}
 	}
@@ -1,17 +1,48 @@
 package frc.robot.sensors;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Timer;
 import java.util.TimerTask;
 
+import frc.robot.hal.Devices;
+import frc.robot.hal.I2CDevice;
+import frc.robot.jfr.BlockingCallEvent;
+import frc.robot.jfr.ColorSensorRetryEvent;
+import frc.robot.jfr.JfrRecording;
+import frc.robot.loop.GcMonitor;
+import frc.robot.loop.Tracer;
+import frc.robot.metrics.Counter;
+import frc.robot.metrics.Histogram;
+import frc.robot.metrics.MetricsRegistry;
 import frc.robot.util.Colors;
-import frc.robot.util.Id;
+import frc.robot.util.ErrorSite;
+import frc.robot.util.Logger;
+import frc.robot.util.ThreadPriorities;
 import edu.wpi.first.wpilibj.I2C;
 
 public class AMSColorSensor
 {
+	private static final ErrorSite WRONG_DEVICE_ID = ErrorSite.create("AMSColorSensor.wrongDeviceId", "[ColorSensor] read incorrect device id");
+	private static final ErrorSite DISABLE_FAILED = ErrorSite.create("AMSColorSensor.disableFailed",
+			"[ColorSensor] writeBulk command register failed turning sensing off, ColorSensor NOT functional");
+	private static final ErrorSite SETUP_FAILED = ErrorSite.create("AMSColorSensor.setupFailed",
+			"[ColorSensor] writeBulk command register failed setting up the registers, ColorSensor NOT functional");
+	private static final ErrorSite WRITE_FAILED = ErrorSite.create("AMSColorSensor.writeFailed",
+			"[ColorSensor] writeADataRegister writeBulk command failed ColorSensor NOT functional");
+	private static final ErrorSite READ_FAILED = ErrorSite.create("AMSColorSensor.readFailed",
+			"[ColorSensor] readAllDataRegisters transaction failed ColorSensor NOT functional");
+	private static final ErrorSite PRINT_WRITE_FAILED = ErrorSite.create("AMSColorSensor.printWriteFailed",
+			"[ColorSensor] printAllDataRegisters writeBulk command register failed ColorSensor NOT functional");
+	private static final ErrorSite PRINT_READ_FAILED = ErrorSite.create("AMSColorSensor.printReadFailed",
+			"[ColorSensor] readOnly all registers failed ColorSensor NOT functional");
+	private static final int READ_REGISTERS = Tracer.register("I2C", "AMSColorSensor.readAllDataRegisters");
+	private static final int WRITE_REGISTER = Tracer.register("I2C", "AMSColorSensor.writeADataRegister");
+	private static final Logger.Message INTERRUPTED = new Logger.Message("[ColorSensor] interrupted while setting up: {}");
+	private static final Logger.Message FAILED_READING = new Logger.Message("[ColorSensor] failed reading", 1.0);	// a bad bus fails every poll
 
 	// Global Variables - Fields
-	private final I2C AMSColorSensorI2C;
+	private final I2CDevice AMSColorSensorI2C;
 	private final Timer timer;
 	private final double samplePeriod;
 	private TimerTask m_backgroundLoop;
@@ -20,6 +51,21 @@ public class AMSColorSensor
 	int c, r, g, b;
 	boolean isGoodReading;
 
+	// reused by every read, so polling the sensor does not allocate
+	private final byte[] dataRegisterValues = new byte[0x1E];
+	private final ByteBuffer commandRegisterBuffer = ByteBuffer.allocateDirect(1);
+	private final ByteBuffer dataRegisterBuffer = ByteBuffer.allocateDirect(0x1E);
+	private final BlockingCallEvent writeRegisterEvent = new BlockingCallEvent("AMSColorSensor.writeADataRegister");
+	private final BlockingCallEvent readRegistersEvent = new BlockingCallEvent("AMSColorSensor.readAllDataRegisters");
+	private final ColorSensorRetryEvent retryEvent = new ColorSensorRetryEvent();
+
+	// shared by every color sensor, updated by the polling thread
+	private final Counter readings = MetricsRegistry.getInstance().counter("AMSColorSensor.readings", "polls of the color sensor");
+	private final Counter retries = MetricsRegistry.getInstance().counter("AMSColorSensor.retries", "reads that found no completed RGBC cycle");
+	private final Counter failedReads = MetricsRegistry.getInstance().counter("AMSColorSensor.failedReads", "polls where every read failed");
+	private final Histogram readTime = MetricsRegistry.getInstance().histogram("AMSColorSensor.readTime", "time to poll the color sensor, ms",
+			0.5, 1.0, 2.0, 4.0, 8.0, 16.0, 32.0);
+
 	/**
 	 * Last parameter for integrationRate not specified.
 	 * 
@@ -32,7 +78,7 @@ public class AMSColorSensor
 
 	public AMSColorSensor(I2C.Port port, Address deviceAddress, double samplePeriod)
 	{
-		System.out.println("[ColorSensor] starting ColorSensor class");
+		Logger.println("[ColorSensor] starting ColorSensor class");
 
 		c = -1;
 		r = -1;
@@ -40,23 +86,23 @@ public class AMSColorSensor
 		b = -1;
 		isGoodReading = false;
 
-		this.timer = new Timer();
+		this.timer = new Timer("AMSColorSensor", true);
 		this.deviceAvailable = false;
 		this.samplePeriod = samplePeriod;
 
-		AMSColorSensorI2C = new I2C(port, deviceAddress.value); // define the device object on the I2C bus
+		AMSColorSensorI2C = Devices.getInstance().colorSensor(port, deviceAddress.value); // define the device object on the I2C bus
 
 		// Read device ID and check that it's expected model
 		if( readAllDataRegisters()[Register.DEVICE_ID.bVal] != 0x60)
 		{
-			System.out.printf ( "[ColorSensor] read incorrect device id at line %s\n", Id.__LINE__());
+			WRONG_DEVICE_ID.record();
 		}
 		else
 		{	
 			// Turn off sensing before changing registers because maybe it's a good idea but not sure it's necessary
 			if( writeADataRegister(Register.ENABLE.bVal, (byte)0))
 			{
-				System.out.printf ( "[ColorSensor] writeBulk command register failed line %s ColorSensor NOT functional\n", Id.__LINE__());
+				DISABLE_FAILED.record();
 			}
 			else
 			{
@@ -69,7 +115,7 @@ public class AMSColorSensor
 					try {
 						Thread.sleep(10);
 					} catch (InterruptedException e) {
-						e.printStackTrace();
+						Logger.log(INTERRUPTED, e);
 					}
 
 					if(i == 0) SetDataRegisterValue = Enable.AEN.bVal | Enable.PON.bVal; // enable color sensor and power on
@@ -80,23 +126,22 @@ public class AMSColorSensor
 
 					if( writeADataRegister(i, (byte)SetDataRegisterValue))
 					{
-						System.out.printf( "[ColorSensor] writeBulk command register failed line %s ColorSensor NOT functional\n", Id.__LINE__());
+						SETUP_FAILED.record();
 						deviceAvailable = false;
 					}
 				}
-				System.out.print( "[ColorSensor] ");
 				printAllDataRegisters();
 			}
 		}
 
 		if (isWorking())
 		{
-			System.out.printf("[ColorSensor] working on port %s, address %s %#2x\n", port, deviceAddress, deviceAddress.value);
+			Logger.println(String.format("[ColorSensor] working on port %s, address %s %#2x", port, deviceAddress, deviceAddress.value));
 			startPeriodic(samplePeriod);
 		}
 		else
 		{
-			System.out.printf("[ColorSensor] NOT working on port %s, address %s %#2x\n", port, deviceAddress, deviceAddress.value);
+			Logger.println(String.format("[ColorSensor] NOT working on port %s, address %s %#2x", port, deviceAddress, deviceAddress.value));
 		}
 	}
 
@@ -107,30 +152,49 @@ public class AMSColorSensor
 		WriteARegister[0] = (byte) (Command.COMMAND_SELECT.value | register);
 		WriteARegister[1] = data;
 
-		if ( AMSColorSensorI2C.writeBulk(WriteARegister))
+		writeRegisterEvent.startCall();
+		long start = Tracer.start();
+		boolean isAborted = AMSColorSensorI2C.writeBulk(WriteARegister);
+		Tracer.end(WRITE_REGISTER, start);
+		writeRegisterEvent.endCall();
+		if (isAborted)
 		{
-			System.out.printf ( "[ColorSensor] writeADataRegister writeBulk command failed line %s ColorSensor NOT functional\n", Id.__LINE__());
+			WRITE_FAILED.record();
 			return true;
 		}
 		else
 		{
-			System.out.format("[ColorSensor] set register %#2x to %#2x\n", register, WriteARegister[1]);
+			Logger.println(String.format("[ColorSensor] set register %#2x to %#2x", register, WriteARegister[1]));
 			return false;
 		}
 	}
 
+	/**
+	 * Reads registers 0x00 to 0x1D. If the transaction is aborted, every register reads 0.
+	 * Uses direct buffers with transaction(), because I2C.read() allocates buffers on every call.
+	 * @return The register values. The same array is reused by the next read.
+	 */
 	private byte[] readAllDataRegisters()
 	{
-		byte[] dataRegisterValues = new byte[0x1E];
-
-		int CommandRegister = Command.COMMAND_SELECT.value | 0; // start reading at register 0
-
-		if ( AMSColorSensorI2C.read(CommandRegister, dataRegisterValues.length, dataRegisterValues))
+		commandRegisterBuffer.put(0, (byte) (Command.COMMAND_SELECT.value | 0)); // start reading at register 0
+
+		readRegistersEvent.startCall();
+		long start = Tracer.start();
+		boolean isAborted = AMSColorSensorI2C.transaction(commandRegisterBuffer, 1, dataRegisterBuffer, dataRegisterValues.length);
+		Tracer.end(READ_REGISTERS, start);
+		readRegistersEvent.endCall();
+		if (isAborted)
 		{
-			System.out.printf ( "[ColorSensor] writeADataRegister writeBulk command failed line %s ColorSensor NOT functional\n", Id.__LINE__());
+			// the buffer still holds the previous read, so hand back zeros, which have no completed RGBC cycle
+			READ_FAILED.record();
+			Arrays.fill(dataRegisterValues, (byte) 0);
 			return dataRegisterValues;
 		}
-		else return dataRegisterValues;
+		for (int i = 0; i < dataRegisterValues.length; i++)
+		{
+			dataRegisterValues[i] = dataRegisterBuffer.get(i);
+		}
+		return dataRegisterValues;
 	}
 
 	private void printAllDataRegisters()
@@ -141,22 +205,23 @@ public class AMSColorSensor
 
 		if ( AMSColorSensorI2C.writeBulk(CommandRegister)) // request ColorSensor configuration
 		{
-			System.out.printf ( "[ColorSensor] printAllDataRegisters writeBulk command register failed line %s ColorSensor NOT functional\n", Id.__LINE__());
+			PRINT_WRITE_FAILED.record();
 		}
 		else
 		{
 			byte allRegisters[] = new byte[0x1E]; // registers 0x00 to 0x1D inclusive
 			if ( AMSColorSensorI2C.readOnly(allRegisters, allRegisters.length)) // read the ColorSensor configuration
 			{
-				System.out.printf ( "[ColorSensor] readOnly all registers failed line %s ColorSensor NOT functional\n", Id.__LINE__());
+				PRINT_READ_FAILED.record();
 			}
 			else
 			{
+				StringBuilder line = new StringBuilder("[ColorSensor] ");
 				for (int i=0; i < allRegisters.length; i++)
 				{
-					System.out.printf("%2x ", allRegisters[i]);
+					line.append(String.format("%2x ", allRegisters[i]));
 				}
-				System.out.println();
+				Logger.println(line.toString());
 			}
 		}
 	}
@@ -167,7 +232,7 @@ public class AMSColorSensor
 		timer.schedule(m_backgroundLoop, // TimerTask to run
 				0,        // initial delay is 0 - run immediately
 				loopTime);  // subsequent rate milliseconds
-		System.out.println("[ColorSensor] Background task running every " + loopTime + " milliseconds");
+		Logger.println("[ColorSensor] Background task running every " + loopTime + " milliseconds");
 	}
 
 	public void stop() {
@@ -180,8 +245,15 @@ public class AMSColorSensor
 	}
 
 	private class updateColorSensor extends TimerTask {
+		private boolean isPrioritySet = false;
 
 		public void run() {
+			if (!isPrioritySet) // the Timer thread can only be reached from inside its own task
+			{
+				ThreadPriorities.setBackgroundPriority("color sensor polling");
+				GcMonitor.getInstance().watchCurrentThread("AMSColorSensor");
+				isPrioritySet = true;
+			}
 			calculate(); // keep run() minimal - Get is where all the action is
 		}
 	}
@@ -190,6 +262,8 @@ public class AMSColorSensor
 	{
 		if (isWorking())
 		{
+			long startNanos = System.nanoTime();
+			readings.increment();
 			boolean rgbcCompleted = false; // assume reading will be bad
 			// try 3 times to get a good reading
 			for (int i = 1; i <=3; i++)
@@ -209,10 +283,15 @@ public class AMSColorSensor
 				}
 				else
 				{ // didn't find masked bits so it's bad and try again in awhile
+					retries.increment();
+					if (JfrRecording.isRecording())
+					{
+						retryEvent.commitRetry(i, Status);
+					}
 					try {
 						Thread.sleep(4); // sleep a little before trying again
 					} catch (InterruptedException e) {
-						e.printStackTrace();
+						Logger.log(INTERRUPTED, e);
 					}
 				}
 			}
@@ -221,8 +300,10 @@ public class AMSColorSensor
 			if(!rgbcCompleted)
 			{ // tried to read sensor a few times and all failed so mark the data for this iteration as bad
 				set(-1, -1, -1, -1, false);	//bad
-				System.out.println("[ColorSensor] failed reading");
+				failedReads.increment();
+				Logger.log(FAILED_READING);
 			}
+			readTime.record((System.nanoTime() - startNanos) / 1.0e6);
 		}
 		// have the 2 characters from the ColorSensor registers so convert to int for our use
 		//		.set( ((distance[0] & 0xFF) <<8) | (distance[1] & 0xFF) ); // update shared memory with the new ColorSensor value
@@ -0,0 +1,53 @@
+package frc.robot.telemetry;
+
+/**
+ * Class for a lock-free queue of block numbers between one producer and one consumer thread.
+ * The TelemetryRecorder and the TelemetryUplink use two of them each: one for the free blocks
+ * and one for the full blocks.
+ */
+class BlockQueue
+{
+	private final int[] slots;
+	private final int mask;
+	private volatile long head = 0;		// next slot to take from, written by the consumer
+	private volatile long tail = 0;		// next slot to put into, written by the producer
+
+	BlockQueue(int capacity)
+	{
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		slots = new int[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Adds a block. Only called by the producer.
+	 * Never fails, because the queue has room for every block.
+	 */
+	void offer(int block)
+	{
+		long position = tail;
+		slots[(int) (position & mask)] = block;
+		tail = position + 1;
+	}
+
+	/**
+	 * Takes the oldest block. Only called by the consumer.
+	 * @return The block, or -1 if the queue is empty.
+	 */
+	int poll()
+	{
+		long position = head;
+		if (position == tail)
+		{
+			return -1;
+		}
+		int block = slots[(int) (position & mask)];
+		head = position + 1;
+		return block;
+	}
+
+	int size()
+	{
+		return (int) (tail - head);
+	}
+}
@@ -0,0 +1,53 @@
+package frc.robot.telemetry;
+
+/**
+ * The values recorded every tick, in the order of the columns in a telemetry block.
+ * Add new channels at the end: the file header lists the channels by name, so a reader
+ * can still open logs that were recorded with fewer channels.
+ */
+public enum Channel
+{
+	kTime("s"),						// FPGA timestamp
+	kMode(""),						// Robot.Constants.Mode ordinal
+	kLoopPeriod("s"),				// time since the start of the previous tick
+	kLoopExecution("s"),			// how long the previous tick took
+	kEncoderDistance("in"),
+	kNavXYaw("deg"),
+	kColorC(""),
+	kColorR(""),
+	kColorG(""),
+	kColorB(""),
+	kElevatorPosition(""),			// string potentiometer
+	kPivotPotentiometer(""),
+	kLeftIntakeEncoder(""),
+	kRightIntakeEncoder(""),
+	kFrontLeftOutput(""),			// motor outputs from -1.0 to 1.0
+	kFrontRightOutput(""),
+	kRearLeftOutput(""),
+	kRearRightOutput(""),
+	kElevatorOutput(""),
+	kPivotOutput(""),
+	kLeftIntakeOutput(""),
+	kRightIntakeOutput(""),
+	kAutoStage(""),					// Autonomous.Constants.AutoStage ordinal
+	kAutonStage(""),				// Autonomous.Constants.AutonStage ordinal
+	kBatteryVoltage("V"),
+	kBrownedOut(""),				// 1 while the roboRIO has disabled the outputs to save the battery
+	kGcPauseTime("s");				// total garbage collection pause time since the robot code started
+
+	private final String unit;
+
+	private Channel(String unit)
+	{
+		this.unit = unit;
+	}
+
+	/**
+	 * Gets the unit of the channel, for reports.
+	 * @return The unit, or an empty string if the channel has no unit.
+	 */
+	public String getUnit()
+	{
+		return unit;
+	}
+}
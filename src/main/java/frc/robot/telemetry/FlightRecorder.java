@@ -0,0 +1,304 @@
+package frc.robot.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import frc.robot.util.Logger;
+import frc.robot.util.ThreadPriorities;
+
+/**
+ * Class to keep the last HISTORY_TICKS ticks in memory and write them to a file when
+ * something goes wrong: an exception is caught, autonomous is aborted, or the roboRIO
+ * browns out. Unlike the TelemetryRecorder, it does not depend on the disk keeping up,
+ * so the ticks before a failure are there even if the match log dropped them.
+ *
+ * <p>The control thread copies each tick into a preallocated ring of doubles and never
+ * waits. trigger() can be called from any thread; it only hands the reason to a dump
+ * thread, which waits POST_TRIGGER_SECONDS so the dump also shows what happened next,
+ * copies the ring, and writes it as flight-NNNN.tlm (a raw telemetry log, so the
+ * TelemetryAnalysis can read it) with the reason and stack trace in flight-NNNN.txt.
+ */
+public class FlightRecorder
+{
+	private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+	/**
+	 * The reasons for a dump.
+	 */
+	public enum Trigger
+	{
+		kException, kAbortAutonomous, kBrownout, kRequested
+	}
+
+	private final Channel[] channels = Channel.values();
+	private final double[] history = new double[Constants.HISTORY_TICKS * channels.length];
+	private volatile long tickCount = 0;		// written by the control thread after the tick's row
+
+	// used by the dump thread only
+	private final double[] snapshot = new double[history.length];
+	private final int tickCapacity = TelemetryFormat.getTickCapacity(channels.length);
+	private final ByteBuffer block = TelemetryFormat.allocateBlock();
+	private final Thread dumper;
+
+	private final AtomicReference<Request> pendingRequest = new AtomicReference<>();
+	private final AtomicInteger ignoredTriggerCount = new AtomicInteger();
+	private volatile long lastDumpNanos = 0;
+	private volatile int dumpCount = 0;
+	private volatile String lastDumpName = null;
+
+	private static FlightRecorder instance = new FlightRecorder();
+
+	/**
+	 * Returns the singleton instance of FlightRecorder.
+	 * @return The singleton instance of FlightRecorder.
+	 */
+	public static FlightRecorder getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Private constructor for FlightRecorder.
+	 * Starts the dump thread, which sleeps until a trigger.
+	 */
+	private FlightRecorder()
+	{
+		dumper = new Thread(this::dump, "FlightRecorder");
+		dumper.setDaemon(true);
+		dumper.start();
+	}
+
+	/**
+	 * Keeps one tick in the ring. Must be called by the control thread.
+	 * @param frame The values of the tick. They are copied, so the frame can be reused.
+	 */
+	public void record(TelemetryFrame frame)
+	{
+		long tick = tickCount;
+		int offset = (int) (tick % Constants.HISTORY_TICKS) * channels.length;
+		for (int i = 0; i < channels.length; i++)
+		{
+			history[offset + i] = frame.get(i);
+		}
+		tickCount = tick + 1;
+	}
+
+	/**
+	 * Asks for the ring to be written to a file. Can be called from any thread and does not wait.
+	 * Triggers while a dump is pending, or less than MIN_DUMP_INTERVAL after the last dump, are only counted.
+	 * @param trigger Why the ring is dumped.
+	 * @param detail What happened, for the text file.
+	 * @param exception The exception that was caught, or null.
+	 */
+	public void trigger(Trigger trigger, String detail, Throwable exception)
+	{
+		long now = System.nanoTime();
+		if ((lastDumpNanos != 0 && now - lastDumpNanos < (long) (Constants.MIN_DUMP_INTERVAL * 1.0e9))
+				|| !pendingRequest.compareAndSet(null, new Request(trigger, detail, exception, now)))
+		{
+			ignoredTriggerCount.incrementAndGet();
+			return;
+		}
+		LockSupport.unpark(dumper);
+	}
+
+	/**
+	 * Asks for the ring to be written to a file because an exception was caught.
+	 * @param exception The exception.
+	 */
+	public void trigger(Throwable exception)
+	{
+		trigger(Trigger.kException, "caught on thread " + Thread.currentThread().getName(), exception);
+	}
+
+	/**
+	 * Runs on the dump thread: waits for a trigger, then writes the ring.
+	 */
+	private void dump()
+	{
+		ThreadPriorities.setBackgroundPriority("flight recorder");
+
+		while (true)
+		{
+			Request request = pendingRequest.get();
+			if (request == null)
+			{
+				LockSupport.park(this);
+				continue;
+			}
+
+			// keep recording for a moment, so the dump shows what the trigger led to
+			long waitNanos = request.nanos + (long) (Constants.POST_TRIGGER_SECONDS * 1.0e9) - System.nanoTime();
+			while (waitNanos > 0)
+			{
+				LockSupport.parkNanos(waitNanos);
+				waitNanos = request.nanos + (long) (Constants.POST_TRIGGER_SECONDS * 1.0e9) - System.nanoTime();
+			}
+
+			try
+			{
+				write(request);
+			}
+			catch (IOException e)
+			{
+				Logger.println("[FlightRecorder] dump failed: " + e);
+			}
+			lastDumpNanos = System.nanoTime();
+			pendingRequest.set(null);
+		}
+	}
+
+	/**
+	 * Copies the ring and writes it and the reason for the dump to two new files.
+	 */
+	private void write(Request request) throws IOException
+	{
+		// the control thread keeps writing while the ring is copied, so only the rows
+		// that were complete before the copy and not overwritten during it are kept
+		long end = tickCount;
+		System.arraycopy(history, 0, snapshot, 0, history.length);
+		long endAfterCopy = tickCount;
+		long first = Math.max(Math.max(0, end - Constants.HISTORY_TICKS), endAfterCopy - Constants.HISTORY_TICKS + 1);
+
+		File directory = TelemetryRecorder.getDirectory();
+		if (!directory.isDirectory() && !directory.mkdirs())
+		{
+			throw new IOException("cannot create " + directory);
+		}
+		TelemetryRecorder.deleteOldFiles(directory, Constants.FILE_PREFIX, Constants.MAX_DUMPS);
+		deleteOrphanTexts(directory);
+		String name = String.format("%s%04d", Constants.FILE_PREFIX, TelemetryRecorder.getNextFileNumber(directory, Constants.FILE_PREFIX));
+		File logFile = new File(directory, name + TelemetryFormat.Constants.FILE_EXTENSION);
+
+		try (FileChannel file = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))
+		{
+			TelemetryFormat.writeFileHeader(block, channels, System.currentTimeMillis(), TelemetryFormat.Constants.ENCODING_RAW);
+			writeBlock(file);
+
+			int sequence = 0;
+			for (long tick = first; tick < end; tick += tickCapacity)
+			{
+				int ticks = (int) Math.min(tickCapacity, end - tick);
+				for (int i = 0; i < ticks; i++)
+				{
+					int row = (int) ((tick + i) % Constants.HISTORY_TICKS) * channels.length;
+					for (int c = 0; c < channels.length; c++)
+					{
+						block.putDouble(TelemetryFormat.getColumnOffset(c, tickCapacity) + i * Double.BYTES, snapshot[row + c]);
+					}
+				}
+				TelemetryFormat.writeBlockHeader(block, sequence, ticks, channels.length, tickCapacity,
+						(sequence == 0) ? TelemetryFormat.Constants.BLOCK_FLAG_NEW_RECORDING : 0);
+				writeBlock(file);
+				sequence++;
+			}
+			file.force(true);
+		}
+
+		StringWriter text = new StringWriter();
+		PrintWriter printer = new PrintWriter(text);
+		printer.printf("trigger: %s%n", request.trigger);
+		printer.printf("detail: %s%n", request.detail);
+		printer.printf("time: %s%n", DATE_FORMAT.format(new Date(request.millis)));
+		printer.printf("ticks: %d, of which %d after the trigger%n", end - first, Math.min(end - first, end - request.tickCount));
+		printer.printf("ignored triggers so far: %d%n", ignoredTriggerCount.get());
+		if (request.exception != null)
+		{
+			request.exception.printStackTrace(printer);
+		}
+		printer.flush();
+		Files.write(new File(directory, name + Constants.TEXT_EXTENSION).toPath(), text.toString().getBytes(StandardCharsets.UTF_8));
+
+		dumpCount++;
+		lastDumpName = logFile.getPath();
+		Logger.println("[FlightRecorder] " + request.trigger + ": dumped " + (end - first) + " ticks to " + logFile);
+	}
+
+	/**
+	 * Deletes the text files whose log was deleted by deleteOldFiles().
+	 */
+	private static void deleteOrphanTexts(File directory)
+	{
+		File[] texts = directory.listFiles((dir, name) -> name.startsWith(Constants.FILE_PREFIX) && name.endsWith(Constants.TEXT_EXTENSION));
+		if (texts != null)
+		{
+			for (File text : texts)
+			{
+				String name = text.getName();
+				File log = new File(directory, name.substring(0, name.length() - Constants.TEXT_EXTENSION.length()) + TelemetryFormat.Constants.FILE_EXTENSION);
+				if (!log.exists())
+				{
+					text.delete();
+				}
+			}
+		}
+	}
+
+	private void writeBlock(FileChannel file) throws IOException
+	{
+		block.clear();
+		while (block.hasRemaining())
+		{
+			file.write(block);
+		}
+		block.clear();
+	}
+
+	public int getDumpCount()
+	{
+		return dumpCount;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("[FlightRecorder] %d dumps, %d triggers ignored, last dump %s", dumpCount, ignoredTriggerCount.get(),
+				(lastDumpName == null) ? "none" : lastDumpName);
+	}
+
+	/**
+	 * Class for a trigger waiting for the dump thread.
+	 */
+	private class Request
+	{
+		private final Trigger trigger;
+		private final String detail;
+		private final Throwable exception;
+		private final long nanos;
+		private final long millis = System.currentTimeMillis();
+		private final long tickCount = FlightRecorder.this.tickCount;
+
+		private Request(Trigger trigger, String detail, Throwable exception, long nanos)
+		{
+			this.trigger = trigger;
+			this.detail = detail;
+			this.exception = exception;
+			this.nanos = nanos;
+		}
+	}
+
+	/**
+	 * Class for constant variables related to FlightRecorder.
+	 */
+	public static class Constants
+	{
+		public static final int HISTORY_TICKS = 1000;				// 20 s of 20 ms ticks, 10 s of 10 ms ticks
+		public static final double POST_TRIGGER_SECONDS = 1.0;		// how long to keep recording after a trigger
+		public static final double MIN_DUMP_INTERVAL = 10.0;		// seconds, so an exception every tick does not fill the disk
+		public static final int MAX_DUMPS = 20;						// oldest dumps are deleted
+		public static final String FILE_PREFIX = "flight-";
+		public static final String TEXT_EXTENSION = ".txt";
+	}
+}
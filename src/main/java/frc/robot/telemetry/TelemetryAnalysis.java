@@ -0,0 +1,330 @@
+package frc.robot.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+
+import frc.robot.Autonomous;
+import frc.robot.Robot;
+
+/**
+ * Command line tool to summarize telemetry logs on a laptop.
+ * For every log it prints how long the robot spent in each mode, the loop timing,
+ * how long each autonomous stage took with the sensor ranges during the stage, and
+ * the range of every channel. Run it with the robot jar on the classpath:
+ * <pre>
+ * java -cp build/libs/&lt;robot jar&gt; frc.robot.telemetry.TelemetryAnalysis telemetry-0001.tlm ...
+ * </pre>
+ * or with ./gradlew analyzeTelemetry -Plogs=telemetry-0001.tlm,...
+ */
+public class TelemetryAnalysis
+{
+	private final TelemetryLog log;
+	private final TelemetryLog.Column time;
+	private final TelemetryLog.Column mode;
+
+	/**
+	 * Constructor for TelemetryAnalysis.
+	 * @param log The log to summarize.
+	 */
+	public TelemetryAnalysis(TelemetryLog log)
+	{
+		this.log = log;
+		this.time = log.getColumn(Channel.kTime);
+		this.mode = log.getColumn(Channel.kMode);
+	}
+
+	public static void main(String[] args)
+	{
+		if (args.length == 0)
+		{
+			System.out.println("usage: TelemetryAnalysis <log file>...");
+			return;
+		}
+
+		for (String name : args)
+		{
+			long startNanos = System.nanoTime();
+			try
+			{
+				TelemetryAnalysis analysis = new TelemetryAnalysis(new TelemetryLog(new File(name)));
+				analysis.print();
+				System.out.printf("analyzed in %.1f ms%n%n", (System.nanoTime() - startNanos) / 1.0e6);
+			}
+			catch (IOException e)
+			{
+				System.out.println(name + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Prints the whole summary.
+	 */
+	public void print()
+	{
+		int ticks = log.getTickCount();
+		System.out.printf("%s: %d ticks in %d blocks, recorded %s%n", log.getFile().getName(), ticks, log.getBlockCount(),
+				new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(log.getStartTimeMillis())));
+		if (ticks == 0 || time == null || mode == null)
+		{
+			return;
+		}
+		System.out.printf("\t%.2f s from %.2f s to %.2f s FPGA time%n", time.get(ticks - 1) - time.get(0), time.get(0), time.get(ticks - 1));
+
+		printModes();
+		printLoopTiming();
+		printStages(Channel.kAutoStage, Autonomous.Constants.AutoStage.values());
+		printStages(Channel.kAutonStage, Autonomous.Constants.AutonStage.values());
+		printRanges();
+	}
+
+	/**
+	 * Prints how long the robot was in each mode.
+	 */
+	private void printModes()
+	{
+		Robot.Constants.Mode[] modes = Robot.Constants.Mode.values();
+		double[] durations = new double[modes.length];
+		int[] counts = new int[modes.length];
+		for (int i = 0; i < log.getTickCount(); i++)
+		{
+			int m = (int) mode.get(i);
+			if (m >= 0 && m < modes.length)
+			{
+				durations[m] += getTickDuration(i);
+				counts[m]++;
+			}
+		}
+
+		System.out.println("Modes:");
+		for (int m = 0; m < modes.length; m++)
+		{
+			if (counts[m] > 0)
+			{
+				System.out.printf("\t%-14s %8.2f s %8d ticks%n", modes[m], durations[m], counts[m]);
+			}
+		}
+	}
+
+	/**
+	 * Prints the statistics of the loop period and execution time.
+	 */
+	private void printLoopTiming()
+	{
+		TelemetryLog.Column period = log.getColumn(Channel.kLoopPeriod);
+		TelemetryLog.Column execution = log.getColumn(Channel.kLoopExecution);
+		if (period == null || execution == null)
+		{
+			return;
+		}
+
+		double[] periods = period.toArray();
+		double[] executions = execution.toArray();
+		Arrays.sort(periods);
+		Arrays.sort(executions);
+
+		// the first tick of every mode has no previous tick, so it has no period
+		int first = 0;
+		while (first < periods.length && periods[first] <= 0.0)
+		{
+			first++;
+		}
+		double median = getPercentile(periods, first, 0.5);
+		int late = 0;
+		for (int i = first; i < periods.length; i++)
+		{
+			if (periods[i] > Constants.LATE_PERIOD_FACTOR * median)
+			{
+				late++;
+			}
+		}
+
+		System.out.println("Loop timing (ms):");
+		printPercentiles("period", periods, first);
+		printPercentiles("execution", executions, 0);
+		System.out.printf("\t%d periods longer than %.1fx the median%n", late, Constants.LATE_PERIOD_FACTOR);
+	}
+
+	private void printPercentiles(String name, double[] sorted, int first)
+	{
+		if (first >= sorted.length)
+		{
+			return;
+		}
+		double sum = 0.0;
+		for (int i = first; i < sorted.length; i++)
+		{
+			sum += sorted[i];
+		}
+		System.out.printf("\t%-10s mean %7.3f  min %7.3f  p50 %7.3f  p99 %7.3f  max %7.3f%n", name, sum / (sorted.length - first) * 1000.0,
+				sorted[first] * 1000.0, getPercentile(sorted, first, 0.5) * 1000.0, getPercentile(sorted, first, 0.99) * 1000.0, sorted[sorted.length - 1] * 1000.0);
+	}
+
+	private static double getPercentile(double[] sorted, int first, double fraction)
+	{
+		if (first >= sorted.length)
+		{
+			return 0.0;
+		}
+		int index = first + (int) Math.round(fraction * (sorted.length - 1 - first));
+		return sorted[index];
+	}
+
+	/**
+	 * Prints every stage the autonomous routine went through, with its duration and the
+	 * sensor ranges during the stage. Prints nothing if the stage never changed.
+	 * @param channel The stage channel.
+	 * @param stages The constants of the stage enum.
+	 */
+	private void printStages(Channel channel, Enum<?>[] stages)
+	{
+		TelemetryLog.Column stage = log.getColumn(channel);
+		if (stage == null)
+		{
+			return;
+		}
+
+		TelemetryLog.Column[] sensors = new TelemetryLog.Column[Constants.STAGE_SENSORS.length];
+		for (int s = 0; s < sensors.length; s++)
+		{
+			sensors[s] = log.getColumn(Constants.STAGE_SENSORS[s]);
+		}
+
+		StringBuilder report = new StringBuilder();
+		int transitions = 0;
+		int autonomous = Robot.Constants.Mode.kAutonomous.ordinal();
+		int i = 0;
+		while (i < log.getTickCount())
+		{
+			if ((int) mode.get(i) != autonomous)
+			{
+				i++;
+				continue;
+			}
+
+			// one segment: the ticks in a row with the same stage
+			double value = stage.get(i);
+			int start = i;
+			double[] minimums = new double[sensors.length];
+			double[] maximums = new double[sensors.length];
+			Arrays.fill(minimums, Double.POSITIVE_INFINITY);
+			Arrays.fill(maximums, Double.NEGATIVE_INFINITY);
+			double duration = 0.0;
+			while (i < log.getTickCount() && (int) mode.get(i) == autonomous && stage.get(i) == value)
+			{
+				for (int s = 0; s < sensors.length; s++)
+				{
+					if (sensors[s] != null)
+					{
+						minimums[s] = Math.min(minimums[s], sensors[s].get(i));
+						maximums[s] = Math.max(maximums[s], sensors[s].get(i));
+					}
+				}
+				duration += getTickDuration(i);
+				i++;
+			}
+			if (start > 0 && (int) mode.get(start - 1) == autonomous)
+			{
+				transitions++;
+			}
+
+			report.append(String.format("\t%-24s %6.2f s at %7.2f s", getName(stages, value), duration, time.get(start)));
+			for (int s = 0; s < sensors.length; s++)
+			{
+				if (sensors[s] != null)
+				{
+					report.append(String.format("  %s %.1f..%.1f", Constants.STAGE_SENSORS[s].name().substring(1), minimums[s], maximums[s]));
+				}
+			}
+			report.append(System.lineSeparator());
+		}
+
+		if (transitions > 0)
+		{
+			System.out.println("Autonomous stages (" + channel.name().substring(1) + "):");
+			System.out.print(report);
+		}
+	}
+
+	/**
+	 * Prints the minimum, maximum and mean of every channel while the robot was enabled.
+	 */
+	private void printRanges()
+	{
+		int disabled = Robot.Constants.Mode.kDisabled.ordinal();
+		int modeColumn = log.getColumnIndex(Channel.kMode);
+		String[] names = log.getChannelNames();
+		DoubleBuffer[] modeBlocks = new DoubleBuffer[log.getBlockCount()];
+		for (int b = 0; b < modeBlocks.length; b++)
+		{
+			modeBlocks[b] = log.getBlockColumn(b, modeColumn);
+		}
+
+		System.out.println("Channel ranges:");
+		for (int c = 0; c < names.length; c++)
+		{
+			double minimum = Double.POSITIVE_INFINITY;
+			double maximum = Double.NEGATIVE_INFINITY;
+			double sum = 0.0;
+			int count = 0;
+			for (int b = 0; b < log.getBlockCount(); b++)
+			{
+				DoubleBuffer values = log.getBlockColumn(b, c);
+				DoubleBuffer modes = modeBlocks[b];
+				for (int i = 0; i < values.limit(); i++)
+				{
+					if ((int) modes.get(i) != disabled)
+					{
+						double value = values.get(i);
+						minimum = Math.min(minimum, value);
+						maximum = Math.max(maximum, value);
+						sum += value;
+						count++;
+					}
+				}
+			}
+			if (count > 0)
+			{
+				System.out.printf("\t%-20s min %10.3f  max %10.3f  mean %10.3f %s%n", names[c].substring(1), minimum, maximum, sum / count, log.getUnit(c));
+			}
+		}
+	}
+
+	/**
+	 * Gets how long a tick lasted: until the next tick, or the previous period for the last tick.
+	 * Gaps longer than MAX_TICK_DURATION, between recordings, are not counted.
+	 */
+	private double getTickDuration(int tick)
+	{
+		double duration;
+		if (tick + 1 < log.getTickCount())
+		{
+			duration = time.get(tick + 1) - time.get(tick);
+		}
+		else
+		{
+			duration = (tick > 0) ? time.get(tick) - time.get(tick - 1) : 0.0;
+		}
+		return (duration > 0.0 && duration < Constants.MAX_TICK_DURATION) ? duration : 0.0;
+	}
+
+	private static String getName(Enum<?>[] constants, double ordinal)
+	{
+		int i = (int) ordinal;
+		return (i >= 0 && i < constants.length) ? constants[i].name() : "#" + i;
+	}
+
+	/**
+	 * Class for constant variables related to TelemetryAnalysis.
+	 */
+	public static class Constants
+	{
+		public static final Channel[] STAGE_SENSORS = {Channel.kEncoderDistance, Channel.kNavXYaw, Channel.kElevatorPosition, Channel.kPivotPotentiometer};
+		public static final double LATE_PERIOD_FACTOR = 1.5;
+		public static final double MAX_TICK_DURATION = 1.0;		// seconds
+	}
+}
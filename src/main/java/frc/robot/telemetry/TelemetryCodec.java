@@ -0,0 +1,303 @@
+package frc.robot.telemetry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class to compress telemetry blocks, column by column, without losing any value.
+ * Most channels change by small amounts from one tick to the next, so each column is
+ * stored with whichever of these encodings is smallest for the block:
+ * <ul>
+ * <li>COLUMN_DELTA: every value is an integer after scaling by 10^exponent (encoder counts,
+ * potentiometers, colors, FPGA time in microseconds, loop times in nanoseconds). The
+ * differences between ticks are stored as zig-zag varints, usually one or two bytes.
+ * <li>COLUMN_XOR: each value's bits XORed with the previous value's bits, shifted right by
+ * the trailing zeros they all share, as a varint. Repeated values take one byte, and
+ * values that came from a float (the navX) lose the 29 zero bits at the end.
+ * <li>COLUMN_RAW: eight bytes per value, if nothing else is smaller.
+ * </ul>
+ * An encoded block starts with the usual block header, whose BLOCK_LENGTH_OFFSET field holds
+ * the length of the whole encoded block, followed by a directory with the encoding and length
+ * of every column, so a reader can decode one column without decoding the others.
+ */
+public class TelemetryCodec
+{
+	private static final int[] EXPONENTS = {0, 3, 6, 9};
+	private static final double[] SCALES = {1.0, 1.0e3, 1.0e6, 1.0e9};
+
+	private final long[] scaled;
+	private final double[] values;
+
+	/**
+	 * Constructor for a TelemetryCodec that can encode blocks of up to tickCapacity ticks.
+	 * A codec reuses its work arrays, so use one codec per thread.
+	 * @param tickCapacity The largest number of ticks in a block.
+	 */
+	public TelemetryCodec(int tickCapacity)
+	{
+		this.scaled = new long[tickCapacity];
+		this.values = new double[tickCapacity];
+	}
+
+	/**
+	 * Gets the largest size an encoded block can have.
+	 * @param channelCount The number of channels.
+	 * @param tickCapacity The largest number of ticks in a block.
+	 * @return The size in bytes.
+	 */
+	public static int getMaxEncodedSize(int channelCount, int tickCapacity)
+	{
+		return TelemetryFormat.Constants.BLOCK_HEADER_SIZE + channelCount * (Constants.DIRECTORY_ENTRY_SIZE + tickCapacity * Double.BYTES);
+	}
+
+	/**
+	 * Encodes a raw block.
+	 * @param raw The raw block, with its header written.
+	 * @param out Where to put the encoded block, from its position. Must have getMaxEncodedSize() bytes remaining.
+	 * @return The length of the encoded block.
+	 */
+	public int encode(ByteBuffer raw, ByteBuffer out)
+	{
+		int tickCount = raw.getInt(TelemetryFormat.Constants.BLOCK_TICK_COUNT_OFFSET);
+		int channelCount = raw.getInt(TelemetryFormat.Constants.BLOCK_CHANNEL_COUNT_OFFSET);
+		int tickCapacity = raw.getInt(TelemetryFormat.Constants.BLOCK_TICK_CAPACITY_OFFSET);
+
+		int start = out.position();
+		for (int i = 0; i < TelemetryFormat.Constants.BLOCK_HEADER_SIZE; i += Integer.BYTES)
+		{
+			out.putInt(start + i, raw.getInt(i));
+		}
+		out.putInt(start + TelemetryFormat.Constants.BLOCK_TICK_CAPACITY_OFFSET, tickCount);
+		out.putInt(start + TelemetryFormat.Constants.BLOCK_ENCODING_OFFSET, TelemetryFormat.Constants.ENCODING_DELTA_VARINT);
+
+		int directory = start + TelemetryFormat.Constants.BLOCK_HEADER_SIZE;
+		out.position(directory + channelCount * Constants.DIRECTORY_ENTRY_SIZE);
+		for (int column = 0; column < channelCount; column++)
+		{
+			int offset = TelemetryFormat.getColumnOffset(column, tickCapacity);
+			for (int i = 0; i < tickCount; i++)
+			{
+				values[i] = raw.getDouble(offset + i * Double.BYTES);
+			}
+
+			int columnStart = out.position();
+			int entry = directory + column * Constants.DIRECTORY_ENTRY_SIZE;
+			encodeColumn(tickCount, out, entry);
+			out.putInt(entry + Constants.DIRECTORY_LENGTH_OFFSET, out.position() - columnStart);
+		}
+
+		int length = out.position() - start;
+		out.putInt(start + TelemetryFormat.Constants.BLOCK_LENGTH_OFFSET, length);
+		return length;
+	}
+
+	/**
+	 * Encodes values[0..count) with the smallest encoding and writes the encoding to the directory entry.
+	 */
+	private void encodeColumn(int count, ByteBuffer out, int entry)
+	{
+		int deltaExponent = -1;
+		int deltaSize = Integer.MAX_VALUE;
+		for (int e = 0; e < EXPONENTS.length && deltaExponent < 0; e++)
+		{
+			if (scale(count, SCALES[e]))
+			{
+				deltaExponent = e;
+				long previous = 0;
+				deltaSize = 0;
+				for (int i = 0; i < count; i++)
+				{
+					deltaSize += getVarintSize(zigZag(scaled[i] - previous));
+					previous = scaled[i];
+				}
+			}
+		}
+
+		long commonBits = 0;
+		long previousBits = 0;
+		for (int i = 0; i < count; i++)
+		{
+			long bits = Double.doubleToRawLongBits(values[i]);
+			commonBits |= bits ^ previousBits;
+			previousBits = bits;
+		}
+		int shift = (commonBits == 0) ? 0 : Long.numberOfTrailingZeros(commonBits);
+		int xorSize = 0;
+		previousBits = 0;
+		for (int i = 0; i < count; i++)
+		{
+			long bits = Double.doubleToRawLongBits(values[i]);
+			xorSize += getVarintSize((bits ^ previousBits) >>> shift);
+			previousBits = bits;
+		}
+
+		int rawSize = count * Double.BYTES;
+		if (deltaSize <= xorSize && deltaSize < rawSize)
+		{
+			// scaled[] still holds the values of the exponent that was found
+			out.put(entry + Constants.DIRECTORY_ENCODING_OFFSET, (byte) Constants.COLUMN_DELTA);
+			out.put(entry + Constants.DIRECTORY_PARAMETER_OFFSET, (byte) EXPONENTS[deltaExponent]);
+			long previous = 0;
+			for (int i = 0; i < count; i++)
+			{
+				putVarint(out, zigZag(scaled[i] - previous));
+				previous = scaled[i];
+			}
+		}
+		else if (xorSize < rawSize)
+		{
+			out.put(entry + Constants.DIRECTORY_ENCODING_OFFSET, (byte) Constants.COLUMN_XOR);
+			out.put(entry + Constants.DIRECTORY_PARAMETER_OFFSET, (byte) shift);
+			previousBits = 0;
+			for (int i = 0; i < count; i++)
+			{
+				long bits = Double.doubleToRawLongBits(values[i]);
+				putVarint(out, (bits ^ previousBits) >>> shift);
+				previousBits = bits;
+			}
+		}
+		else
+		{
+			out.put(entry + Constants.DIRECTORY_ENCODING_OFFSET, (byte) Constants.COLUMN_RAW);
+			out.put(entry + Constants.DIRECTORY_PARAMETER_OFFSET, (byte) 0);
+			for (int i = 0; i < count; i++)
+			{
+				out.putDouble(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Scales values[0..count) into scaled[], if every value is exactly an integer divided by the scale.
+	 * @return True if the scaled values give back exactly the same doubles.
+	 */
+	private boolean scale(int count, double scale)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			double value = values[i];
+			long q = Math.round(value * scale);
+			if (Math.abs(q) > Constants.MAX_EXACT_INTEGER || Double.doubleToRawLongBits(q / scale) != Double.doubleToRawLongBits(value))
+			{
+				return false;
+			}
+			scaled[i] = q;
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes one column of an encoded block.
+	 * @param block The buffer that holds the encoded block.
+	 * @param start The offset of the encoded block in the buffer.
+	 * @param column The column.
+	 * @param values Where to put the values. Must have room for the tick count of the block.
+	 */
+	public static void decodeColumn(ByteBuffer block, int start, int column, double[] values)
+	{
+		int tickCount = block.getInt(start + TelemetryFormat.Constants.BLOCK_TICK_COUNT_OFFSET);
+		int channelCount = block.getInt(start + TelemetryFormat.Constants.BLOCK_CHANNEL_COUNT_OFFSET);
+		int directory = start + TelemetryFormat.Constants.BLOCK_HEADER_SIZE;
+
+		int position = directory + channelCount * Constants.DIRECTORY_ENTRY_SIZE;
+		for (int c = 0; c < column; c++)
+		{
+			position += block.getInt(directory + c * Constants.DIRECTORY_ENTRY_SIZE + Constants.DIRECTORY_LENGTH_OFFSET);
+		}
+		int entry = directory + column * Constants.DIRECTORY_ENTRY_SIZE;
+		int encoding = block.get(entry + Constants.DIRECTORY_ENCODING_OFFSET);
+		int parameter = block.get(entry + Constants.DIRECTORY_PARAMETER_OFFSET);
+
+		ByteBuffer in = block.duplicate().order(block.order());
+		in.position(position);
+		if (encoding == Constants.COLUMN_DELTA)
+		{
+			double scale = SCALES[parameter / 3];
+			long previous = 0;
+			for (int i = 0; i < tickCount; i++)
+			{
+				previous += unZigZag(getVarint(in));
+				values[i] = previous / scale;
+			}
+		}
+		else if (encoding == Constants.COLUMN_XOR)
+		{
+			long previousBits = 0;
+			for (int i = 0; i < tickCount; i++)
+			{
+				previousBits ^= getVarint(in) << parameter;
+				values[i] = Double.longBitsToDouble(previousBits);
+			}
+		}
+		else
+		{
+			for (int i = 0; i < tickCount; i++)
+			{
+				values[i] = in.getDouble();
+			}
+		}
+	}
+
+	private static long zigZag(long value)
+	{
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(long value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static int getVarintSize(long value)
+	{
+		int size = 1;
+		while ((value & ~0x7FL) != 0)
+		{
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	private static void putVarint(ByteBuffer out, long value)
+	{
+		while ((value & ~0x7FL) != 0)
+		{
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	private static long getVarint(ByteBuffer in)
+	{
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do
+		{
+			b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while ((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * Class for constant variables related to TelemetryCodec.
+	 */
+	public static class Constants
+	{
+		public static final int COLUMN_RAW = 0;
+		public static final int COLUMN_DELTA = 1;
+		public static final int COLUMN_XOR = 2;
+
+		// directory entry of a column: encoding, parameter (exponent or shift), 2 unused bytes, length in bytes
+		public static final int DIRECTORY_ENTRY_SIZE = 8;
+		public static final int DIRECTORY_ENCODING_OFFSET = 0;
+		public static final int DIRECTORY_PARAMETER_OFFSET = 1;
+		public static final int DIRECTORY_LENGTH_OFFSET = 4;
+
+		public static final long MAX_EXACT_INTEGER = 1L << 53;
+	}
+}
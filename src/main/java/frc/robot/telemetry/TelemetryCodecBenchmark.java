@@ -0,0 +1,210 @@
+package frc.robot.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+/**
+ * Command line tool to measure the TelemetryCodec on a laptop.
+ * It encodes the blocks of a log file (or, with no argument, blocks of made-up values
+ * that change like the real channels do), checks that decoding gives back exactly the
+ * same values, and prints the compression ratio, the encoding chosen for every column
+ * and the time to encode a tick:
+ * <pre>
+ * java -cp build/libs/&lt;robot jar&gt; frc.robot.telemetry.TelemetryCodecBenchmark [telemetry-0001.tlm]
+ * </pre>
+ */
+public class TelemetryCodecBenchmark
+{
+	private static final String[] COLUMN_ENCODINGS = {"raw", "delta", "xor"};
+
+	public static void main(String[] args) throws IOException
+	{
+		Channel[] channels = Channel.values();
+		int tickCapacity = TelemetryFormat.getTickCapacity(channels.length);
+		ByteBuffer[] blocks = (args.length > 0) ? readBlocks(new TelemetryLog(new File(args[0])), tickCapacity) : makeBlocks(channels, tickCapacity);
+
+		TelemetryCodec codec = new TelemetryCodec(tickCapacity);
+		ByteBuffer encoded = ByteBuffer.allocateDirect(TelemetryCodec.getMaxEncodedSize(channels.length, tickCapacity)).order(ByteOrder.LITTLE_ENDIAN);
+		long rawBytes = 0;
+		long encodedBytes = 0;
+		int ticks = 0;
+		int[][] encodingCounts = new int[channels.length][COLUMN_ENCODINGS.length];
+		double[] decoded = new double[tickCapacity];
+		int mismatches = 0;
+
+		for (ByteBuffer block : blocks)
+		{
+			int tickCount = block.getInt(TelemetryFormat.Constants.BLOCK_TICK_COUNT_OFFSET);
+			encoded.clear();
+			int length = codec.encode(block, encoded);
+			rawBytes += TelemetryFormat.Constants.BLOCK_SIZE;
+			encodedBytes += length;
+			ticks += tickCount;
+
+			for (int c = 0; c < channels.length; c++)
+			{
+				int entry = TelemetryFormat.Constants.BLOCK_HEADER_SIZE + c * TelemetryCodec.Constants.DIRECTORY_ENTRY_SIZE;
+				encodingCounts[c][encoded.get(entry + TelemetryCodec.Constants.DIRECTORY_ENCODING_OFFSET)]++;
+
+				TelemetryCodec.decodeColumn(encoded, 0, c, decoded);
+				int offset = TelemetryFormat.getColumnOffset(c, tickCapacity);
+				for (int i = 0; i < tickCount; i++)
+				{
+					if (Double.doubleToRawLongBits(decoded[i]) != Double.doubleToRawLongBits(block.getDouble(offset + i * Double.BYTES)))
+					{
+						mismatches++;
+					}
+				}
+			}
+		}
+
+		// time the encoding on its own, after the JIT has compiled it
+		int rounds = Math.max(1, Constants.TIMED_TICKS / Math.max(1, ticks));
+		for (int r = 0; r < rounds; r++)
+		{
+			for (ByteBuffer block : blocks)
+			{
+				encoded.clear();
+				codec.encode(block, encoded);
+			}
+		}
+		long startNanos = System.nanoTime();
+		for (int r = 0; r < rounds; r++)
+		{
+			for (ByteBuffer block : blocks)
+			{
+				encoded.clear();
+				codec.encode(block, encoded);
+			}
+		}
+		double nanosPerTick = (double) (System.nanoTime() - startNanos) / ((long) rounds * ticks);
+
+		System.out.printf("%d ticks in %d blocks: %d KiB raw, %d KiB encoded, ratio %.1f%n", ticks, blocks.length, rawBytes / 1024, encodedBytes / 1024,
+				(double) rawBytes / Math.max(1, encodedBytes));
+		System.out.printf("%.1f bytes per tick, %.0f ns to encode a tick, %d values decoded differently%n", (double) encodedBytes / Math.max(1, ticks),
+				nanosPerTick, mismatches);
+		for (int c = 0; c < channels.length; c++)
+		{
+			StringBuilder line = new StringBuilder(String.format("\t%-20s", channels[c].name().substring(1)));
+			for (int e = 0; e < COLUMN_ENCODINGS.length; e++)
+			{
+				if (encodingCounts[c][e] > 0)
+				{
+					line.append(String.format(" %s %d", COLUMN_ENCODINGS[e], encodingCounts[c][e]));
+				}
+			}
+			System.out.println(line);
+		}
+	}
+
+	/**
+	 * Copies the blocks of a log into raw blocks laid out for the current channels.
+	 * Channels the log does not have are left at zero.
+	 */
+	private static ByteBuffer[] readBlocks(TelemetryLog log, int tickCapacity)
+	{
+		Channel[] channels = Channel.values();
+		ByteBuffer[] blocks = new ByteBuffer[log.getBlockCount()];
+		for (int b = 0; b < blocks.length; b++)
+		{
+			blocks[b] = TelemetryFormat.allocateBlock();
+			int tickCount = log.getBlockTickCount(b);
+			TelemetryFormat.writeBlockHeader(blocks[b], b, tickCount, channels.length, tickCapacity, 0);
+			for (Channel channel : channels)
+			{
+				int column = log.getColumnIndex(channel);
+				if (column >= 0)
+				{
+					DoubleBuffer values = log.getBlockColumn(b, column);
+					int offset = TelemetryFormat.getColumnOffset(channel.ordinal(), tickCapacity);
+					for (int i = 0; i < tickCount; i++)
+					{
+						blocks[b].putDouble(offset + i * Double.BYTES, values.get(i));
+					}
+				}
+			}
+		}
+		return blocks;
+	}
+
+	/**
+	 * Makes blocks of values that change the way the robot's values do: times read from
+	 * microsecond and nanosecond clocks, integer encoder and sensor counts, float angles,
+	 * and motor outputs and stages that stay the same for many ticks.
+	 */
+	private static ByteBuffer[] makeBlocks(Channel[] channels, int tickCapacity)
+	{
+		Random random = new Random(4237);
+		TelemetryFrame frame = new TelemetryFrame();
+		ByteBuffer[] blocks = new ByteBuffer[Constants.SYNTHETIC_BLOCKS];
+		long timeMicros = 12_000_000;
+		double distance = 0.0;
+		double yaw = 0.0;
+		double output = 0.0;
+		int stage = 0;
+
+		for (int b = 0; b < blocks.length; b++)
+		{
+			blocks[b] = TelemetryFormat.allocateBlock();
+			for (int tick = 0; tick < tickCapacity; tick++)
+			{
+				long periodNanos = 20_000_000 + random.nextInt(400_000) - 200_000;
+				timeMicros += periodNanos / 1000;
+				distance += output * 0.8;
+				yaw = (float) (yaw + output * 0.3 + random.nextGaussian() * 0.01);
+				if (random.nextInt(150) == 0)
+				{
+					output = Math.round(random.nextDouble() * 100.0) / 100.0;
+					stage++;
+				}
+
+				frame.set(Channel.kTime, timeMicros / 1.0e6);
+				frame.set(Channel.kMode, 3.0);
+				frame.set(Channel.kLoopPeriod, periodNanos / 1.0e9);
+				frame.set(Channel.kLoopExecution, (1_500_000 + random.nextInt(500_000)) / 1.0e9);
+				frame.set(Channel.kEncoderDistance, Math.round(distance * 1000.0) / 1000.0);
+				frame.set(Channel.kNavXYaw, yaw);
+				frame.set(Channel.kColorC, 2000 + random.nextInt(20));
+				frame.set(Channel.kColorR, 700 + random.nextInt(10));
+				frame.set(Channel.kColorG, 800 + random.nextInt(10));
+				frame.set(Channel.kColorB, 500 + random.nextInt(10));
+				frame.set(Channel.kElevatorPosition, 4000 + (int) (distance / 10.0));
+				frame.set(Channel.kPivotPotentiometer, 512 + random.nextInt(3));
+				frame.set(Channel.kLeftIntakeEncoder, (int) distance);
+				frame.set(Channel.kRightIntakeEncoder, (int) distance);
+				frame.set(Channel.kFrontLeftOutput, output);
+				frame.set(Channel.kFrontRightOutput, -output);
+				frame.set(Channel.kRearLeftOutput, output);
+				frame.set(Channel.kRearRightOutput, -output);
+				frame.set(Channel.kElevatorOutput, 0.0);
+				frame.set(Channel.kPivotOutput, 0.0);
+				frame.set(Channel.kLeftIntakeOutput, 0.0);
+				frame.set(Channel.kRightIntakeOutput, 0.0);
+				frame.set(Channel.kAutoStage, stage % 12);
+				frame.set(Channel.kAutonStage, -1.0);
+				frame.set(Channel.kBatteryVoltage, (12300 + random.nextInt(200)) / 1000.0);
+				frame.set(Channel.kBrownedOut, 0.0);
+
+				for (int c = 0; c < channels.length; c++)
+				{
+					blocks[b].putDouble(TelemetryFormat.getColumnOffset(c, tickCapacity) + tick * Double.BYTES, frame.get(c));
+				}
+			}
+			TelemetryFormat.writeBlockHeader(blocks[b], b, tickCapacity, channels.length, tickCapacity, 0);
+		}
+		return blocks;
+	}
+
+	/**
+	 * Class for constant variables related to TelemetryCodecBenchmark.
+	 */
+	public static class Constants
+	{
+		public static final int SYNTHETIC_BLOCKS = 45;		// about 5 minutes at 50 ticks per second
+		public static final int TIMED_TICKS = 1_000_000;
+	}
+}
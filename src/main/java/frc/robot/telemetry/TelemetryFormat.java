@@ -0,0 +1,157 @@
+package frc.robot.telemetry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class for the layout of telemetry log files.
+ * A file is a sequence of BLOCK_SIZE blocks, so every write is one large aligned block.
+ * All numbers are little-endian, which is the byte order of the roboRIO and of laptops.
+ *
+ * <p>The first block is the file header: magic, version, block size, channel count, the
+ * wall-clock time the file was started, the encoding of the data blocks (from version 2),
+ * and the name and unit of every channel.
+ *
+ * <p>With ENCODING_RAW, every other block holds up to getTickCapacity() ticks in columns:
+ * a header, then all the values of the first channel as doubles, then all the values of
+ * the second channel, and so on. Each column has room for the full capacity even if the
+ * block is not full.
+ *
+ * <p>With ENCODING_DELTA_VARINT, the raw blocks are compressed by the TelemetryCodec and
+ * stored one after the other, each as long as its BLOCK_LENGTH_OFFSET field says. The file
+ * is still written in BLOCK_SIZE pieces, so an encoded block can span two of them, and the
+ * end of the last one is filled with zeros.
+ */
+public class TelemetryFormat
+{
+	private TelemetryFormat()
+	{
+	}
+
+	/**
+	 * Creates a buffer of one block, in the byte order of the format.
+	 * @return A direct buffer of BLOCK_SIZE bytes.
+	 */
+	public static ByteBuffer allocateBlock()
+	{
+		return ByteBuffer.allocateDirect(Constants.BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Gets how many ticks fit in a block.
+	 * @param channelCount The number of channels.
+	 * @return The number of ticks per block.
+	 */
+	public static int getTickCapacity(int channelCount)
+	{
+		return (Constants.BLOCK_SIZE - Constants.BLOCK_HEADER_SIZE) / (channelCount * Double.BYTES);
+	}
+
+	/**
+	 * Gets where a column starts in a block.
+	 * @param column The ordinal of the channel.
+	 * @param tickCapacity The number of ticks per block.
+	 * @return The offset of the first value of the column, in bytes from the start of the block.
+	 */
+	public static int getColumnOffset(int column, int tickCapacity)
+	{
+		return Constants.BLOCK_HEADER_SIZE + column * tickCapacity * Double.BYTES;
+	}
+
+	/**
+	 * Writes the file header into a block.
+	 * @param block The block, which is cleared first.
+	 * @param channels The recorded channels, in column order.
+	 * @param startTimeMillis The wall-clock time the file was started.
+	 * @param encoding How the data blocks are encoded, ENCODING_RAW or ENCODING_DELTA_VARINT.
+	 */
+	public static void writeFileHeader(ByteBuffer block, Channel[] channels, long startTimeMillis, int encoding)
+	{
+		block.clear();
+		for (int i = 0; i < Constants.BLOCK_SIZE; i++)
+		{
+			block.put(i, (byte) 0);
+		}
+		block.putInt(Constants.FILE_MAGIC);
+		block.putInt(Constants.VERSION);
+		block.putInt(Constants.BLOCK_SIZE);
+		block.putInt(channels.length);
+		block.putLong(startTimeMillis);
+		block.putInt(encoding);
+		for (Channel channel : channels)
+		{
+			putString(block, channel.name());
+			putString(block, channel.getUnit());
+		}
+		block.clear();
+	}
+
+	private static void putString(ByteBuffer block, String text)
+	{
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		block.putShort((short) bytes.length);
+		block.put(bytes);
+	}
+
+	/**
+	 * Reads a string written by the file header.
+	 * @param block The block, positioned at the string.
+	 * @return The string.
+	 */
+	public static String getString(ByteBuffer block)
+	{
+		byte[] bytes = new byte[block.getShort()];
+		block.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes the header of a data block.
+	 * @param block The block.
+	 * @param sequence The number of the block in the recording, from 0.
+	 * @param tickCount The number of ticks in the block.
+	 * @param channelCount The number of channels.
+	 * @param tickCapacity The number of ticks the columns have room for.
+	 * @param flags BLOCK_FLAG_ bits.
+	 */
+	public static void writeBlockHeader(ByteBuffer block, int sequence, int tickCount, int channelCount, int tickCapacity, int flags)
+	{
+		block.putInt(Constants.BLOCK_MAGIC_OFFSET, Constants.BLOCK_MAGIC);
+		block.putInt(Constants.BLOCK_SEQUENCE_OFFSET, sequence);
+		block.putInt(Constants.BLOCK_TICK_COUNT_OFFSET, tickCount);
+		block.putInt(Constants.BLOCK_CHANNEL_COUNT_OFFSET, channelCount);
+		block.putInt(Constants.BLOCK_TICK_CAPACITY_OFFSET, tickCapacity);
+		block.putInt(Constants.BLOCK_ENCODING_OFFSET, Constants.ENCODING_RAW);
+		block.putInt(Constants.BLOCK_FLAGS_OFFSET, flags);
+	}
+
+	/**
+	 * Class for constant variables related to TelemetryFormat.
+	 */
+	public static class Constants
+	{
+		public static final int BLOCK_SIZE = 64 * 1024;
+		public static final int VERSION = 2;				// version 1 had no encoding in the file header and was always raw
+		public static final String FILE_EXTENSION = ".tlm";
+
+		public static final int FILE_MAGIC = 0x314D4C54;	// "TLM1"
+		public static final int BLOCK_MAGIC = 0x4B4C4254;	// "TBLK"
+
+		// data block header
+		public static final int BLOCK_HEADER_SIZE = 32;
+		public static final int BLOCK_MAGIC_OFFSET = 0;
+		public static final int BLOCK_SEQUENCE_OFFSET = 4;
+		public static final int BLOCK_TICK_COUNT_OFFSET = 8;
+		public static final int BLOCK_CHANNEL_COUNT_OFFSET = 12;
+		public static final int BLOCK_TICK_CAPACITY_OFFSET = 16;
+		public static final int BLOCK_ENCODING_OFFSET = 20;
+		public static final int BLOCK_FLAGS_OFFSET = 24;
+		public static final int BLOCK_LENGTH_OFFSET = 28;		// length of an encoded block, including its header
+
+		public static final int ENCODING_RAW = 0;			// columns of doubles
+		public static final int ENCODING_DELTA_VARINT = 1;	// compressed by the TelemetryCodec
+
+		public static final int BLOCK_FLAG_NEW_RECORDING = 1;	// the robot was not recording before this block, start a new file
+	}
+}
@@ -0,0 +1,57 @@
+package frc.robot.telemetry;
+
+/**
+ * Class for the values of every channel in one tick.
+ * The control thread reuses one frame: it sets the channels every tick and hands
+ * the frame to the TelemetryRecorder, which copies the values.
+ */
+public class TelemetryFrame
+{
+	private static final Channel[] channels = Channel.values();
+
+	private final double[] values = new double[channels.length];
+
+	/**
+	 * Sets the value of a channel.
+	 * @param channel The channel.
+	 * @param value The value.
+	 */
+	public void set(Channel channel, double value)
+	{
+		values[channel.ordinal()] = value;
+	}
+
+	/**
+	 * Sets an enum channel, such as the robot mode or an autonomous stage, to the ordinal of the constant.
+	 * @param channel The channel.
+	 * @param value The enum constant, or null to record -1.
+	 */
+	public void set(Channel channel, Enum<?> value)
+	{
+		values[channel.ordinal()] = (value == null) ? -1 : value.ordinal();
+	}
+
+	public double get(Channel channel)
+	{
+		return values[channel.ordinal()];
+	}
+
+	/**
+	 * Gets the value of a channel by its column.
+	 * @param column The ordinal of the channel.
+	 * @return The value.
+	 */
+	public double get(int column)
+	{
+		return values[column];
+	}
+
+	/**
+	 * Gets the number of channels in a frame.
+	 * @return The number of channels.
+	 */
+	public int size()
+	{
+		return values.length;
+	}
+}
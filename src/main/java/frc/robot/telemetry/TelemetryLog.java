@@ -0,0 +1,322 @@
+package frc.robot.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Class to read a telemetry log file written by the TelemetryRecorder.
+ * The file is memory-mapped. In raw files the columns are views of the mapped file, so
+ * reading a channel does not copy it; in encoded files each block's column is decoded
+ * by the TelemetryCodec when the column is first asked for. Channels are found by name,
+ * so logs recorded with fewer or more channels than the current Channel enum can still be read.
+ */
+public class TelemetryLog
+{
+	private final File file;
+	private final ByteBuffer mapped;
+	private final long startTimeMillis;
+	private final int encoding;
+	private final String[] channelNames;
+	private final String[] units;
+	private final int[] blockOffsets;
+	private final int[] blockTickCounts;
+	private final int[] blockTickCapacities;
+	private final int[] blockStarts;		// index of the first tick of each block
+	private final int tickCount;
+
+	/**
+	 * Constructor for TelemetryLog.
+	 * Maps the file and reads the headers of the file and of every block.
+	 * @param file The log file.
+	 * @throws IOException If the file cannot be read or is not a telemetry log.
+	 */
+	public TelemetryLog(File file) throws IOException
+	{
+		this.file = file;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		if (mapped.limit() < TelemetryFormat.Constants.BLOCK_SIZE || mapped.getInt(0) != TelemetryFormat.Constants.FILE_MAGIC)
+		{
+			throw new IOException(file + " is not a telemetry log");
+		}
+		ByteBuffer header = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		header.position(Integer.BYTES);
+		int version = header.getInt();
+		int blockSize = header.getInt();
+		if (version < 1 || version > TelemetryFormat.Constants.VERSION || blockSize != TelemetryFormat.Constants.BLOCK_SIZE)
+		{
+			throw new IOException(file + " has version " + version + " and block size " + blockSize + ", which this reader does not support");
+		}
+		int channelCount = header.getInt();
+		startTimeMillis = header.getLong();
+		encoding = (version >= 2) ? header.getInt() : TelemetryFormat.Constants.ENCODING_RAW;
+		if (encoding != TelemetryFormat.Constants.ENCODING_RAW && encoding != TelemetryFormat.Constants.ENCODING_DELTA_VARINT)
+		{
+			throw new IOException(file + " has an encoding this reader does not support");
+		}
+		channelNames = new String[channelCount];
+		units = new String[channelCount];
+		for (int i = 0; i < channelCount; i++)
+		{
+			channelNames[i] = TelemetryFormat.getString(header);
+			units[i] = TelemetryFormat.getString(header);
+		}
+
+		int[] offsets = findBlocks();
+		int blockCount = offsets.length;
+		blockOffsets = offsets;
+		blockTickCounts = new int[blockCount];
+		blockTickCapacities = new int[blockCount];
+		blockStarts = new int[blockCount];
+		int ticks = 0;
+		for (int i = 0; i < blockCount; i++)
+		{
+			int offset = blockOffsets[i];
+			blockTickCounts[i] = mapped.getInt(offset + TelemetryFormat.Constants.BLOCK_TICK_COUNT_OFFSET);
+			blockTickCapacities[i] = mapped.getInt(offset + TelemetryFormat.Constants.BLOCK_TICK_CAPACITY_OFFSET);
+			blockStarts[i] = ticks;
+			ticks += blockTickCounts[i];
+		}
+		tickCount = ticks;
+	}
+
+	/**
+	 * Finds where every data block starts.
+	 * A block that was being written when the robot lost power is incomplete and is ignored,
+	 * along with anything after it.
+	 * @return The offsets of the blocks in the file.
+	 * @throws IOException If a raw block is damaged.
+	 */
+	private int[] findBlocks() throws IOException
+	{
+		int limit = mapped.limit();
+		if (encoding == TelemetryFormat.Constants.ENCODING_RAW)
+		{
+			int[] offsets = new int[limit / TelemetryFormat.Constants.BLOCK_SIZE - 1];
+			for (int i = 0; i < offsets.length; i++)
+			{
+				offsets[i] = (i + 1) * TelemetryFormat.Constants.BLOCK_SIZE;
+				if (mapped.getInt(offsets[i] + TelemetryFormat.Constants.BLOCK_MAGIC_OFFSET) != TelemetryFormat.Constants.BLOCK_MAGIC)
+				{
+					throw new IOException(file + " block " + i + " is damaged");
+				}
+			}
+			return offsets;
+		}
+
+		// encoded blocks follow each other, and the zeros after the last one end the list
+		int[] offsets = new int[16];
+		int count = 0;
+		int offset = TelemetryFormat.Constants.BLOCK_SIZE;
+		while (offset + TelemetryFormat.Constants.BLOCK_HEADER_SIZE <= limit
+				&& mapped.getInt(offset + TelemetryFormat.Constants.BLOCK_MAGIC_OFFSET) == TelemetryFormat.Constants.BLOCK_MAGIC)
+		{
+			int length = mapped.getInt(offset + TelemetryFormat.Constants.BLOCK_LENGTH_OFFSET);
+			if (length < TelemetryFormat.Constants.BLOCK_HEADER_SIZE || length > limit - offset)
+			{
+				break;
+			}
+			if (count == offsets.length)
+			{
+				offsets = Arrays.copyOf(offsets, count * 2);
+			}
+			offsets[count++] = offset;
+			offset += length;
+		}
+		return Arrays.copyOf(offsets, count);
+	}
+
+	public File getFile()
+	{
+		return file;
+	}
+
+	/**
+	 * Gets the wall-clock time the recording was started.
+	 * @return Milliseconds since 1970, as set on the roboRIO.
+	 */
+	public long getStartTimeMillis()
+	{
+		return startTimeMillis;
+	}
+
+	/**
+	 * Gets the names of the recorded channels, in column order.
+	 * @return The channel names.
+	 */
+	public String[] getChannelNames()
+	{
+		return channelNames.clone();
+	}
+
+	/**
+	 * Gets the unit of a recorded channel.
+	 * @param column The column of the channel in this file.
+	 * @return The unit, or an empty string.
+	 */
+	public String getUnit(int column)
+	{
+		return units[column];
+	}
+
+	/**
+	 * Gets the column of a channel in this file.
+	 * @param channel The channel.
+	 * @return The column, or -1 if the channel was not recorded.
+	 */
+	public int getColumnIndex(Channel channel)
+	{
+		for (int i = 0; i < channelNames.length; i++)
+		{
+			if (channelNames[i].equals(channel.name()))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks if a channel was recorded.
+	 * @param channel The channel.
+	 * @return True if the file has a column for the channel.
+	 */
+	public boolean hasChannel(Channel channel)
+	{
+		return getColumnIndex(channel) >= 0;
+	}
+
+	public int getBlockCount()
+	{
+		return blockOffsets.length;
+	}
+
+	public int getBlockTickCount(int block)
+	{
+		return blockTickCounts[block];
+	}
+
+	/**
+	 * Gets the total number of ticks in the file.
+	 * @return The number of ticks.
+	 */
+	public int getTickCount()
+	{
+		return tickCount;
+	}
+
+	/**
+	 * Gets how the data blocks of the file are encoded.
+	 * @return ENCODING_RAW or ENCODING_DELTA_VARINT.
+	 */
+	public int getEncoding()
+	{
+		return encoding;
+	}
+
+	/**
+	 * Gets the values of a channel in one block: a view of the mapped file if the file is raw,
+	 * or the decoded values if it is encoded.
+	 * @param block The block, from 0.
+	 * @param column The column of the channel in this file.
+	 * @return A buffer with one value per tick of the block.
+	 */
+	public DoubleBuffer getBlockColumn(int block, int column)
+	{
+		if (encoding != TelemetryFormat.Constants.ENCODING_RAW)
+		{
+			double[] values = new double[blockTickCounts[block]];
+			TelemetryCodec.decodeColumn(mapped, blockOffsets[block], column, values);
+			return DoubleBuffer.wrap(values);
+		}
+
+		ByteBuffer view = mapped.duplicate();
+		int start = TelemetryFormat.getColumnOffset(column, blockTickCapacities[block]) + blockOffsets[block];
+		view.limit(start + blockTickCounts[block] * Double.BYTES);
+		view.position(start);
+		return view.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+	}
+
+	/**
+	 * Gets all the values of a channel.
+	 * @param channel The channel.
+	 * @return The column, or null if the channel was not recorded.
+	 */
+	public Column getColumn(Channel channel)
+	{
+		int column = getColumnIndex(channel);
+		return (column < 0) ? null : new Column(column);
+	}
+
+	/**
+	 * Class for all the values of one channel, across the blocks of the file.
+	 * The values are read from per-block views of the mapped file, or decoded once per block.
+	 */
+	public class Column
+	{
+		private final DoubleBuffer[] blocks;
+		private int lastBlock = 0;
+
+		private Column(int column)
+		{
+			blocks = new DoubleBuffer[blockOffsets.length];
+			for (int i = 0; i < blocks.length; i++)
+			{
+				blocks[i] = getBlockColumn(i, column);
+			}
+		}
+
+		public int size()
+		{
+			return tickCount;
+		}
+
+		/**
+		 * Gets the value of a tick. Fastest when the ticks are read in order.
+		 * @param tick The tick, from 0 to size() - 1.
+		 * @return The value.
+		 */
+		public double get(int tick)
+		{
+			int block = lastBlock;
+			if (tick < blockStarts[block] || tick >= blockStarts[block] + blockTickCounts[block])
+			{
+				block = Arrays.binarySearch(blockStarts, tick);
+				if (block < 0)
+				{
+					block = -block - 2;
+				}
+				// skip empty blocks, which share their start with the next block
+				while (tick >= blockStarts[block] + blockTickCounts[block])
+				{
+					block++;
+				}
+				lastBlock = block;
+			}
+			return blocks[block].get(tick - blockStarts[block]);
+		}
+
+		/**
+		 * Copies the column into an array, for code that needs to sort or search the values.
+		 * @return A new array with every value.
+		 */
+		public double[] toArray()
+		{
+			double[] values = new double[tickCount];
+			for (int i = 0; i < blocks.length; i++)
+			{
+				blocks[i].duplicate().get(values, blockStarts[i], blockTickCounts[i]);
+			}
+			return values;
+		}
+	}
+}
@@ -0,0 +1,524 @@
+package frc.robot.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import frc.robot.util.Logger;
+import frc.robot.util.ThreadPriorities;
+
+/**
+ * Class to record the values of every tick to a binary log file.
+ * The control thread copies each tick's TelemetryFrame into a preallocated block in
+ * memory, in columns as described by TelemetryFormat. Full blocks are handed to a
+ * low-priority writer thread, which compresses them with the TelemetryCodec and writes
+ * them to the USB stick (or /home/lvuser if there is none) one aligned block at a time,
+ * limited to MAX_BYTES_PER_SECOND.
+ *
+ * <p>The control thread never waits: blocks are passed between the threads through
+ * lock-free queues, and if the writer has fallen so far behind that there is no free
+ * block, the tick is dropped and counted.
+ *
+ * <p>A new file is started when the robot starts recording after not recording for
+ * NEW_RECORDING_GAP seconds, so each match normally ends up in its own file.
+ */
+public class TelemetryRecorder
+{
+	private static final byte[] ZEROS = new byte[TelemetryFormat.Constants.BLOCK_SIZE];
+	private static final Logger.Message DROPPED_BLOCK = new Logger.Message("[TelemetryRecorder] dropped a block of {} ticks: {}");
+
+	private final Channel[] channels = Channel.values();
+	private final int tickCapacity = TelemetryFormat.getTickCapacity(channels.length);
+	private final int[] columnOffsets = new int[channels.length];
+
+	private final ByteBuffer[] blocks = new ByteBuffer[Constants.BLOCK_COUNT];
+	private final BlockQueue freeBlocks = new BlockQueue(Constants.BLOCK_COUNT);
+	private final BlockQueue fullBlocks = new BlockQueue(Constants.BLOCK_COUNT);
+
+	// used by the control thread only
+	private int currentBlock = -1;
+	private int currentTick = 0;
+	private int currentFlags = 0;
+	private int sequence = 0;
+	private long lastRecordNanos = 0;
+
+	// used by the writer thread only
+	private final TelemetryCodec codec = new TelemetryCodec(tickCapacity);
+	private final ByteBuffer encoded = ByteBuffer.allocateDirect(TelemetryCodec.getMaxEncodedSize(channels.length, tickCapacity)).order(ByteOrder.LITTLE_ENDIAN);
+	private final ByteBuffer output = TelemetryFormat.allocateBlock();	// the next aligned block of the file
+	private FileChannel file = null;
+	private long outputFilePosition = 0;
+	private double bytesAllowed = Constants.BURST_BYTES;
+	private long lastRefillNanos = 0;
+
+	private volatile boolean isSyncRequested = false;
+	private volatile long recordedTickCount = 0;
+	private volatile long droppedTickCount = 0;		// no free block, counted by the control thread
+	private volatile long unwrittenTickCount = 0;		// the block could not be written, counted by the writer
+	private volatile long writtenBytes = 0;
+	private volatile String fileName = null;
+
+	private static TelemetryRecorder instance = new TelemetryRecorder();
+
+	/**
+	 * Returns the singleton instance of TelemetryRecorder.
+	 * @return The singleton instance of TelemetryRecorder.
+	 */
+	public static TelemetryRecorder getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Private constructor for TelemetryRecorder.
+	 * Allocates all the blocks and starts the writer thread.
+	 */
+	private TelemetryRecorder()
+	{
+		for (int i = 0; i < channels.length; i++)
+		{
+			columnOffsets[i] = TelemetryFormat.getColumnOffset(i, tickCapacity);
+		}
+		for (int i = 0; i < Constants.BLOCK_COUNT; i++)
+		{
+			blocks[i] = TelemetryFormat.allocateBlock();
+			freeBlocks.offer(i);
+		}
+
+		if (Constants.ENABLED)
+		{
+			Thread writer = new Thread(this::write, "TelemetryWriter");
+			writer.setDaemon(true);
+			writer.start();
+		}
+	}
+
+	/**
+	 * Records one tick. Must be called by the control thread.
+	 * @param frame The values of the tick. They are copied, so the frame can be reused.
+	 */
+	public void record(TelemetryFrame frame)
+	{
+		if (!Constants.ENABLED)
+		{
+			return;
+		}
+
+		long now = System.nanoTime();
+		if (lastRecordNanos == 0 || now - lastRecordNanos > (long) (Constants.NEW_RECORDING_GAP * 1.0e9))
+		{
+			// the previous recording ended long ago, finish its block so this one starts a new file
+			finishBlock();
+			currentFlags = TelemetryFormat.Constants.BLOCK_FLAG_NEW_RECORDING;
+		}
+		lastRecordNanos = now;
+
+		if (currentBlock < 0)
+		{
+			currentBlock = freeBlocks.poll();
+			currentTick = 0;
+			if (currentBlock < 0)
+			{
+				droppedTickCount++;
+				return;
+			}
+		}
+
+		ByteBuffer block = blocks[currentBlock];
+		int offset = currentTick * Double.BYTES;
+		for (int i = 0; i < columnOffsets.length; i++)
+		{
+			block.putDouble(columnOffsets[i] + offset, frame.get(i));
+		}
+		currentTick++;
+		recordedTickCount++;
+
+		if (currentTick == tickCapacity)
+		{
+			finishBlock();
+		}
+	}
+
+	/**
+	 * Hands the block being filled to the writer, even if it is not full, and asks the
+	 * writer to make sure everything is on the disk. Must be called by the control thread,
+	 * for example when the robot is disabled.
+	 */
+	public void flush()
+	{
+		finishBlock();
+		isSyncRequested = true;
+	}
+
+	private void finishBlock()
+	{
+		if (currentBlock >= 0 && currentTick > 0)
+		{
+			TelemetryFormat.writeBlockHeader(blocks[currentBlock], sequence, currentTick, channels.length, tickCapacity, currentFlags);
+			fullBlocks.offer(currentBlock);
+			sequence++;
+			currentBlock = -1;
+			currentFlags = 0;
+		}
+	}
+
+	/**
+	 * Runs on the writer thread: writes the full blocks as the control thread hands them over.
+	 */
+	private void write()
+	{
+		ThreadPriorities.setBackgroundPriority("telemetry writer");
+		lastRefillNanos = System.nanoTime();
+
+		while (true)
+		{
+			int index = fullBlocks.poll();
+			if (index < 0)
+			{
+				if (isSyncRequested)
+				{
+					isSyncRequested = false;
+					try
+					{
+						sync();
+					}
+					catch (IOException e)
+					{
+						Logger.println("[TelemetryRecorder] sync failed: " + e);
+					}
+				}
+				LockSupport.parkNanos(Constants.WRITER_PERIOD_NANOS);
+				continue;
+			}
+
+			ByteBuffer block = blocks[index];
+			int tickCount = block.getInt(TelemetryFormat.Constants.BLOCK_TICK_COUNT_OFFSET);
+			try
+			{
+				if (file == null || (block.getInt(TelemetryFormat.Constants.BLOCK_FLAGS_OFFSET) & TelemetryFormat.Constants.BLOCK_FLAG_NEW_RECORDING) != 0)
+				{
+					closeFile();
+					openFile();
+				}
+
+				if (Constants.ENCODING == TelemetryFormat.Constants.ENCODING_DELTA_VARINT)
+				{
+					encoded.clear();
+					int length = codec.encode(block, encoded);
+					if (outputFilePosition + output.position() + length > Constants.MAX_FILE_BYTES)
+					{
+						Logger.begin(DROPPED_BLOCK).add(tickCount).add("the file is full").commit();
+						unwrittenTickCount += tickCount;
+					}
+					else
+					{
+						encoded.flip();
+						append(encoded);
+					}
+				}
+				else if (outputFilePosition + TelemetryFormat.Constants.BLOCK_SIZE > Constants.MAX_FILE_BYTES)
+				{
+					Logger.begin(DROPPED_BLOCK).add(tickCount).add("the file is full").commit();
+					unwrittenTickCount += tickCount;
+				}
+				else
+				{
+					writeBlock(block);
+					outputFilePosition += TelemetryFormat.Constants.BLOCK_SIZE;
+				}
+			}
+			catch (IOException e)
+			{
+				String reason = e.toString();
+				Logger.begin(DROPPED_BLOCK).add(tickCount).add(reason).commit();
+				unwrittenTickCount += tickCount;
+				closeFile();
+			}
+			finally
+			{
+				freeBlocks.offer(index);
+			}
+		}
+	}
+
+	/**
+	 * Adds an encoded block to the output block, writing the output block each time it is full.
+	 */
+	private void append(ByteBuffer encodedBlock) throws IOException
+	{
+		while (encodedBlock.hasRemaining())
+		{
+			int length = Math.min(encodedBlock.remaining(), output.remaining());
+			ByteBuffer piece = encodedBlock.duplicate();
+			piece.limit(piece.position() + length);
+			output.put(piece);
+			encodedBlock.position(encodedBlock.position() + length);
+
+			if (!output.hasRemaining())
+			{
+				writeBlock(output);
+				outputFilePosition += TelemetryFormat.Constants.BLOCK_SIZE;
+				clearOutput();
+			}
+		}
+	}
+
+	/**
+	 * Writes a whole block at outputFilePosition, once the bandwidth budget allows it.
+	 */
+	private void writeBlock(ByteBuffer block) throws IOException
+	{
+		while (true)
+		{
+			long now = System.nanoTime();
+			bytesAllowed = Math.min(bytesAllowed + (now - lastRefillNanos) * Constants.MAX_BYTES_PER_SECOND / 1.0e9, Constants.BURST_BYTES);
+			lastRefillNanos = now;
+			if (bytesAllowed >= TelemetryFormat.Constants.BLOCK_SIZE)
+			{
+				break;
+			}
+			LockSupport.parkNanos((long) ((TelemetryFormat.Constants.BLOCK_SIZE - bytesAllowed) / Constants.MAX_BYTES_PER_SECOND * 1.0e9));
+		}
+		bytesAllowed -= TelemetryFormat.Constants.BLOCK_SIZE;
+
+		ByteBuffer whole = block.duplicate();
+		whole.clear();
+		while (whole.hasRemaining())
+		{
+			file.write(whole, outputFilePosition + whole.position());
+		}
+		writtenBytes += TelemetryFormat.Constants.BLOCK_SIZE;
+	}
+
+	/**
+	 * Writes the output block even though it is not full, and makes sure the file is on the disk.
+	 * The output block is written again at the same place once more blocks have been added to it.
+	 */
+	private void sync() throws IOException
+	{
+		if (file != null)
+		{
+			if (output.position() > 0)
+			{
+				writeBlock(output);
+			}
+			file.force(false);
+		}
+	}
+
+	private void clearOutput()
+	{
+		output.clear();
+		output.put(ZEROS);
+		output.clear();
+	}
+
+	/**
+	 * Starts a new file and writes its header.
+	 */
+	private void openFile() throws IOException
+	{
+		File directory = getDirectory();
+		if (!directory.isDirectory() && !directory.mkdirs())
+		{
+			throw new IOException("cannot create " + directory);
+		}
+		deleteOldFiles(directory, Constants.FILE_PREFIX, Constants.MAX_FILES);
+
+		File newFile = new File(directory, String.format("%s%04d%s", Constants.FILE_PREFIX, getNextFileNumber(directory, Constants.FILE_PREFIX), TelemetryFormat.Constants.FILE_EXTENSION));
+		file = FileChannel.open(newFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		outputFilePosition = 0;
+		clearOutput();
+		TelemetryFormat.writeFileHeader(output, channels, System.currentTimeMillis(), Constants.ENCODING);
+		writeBlock(output);
+		outputFilePosition = TelemetryFormat.Constants.BLOCK_SIZE;
+		clearOutput();
+
+		fileName = newFile.getPath();
+		Logger.println("[TelemetryRecorder] recording to " + fileName);
+	}
+
+	/**
+	 * Writes what is left in the output block and closes the file.
+	 */
+	private void closeFile()
+	{
+		if (file != null)
+		{
+			try
+			{
+				if (output.position() > 0)
+				{
+					writeBlock(output);
+				}
+				file.close();
+			}
+			catch (IOException e)
+			{
+				Logger.println("[TelemetryRecorder] close failed: " + e);
+			}
+			file = null;
+		}
+		clearOutput();
+	}
+
+	/**
+	 * Gets the directory to record to: the first one whose drive is mounted.
+	 * The FlightRecorder writes its dumps, and the MatchReport its reports, to the same directory.
+	 * @return The directory, which may not exist yet.
+	 */
+	public static File getDirectory()
+	{
+		for (String directory : Constants.DIRECTORIES)
+		{
+			File candidate = new File(directory);
+			if (candidate.getParentFile().isDirectory() && candidate.getParentFile().canWrite())
+			{
+				return candidate;
+			}
+		}
+		return new File(Constants.DIRECTORIES[Constants.DIRECTORIES.length - 1]);
+	}
+
+	private static File[] getFiles(File directory, String prefix, String extension)
+	{
+		File[] files = directory.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(extension));
+		if (files == null)
+		{
+			files = new File[0];
+		}
+		Arrays.sort(files);
+		return files;
+	}
+
+	/**
+	 * Gets the number of the next file, one more than the number of the newest file.
+	 * @param directory The directory of the files.
+	 * @param prefix The start of the file names, such as "telemetry-".
+	 * @return The number of the next file.
+	 */
+	static int getNextFileNumber(File directory, String prefix)
+	{
+		return getNextFileNumber(directory, prefix, TelemetryFormat.Constants.FILE_EXTENSION);
+	}
+
+	/**
+	 * Gets the number of the next file, one more than the number of the newest file.
+	 * @param directory The directory of the files.
+	 * @param prefix The start of the file names, such as "match-".
+	 * @param extension The end of the file names, such as ".txt".
+	 * @return The number of the next file.
+	 */
+	public static int getNextFileNumber(File directory, String prefix, String extension)
+	{
+		File[] files = getFiles(directory, prefix, extension);
+		if (files.length == 0)
+		{
+			return 1;
+		}
+		String name = files[files.length - 1].getName();
+		try
+		{
+			return Integer.parseInt(name.substring(prefix.length(), name.length() - extension.length())) + 1;
+		}
+		catch (NumberFormatException e)
+		{
+			return files.length + 1;
+		}
+	}
+
+	/**
+	 * Deletes the oldest files so there is room for a new one.
+	 * @param directory The directory of the files.
+	 * @param prefix The start of the file names, such as "telemetry-".
+	 * @param maxFiles How many files to keep, including the new one.
+	 */
+	static void deleteOldFiles(File directory, String prefix, int maxFiles)
+	{
+		deleteOldFiles(directory, prefix, TelemetryFormat.Constants.FILE_EXTENSION, maxFiles);
+	}
+
+	/**
+	 * Deletes the oldest files so there is room for a new one.
+	 * @param directory The directory of the files.
+	 * @param prefix The start of the file names, such as "match-".
+	 * @param extension The end of the file names, such as ".txt".
+	 * @param maxFiles How many files to keep, including the new one.
+	 */
+	public static void deleteOldFiles(File directory, String prefix, String extension, int maxFiles)
+	{
+		File[] files = getFiles(directory, prefix, extension);
+		for (int i = 0; i <= files.length - maxFiles; i++)
+		{
+			if (files[i].delete())
+			{
+				Logger.println("[TelemetryRecorder] deleted " + files[i]);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of ticks per block.
+	 * @return The number of ticks per block.
+	 */
+	public int getTickCapacity()
+	{
+		return tickCapacity;
+	}
+
+	public long getRecordedTickCount()
+	{
+		return recordedTickCount;
+	}
+
+	/**
+	 * Gets the number of ticks that were not recorded, because no block was free or a block could not be written.
+	 * @return The number of dropped ticks.
+	 */
+	public long getDroppedTickCount()
+	{
+		return droppedTickCount + unwrittenTickCount;
+	}
+
+	public long getWrittenBytes()
+	{
+		return writtenBytes;
+	}
+
+	@Override
+	public String toString()
+	{
+		if (!Constants.ENABLED)
+		{
+			return "[TelemetryRecorder] disabled";
+		}
+		return String.format("[TelemetryRecorder] %s ticks=%d dropped=%d written=%dKiB blocks waiting=%d",
+				(fileName == null) ? "no file yet" : fileName, getRecordedTickCount(), getDroppedTickCount(), getWrittenBytes() / 1024, fullBlocks.size());
+	}
+
+	/**
+	 * Class for constant variables related to TelemetryRecorder.
+	 */
+	public static class Constants
+	{
+		public static final boolean ENABLED = true;
+		public static final int ENCODING = TelemetryFormat.Constants.ENCODING_DELTA_VARINT;	// or ENCODING_RAW, to not spend time compressing
+
+		// the USB stick, then the roboRIO's own flash
+		public static final String[] DIRECTORIES = {"/u/telemetry", "/media/sda1/telemetry", "/home/lvuser/telemetry"};
+		public static final String FILE_PREFIX = "telemetry-";
+		public static final int MAX_FILES = 40;								// oldest files are deleted
+		public static final long MAX_FILE_BYTES = 32L * 1024 * 1024;
+
+		public static final int BLOCK_COUNT = 16;							// 1 MiB, more than a minute of ticks at 100 Hz
+		public static final double MAX_BYTES_PER_SECOND = 256 * 1024;
+		public static final double BURST_BYTES = 4 * TelemetryFormat.Constants.BLOCK_SIZE;
+		public static final long WRITER_PERIOD_NANOS = 50000000L;			// how long the writer sleeps when there is nothing to write
+		public static final double NEW_RECORDING_GAP = 10.0;				// seconds without recording that start a new file
+	}
+}
@@ -0,0 +1,362 @@
+package frc.robot.telemetry;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import frc.robot.metrics.Counter;
+import frc.robot.metrics.MetricsRegistry;
+import frc.robot.util.Logger;
+import frc.robot.util.ThreadPriorities;
+
+/**
+ * Class to send the telemetry ticks to the driver station over UDP while the robot runs,
+ * instead of printing the sensor values to the console.
+ *
+ * <p>The control thread copies every kept tick as floats into a preallocated batch, and hands
+ * the batch to the sender thread when it has BATCH_TICKS ticks, so one datagram carries
+ * several ticks. It never waits for the network: if every batch is still waiting to be sent,
+ * the tick is dropped and counted. The sender thread sends the batches to the computer the
+ * dashboard's packets come from, and every SCHEMA_PERIOD a schema datagram with the names
+ * and units of the channels, so a receiver can start at any time.
+ *
+ * <p>Once a second the sender compares the bytes it sent with MAX_BYTES_PER_SECOND. Over the
+ * budget, or when ticks were dropped, only every second tick is kept from then on (then every
+ * fourth, and so on); well under it, twice as many ticks are kept again.
+ *
+ * <p>Every datagram starts with a HEADER_BYTES header, little-endian:
+ * <pre>
+ *  0  int     MAGIC
+ *  4  byte    VERSION
+ *  5  byte    TYPE_SCHEMA or TYPE_DATA
+ *  6  short   number of channels
+ *  8  int     sequence number of the datagram, for counting lost ones
+ * 12  short   number of ticks (data)
+ * 14  short   decimation: one tick in this many was kept (data)
+ * 16  double  FPGA time of the first tick (data)
+ * </pre>
+ * A schema datagram then has the name and unit of each channel, each as a length byte and
+ * UTF-8 bytes. A data datagram has one row of floats per tick, in the order of the channels.
+ * The time column is the time since the first tick, since a float is not precise enough
+ * for the FPGA time itself.
+ */
+public class TelemetryUplink
+{
+	private final Channel[] channels = Channel.values();
+	private final int rowBytes = channels.length * Float.BYTES;
+	private final ByteBuffer[] batches = new ByteBuffer[Constants.BATCHES];
+	private final BlockQueue freeBatches = new BlockQueue(Constants.BATCHES);
+	private final BlockQueue fullBatches = new BlockQueue(Constants.BATCHES);
+
+	// used by the control thread only
+	private int batch = -1;
+	private int batchTicks = 0;
+	private double batchTime = 0.0;
+	private long tickCount = 0;
+
+	// used by the sender thread only
+	private final ByteBuffer schema;
+	private DatagramChannel channel = null;
+	private InetAddress lastAddress = null;
+	private InetSocketAddress destination = null;
+	private int sequence = 0;
+	private long bytesThisSecond = 0;
+	private long droppedBeforeThisSecond = 0;
+	private long secondStartNanos = 0;
+	private long lastSchemaNanos = 0;
+
+	private volatile int decimation = 1;
+	private volatile long bytesPerSecond = 0;
+	private volatile Supplier<InetAddress> dashboardAddress = null;
+	private Thread sender = null;
+
+	private final Counter packetsSent;
+	private final Counter droppedTicks;
+	private final Counter sendErrors;
+
+	private static TelemetryUplink instance = new TelemetryUplink();
+
+	/**
+	 * Returns the singleton instance of TelemetryUplink.
+	 * @return The singleton instance of TelemetryUplink.
+	 */
+	public static TelemetryUplink getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Private constructor for TelemetryUplink.
+	 * Allocates the batches and registers the metrics; nothing is sent until start() is called.
+	 */
+	private TelemetryUplink()
+	{
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		packetsSent = registry.counter("TelemetryUplink.packetsSent", "datagrams sent to the driver station");
+		droppedTicks = registry.counter("TelemetryUplink.droppedTicks", "ticks dropped because the sender was behind");
+		sendErrors = registry.counter("TelemetryUplink.sendErrors", "datagrams that could not be sent");
+		registry.gauge("TelemetryUplink.decimation", "one tick is sent out of this many", () -> decimation);
+		registry.gauge("TelemetryUplink.bytesPerSecond", "bytes sent in the last second", () -> bytesPerSecond);
+
+		for (int i = 0; i < Constants.BATCHES; i++)
+		{
+			batches[i] = ByteBuffer.allocateDirect(Constants.HEADER_BYTES + Constants.BATCH_TICKS * rowBytes).order(ByteOrder.LITTLE_ENDIAN);
+			freeBatches.offer(i);
+		}
+
+		schema = ByteBuffer.allocate(Constants.HEADER_BYTES + channels.length * 2 * 256).order(ByteOrder.LITTLE_ENDIAN);
+		schema.position(Constants.HEADER_BYTES);
+		for (Channel channel : channels)
+		{
+			putString(schema, channel.name());
+			putString(schema, channel.getUnit());
+		}
+		schema.flip();
+	}
+
+	private static void putString(ByteBuffer buffer, String text)
+	{
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		int length = Math.min(bytes.length, 255);
+		buffer.put((byte) length);
+		buffer.put(bytes, 0, length);
+	}
+
+	/**
+	 * Starts the sender thread. Does nothing if it is already running.
+	 * @param dashboardAddress Gives the address of the driver station, or null if it is not known yet,
+	 * in which case the datagrams go to Constants.DRIVER_STATION_ADDRESS.
+	 */
+	public synchronized void start(Supplier<InetAddress> dashboardAddress)
+	{
+		if (sender != null)
+		{
+			return;
+		}
+
+		try
+		{
+			channel = DatagramChannel.open();
+		}
+		catch (IOException e)
+		{
+			Logger.println("[TelemetryUplink] cannot open a socket: " + e);
+			return;
+		}
+
+		this.dashboardAddress = dashboardAddress;
+		sender = new Thread(this::send, "TelemetryUplink");
+		sender.setDaemon(true);
+		sender.start();
+		Logger.println("[TelemetryUplink] sending telemetry to port " + Constants.PORT + " on the driver station");
+	}
+
+	/**
+	 * Adds one tick to the current batch, unless it is skipped to stay within the bandwidth budget.
+	 * Must be called by the control thread. Never waits or allocates.
+	 * @param frame The values of the tick. They are copied, so the frame can be reused.
+	 */
+	public void record(TelemetryFrame frame)
+	{
+		if (sender == null || tickCount++ % decimation != 0)
+		{
+			return;
+		}
+
+		if (batch < 0)
+		{
+			batch = freeBatches.poll();
+			if (batch < 0)
+			{
+				droppedTicks.increment();
+				return;
+			}
+			batchTicks = 0;
+			batchTime = frame.get(Channel.kTime.ordinal());
+		}
+
+		ByteBuffer buffer = batches[batch];
+		int offset = Constants.HEADER_BYTES + batchTicks * rowBytes;
+		for (int i = 0; i < channels.length; i++)
+		{
+			double value = frame.get(i);
+			if (i == Channel.kTime.ordinal())
+			{
+				value -= batchTime;
+			}
+			buffer.putFloat(offset + i * Float.BYTES, (float) value);
+		}
+		batchTicks++;
+
+		if (batchTicks == Constants.BATCH_TICKS)
+		{
+			flush();
+		}
+	}
+
+	/**
+	 * Hands the current batch to the sender thread, even if it is not full.
+	 * Must be called by the control thread, for example when the robot is disabled.
+	 */
+	public void flush()
+	{
+		if (batch < 0)
+		{
+			return;
+		}
+
+		ByteBuffer buffer = batches[batch];
+		writeHeader(buffer, Constants.TYPE_DATA, batchTicks, decimation, batchTime);
+		buffer.limit(Constants.HEADER_BYTES + batchTicks * rowBytes);
+		fullBatches.offer(batch);
+		batch = -1;
+		LockSupport.unpark(sender);
+	}
+
+	private void writeHeader(ByteBuffer buffer, byte type, int ticks, int decimation, double time)
+	{
+		buffer.putInt(0, Constants.MAGIC);
+		buffer.put(4, Constants.VERSION);
+		buffer.put(5, type);
+		buffer.putShort(6, (short) channels.length);
+		buffer.putShort(12, (short) ticks);
+		buffer.putShort(14, (short) decimation);
+		buffer.putDouble(16, time);
+	}
+
+	/**
+	 * Runs on the sender thread: sends the full batches and the schema, and adjusts the decimation.
+	 */
+	private void send()
+	{
+		ThreadPriorities.setBackgroundPriority("telemetry uplink");
+		secondStartNanos = System.nanoTime();
+
+		while (true)
+		{
+			updateDestination();
+
+			long now = System.nanoTime();
+			if (lastSchemaNanos == 0 || now - lastSchemaNanos >= (long) (Constants.SCHEMA_PERIOD * 1.0e9))
+			{
+				lastSchemaNanos = now;
+				writeHeader(schema, Constants.TYPE_SCHEMA, 0, 0, 0.0);
+				sendDatagram(schema);
+			}
+
+			int full;
+			while ((full = fullBatches.poll()) >= 0)
+			{
+				sendDatagram(batches[full]);
+				batches[full].clear();
+				freeBatches.offer(full);
+			}
+
+			if (now - secondStartNanos >= 1000000000L)
+			{
+				adjustDecimation();
+				secondStartNanos = now;
+			}
+
+			LockSupport.parkNanos(this, (long) (Constants.SEND_PERIOD * 1.0e9));
+		}
+	}
+
+	/**
+	 * Sends to the computer the dashboard's packets come from, which is the driver station.
+	 */
+	private void updateDestination()
+	{
+		Supplier<InetAddress> supplier = dashboardAddress;
+		InetAddress address = (supplier != null) ? supplier.get() : null;
+		if (destination == null || (address != null && !address.equals(lastAddress)))
+		{
+			lastAddress = address;
+			destination = (address != null) ? new InetSocketAddress(address, Constants.PORT)
+					: new InetSocketAddress(Constants.DRIVER_STATION_ADDRESS, Constants.PORT);
+		}
+	}
+
+	private void sendDatagram(ByteBuffer buffer)
+	{
+		buffer.putInt(8, sequence++);
+		buffer.position(0);
+		try
+		{
+			bytesThisSecond += channel.send(buffer, destination);
+			packetsSent.increment();
+		}
+		catch (IOException e)
+		{
+			// no route while the radio is connecting, keep trying
+			if (sendErrors.get() == 0)
+			{
+				Logger.println("[TelemetryUplink] cannot send to " + destination + ": " + e);
+			}
+			sendErrors.increment();
+		}
+	}
+
+	/**
+	 * Keeps half as many ticks if the last second was over the budget or dropped ticks,
+	 * and twice as many if that would still be well within the budget.
+	 */
+	private void adjustDecimation()
+	{
+		long dropped = droppedTicks.get();
+		boolean isDropping = dropped > droppedBeforeThisSecond;
+		droppedBeforeThisSecond = dropped;
+		bytesPerSecond = bytesThisSecond;
+		bytesThisSecond = 0;
+
+		if ((bytesPerSecond > Constants.MAX_BYTES_PER_SECOND || isDropping) && decimation < Constants.MAX_DECIMATION)
+		{
+			decimation *= 2;
+		}
+		else if (decimation > 1 && bytesPerSecond * 2 < Constants.MAX_BYTES_PER_SECOND * Constants.INCREASE_THRESHOLD)
+		{
+			decimation /= 2;
+		}
+	}
+
+	public int getDecimation()
+	{
+		return decimation;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("[TelemetryUplink] %d datagrams sent, %d send errors, %d ticks dropped, 1 tick in %d sent, %d bytes/s",
+				packetsSent.get(), sendErrors.get(), droppedTicks.get(), decimation, bytesPerSecond);
+	}
+
+	/**
+	 * Class for constant variables related to TelemetryUplink.
+	 */
+	public static class Constants
+	{
+		public static final boolean ENABLED = true;					// instead of printing the sensor values
+		public static final int PORT = 5805;						// 5800-5810 are open on the field network
+		public static final String DRIVER_STATION_ADDRESS = "10.42.37.5";	// until the dashboard has sent a packet
+		public static final long MAX_BYTES_PER_SECOND = 50000;		// well under the 4 Mbit/s the field allows the whole robot
+		public static final double INCREASE_THRESHOLD = 0.8;		// keep more ticks only if that stays under 80% of the budget
+		public static final int MAX_DECIMATION = 64;
+		public static final int BATCH_TICKS = 5;					// 100 ms of 20 ms ticks per datagram
+		public static final int BATCHES = 16;
+		public static final double SEND_PERIOD = 0.02;				// seconds, how often the sender looks for full batches
+		public static final double SCHEMA_PERIOD = 2.0;				// seconds
+
+		public static final int MAGIC = 0x55543734;					// "47TU" in little-endian
+		public static final byte VERSION = 1;
+		public static final byte TYPE_SCHEMA = 1;
+		public static final byte TYPE_DATA = 2;
+		public static final int HEADER_BYTES = 24;
+	}
+}
@@ -0,0 +1,169 @@
+package frc.robot.telemetry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command line tool to receive the TelemetryUplink's datagrams on the driver station and
+ * print the ticks, in place of the sensor values the robot used to print:
+ * <pre>
+ * ./gradlew receiveTelemetry -Pchannels=kEncoderDistance,kNavXYaw -Pperiod=0.2
+ * </pre>
+ * The channels are read from the schema datagrams, so the receiver does not need to be
+ * rebuilt when channels are added. Without -Pchannels every channel is printed.
+ * Lost datagrams are counted from the gaps in the sequence numbers.
+ */
+public class TelemetryUplinkReceiver
+{
+	private String[] names = null;
+	private String[] units = null;
+	private int[] columns = null;
+	private final List<String> selected;
+	private final double period;
+	private double lastPrintTime = Double.NEGATIVE_INFINITY;
+	private long lastSequence = -1;
+	private long received = 0;
+	private long lost = 0;
+
+	public static void main(String[] args) throws IOException
+	{
+		List<String> selected = (args.length > 0 && !args[0].isEmpty()) ? Arrays.asList(args[0].split(",")) : new ArrayList<>();
+		double period = (args.length > 1) ? Double.parseDouble(args[1]) : Constants.DEFAULT_PERIOD;
+		new TelemetryUplinkReceiver(selected, period).run();
+	}
+
+	private TelemetryUplinkReceiver(List<String> selected, double period)
+	{
+		this.selected = selected;
+		this.period = period;
+	}
+
+	private void run() throws IOException
+	{
+		ByteBuffer datagram = ByteBuffer.allocate(65536).order(ByteOrder.LITTLE_ENDIAN);
+		try (DatagramChannel channel = DatagramChannel.open())
+		{
+			channel.bind(new InetSocketAddress(TelemetryUplink.Constants.PORT));
+			System.out.println("[TelemetryUplinkReceiver] listening on port " + TelemetryUplink.Constants.PORT);
+			while (true)
+			{
+				datagram.clear();
+				channel.receive(datagram);
+				datagram.flip();
+				if (datagram.remaining() < TelemetryUplink.Constants.HEADER_BYTES || datagram.getInt(0) != TelemetryUplink.Constants.MAGIC)
+				{
+					continue;
+				}
+				countSequence(datagram.getInt(8) & 0xFFFFFFFFL);
+
+				byte type = datagram.get(5);
+				if (type == TelemetryUplink.Constants.TYPE_SCHEMA)
+				{
+					readSchema(datagram);
+				}
+				else if (type == TelemetryUplink.Constants.TYPE_DATA && names != null && datagram.getShort(6) == names.length)
+				{
+					printData(datagram);
+				}
+			}
+		}
+	}
+
+	private void countSequence(long sequence)
+	{
+		if (lastSequence >= 0 && sequence > lastSequence + 1)
+		{
+			lost += sequence - lastSequence - 1;
+		}
+		lastSequence = sequence;
+		received++;
+	}
+
+	private void readSchema(ByteBuffer datagram)
+	{
+		if (names != null)
+		{
+			return;
+		}
+
+		int channelCount = datagram.getShort(6);
+		String[] newNames = new String[channelCount];
+		String[] newUnits = new String[channelCount];
+		datagram.position(TelemetryUplink.Constants.HEADER_BYTES);
+		for (int i = 0; i < channelCount; i++)
+		{
+			newNames[i] = getString(datagram);
+			newUnits[i] = getString(datagram);
+		}
+
+		List<Integer> newColumns = new ArrayList<>();
+		for (int i = 0; i < channelCount; i++)
+		{
+			if (selected.isEmpty() || selected.contains(newNames[i]))
+			{
+				newColumns.add(i);
+			}
+		}
+		columns = newColumns.stream().mapToInt(Integer::intValue).toArray();
+		units = newUnits;
+		names = newNames;
+		System.out.println("[TelemetryUplinkReceiver] " + channelCount + " channels");
+	}
+
+	private static String getString(ByteBuffer datagram)
+	{
+		byte[] bytes = new byte[datagram.get() & 0xFF];
+		datagram.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Prints the ticks of a data datagram that are at least the print period apart.
+	 */
+	private void printData(ByteBuffer datagram)
+	{
+		int ticks = datagram.getShort(12);
+		int decimation = datagram.getShort(14);
+		double firstTime = datagram.getDouble(16);
+		int rowBytes = names.length * Float.BYTES;
+		int timeColumn = Channel.kTime.ordinal();
+
+		for (int t = 0; t < ticks; t++)
+		{
+			int offset = TelemetryUplink.Constants.HEADER_BYTES + t * rowBytes;
+			double time = firstTime + datagram.getFloat(offset + timeColumn * Float.BYTES);
+			if (time < lastPrintTime + period)
+			{
+				continue;
+			}
+			lastPrintTime = time;
+
+			StringBuilder line = new StringBuilder(String.format("%9.3f", time));
+			for (int column : columns)
+			{
+				if (column != timeColumn)
+				{
+					line.append(String.format("  %s %.4g%s", names[column], datagram.getFloat(offset + column * Float.BYTES),
+							units[column].isEmpty() ? "" : " " + units[column]));
+				}
+			}
+			line.append(String.format("  [1/%d, %d datagrams, %d lost]", decimation, received, lost));
+			System.out.println(line);
+		}
+	}
+
+	/**
+	 * Class for constant variables related to TelemetryUplinkReceiver.
+	 */
+	public static class Constants
+	{
+		public static final double DEFAULT_PERIOD = 0.2;	// seconds between printed ticks
+	}
+}
@@ -0,0 +1,105 @@
+package frc.robot.util;
+
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Class to run a sensor calibration in the background during startup.
+ * The robot does not wait for it: code that needs the sensor checks isGood()
+ * and falls back to something that works without the calibration until it has finished and was good.
+ * The calibration is run with Startup, so it also appears in the startup report.
+ */
+public class Calibration
+{
+	private final String name;
+	private volatile Future<Boolean> future = null;
+	private volatile long durationNanos = -1;
+	private volatile boolean isGood = false;
+
+	/**
+	 * Constructor for a Calibration that has not been started yet.
+	 * @param name Name of the calibration, used in the startup report.
+	 */
+	public Calibration(String name)
+	{
+		this.name = name;
+	}
+
+	/**
+	 * Starts the calibration on a startup thread. Does nothing if it was already started.
+	 * @param calibrate The calibration. Returns if the calibration was good.
+	 */
+	public synchronized void start(BooleanSupplier calibrate)
+	{
+		if (future == null)
+		{
+			future = Startup.start(name, () ->
+			{
+				long startNanos = System.nanoTime();
+				boolean isGood = false;
+				try
+				{
+					isGood = calibrate.getAsBoolean();
+				}
+				finally
+				{
+					this.isGood = isGood;
+					durationNanos = System.nanoTime() - startNanos;
+					Logger.println(toString());
+				}
+				return isGood;
+			});
+		}
+	}
+
+	/**
+	 * Checks if the calibration has finished, whether or not it was good.
+	 * @return True if the calibration has finished.
+	 */
+	public boolean isReady()
+	{
+		return durationNanos >= 0;
+	}
+
+	/**
+	 * Checks if the calibration has finished and was good.
+	 * @return True if the calibration was good.
+	 */
+	public boolean isGood()
+	{
+		return isReady() && isGood;
+	}
+
+	/**
+	 * Gets the future of the calibration, to wait for it.
+	 * @return The future of the calibration, or null if it has not been started.
+	 */
+	public Future<Boolean> getFuture()
+	{
+		return future;
+	}
+
+	/**
+	 * Gets how long the calibration took.
+	 * @return The duration in seconds, or -1.0 if the calibration has not finished.
+	 */
+	public double getDuration()
+	{
+		long duration = durationNanos;
+		return (duration < 0) ? -1.0 : duration / 1.0e9;
+	}
+
+	@Override
+	public String toString()
+	{
+		if (future == null)
+		{
+			return "[Calibration] " + name + " not started";
+		}
+		if (!isReady())
+		{
+			return "[Calibration] " + name + " in progress";
+		}
+		return String.format("[Calibration] %s %s after %.1fms", name, isGood ? "good" : "FAILED", durationNanos / 1.0e6);
+	}
+}
@@ -0,0 +1,186 @@
+package frc.robot.util;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+/**
+ * Class to build and print console lines without allocating.
+ * String concatenation and printf create new objects on every call. A ConsoleBuffer
+ * keeps one StringBuilder and one byte array, encodes the line as UTF-8 into the array itself,
+ * and writes the bytes straight to the console. Not thread-safe: use one buffer per thread.
+ */
+public class ConsoleBuffer
+{
+	private final StringBuilder line;
+	private byte[] bytes;
+	private final PrintStream out;
+	private StringWriter trace = null;	// only created once an exception is printed
+	private PrintWriter traceWriter = null;
+
+	/**
+	 * Constructor for a ConsoleBuffer that prints to System.out.
+	 * @param capacity Expected length of the longest line, in characters.
+	 */
+	public ConsoleBuffer(int capacity)
+	{
+		this(capacity, System.out);
+	}
+
+	/**
+	 * Constructor for ConsoleBuffer.
+	 * @param capacity Expected length of the longest line, in characters.
+	 * @param out Where to print.
+	 */
+	public ConsoleBuffer(int capacity, PrintStream out)
+	{
+		this.line = new StringBuilder(capacity);
+		this.bytes = new byte[capacity];
+		this.out = out;
+	}
+
+	/**
+	 * Starts a new line.
+	 * @return This buffer, to append to.
+	 */
+	public ConsoleBuffer clear()
+	{
+		line.setLength(0);
+		return this;
+	}
+
+	public ConsoleBuffer append(String text)
+	{
+		line.append(text);
+		return this;
+	}
+
+	public ConsoleBuffer append(Object value)
+	{
+		line.append(value);
+		return this;
+	}
+
+	public ConsoleBuffer append(char c)
+	{
+		line.append(c);
+		return this;
+	}
+
+	public ConsoleBuffer append(int value)
+	{
+		line.append(value);
+		return this;
+	}
+
+	public ConsoleBuffer append(long value)
+	{
+		line.append(value);
+		return this;
+	}
+
+	public ConsoleBuffer append(double value)
+	{
+		line.append(value);
+		return this;
+	}
+
+	public ConsoleBuffer append(boolean value)
+	{
+		line.append(value);
+		return this;
+	}
+
+	/**
+	 * Appends an exception with its stack trace, as printStackTrace() prints it, without the last newline.
+	 * Allocates, since the stack trace is built by the exception, so only use it for errors.
+	 * @param exception The exception.
+	 * @return This buffer.
+	 */
+	public ConsoleBuffer appendStackTrace(Throwable exception)
+	{
+		if (trace == null)
+		{
+			trace = new StringWriter();
+			traceWriter = new PrintWriter(trace);
+		}
+		StringBuffer text = trace.getBuffer();
+		text.setLength(0);
+		exception.printStackTrace(traceWriter);
+		traceWriter.flush();
+
+		int length = text.length();
+		while (length > 0 && Character.isWhitespace(text.charAt(length - 1)))
+		{
+			length--;
+		}
+		line.append(text, 0, length);
+		return this;
+	}
+
+	/**
+	 * Gets the number of characters in the line.
+	 * @return The length of the line.
+	 */
+	public int length()
+	{
+		return line.length();
+	}
+
+	/**
+	 * Prints the line as it is, without adding a newline.
+	 * The line is encoded as UTF-8 by hand, since String.getBytes() and a CharsetEncoder's
+	 * encode() return new arrays. A character that is half of a broken surrogate pair is printed as '?'.
+	 * Only allocates if the encoded line is longer than any line printed before.
+	 */
+	public void print()
+	{
+		int length = line.length();
+		int count = 0;
+		for (int i = 0; i < length; i++)
+		{
+			if (count + 4 > bytes.length)
+			{
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + 4));
+			}
+
+			char c = line.charAt(i);
+			if (c < 0x80)
+			{
+				bytes[count++] = (byte) c;
+			}
+			else if (c < 0x800)
+			{
+				bytes[count++] = (byte) (0xC0 | c >> 6);
+				bytes[count++] = (byte) (0x80 | c & 0x3F);
+			}
+			else if (!Character.isSurrogate(c))
+			{
+				bytes[count++] = (byte) (0xE0 | c >> 12);
+				bytes[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+				bytes[count++] = (byte) (0x80 | c & 0x3F);
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(line.charAt(i + 1)))
+			{
+				int codePoint = Character.toCodePoint(c, line.charAt(++i));
+				bytes[count++] = (byte) (0xF0 | codePoint >> 18);
+				bytes[count++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+				bytes[count++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+				bytes[count++] = (byte) (0x80 | codePoint & 0x3F);
+			}
+			else
+			{
+				bytes[count++] = '?';
+			}
+		}
+		out.write(bytes, 0, count);
+		out.flush();
+	}
+
+	@Override
+	public String toString()
+	{
+		return line.toString();
+	}
+}
@@ -0,0 +1,102 @@
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import frc.robot.metrics.Counter;
+import frc.robot.metrics.MetricsRegistry;
+
+/**
+ * Class for a place in the code where an error is reported, such as a failed I2C read.
+ * Each site is created once, as a constant, so its id, its source location and its message
+ * are worked out when the class is initialized, not every time the error happens:
+ * <pre>
+ * private static final ErrorSite READ_FAILED = ErrorSite.create("AMSColorSensor.readFailed", "[ColorSensor] reading the data registers failed");
+ * ...
+ * READ_FAILED.record();
+ * </pre>
+ * Every error is counted in the MetricsRegistry under the site's name. The message is printed
+ * at most once every DETAIL_PERIOD, and the Logger collapses the errors in between into one
+ * line. Recording an error does not lock, allocate or walk the stack, so a device that fails
+ * every poll does not slow down the thread that polls it.
+ */
+public class ErrorSite
+{
+	private static final AtomicInteger siteCount = new AtomicInteger();
+
+	private final int id;
+	private final String name;
+	private final String location;
+	private final Counter count;
+	private final Logger.Message message;
+
+	/**
+	 * Creates an error site. Call it once per site, from a static initializer.
+	 * @param name The name of the counter, such as "AMSColorSensor.readFailed". Must be unique.
+	 * @param text What went wrong, for the printed detail.
+	 * @return The site.
+	 */
+	public static ErrorSite create(String name, String text)
+	{
+		// the only stack walk, to find the file and line of the constant
+		String location = StackWalker.getInstance().walk(frames -> frames.skip(1).findFirst())
+				.map(frame -> frame.getFileName() + "@" + frame.getLineNumber()).orElse("unknown");
+		return new ErrorSite(siteCount.incrementAndGet(), name, text, location);
+	}
+
+	private ErrorSite(int id, String name, String text, String location)
+	{
+		this.id = id;
+		this.name = name;
+		this.location = location;
+		this.count = MetricsRegistry.getInstance().counter(name, text);
+		this.message = new Logger.Message(text + " (error " + id + " at " + location + ")", Constants.DETAIL_PERIOD);
+	}
+
+	/**
+	 * Counts an error at this site, and prints it unless it was printed less than DETAIL_PERIOD ago.
+	 * Can be called from any thread.
+	 */
+	public void record()
+	{
+		count.increment();
+		Logger.log(message);
+	}
+
+	public int getId()
+	{
+		return id;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Gets where the site is defined.
+	 * @return The file and line, such as "AMSColorSensor.java@20".
+	 */
+	public String getLocation()
+	{
+		return location;
+	}
+
+	public long getCount()
+	{
+		return count.get();
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("[ErrorSite] %d %s at %s: %d errors", id, name, location, count.get());
+	}
+
+	/**
+	 * Class for constant variables related to ErrorSite.
+	 */
+	public static class Constants
+	{
+		public static final double DETAIL_PERIOD = 1.0;		// seconds, at most one printed error per site per second
+	}
+}
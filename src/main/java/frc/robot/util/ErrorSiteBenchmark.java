@@ -0,0 +1,81 @@
+package frc.robot.util;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Command line tool to measure what reporting one error costs the thread that reports it,
+ * the way the color sensor used to (the line number from the whole stack trace, then a
+ * logged message), with Id.__LINE__, with an ErrorSite, and with a rate-limited message alone:
+ * <pre>
+ * java -cp build/libs/... frc.robot.util.ErrorSiteBenchmark [errors]
+ * </pre>
+ * The printed messages are thrown away, so only the cost on the reporting thread is measured.
+ */
+public class ErrorSiteBenchmark
+{
+	// swapped before the Logger starts, so its printer thread never has the console
+	private static final PrintStream console = System.out;
+	static
+	{
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	private static final Logger.Message READ_FAILED_LINE = new Logger.Message("[ErrorSiteBenchmark] readAllDataRegisters transaction failed line {}");
+	private static final Logger.Message FAILED_READING = new Logger.Message("[ErrorSiteBenchmark] failed reading", 1.0);
+	private static final ErrorSite READ_FAILED = ErrorSite.create("ErrorSiteBenchmark.readFailed", "[ErrorSiteBenchmark] readAllDataRegisters transaction failed");
+
+	private static final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		int errors = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+		for (int round = 0; round < 2; round++)
+		{
+			// the first round warms up the JIT, the second one is printed
+			PrintStream out = (round == 0) ? new PrintStream(OutputStream.nullOutputStream()) : console;
+			out.printf("[ErrorSiteBenchmark] %d errors%n", errors);
+			run(out, "stack trace + log (before)", errors, () -> Logger.log(READ_FAILED_LINE, getStackTraceLine()));
+			run(out, "Id.__LINE__ + log", errors, () -> Logger.log(READ_FAILED_LINE, Id.__LINE__()));
+			run(out, "ErrorSite.record (after)", errors, READ_FAILED::record);
+			run(out, "rate-limited message", errors, () -> Logger.log(FAILED_READING));
+		}
+	}
+
+	private static void run(PrintStream out, String name, int errors, Runnable error) throws InterruptedException
+	{
+		// start with an empty log buffer, so every path finds room in it the same way
+		while (Logger.getPendingCount() > 0)
+		{
+			Thread.sleep(10);
+		}
+
+		long id = Thread.currentThread().getId();
+		long startBytes = threadBean.getThreadAllocatedBytes(id);
+		long startNanos = System.nanoTime();
+		for (int i = 0; i < errors; i++)
+		{
+			error.run();
+		}
+		long nanos = System.nanoTime() - startNanos;
+		long bytes = threadBean.getThreadAllocatedBytes(id) - startBytes;
+		out.printf("  %-28s %10.1f ns/error %10.1f bytes/error%n", name, (double) nanos / errors, (double) bytes / errors);
+	}
+
+	/**
+	 * The line number lookup Id.__LINE__ used to do: the whole stack trace, searched by method name.
+	 */
+	private static String getStackTraceLine()
+	{
+		final StackTraceElement[] ste = Thread.currentThread().getStackTrace();
+		String returnLine = "";
+		for (int i = 0; i < ste.length; i++)
+			if (ste[i].getMethodName().equals("getStackTraceLine"))
+			{
+				returnLine = returnLine + ste[i + 1].getFileName() + '@' + ste[i + 1].getLineNumber();
+				break;
+			}
+		return returnLine;
+	}
+}
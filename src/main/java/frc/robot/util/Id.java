@@ -2,41 +2,49 @@ package frc.robot.util;
 
 import java.util.Date;
 
+/**
+ * Class to identify where code is, for messages.
+ * For errors that can happen over and over, use an ErrorSite instead, which does this once.
+ */
 public class Id
 {
+	private static final Logger.Message LOOKUP_FAILED = new Logger.Message("[Id] could not find when {} was compiled: {}");
 
-	// prints the class and date, for example:	
-	public static String __FILE__(Class<?> c)
+	// the class file's date only changes with a new deploy, so it is looked up once per class
+	private static final ClassValue<String> fileIds = new ClassValue<String>()
 	{
-		try 
-		{
-			String classFileName = c.getSimpleName() + ".class"; // simple name like MyClass.class
-			Date d = new Date(c.getResource(classFileName).openConnection().getLastModified()); // date
-			classFileName = classFileName + " was compiled on " + d;
-			return classFileName;
-		}
-		catch (Exception e)
+		@Override
+		protected String computeValue(Class<?> c)
 		{
-			System.out.println(e);
+			try
+			{
+				String classFileName = c.getSimpleName() + ".class"; // simple name like MyClass.class
+				Date d = new Date(c.getResource(classFileName).openConnection().getLastModified()); // date
+				return classFileName + " was compiled on " + d;
+			}
+			catch (Exception e)
+			{
+				Logger.begin(LOOKUP_FAILED).add(c.getSimpleName()).add(e).commit();
+			}
+			return "Id threw an error\n";
 		}
+	};
 
-		return "Id threw an error\n";
+	private static final StackWalker walker = StackWalker.getInstance();
+
+	// prints the class and date, for example: MyClass.class was compiled on Sat Mar 03 10:15:00 EST 2018
+	public static String __FILE__(Class<?> c)
+	{
+		return fileIds.get(c);
 	}
 	//String className = c.getResource(classFileName).getPath(); // complete name with path (optional)-probably not useful on roboRIO
 
-	// prints the line number
+	// prints the line number of the caller, for example: Robot.java@123
+	// only the caller's frame is looked at, not the whole stack, but it still allocates, so keep it out of loops
 	public static String __LINE__()
 	{
-
-		final StackTraceElement[] ste = Thread.currentThread().getStackTrace();
-		String returnLine="";
-		for (int i=0; i<ste.length; i++)
-			if (ste[i].getMethodName().equals("__LINE__"))
-			{
-				returnLine = returnLine + ste[i+1].getFileName() +'@'+ ste[i+1].getLineNumber();
-				break;
-			}
-		return returnLine;
+		return walker.walk(frames -> frames.skip(1).findFirst())
+				.map(frame -> frame.getFileName() + '@' + frame.getLineNumber()).orElse("");
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,639 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class to print console messages without blocking the thread that logs them.
+ * System.out is synchronous and goes over netconsole, so a println in the control loop
+ * waits for the console. Instead, the logging thread copies the message and its arguments
+ * into a fixed-size record in a preallocated ring buffer, and a low-priority background
+ * thread formats and prints the records. Logging does not lock or allocate. If the buffer
+ * is full the record is dropped and counted, and the background thread reports the drops.
+ *
+ * <p>Messages are created once, as constants, with a {} placeholder for each argument:
+ * <pre>
+ * private static final Logger.Message ENTERING = new Logger.Message("[Autonomous] Entering: {}");
+ * ...
+ * Logger.log(ENTERING, autoStage);
+ * Logger.begin(SENSOR_VALUES).add(encoder).add(navX).commit();
+ * </pre>
+ * Numbers and booleans are copied into the record. Objects are formatted later on the
+ * background thread, so only pass objects that do not change, like Strings and enums.
+ * An exception is printed with its stack trace, so pass the exception itself instead of
+ * calling printStackTrace(), which writes to the console on the thread that caught it.
+ * Work out the arguments before begin(), so nothing can throw between begin() and commit().
+ * The background thread prints the records in order, so it waits for one that was begun but
+ * not committed; after ABANDONED_TIMEOUT_NANOS it skips it, so the records behind it are not
+ * lost, and reports how many it skipped.
+ *
+ * <p>A message that can repeat every tick, like a sensor failing, can be given a minimum
+ * interval. Repeats within the interval are only counted: begin() returns a record that
+ * ignores its arguments, so nothing is copied or formatted for them. The repeats are then
+ * printed as one line, the message's text without its placeholders, like
+ * "[ColorSensor] failed reading x12 in 180 ms", before the message is printed again, or by
+ * the background thread once the interval has passed without another one.
+ */
+public class Logger
+{
+	private static final int MASK = Constants.CAPACITY - 1;
+
+	// one record per slot: the message, when it was logged, and its arguments
+	private static final Message[] messages = new Message[Constants.CAPACITY];
+	private static final long[] timestamps = new long[Constants.CAPACITY];
+	private static final int[] argumentCounts = new int[Constants.CAPACITY];
+	private static final Kind[] kinds = new Kind[Constants.CAPACITY * Constants.MAX_ARGUMENTS];
+	private static final long[] values = new long[Constants.CAPACITY * Constants.MAX_ARGUMENTS];
+	private static final Object[] objects = new Object[Constants.CAPACITY * Constants.MAX_ARGUMENTS];
+
+	// a slot may be written when its sequence equals the position, and read when it is one more
+	private static final AtomicLongArray sequences = new AtomicLongArray(Constants.CAPACITY);
+	private static final AtomicLong head = new AtomicLong();
+	private static volatile long tail = 0;
+
+	private static final AtomicLong droppedCount = new AtomicLong();
+	private static volatile long abandonedCount = 0;
+	private static volatile long printedCount = 0;
+
+	private static final ThreadLocal<Record> records = ThreadLocal.withInitial(Record::new);
+	private static final Message TEXT = new Message("{}");
+	private static final Message DROPPED = new Message("[Logger] dropped {} messages, the buffer was full");
+	private static final Message ABANDONED = new Message("[Logger] skipped {} messages that were never committed");
+	private static final Message REPEATED = new Message("{} x{} in {} ms");
+	private static volatile Message[] limitedMessages = new Message[0];
+	private static final long startNanos = System.nanoTime();
+
+	private enum Kind
+	{
+		kLong, kDouble, kBoolean, kObject
+	}
+
+	static
+	{
+		for (int i = 0; i < Constants.CAPACITY; i++)
+		{
+			sequences.set(i, i);
+		}
+
+		Thread printer = new Thread(Logger::print, "Logger");
+		printer.setDaemon(true);
+		printer.start();
+	}
+
+	private Logger()
+	{
+	}
+
+	/**
+	 * Logs a message without arguments.
+	 * @param message The message.
+	 */
+	public static void log(Message message)
+	{
+		begin(message).commit();
+	}
+
+	public static void log(Message message, long value)
+	{
+		begin(message).add(value).commit();
+	}
+
+	public static void log(Message message, double value)
+	{
+		begin(message).add(value).commit();
+	}
+
+	public static void log(Message message, boolean value)
+	{
+		begin(message).add(value).commit();
+	}
+
+	/**
+	 * Logs a message with one object argument.
+	 * @param message The message.
+	 * @param value The argument. Must not change after it is logged.
+	 */
+	public static void log(Message message, Object value)
+	{
+		begin(message).add(value).commit();
+	}
+
+	/**
+	 * Logs text that was already formatted.
+	 * For code that is not in the control loop, so it can build the text itself
+	 * and still print in order with the rest of the messages.
+	 * @param text The text to print on its own line.
+	 */
+	public static void println(String text)
+	{
+		begin(TEXT).add(text).commit();
+	}
+
+	/**
+	 * Starts a record with more than one argument.
+	 * Add the arguments in order and then commit the record.
+	 * @param message The message.
+	 * @return The calling thread's record.
+	 */
+	public static Record begin(Message message)
+	{
+		Record record = records.get();
+		if (message.intervalNanos > 0)
+		{
+			long now = System.nanoTime();
+			if (!message.isPassing(now))
+			{
+				record.skip();
+				return record;
+			}
+			long repeats = message.repeatCount.getAndSet(0);
+			if (repeats > 0)
+			{
+				record.begin(REPEATED);
+				record.add(message.summary).add(repeats).add((message.lastRepeatNanos - message.firstRepeatNanos) / 1000000L).commit();
+			}
+		}
+		record.begin(message);
+		return record;
+	}
+
+	/**
+	 * Claims the next slot of the ring buffer.
+	 * @return The position of the slot, or -1 if the buffer is full.
+	 */
+	private static long claim()
+	{
+		long position = head.get();
+		while (true)
+		{
+			long difference = sequences.get((int) (position & MASK)) - position;
+			if (difference == 0)
+			{
+				if (head.compareAndSet(position, position + 1))
+				{
+					return position;
+				}
+			}
+			else if (difference < 0)
+			{
+				// the slot still holds a record from one lap ago that has not been printed
+				droppedCount.incrementAndGet();
+				return -1;
+			}
+			position = head.get();
+		}
+	}
+
+	/**
+	 * Runs on the background thread: prints the records as they are committed.
+	 */
+	private static void print()
+	{
+		ThreadPriorities.setBackgroundPriority("Logger");
+		ConsoleBuffer output = new ConsoleBuffer(Constants.OUTPUT_CAPACITY);
+		long reportedDroppedCount = 0;
+		long reportedAbandonedCount = 0;
+		long waitingPosition = -1;
+		long waitingSinceNanos = 0;
+
+		while (true)
+		{
+			output.clear();
+			long position = tail;
+			int printed = 0;
+			int slot = (int) (position & MASK);
+			while (output.length() < Constants.OUTPUT_CAPACITY)
+			{
+				if (sequences.get(slot) == position + 1)
+				{
+					format(slot, output);
+					sequences.lazySet(slot, position + Constants.CAPACITY);
+					printed++;
+				}
+				else if (head.get() > position && isAbandoned(position, slot, waitingPosition, waitingSinceNanos))
+				{
+					abandonedCount++;
+				}
+				else
+				{
+					break;
+				}
+				position++;
+				slot = (int) (position & MASK);
+			}
+			printedCount += printed;
+			tail = position;
+
+			// a record that was begun but is not committed yet: remember since when it is waited for
+			if (position != waitingPosition && head.get() > position)
+			{
+				waitingPosition = position;
+				waitingSinceNanos = System.nanoTime();
+			}
+
+			summarizeRepeats(output);
+
+			long dropped = droppedCount.get();
+			if (dropped != reportedDroppedCount)
+			{
+				output.append(DROPPED.parts[0]).append(dropped - reportedDroppedCount).append(DROPPED.parts[1]).append('\n');
+				reportedDroppedCount = dropped;
+			}
+			long abandoned = abandonedCount;
+			if (abandoned != reportedAbandonedCount)
+			{
+				output.append(ABANDONED.parts[0]).append(abandoned - reportedAbandonedCount).append(ABANDONED.parts[1]).append('\n');
+				reportedAbandonedCount = abandoned;
+			}
+
+			if (output.length() > 0)
+			{
+				output.print();
+			}
+			else
+			{
+				LockSupport.parkNanos(Constants.PRINT_PERIOD_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * Skips a record that was begun ABANDONED_TIMEOUT_NANOS ago and still is not committed,
+	 * for example because evaluating an argument threw. Runs on the background thread.
+	 * If the thread that began it commits after all, its commit is ignored.
+	 * @return True if the record was skipped.
+	 */
+	private static boolean isAbandoned(long position, int slot, long waitingPosition, long waitingSinceNanos)
+	{
+		if (position != waitingPosition || System.nanoTime() - waitingSinceNanos < Constants.ABANDONED_TIMEOUT_NANOS)
+		{
+			return false;
+		}
+		if (!sequences.compareAndSet(slot, position, position + Constants.CAPACITY))
+		{
+			// committed just now
+			return false;
+		}
+		messages[slot] = null;
+		int first = slot * Constants.MAX_ARGUMENTS;
+		for (int i = 0; i < Constants.MAX_ARGUMENTS; i++)
+		{
+			objects[first + i] = null;
+		}
+		return true;
+	}
+
+	/**
+	 * Prints the repeats of the rate-limited messages that have not been repeated again for their interval.
+	 * Runs on the background thread.
+	 */
+	private static void summarizeRepeats(ConsoleBuffer output)
+	{
+		long now = System.nanoTime();
+		for (Message message : limitedMessages)
+		{
+			if (message.repeatCount.get() > 0 && now - message.lastPassedNanos.get() >= message.intervalNanos)
+			{
+				long repeats = message.repeatCount.getAndSet(0);
+				if (repeats > 0)
+				{
+					output.append(message.summary).append(" x").append(repeats).append(" in ")
+							.append((message.lastRepeatNanos - message.firstRepeatNanos) / 1000000L).append(" ms\n");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Formats the record in a slot as one line, and clears its object arguments.
+	 */
+	private static void format(int slot, ConsoleBuffer output)
+	{
+		Message message = messages[slot];
+		int count = argumentCounts[slot];
+		int first = slot * Constants.MAX_ARGUMENTS;
+
+		if (Constants.PRINT_TIMESTAMPS)
+		{
+			output.append((timestamps[slot] - startNanos) / 1000000L).append("ms ");
+		}
+		for (int i = 0; i < message.parts.length; i++)
+		{
+			output.append(message.parts[i]);
+			if (i < message.parts.length - 1)
+			{
+				if (i < count)
+				{
+					int argument = first + i;
+					Kind kind = kinds[argument];
+					if (kind == Kind.kLong)
+					{
+						output.append(values[argument]);
+					}
+					else if (kind == Kind.kDouble)
+					{
+						output.append(Double.longBitsToDouble(values[argument]));
+					}
+					else if (kind == Kind.kBoolean)
+					{
+						output.append(values[argument] != 0);
+					}
+					else if (objects[argument] instanceof Throwable)
+					{
+						output.appendStackTrace((Throwable) objects[argument]);
+					}
+					else
+					{
+						output.append(objects[argument]);
+					}
+				}
+				else
+				{
+					output.append("{}");
+				}
+			}
+		}
+		output.append('\n');
+
+		messages[slot] = null;
+		for (int i = 0; i < count; i++)
+		{
+			objects[first + i] = null;
+		}
+	}
+
+	/**
+	 * Gets the number of messages that were dropped because the buffer was full.
+	 * @return The number of dropped messages.
+	 */
+	public static long getDroppedCount()
+	{
+		return droppedCount.get();
+	}
+
+	/**
+	 * Gets the number of messages that were begun but never committed, and skipped.
+	 * @return The number of skipped messages.
+	 */
+	public static long getAbandonedCount()
+	{
+		return abandonedCount;
+	}
+
+	/**
+	 * Gets the number of messages that have been printed.
+	 * @return The number of printed messages.
+	 */
+	public static long getPrintedCount()
+	{
+		return printedCount;
+	}
+
+	/**
+	 * Gets the number of messages waiting to be printed.
+	 * @return The number of messages in the buffer.
+	 */
+	public static long getPendingCount()
+	{
+		return Math.max(head.get() - tail, 0);
+	}
+
+	/**
+	 * Gets the message counts, for reports.
+	 * @return The printed, pending and dropped counts.
+	 */
+	public static String getStatus()
+	{
+		return String.format("[Logger] printed=%d pending=%d dropped=%d", getPrintedCount(), getPendingCount(), getDroppedCount());
+	}
+
+	/**
+	 * Class for a message with {} placeholders for its arguments.
+	 * Create messages once, as constants.
+	 */
+	public static class Message
+	{
+		private final String[] parts;
+		private final String summary;
+		private final long intervalNanos;
+
+		// only used if the message has an interval
+		private final AtomicLong lastPassedNanos = new AtomicLong();
+		private final AtomicLong repeatCount = new AtomicLong();
+		private volatile long firstRepeatNanos = 0;
+		private volatile long lastRepeatNanos = 0;
+
+		/**
+		 * Constructor for Message.
+		 * @param format The text of the message, with {} where each argument goes.
+		 */
+		public Message(String format)
+		{
+			this(format, 0.0);
+		}
+
+		/**
+		 * Constructor for a Message that is printed at most once per interval.
+		 * The repeats in between are counted and printed as one line.
+		 * @param format The text of the message, with {} where each argument goes.
+		 * @param minInterval The shortest time between two prints of the message, in seconds.
+		 */
+		public Message(String format, double minInterval)
+		{
+			this.parts = format.split("\\{\\}", -1);
+			// the text without its placeholders, for the line that counts the repeats
+			this.summary = String.join("", parts).replaceAll("\\s+", " ").trim();
+			if (parts.length - 1 > Constants.MAX_ARGUMENTS)
+			{
+				throw new IllegalArgumentException("[Logger] more than " + Constants.MAX_ARGUMENTS + " arguments in " + format);
+			}
+			this.intervalNanos = (long) (minInterval * 1.0e9);
+			if (intervalNanos > 0)
+			{
+				synchronized (Message.class)
+				{
+					Message[] newLimitedMessages = Arrays.copyOf(limitedMessages, limitedMessages.length + 1);
+					newLimitedMessages[limitedMessages.length] = this;
+					limitedMessages = newLimitedMessages;
+				}
+			}
+		}
+
+		/**
+		 * Checks if the message may be printed now, and counts it as a repeat if not.
+		 * @return True if the interval has passed since the message was last printed.
+		 */
+		private boolean isPassing(long now)
+		{
+			long last = lastPassedNanos.get();
+			if ((last == 0 || now - last >= intervalNanos) && lastPassedNanos.compareAndSet(last, now))
+			{
+				return true;
+			}
+			if (repeatCount.getAndIncrement() == 0)
+			{
+				firstRepeatNanos = now;
+			}
+			lastRepeatNanos = now;
+			return false;
+		}
+
+		/**
+		 * Gets the number of times the message was not printed since its repeats were last summarized.
+		 * @return The number of repeats.
+		 */
+		public long getRepeatCount()
+		{
+			return repeatCount.get();
+		}
+
+		/**
+		 * Gets the number of {} placeholders.
+		 * @return The number of arguments the message takes.
+		 */
+		public int getArgumentCount()
+		{
+			return parts.length - 1;
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.join("{}", parts);
+		}
+	}
+
+	/**
+	 * Class for a record being written by a thread.
+	 * Each thread reuses its own record. If the buffer was full, or the message is a repeat
+	 * within its interval, the arguments are ignored.
+	 */
+	public static class Record
+	{
+		private long position = -1;
+		private int slot = 0;
+		private int count = 0;
+
+		private Record()
+		{
+		}
+
+		/**
+		 * Makes the record ignore its arguments and commit, for a message that is not printed.
+		 */
+		private void skip()
+		{
+			if (position >= 0)
+			{
+				commit();
+			}
+		}
+
+		private void begin(Message message)
+		{
+			if (position >= 0)
+			{
+				// the previous record was never committed, commit it so the printer does not wait for it
+				commit();
+			}
+			position = claim();
+			if (position >= 0)
+			{
+				slot = (int) (position & MASK);
+				count = 0;
+				messages[slot] = message;
+				timestamps[slot] = System.nanoTime();
+			}
+		}
+
+		private int next(Kind kind)
+		{
+			if (position < 0 || count >= Constants.MAX_ARGUMENTS)
+			{
+				return -1;
+			}
+			int argument = slot * Constants.MAX_ARGUMENTS + count;
+			kinds[argument] = kind;
+			count++;
+			return argument;
+		}
+
+		public Record add(long value)
+		{
+			int argument = next(Kind.kLong);
+			if (argument >= 0)
+			{
+				values[argument] = value;
+			}
+			return this;
+		}
+
+		public Record add(double value)
+		{
+			int argument = next(Kind.kDouble);
+			if (argument >= 0)
+			{
+				values[argument] = Double.doubleToRawLongBits(value);
+			}
+			return this;
+		}
+
+		public Record add(boolean value)
+		{
+			int argument = next(Kind.kBoolean);
+			if (argument >= 0)
+			{
+				values[argument] = value ? 1 : 0;
+			}
+			return this;
+		}
+
+		/**
+		 * Adds an object argument. It is formatted on the background thread, and a Throwable is
+		 * printed with its stack trace.
+		 * @param value The argument. Must not change after it is logged.
+		 * @return This record.
+		 */
+		public Record add(Object value)
+		{
+			int argument = next(Kind.kObject);
+			if (argument >= 0)
+			{
+				objects[argument] = value;
+			}
+			return this;
+		}
+
+		/**
+		 * Hands the record to the background thread.
+		 * Does nothing if the background thread has already skipped the record as abandoned.
+		 */
+		public void commit()
+		{
+			if (position >= 0)
+			{
+				if (sequences.get(slot) == position)
+				{
+					argumentCounts[slot] = count;
+					sequences.compareAndSet(slot, position, position + 1);
+				}
+				position = -1;
+			}
+		}
+	}
+
+	/**
+	 * Class for constant variables related to Logger.
+	 */
+	public static class Constants
+	{
+		public static final int CAPACITY = 1024;				// records, must be a power of 2
+		public static final int MAX_ARGUMENTS = 12;
+		public static final int OUTPUT_CAPACITY = 8192;			// characters printed at a time
+		public static final long PRINT_PERIOD_NANOS = 20000000L;	// how long the printer sleeps when there is nothing to print
+		public static final long ABANDONED_TIMEOUT_NANOS = 1000000000L;	// how long the printer waits for a record that was begun to be committed
+		public static final boolean PRINT_TIMESTAMPS = false;	// prefix each line with the milliseconds since startup
+	}
+}
@@ -0,0 +1,274 @@
+package frc.robot.util;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * Class to construct the robot's subsystems in parallel and time every step of startup.
+ * Independent subsystems are started with start() and run on a small pool of startup threads;
+ * the robot waits for them with await() only where it needs them.
+ * Devices are wrapped in time() where they are constructed, so the report shows how long every
+ * singleton and every device took, which thread built it and when, relative to the JVM starting.
+ */
+public class Startup
+{
+	private static final Logger.Message WRITE_FAILED = new Logger.Message("[Startup] could not record the robotInit time: {}");
+	private static final ArrayList<Entry> entries = new ArrayList<Entry>();
+	private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+	private static ExecutorService executor = null;
+
+	// lets every step be timed with System.nanoTime() and still be reported relative to the JVM starting
+	private static final long jvmStartNanos = System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1000000L;
+
+	/**
+	 * Runs a step of startup and records how long it took.
+	 * @param name Name of the step, for example the device being constructed.
+	 * @param step The code to run.
+	 * @return The result of the step.
+	 */
+	public static <T> T time(String name, Supplier<T> step)
+	{
+		int[] currentDepth = depth.get();
+		long startNanos = System.nanoTime();
+		currentDepth[0]++;
+		try
+		{
+			return step.get();
+		}
+		finally
+		{
+			currentDepth[0]--;
+			Entry entry = new Entry(name, Thread.currentThread().getName(), currentDepth[0], startNanos - jvmStartNanos, System.nanoTime() - startNanos);
+			synchronized (entries)
+			{
+				entries.add(entry);
+			}
+		}
+	}
+
+	/**
+	 * Runs a step of startup that has no result and records how long it took.
+	 * @param name Name of the step.
+	 * @param step The code to run.
+	 */
+	public static void time(String name, Runnable step)
+	{
+		time(name, () ->
+		{
+			step.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Starts a step of startup on a startup thread.
+	 * Runs the step right away on the calling thread if PARALLEL is false.
+	 * @param name Name of the step, for example the subsystem being constructed.
+	 * @param step The code to run.
+	 * @return A future that completes with the result of the step.
+	 */
+	public static <T> Future<T> start(String name, Callable<T> step)
+	{
+		Callable<T> timedStep = () -> time(name, () ->
+		{
+			try
+			{
+				return step.call();
+			}
+			catch (RuntimeException e)
+			{
+				throw e;
+			}
+			catch (Exception e)
+			{
+				throw new RuntimeException(e);
+			}
+		});
+
+		if (!Constants.PARALLEL)
+		{
+			CompletableFuture<T> future = new CompletableFuture<T>();
+			try
+			{
+				future.complete(timedStep.call());
+			}
+			catch (Exception e)
+			{
+				future.completeExceptionally(e);
+			}
+			return future;
+		}
+		return getExecutor().submit(timedStep);
+	}
+
+	/**
+	 * Waits for a step started with start().
+	 * If the step failed, its exception is thrown here, so the robot fails the same way it would
+	 * have if the step had run on this thread.
+	 * @param future The future returned by start().
+	 * @return The result of the step.
+	 */
+	public static <T> T await(Future<T> future)
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("[Startup] Interrupted while waiting for startup", e);
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/**
+	 * Lets the startup threads exit once the steps already started are done.
+	 */
+	public static synchronized void finish()
+	{
+		if (executor != null)
+		{
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Prints every recorded step in the order it started, nested under the step that ran it.
+	 */
+	public static void printReport()
+	{
+		ArrayList<Entry> sortedEntries;
+		synchronized (entries)
+		{
+			sortedEntries = new ArrayList<Entry>(entries);
+		}
+		sortedEntries.sort(Comparator.comparingLong((Entry entry) -> entry.startNanos).thenComparingInt(entry -> entry.depth));
+
+		StringBuilder report = new StringBuilder("[Startup] Startup steps (start is time since the JVM started):");
+		for (Entry entry : sortedEntries)
+		{
+			StringBuilder indent = new StringBuilder();
+			for (int i = 0; i < entry.depth; i++)
+			{
+				indent.append("  ");
+			}
+			report.append(String.format("\n\t%-44s %-10s start=%8.1fms took=%8.1fms",
+					indent + entry.name, entry.threadName, entry.startNanos / 1.0e6, entry.durationNanos / 1.0e6));
+		}
+		report.append(String.format("\n[Startup] Robot ready %dms after the JVM started", ManagementFactory.getRuntimeMXBean().getUptime()));
+		Logger.println(report.toString());
+	}
+
+	/**
+	 * Records that robotInit was reached, and whether the JVM is sharing class data from an archive.
+	 * If the class data sharing directory exists on the robot, the time is also appended to a file
+	 * there, so startup-benchmark.sh can compare starts with and without the archive.
+	 */
+	public static void recordRobotInit()
+	{
+		long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+		boolean isSharing = isClassDataSharing();
+		Logger.println(String.format("[Startup] robotInit reached %dms after the JVM started, class data sharing %s", uptime, isSharing ? "on" : "off"));
+
+		if (new File(Constants.CDS_DIRECTORY).isDirectory())
+		{
+			try (FileWriter writer = new FileWriter(Constants.CDS_DIRECTORY + "/" + Constants.ROBOT_INIT_TIMES_FILE, true))
+			{
+				writer.write(uptime + "," + (isSharing ? "on" : "off") + "\n");
+			}
+			catch (IOException e)
+			{
+				Logger.log(WRITE_FAILED, e);
+			}
+		}
+	}
+
+	/**
+	 * Checks if the JVM mapped classes from a class data sharing archive.
+	 * @return True if class data sharing is on.
+	 */
+	public static boolean isClassDataSharing()
+	{
+		// HotSpot adds "sharing" to java.vm.info when a shared archive is mapped
+		String vmInfo = System.getProperty("java.vm.info", "");
+		return vmInfo.contains("sharing");
+	}
+
+	private static synchronized ExecutorService getExecutor()
+	{
+		if (executor == null)
+		{
+			ThreadFactory threadFactory = new ThreadFactory()
+			{
+				private int threadCount = 0;
+
+				@Override
+				public synchronized Thread newThread(Runnable runnable)
+				{
+					threadCount++;
+					Thread thread = new Thread(runnable, "Startup-" + threadCount);
+					thread.setDaemon(true);
+					return thread;
+				}
+			};
+			executor = Executors.newFixedThreadPool(Constants.THREADS, threadFactory);
+		}
+		return executor;
+	}
+
+	private static class Entry
+	{
+		private final String name;
+		private final String threadName;
+		private final int depth;
+		private final long startNanos;
+		private final long durationNanos;
+
+		private Entry(String name, String threadName, int depth, long startNanos, long durationNanos)
+		{
+			this.name = name;
+			this.threadName = threadName;
+			this.depth = depth;
+			this.startNanos = startNanos;
+			this.durationNanos = durationNanos;
+		}
+	}
+
+	/**
+	 * Class for constant variables related to Startup.
+	 */
+	public static class Constants
+	{
+		public static final boolean PARALLEL = true;	// false constructs everything on the main thread, one after another
+		public static final int THREADS = 4;
+
+		public static final String CDS_DIRECTORY = "/home/lvuser/cds";		// created by deploying with -PcdsMode, see build.gradle
+		public static final String ROBOT_INIT_TIMES_FILE = "robotInit-times.csv";
+	}
+}
@@ -0,0 +1,205 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import edu.wpi.first.wpilibj.Threads;
+
+/**
+ * Class to set and report the priorities of the robot's threads.
+ * The control thread raises itself to a real-time priority, which is what keeps the loop
+ * on time: a real-time thread preempts every normal thread. Background threads (network
+ * receivers, the color sensor timer, the writers) lower themselves among the normal threads
+ * by raising their nice value, so they get less of the CPU than the JVM's and WPILib's own
+ * threads when it is busy. Java thread priorities do nothing on Linux, so they are not used.
+ * Every thread that changes its priority through this class is remembered, so the report
+ * can show its real-time priority and its nice value, which Java itself does not know about.
+ */
+public class ThreadPriorities
+{
+	private static final ArrayList<Entry> entries = new ArrayList<Entry>();
+
+	/**
+	 * Raises the calling thread to a real-time priority.
+	 * @param role What the thread does, for the report.
+	 * @param priority Real-time priority, from 1 (lowest) to 99 (highest).
+	 * @return If the priority was set.
+	 */
+	public static boolean setRealTimePriority(String role, int priority)
+	{
+		Thread thread = Thread.currentThread();
+		boolean isSet = Threads.setCurrentThreadPriority(true, priority);
+		if (!isSet)
+		{
+			Logger.println("[ThreadPriorities] Could not set real-time priority " + priority + " for " + role);
+		}
+		record(thread, role);
+		return isSet;
+	}
+
+	/**
+	 * Lowers the calling thread by setting its nice value to BACKGROUND_NICE.
+	 * Called by background threads when they start. Runs renice, so it takes a few milliseconds.
+	 * Does nothing but remember the thread if LOWER_BACKGROUND_THREADS is false.
+	 * @param role What the thread does, for the report.
+	 */
+	public static void setBackgroundPriority(String role)
+	{
+		Thread thread = Thread.currentThread();
+		if (Constants.LOWER_BACKGROUND_THREADS)
+		{
+			String threadId = getCurrentThreadId();
+			if (threadId == null || !renice(threadId, Constants.BACKGROUND_NICE))
+			{
+				Logger.println("[ThreadPriorities] Could not set nice " + Constants.BACKGROUND_NICE + " for " + role);
+			}
+		}
+		record(thread, role);
+	}
+
+	/**
+	 * Gets the Linux thread id of the calling thread.
+	 * @return The thread id, or null if there is no /proc/thread-self.
+	 */
+	private static String getCurrentThreadId()
+	{
+		try
+		{
+			// a link to <pid>/task/<tid>
+			return Files.readSymbolicLink(Paths.get("/proc/thread-self")).getFileName().toString();
+		}
+		catch (IOException | UnsupportedOperationException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Sets the nice value of a thread. Raising it needs no privileges.
+	 * @return If the nice value was set.
+	 */
+	private static boolean renice(String threadId, int nice)
+	{
+		try
+		{
+			Process renice = new ProcessBuilder("renice", "-n", Integer.toString(nice), "-p", threadId)
+					.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+			return renice.waitFor(Constants.RENICE_TIMEOUT, TimeUnit.SECONDS) && renice.exitValue() == 0;
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the nice value of a thread of this process.
+	 * @return The nice value, or null if it cannot be read.
+	 */
+	private static String readNice(String threadId)
+	{
+		if (threadId == null)
+		{
+			return null;
+		}
+		try
+		{
+			Path stat = Paths.get("/proc/self/task", threadId, "stat");
+			String line = new String(Files.readAllBytes(stat), StandardCharsets.US_ASCII);
+			// the name in parentheses can contain spaces; nice is the 17th field after it
+			String[] fields = line.substring(line.lastIndexOf(')') + 2).split(" ");
+			return fields[16];
+		}
+		catch (IOException | RuntimeException e)
+		{
+			return null;
+		}
+	}
+
+	private static void record(Thread thread, String role)
+	{
+		Entry entry = new Entry(thread, role, getCurrentThreadId(), Threads.getCurrentThreadPriority(), Threads.getCurrentThreadIsRealTime());
+		synchronized (entries)
+		{
+			entries.add(entry);
+		}
+	}
+
+	/**
+	 * Prints every live thread, and the real-time priority or nice value it runs with
+	 * if the thread reported it through this class.
+	 */
+	public static void printReport()
+	{
+		StringBuilder report = new StringBuilder("[ThreadPriorities] Robot threads:");
+		for (Map.Entry<Thread, StackTraceElement[]> liveThread : Thread.getAllStackTraces().entrySet())
+		{
+			Thread thread = liveThread.getKey();
+			Entry entry = null;
+			synchronized (entries)
+			{
+				for (Entry e : entries)
+				{
+					if (e.thread == thread)
+					{
+						entry = e;
+					}
+				}
+			}
+
+			String scheduling;
+			if (entry == null)
+			{
+				scheduling = "not set";
+			}
+			else
+			{
+				String nice = readNice(entry.threadId);
+				scheduling = (entry.isRealTime ? "real-time " + entry.priority : "normal, nice " + ((nice == null) ? "unknown" : nice))
+						+ " (" + entry.role + ")";
+			}
+			report.append(String.format("\n\t%-32s %-7s %-14s scheduling: %s",
+					thread.getName(), thread.isDaemon() ? "daemon" : "", thread.getState(), scheduling));
+		}
+		Logger.println(report.toString());
+	}
+
+	private static class Entry
+	{
+		private final Thread thread;
+		private final String role;
+		private final String threadId;
+		private final int priority;
+		private final boolean isRealTime;
+
+		private Entry(Thread thread, String role, String threadId, int priority, boolean isRealTime)
+		{
+			this.thread = thread;
+			this.role = role;
+			this.threadId = threadId;
+			this.priority = priority;
+			this.isRealTime = isRealTime;
+		}
+	}
+
+	/**
+	 * Class for constant variables related to ThreadPriorities.
+	 */
+	public static class Constants
+	{
+		public static final boolean LOWER_BACKGROUND_THREADS = true;
+		public static final int BACKGROUND_NICE = 10;		// 0 is normal, 19 the lowest
+		public static final long RENICE_TIMEOUT = 2;		// seconds
+	}
+}
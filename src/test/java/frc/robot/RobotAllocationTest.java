@@ -0,0 +1,248 @@
+package frc.robot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BooleanSupplier;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import frc.robot.components.Drivetrain;
+import frc.robot.control.DriverXbox;
+import frc.robot.control.OperatorXbox;
+import frc.robot.control.Xbox;
+import frc.robot.hal.Devices;
+import frc.robot.hal.SimulatedMotorController;
+import frc.robot.network.AutoSelect4237;
+import frc.robot.sensors.AMSColorSensor;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.hal.MatchInfoData;
+import edu.wpi.first.hal.sim.DriverStationSim;
+import edu.wpi.first.hal.sim.mockdata.DriverStationDataJNI;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Tests that the robot's loop does not allocate once it has warmed up.
+ * Runs the whole robot on the simulated devices and the simulated driver station: robotInit(), the
+ * warm-up while disabled, then ticks of teleop and autonomous one loop period apart, enabled, with the
+ * driver's stick pushed forward, the field colors set and an autonomous selected on the dashboard.
+ * The bytes the test thread (which is the loop thread) allocated in every tick are read from the ThreadMXBean.
+ * ./gradlew test runs it with -Drobot.simulated=true and the JVM's normal tiered compilers, see build.gradle.
+ *
+ * <p>When C2 compiles or recompiles a method late, the JVM can allocate a few bytes of its own on the
+ * thread, which cannot be told from the loop's. That only happens once, while an allocation in the loop
+ * happens again every time the code runs. So each mode is run in rounds, each one starting the mode
+ * over with its init method, until a whole round allocates nothing, at most MAX_ROUNDS times.
+ */
+public class RobotAllocationTest
+{
+	private static Robot robot;
+	private static DriverStationSim driverStation;
+	private static com.sun.management.ThreadMXBean threadBean;
+	private static long overheadBytes;
+	private static SimulatedMotorController encoderMotor;
+	private static double maxDriveOutput;
+
+	/**
+	 * Starts the robot and warms it up, like the robot is started and left disabled before a match.
+	 * Then sets up the driver station and the dashboard the way they are during a match.
+	 */
+	@BeforeClass
+	public static void startRobot() throws IOException, InterruptedException
+	{
+		assertTrue("run with -Drobot.simulated=true", Devices.getInstance().isSimulated());
+		assertTrue("the simulated HAL did not start", HAL.initialize(500, 0));
+
+		threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+		// two readings in a row only differ by what the reading itself allocates
+		long threadId = Thread.currentThread().getId();
+		overheadBytes = Long.MAX_VALUE;
+		for (int i = 0; i < Constants.OVERHEAD_SAMPLES; i++)
+		{
+			long first = threadBean.getThreadAllocatedBytes(threadId);
+			overheadBytes = Math.min(overheadBytes, threadBean.getThreadAllocatedBytes(threadId) - first);
+		}
+
+		robot = new Robot();
+		robot.robotInit();
+		encoderMotor = Devices.getInstance().getSimulatedMotor(Drivetrain.Constants.FRONT_RIGHT_MASTER_MOTOR_PORT);
+		Devices.getInstance().getSimulatedColorSensor(AMSColorSensor.Constants.ADDRESS.value)
+				.setColor(Constants.CARPET_C, Constants.CARPET_R, Constants.CARPET_G, Constants.CARPET_B);
+
+		robot.disabledInit();
+		while (!robot.isWarmedUp())
+		{
+			robot.disabledPeriodic();
+		}
+
+		// every axis and button the controllers have, so no read reports an unplugged controller
+		float[] driverAxes = new float[Constants.XBOX_AXES];
+		driverAxes[Xbox.Constants.LEFT_STICK_Y_AXIS] = Constants.DRIVER_LEFT_STICK_Y;
+		DriverStationDataJNI.setJoystickAxes((byte) DriverXbox.Constants.PORT, driverAxes);
+		DriverStationDataJNI.setJoystickButtons((byte) DriverXbox.Constants.PORT, 0, Constants.XBOX_BUTTONS);
+		DriverStationDataJNI.setJoystickAxes((byte) OperatorXbox.Constants.PORT, new float[Constants.XBOX_AXES]);
+		DriverStationDataJNI.setJoystickButtons((byte) OperatorXbox.Constants.PORT, 0, Constants.XBOX_BUTTONS);
+
+		MatchInfoData matchInfo = new MatchInfoData();
+		matchInfo.setData("", Constants.FIELD_COLORS, 0, 0, 0);
+		DriverStationDataJNI.setMatchInfo(matchInfo);
+
+		driverStation = new DriverStationSim();
+		driverStation.setDsAttached(true);
+		driverStation.notifyNewData();
+		waitFor("the field colors", () -> Constants.FIELD_COLORS.equals(DriverStation.getInstance().getGameSpecificMessage()));
+
+		byte[] selections = Constants.AUTO_SELECTIONS.getBytes(StandardCharsets.UTF_8);
+		try (DatagramSocket socket = new DatagramSocket())
+		{
+			socket.send(new DatagramPacket(selections, selections.length, InetAddress.getLoopbackAddress(), Constants.AUTO_SELECT_PORT));
+		}
+		waitFor("the autonomous selections", () -> Constants.AUTO_POSITION.equals(AutoSelect4237.getInstance().getData().getSelectedPosition()));
+	}
+
+	@Test
+	public void teleopDoesNotAllocate() throws InterruptedException
+	{
+		setMode(false);
+		long bytes = runRounds(robot::teleopInit, robot::teleopPeriodic);
+
+		assertTrue("teleop did not drive", maxDriveOutput > 0.0);
+		assertEquals("bytes allocated by the worst teleop tick", 0, bytes);
+	}
+
+	@Test
+	public void autonomousDoesNotAllocate() throws InterruptedException
+	{
+		setMode(true);
+		long bytes = runRounds(robot::autonomousInit, () ->
+		{
+			driveEncoder();
+			robot.autonomousPeriodic();
+		});
+
+		assertTrue("autonomous did not drive", maxDriveOutput > 0.0);
+		assertNotEquals("autonomous did not get past its first stage", Autonomous.Constants.AutoStage.kDrive1,
+				Autonomous.getInstance().getAutoStage());
+		assertEquals("bytes allocated by the worst autonomous tick", 0, bytes);
+	}
+
+	/**
+	 * Enables the simulated driver station in teleop or autonomous, and waits until the robot sees it.
+	 * @param isAutonomous True for autonomous, false for teleop.
+	 */
+	private static void setMode(boolean isAutonomous) throws InterruptedException
+	{
+		driverStation.setAutonomous(isAutonomous);
+		driverStation.setEnabled(true);
+		driverStation.notifyNewData();
+		DriverStation ds = DriverStation.getInstance();
+		waitFor(isAutonomous ? "autonomous" : "teleop", () -> ds.isEnabled() && ds.isAutonomous() == isAutonomous && ds.isOperatorControl() != isAutonomous);
+	}
+
+	/**
+	 * Waits for the driver station or dashboard data to arrive.
+	 * @param what What is waited for, for the failure message.
+	 * @param isDone Checks if it has arrived.
+	 */
+	private static void waitFor(String what, BooleanSupplier isDone) throws InterruptedException
+	{
+		long deadline = System.nanoTime() + Constants.WAIT_MILLIS * 1000000L;
+		while (!isDone.getAsBoolean())
+		{
+			assertTrue("timed out waiting for " + what, System.nanoTime() < deadline);
+			Thread.sleep(1);
+		}
+	}
+
+	/**
+	 * Runs a mode in rounds until a round allocates nothing, see the class comment.
+	 * @param init The init method of the mode, run before every round.
+	 * @param tick The periodic method of the mode.
+	 * @return The most bytes any tick of the last round allocated.
+	 */
+	private static long runRounds(Runnable init, Runnable tick) throws InterruptedException
+	{
+		long maxBytes = 0;
+		for (int round = 0; round < Constants.MAX_ROUNDS; round++)
+		{
+			init.run();
+			maxDriveOutput = 0.0;
+			maxBytes = runTicks(tick);
+			if (maxBytes == 0)
+			{
+				break;
+			}
+		}
+		return maxBytes;
+	}
+
+	/**
+	 * Runs TICKS measured ticks, and keeps the largest output of the drive motor.
+	 * @param tick The periodic method of the mode.
+	 * @return The most bytes any tick allocated.
+	 */
+	private static long runTicks(Runnable tick) throws InterruptedException
+	{
+		long threadId = Thread.currentThread().getId();
+		long maxBytes = 0;
+		for (int i = 0; i < Constants.TICKS; i++)
+		{
+			long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+			tick.run();
+			long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes - overheadBytes;
+			if (bytes > maxBytes)
+			{
+				maxBytes = bytes;
+			}
+			maxDriveOutput = Math.max(maxDriveOutput, Math.abs(encoderMotor.get()));
+			// one loop period apart, so the scheduler runs its slower tasks too
+			Thread.sleep(Constants.TICK_MILLIS);
+		}
+		return maxBytes;
+	}
+
+	/**
+	 * Moves the drivetrain's encoder as far as the motor it is on drove in one tick,
+	 * so autonomous goes on through its stages.
+	 */
+	private static void driveEncoder()
+	{
+		int counts = (int) (Math.abs(encoderMotor.get()) * Constants.ENCODER_COUNTS_PER_TICK);
+		encoderMotor.setSensorPosition(encoderMotor.getSelectedSensorPosition(0) + counts);
+	}
+
+	/**
+	 * Class for constant variables related to RobotAllocationTest.
+	 */
+	public static class Constants
+	{
+		public static final int MAX_ROUNDS = 10;				// the JVM's own allocations on a desktop have taken up to 5
+		public static final int TICKS = 250;					// 5 s at the loop period, longer than autonomous drives
+		public static final long TICK_MILLIS = (long) (Robot.Constants.ITERATIVE_LOOP_PERIOD * 1000.0);
+		public static final int OVERHEAD_SAMPLES = 8;
+		public static final long WAIT_MILLIS = 2000;			// for the driver station and dashboard data to arrive
+		public static final int ENCODER_COUNTS_PER_TICK = 400;	// 135 counts per inch, about 150 inches/s at full output
+		public static final int CARPET_C = 2000;
+		public static final int CARPET_R = 700;
+		public static final int CARPET_G = 800;
+		public static final int CARPET_B = 500;
+		public static final int XBOX_AXES = 6;
+		public static final int XBOX_BUTTONS = 10;
+		public static final float DRIVER_LEFT_STICK_Y = -0.6f;	// pushed forward, past the deadband
+		public static final String FIELD_COLORS = "LRL";
+		public static final int AUTO_SELECT_PORT = 5804;		// AutoSelect4237.Constants.PORT
+		public static final String AUTO_POSITION = "Left";
+		public static final String AUTO_SELECTIONS = "{\"selectedPosition\":\"" + AUTO_POSITION
+				+ "\",\"planA\":\"Auto Line\",\"planB\":\"Auto Line\",\"planC\":\"Auto Line\"}";	// crosses the auto line
+	}
+}